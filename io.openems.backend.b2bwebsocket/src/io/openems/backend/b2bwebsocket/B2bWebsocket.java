@@ -1,5 +1,6 @@
 package io.openems.backend.b2bwebsocket;
 
+import org.java_websocket.drafts.Draft;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.ConfigurationPolicy;
@@ -14,6 +15,7 @@ import io.openems.backend.common.component.AbstractOpenemsBackendComponent;
 import io.openems.backend.edgewebsocket.api.EdgeWebsocket;
 import io.openems.backend.metadata.api.Metadata;
 import io.openems.backend.timedata.api.Timedata;
+import io.openems.common.websocket.PerMessageDeflateExtension;
 
 @Designate(ocd = Config.class, factory = true)
 @Component(//
@@ -42,7 +44,8 @@ public class B2bWebsocket extends AbstractOpenemsBackendComponent {
 
 	@Activate
 	void activate(Config config) {
-		this.startServer(config.port());
+		this.startServer(config.port(), PerMessageDeflateExtension.createDraft(config.compressionLevel(),
+				config.compressionNoContextTakeover(), PerMessageDeflateExtension.DEFAULT_THRESHOLD));
 	}
 
 	@Deactivate
@@ -53,10 +56,11 @@ public class B2bWebsocket extends AbstractOpenemsBackendComponent {
 	/**
 	 * Create and start new server.
 	 * 
-	 * @param port the port
+	 * @param port  the port
+	 * @param draft the websocket Draft
 	 */
-	private synchronized void startServer(int port) {
-		this.server = new WebsocketServer(this, this.getName(), port);
+	private synchronized void startServer(int port, Draft draft) {
+		this.server = new WebsocketServer(this, this.getName(), port, draft);
 		this.server.start();
 	}
 
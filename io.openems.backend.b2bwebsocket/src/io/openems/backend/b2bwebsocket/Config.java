@@ -11,6 +11,12 @@ import org.osgi.service.metatype.annotations.ObjectClassDefinition;
 	@AttributeDefinition(name = "Port", description = "The port of the websocket server.")
 	int port() default B2bWebsocket.DEFAULT_PORT;
 
+	@AttributeDefinition(name = "Compression Level", description = "Level of 'permessage-deflate' compression (0-9). -1 disables compression.")
+	int compressionLevel() default -1;
+
+	@AttributeDefinition(name = "Compression without Context Takeover", description = "Reset the compression context after every message. Saves memory per connection at the cost of compression ratio.")
+	boolean compressionNoContextTakeover() default false;
+
 	String webconsole_configurationFactory_nameHint() default "Backend2Backend Websocket";
 
 }
\ No newline at end of file
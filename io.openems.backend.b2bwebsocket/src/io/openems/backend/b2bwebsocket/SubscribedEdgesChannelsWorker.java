@@ -1,12 +1,11 @@
 package io.openems.backend.b2bwebsocket;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Optional;
 import java.util.Set;
+import java.util.SortedSet;
 import java.util.TreeSet;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 
 import org.java_websocket.WebSocket;
 import org.slf4j.Logger;
@@ -18,35 +17,32 @@ import com.google.gson.JsonNull;
 import io.openems.backend.b2bwebsocket.jsonrpc.notification.EdgesCurrentDataNotification;
 import io.openems.backend.b2bwebsocket.jsonrpc.request.SubscribeEdgesChannelsRequest;
 import io.openems.backend.metadata.api.BackendUser;
+import io.openems.common.exceptions.OpenemsError;
 import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
 import io.openems.common.session.Role;
 import io.openems.common.types.ChannelAddress;
+import io.openems.common.websocket.SubscriptionScheduler;
+import io.openems.common.websocket.SubscriptionScheduler.Subscription;
+import io.openems.common.websocket.SubscriptionScheduler.Tick;
 
-public class SubscribedEdgesChannelsWorker {
-
-	protected static final int UPDATE_INTERVAL_IN_SECONDS = 2;
+public class SubscribedEdgesChannelsWorker implements Subscription {
 
 	private final Logger log = LoggerFactory.getLogger(SubscribedEdgesChannelsWorker.class);
 
 	/**
-	 * Executor for subscriptions task.
-	 */
-	private final ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
-
-	/**
-	 * Holds subscribed edges.
+	 * Shared scheduler of the websocket server.
 	 */
-	private final TreeSet<String> edgeIds = new TreeSet<>();
+	private final SubscriptionScheduler scheduler;
 
 	/**
-	 * Holds subscribed channels.
+	 * Holds subscribed edges. The Set is replaced, never modified.
 	 */
-	private final TreeSet<ChannelAddress> channels = new TreeSet<>();
+	private SortedSet<String> edgeIds = Collections.emptySortedSet();
 
 	/**
-	 * Holds the scheduled task for currentData.
+	 * Holds subscribed channels. The Set is replaced, never modified.
 	 */
-	private Optional<ScheduledFuture<?>> futureOpt = Optional.empty();
+	private SortedSet<ChannelAddress> channels = Collections.emptySortedSet();
 
 	protected final WsData wsData;
 
@@ -54,14 +50,15 @@ public class SubscribedEdgesChannelsWorker {
 
 	private final B2bWebsocket parent;
 
-	public SubscribedEdgesChannelsWorker(B2bWebsocket parent, WsData wsData) {
+	public SubscribedEdgesChannelsWorker(B2bWebsocket parent, SubscriptionScheduler scheduler, WsData wsData) {
 		this.parent = parent;
+		this.scheduler = scheduler;
 		this.wsData = wsData;
 	}
 
 	/**
 	 * Applies a SubscribeChannelsRequest.
-	 * 
+	 *
 	 * @param request the SubscribeEdgesChannelsRequest
 	 */
 	public synchronized void handleSubscribeEdgesChannelsRequest(SubscribeEdgesChannelsRequest request) {
@@ -73,70 +70,76 @@ public class SubscribedEdgesChannelsWorker {
 
 	/**
 	 * Updates the Subscription data.
-	 * 
+	 *
 	 * @param edgeIds  Set of Edge-IDs
 	 * @param channels Set of ChannelAddresses
 	 */
 	private synchronized void updateSubscription(Set<String> edgeIds, Set<ChannelAddress> channels) {
-		// stop current thread
-		if (this.futureOpt.isPresent()) {
-			this.futureOpt.get().cancel(true);
-			this.futureOpt = Optional.empty();
+		this.edgeIds = Collections.unmodifiableSortedSet(new TreeSet<>(edgeIds));
+		this.channels = Collections.unmodifiableSortedSet(new TreeSet<>(channels));
+
+		if (channels.isEmpty() || edgeIds.isEmpty()) {
+			this.scheduler.remove(this);
+		} else {
+			// (re)adding triggers an immediate update
+			this.scheduler.add(this);
+		}
+	}
+
+	@Override
+	public void onTick(Tick tick) {
+		/*
+		 * This task is executed regularly. Sends data to Websocket.
+		 */
+		WebSocket ws = this.wsData.getWebsocket();
+		if (ws == null || !ws.isOpen()) {
+			// disconnected; stop worker
+			this.dispose();
+			return;
+		}
+
+		final SortedSet<String> edgeIds;
+		final SortedSet<ChannelAddress> channels;
+		synchronized (this) {
+			edgeIds = this.edgeIds;
+			channels = this.channels;
 		}
+		try {
+			// assure read permissions of this User for each Edge before sharing payloads
+			Optional<BackendUser> userOpt = this.wsData.getUserOpt();
+			if (!userOpt.isPresent()) {
+				throw OpenemsError.COMMON_USER_NOT_AUTHENTICATED.exception("UNKNOWN");
+			}
+			BackendUser user = userOpt.get();
+			for (String edgeId : edgeIds) {
+				user.assertEdgeRoleIsAtLeast("EdgesCurrentDataNotification", edgeId, Role.GUEST);
+			}
 
-		// clear existing data
-		this.edgeIds.clear();
-		this.channels.clear();
-
-		// set new channels
-		this.edgeIds.addAll(edgeIds);
-		this.channels.addAll(channels);
-
-		if (!channels.isEmpty() && !edgeIds.isEmpty()) {
-			// registered channels -> create new thread
-			this.futureOpt = Optional.of(this.executor.scheduleWithFixedDelay(() -> {
-				/*
-				 * This task is executed regularly. Sends data to Websocket.
-				 */
-				WebSocket ws = this.wsData.getWebsocket();
-				if (ws == null || !ws.isOpen()) {
-					// disconnected; stop worker
-					this.dispose();
-					return;
-				}
-
-				try {
-					this.wsData.send(this.getCurrentDataNotification());
-				} catch (OpenemsNamedException e) {
-					this.log.warn("Unable to send SubscribedChannels: " + e.getMessage());
-				}
-
-			}, 0, UPDATE_INTERVAL_IN_SECONDS, TimeUnit.SECONDS));
+			String payload = tick.getPayload(Arrays.asList(edgeIds, channels),
+					() -> this.getCurrentDataNotification(edgeIds, channels).toString());
+			this.wsData.send(payload);
+		} catch (OpenemsNamedException e) {
+			this.log.warn("Unable to send SubscribedChannels: " + e.getMessage());
 		}
 	}
 
 	public void dispose() {
 		// unsubscribe regular task
-		if (this.futureOpt.isPresent()) {
-			futureOpt.get().cancel(true);
-		}
+		this.scheduler.remove(this);
 	}
 
 	/**
 	 * Gets a JSON-RPC Notification with all subscribed channels data.
 	 *
+	 * @param edgeIds  the subscribed Edge-IDs
+	 * @param channels the subscribed Channels
 	 * @return the EdgesCurrentDataNotification
-	 * @throws OpenemsNamedException on error
 	 */
-	private EdgesCurrentDataNotification getCurrentDataNotification() throws OpenemsNamedException {
+	private EdgesCurrentDataNotification getCurrentDataNotification(Set<String> edgeIds,
+			Set<ChannelAddress> channels) {
 		EdgesCurrentDataNotification result = new EdgesCurrentDataNotification();
-		BackendUser user = this.wsData.getUserWithTimeout(5, TimeUnit.SECONDS);
-
-		for (String edgeId : this.edgeIds) {
-			// assure read permissions of this User for this Edge.
-			user.assertEdgeRoleIsAtLeast("EdgesCurrentDataNotification", edgeId, Role.GUEST);
-
-			for (ChannelAddress channel : this.channels) {
+		for (String edgeId : edgeIds) {
+			for (ChannelAddress channel : channels) {
 				Optional<JsonElement> value = this.parent.timeData.getChannelValue(edgeId, channel);
 				result.addValue(edgeId, channel, value.orElse(JsonNull.INSTANCE));
 			}
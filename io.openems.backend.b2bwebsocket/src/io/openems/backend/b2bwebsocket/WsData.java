@@ -9,14 +9,15 @@ import java.util.concurrent.TimeoutException;
 import io.openems.backend.metadata.api.BackendUser;
 import io.openems.common.exceptions.OpenemsError;
 import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
+import io.openems.common.websocket.SubscriptionScheduler;
 
 public class WsData extends io.openems.common.websocket.WsData {
 
 	private final SubscribedEdgesChannelsWorker worker;
 	private CompletableFuture<BackendUser> user = new CompletableFuture<BackendUser>();
 
-	public WsData(B2bWebsocket parent) {
-		this.worker = new SubscribedEdgesChannelsWorker(parent, this);
+	public WsData(B2bWebsocket parent, SubscriptionScheduler scheduler) {
+		this.worker = new SubscribedEdgesChannelsWorker(parent, scheduler, this);
 	}
 
 	@Override
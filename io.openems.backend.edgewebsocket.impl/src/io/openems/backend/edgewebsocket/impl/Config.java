@@ -3,6 +3,9 @@ package io.openems.backend.edgewebsocket.impl;
 import org.osgi.service.metatype.annotations.AttributeDefinition;
 import org.osgi.service.metatype.annotations.ObjectClassDefinition;
 
+import io.openems.common.websocket.OrderedExecutor;
+import io.openems.common.websocket.OrderedExecutor.OverflowPolicy;
+
 @ObjectClassDefinition(//
 		name = "Edge.Websocket", //
 		description = "Configures the websocket server for OpenEMS Edge")
@@ -11,6 +14,21 @@ import org.osgi.service.metatype.annotations.ObjectClassDefinition;
 	@AttributeDefinition(name = "Port", description = "The port of the websocket server.")
 	int port() default 8081;
 
+	@AttributeDefinition(name = "Compression Level", description = "Level of 'permessage-deflate' compression (0-9). -1 disables compression.")
+	int compressionLevel() default -1;
+
+	@AttributeDefinition(name = "Compression without Context Takeover", description = "Reset the compression context after every message. Saves memory per connection at the cost of compression ratio.")
+	boolean compressionNoContextTakeover() default false;
+
+	@AttributeDefinition(name = "Handler Threads", description = "Number of threads for handling messages. Messages of one connection are handled in order. 0: two per CPU core.")
+	int handlerThreads() default 0;
+
+	@AttributeDefinition(name = "Handler Queue Size", description = "Maximum number of messages waiting to be handled.")
+	int handlerQueueSize() default OrderedExecutor.DEFAULT_CAPACITY;
+
+	@AttributeDefinition(name = "Handler Overflow Policy", description = "What to do with new messages if the queue is full: REJECT the new message or DROP_OLDEST message of the connection. Dropped or rejected requests are answered with an error. BLOCK is not supported, as it would stall other connections.")
+	OverflowPolicy handlerOverflowPolicy() default OverflowPolicy.REJECT;
+
 	String webconsole_configurationFactory_nameHint() default "Edge Websocket";
 
 }
@@ -1,10 +1,16 @@
 package io.openems.backend.edgewebsocket.impl;
 
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.java_websocket.WebSocket;
+import org.java_websocket.drafts.Draft;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.ConfigurationPolicy;
@@ -31,12 +37,17 @@ import io.openems.common.jsonrpc.request.AuthenticatedRpcRequest;
 import io.openems.common.jsonrpc.request.SubscribeSystemLogRequest;
 import io.openems.common.jsonrpc.response.AuthenticatedRpcResponse;
 import io.openems.common.session.User;
+import io.openems.common.websocket.OrderedExecutor;
+import io.openems.common.websocket.PerMessageDeflateExtension;
 
 @Designate(ocd = Config.class, factory = false)
 @Component(name = "Edge.Websocket", configurationPolicy = ConfigurationPolicy.REQUIRE, immediate = true)
 public class EdgeWebsocketImpl extends AbstractOpenemsBackendComponent implements EdgeWebsocket {
 
+	private static final int DEBUG_LOG_INTERVAL_MINUTES = 1;
+
 	private final Logger log = LoggerFactory.getLogger(EdgeWebsocketImpl.class);
+	private final ScheduledExecutorService debugLogExecutor = Executors.newSingleThreadScheduledExecutor();
 
 	private WebsocketServer server = null;
 
@@ -51,6 +62,11 @@ public class EdgeWebsocketImpl extends AbstractOpenemsBackendComponent implement
 	@Reference(cardinality = ReferenceCardinality.OPTIONAL)
 	protected volatile UiWebsocket uiWebsocket;
 
+	/**
+	 * Active State-Channels per Edge-ID of connected Edges.
+	 */
+	protected final Map<String, SumStateIndex> sumStateIndexes = new ConcurrentHashMap<>();
+
 	public EdgeWebsocketImpl() {
 		super("Edge.Websocket");
 		this.systemLogHandler = new SystemLogHandler(this);
@@ -58,21 +74,34 @@ public class EdgeWebsocketImpl extends AbstractOpenemsBackendComponent implement
 
 	@Activate
 	void activate(Config config) {
-		this.startServer(config.port());
+		this.startServer(config.port(),
+				PerMessageDeflateExtension.createDraft(config.compressionLevel(),
+						config.compressionNoContextTakeover(), PerMessageDeflateExtension.DEFAULT_THRESHOLD),
+				new OrderedExecutor(this.getName(), config.handlerThreads(), config.handlerQueueSize(),
+						config.handlerOverflowPolicy()));
+		this.debugLogExecutor.scheduleWithFixedDelay(() -> {
+			WebsocketServer server = this.server;
+			if (server != null) {
+				this.logInfo(this.log, "Handler " + server.getExecutor().getStatistics());
+			}
+		}, DEBUG_LOG_INTERVAL_MINUTES, DEBUG_LOG_INTERVAL_MINUTES, TimeUnit.MINUTES);
 	}
 
 	@Deactivate
 	void deactivate() {
+		this.debugLogExecutor.shutdownNow();
 		this.stopServer();
 	}
 
 	/**
 	 * Create and start new server.
 	 * 
-	 * @param port the port
+	 * @param port     the port
+	 * @param draft    the websocket Draft
+	 * @param executor the executor for handling messages
 	 */
-	private synchronized void startServer(int port) {
-		this.server = new WebsocketServer(this, this.getName(), port);
+	private synchronized void startServer(int port, Draft draft, OrderedExecutor executor) {
+		this.server = new WebsocketServer(this, this.getName(), port, draft, executor);
 		this.server.start();
 	}
 
@@ -8,6 +8,7 @@ import org.slf4j.LoggerFactory;
 
 import io.openems.backend.metadata.api.Edge;
 import io.openems.common.exceptions.OpenemsException;
+import io.openems.common.websocket.WebsocketUtils;
 
 public class OnClose implements io.openems.common.websocket.OnClose {
 
@@ -32,6 +33,10 @@ public class OnClose implements io.openems.common.websocket.OnClose {
 			if (edgeOpt.isPresent()) {
 				boolean isOnline = this.parent.isOnline(edgeId);
 				edgeOpt.get().setOnline(isOnline);
+				if (!isOnline) {
+					this.parent.sumStateIndexes.remove(edgeId);
+					this.parent.timedata.edgeDisconnected(edgeId);
+				}
 			}
 
 		} else {
@@ -42,7 +47,8 @@ public class OnClose implements io.openems.common.websocket.OnClose {
 
 		// log
 		this.parent.logInfo(this.log,
-				"Edge [" + edgeId + "] disconnected. Code [" + code + "] Reason [" + reason + "]");
+				"Edge [" + edgeId + "] disconnected. Code [" + code + "] Reason [" + reason + "]" //
+						+ WebsocketUtils.getCompressionStatistics(ws).map(s -> " Compression [" + s + "]").orElse(""));
 	}
 
 }
@@ -4,6 +4,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 import org.java_websocket.WebSocket;
@@ -11,9 +12,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
 
 import io.openems.backend.metadata.api.Edge;
+import io.openems.backend.uiwebsocket.api.UiWebsocket;
 import io.openems.common.channel.Level;
 import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
 import io.openems.common.jsonrpc.base.JsonrpcNotification;
@@ -23,10 +24,7 @@ import io.openems.common.jsonrpc.notification.SystemLogNotification;
 import io.openems.common.jsonrpc.notification.TimestampedDataNotification;
 import io.openems.common.types.ChannelAddress;
 import io.openems.common.types.EdgeConfig;
-import io.openems.common.types.EdgeConfig.Component;
-import io.openems.common.types.EdgeConfig.Component.Channel;
 import io.openems.common.types.SemanticVersion;
-import io.openems.common.utils.JsonUtils;
 
 public class OnNotification implements io.openems.common.websocket.OnNotification {
 
@@ -108,73 +106,142 @@ public class OnNotification implements io.openems.common.websocket.OnNotificatio
 			e.printStackTrace();
 		}
 
+		// push the latest values to subscribed UI sessions
+		UiWebsocket uiWebsocket = this.parent.uiWebsocket;
+		if (uiWebsocket != null && uiWebsocket.hasCurrentDataSubscribers(edgeId)) {
+			Map<ChannelAddress, JsonElement> latestValues = new HashMap<>();
+			for (Map<ChannelAddress, JsonElement> row : message.getData().rowMap().values()) {
+				// rows are sorted by timestamp
+				latestValues.putAll(row);
+			}
+			uiWebsocket.publishCurrentData(edgeId, latestValues);
+		}
+
 		// Read some specific channels
 		Edge edge = this.parent.metadata.getEdgeOrError(edgeId);
-		for (Entry<String, JsonElement> entry : message.getParams().entrySet()) {
-			JsonObject data = JsonUtils.getAsJsonObject(entry.getValue());
-			// set Edge last update timestamp only for those channels
-			for (String channel : data.keySet()) {
-				if (channel.endsWith("ActivePower")
-						|| channel.endsWith("ActivePowerL1") | channel.endsWith("ActivePowerL2")
-								| channel.endsWith("ActivePowerL3") | channel.endsWith("Soc")) {
-					edge.setLastUpdateTimestamp();
+		SumStateIndex sumStateIndex = this.getSumStateIndex(edgeId, edge);
+		for (Map<ChannelAddress, JsonElement> data : message.getData().rowMap().values()) {
+			// apply State-Channel changes first; '_sum/State' is evaluated against them
+			for (Entry<ChannelAddress, JsonElement> entry : data.entrySet()) {
+				sumStateIndex.update(entry.getKey(), entry.getValue());
+			}
+			boolean isLastUpdate = false;
+			for (Entry<ChannelAddress, JsonElement> entry : data.entrySet()) {
+				ChannelAddress channel = entry.getKey();
+				isLastUpdate |= OnNotification.isLastUpdateChannel(channel);
+				SpecialChannel specialChannel = SPECIAL_CHANNELS.get(channel);
+				if (specialChannel != null) {
+					this.handleSpecialChannel(edge, sumStateIndex, specialChannel, entry.getValue());
 				}
 			}
+			// set Edge last update timestamp only for those channels
+			if (isLastUpdate) {
+				edge.setLastUpdateTimestamp();
+			}
+		}
+	}
+
+	/**
+	 * Channels with specific handling in
+	 * {@link OnNotification#handleTimestampedDataNotification(TimestampedDataNotification, WsData)}.
+	 */
+	private static enum SpecialChannel {
+		SOC("ess0", "Soc"), //
+		PRIMARY_IP_ADDRESS("system0", "PrimaryIpAddress"), //
+		VERSION("_meta", "Version"), //
+		SUM_STATE("_sum", "State");
+
+		private final ChannelAddress channelAddress;
+
+		private SpecialChannel(String componentId, String channelId) {
+			this.channelAddress = new ChannelAddress(componentId, channelId);
+		}
+	}
+
+	private static final Map<ChannelAddress, SpecialChannel> SPECIAL_CHANNELS = new HashMap<>();
+
+	static {
+		for (SpecialChannel specialChannel : SpecialChannel.values()) {
+			SPECIAL_CHANNELS.put(specialChannel.channelAddress, specialChannel);
+		}
+	}
 
-			// set specific Edge values
-			if (data.has("ess0/Soc") && data.get("ess0/Soc").isJsonPrimitive()) {
-				int soc = JsonUtils.getAsPrimitive(data, "ess0/Soc").getAsInt();
-				edge.setSoc(soc);
+	/**
+	 * Channel-IDs that update the 'last update' timestamp of an Edge. Filled on
+	 * first occurrence of a Channel-ID.
+	 */
+	private static final Map<String, Boolean> LAST_UPDATE_CHANNEL_IDS = new ConcurrentHashMap<>();
+
+	private static boolean isLastUpdateChannel(ChannelAddress channel) {
+		return LAST_UPDATE_CHANNEL_IDS.computeIfAbsent(channel.getChannelId(), channelId -> //
+		channelId.endsWith("ActivePower") //
+				|| channelId.endsWith("ActivePowerL1") //
+				|| channelId.endsWith("ActivePowerL2") //
+				|| channelId.endsWith("ActivePowerL3") //
+				|| channelId.endsWith("Soc"));
+	}
+
+	/**
+	 * Gets the SumStateIndex of the Edge. The index is (re)built from Timedata if
+	 * the EdgeConfig changed.
+	 * 
+	 * @param edgeId the Edge-ID
+	 * @param edge   the Edge
+	 * @return the SumStateIndex
+	 */
+	private SumStateIndex getSumStateIndex(String edgeId, Edge edge) {
+		EdgeConfig config = edge.getConfig();
+		SumStateIndex index = this.parent.sumStateIndexes.get(edgeId);
+		if (index == null || index.getConfig() != config) {
+			index = new SumStateIndex(config);
+			index.initialize(edgeId, this.parent.timedata);
+			this.parent.sumStateIndexes.put(edgeId, index);
+		}
+		return index;
+	}
+
+	/**
+	 * Sets specific Edge values.
+	 * 
+	 * @param edge           the Edge
+	 * @param sumStateIndex  the SumStateIndex of the Edge
+	 * @param specialChannel the SpecialChannel
+	 * @param value          the value
+	 * @throws OpenemsNamedException on error
+	 */
+	private void handleSpecialChannel(Edge edge, SumStateIndex sumStateIndex, SpecialChannel specialChannel,
+			JsonElement value) throws OpenemsNamedException {
+		switch (specialChannel) {
+		case SOC:
+			if (value.isJsonPrimitive()) {
+				edge.setSoc(value.getAsInt());
 			}
-			if (data.has("system0/PrimaryIpAddress") && data.get("system0/PrimaryIpAddress").isJsonPrimitive()) {
-				String ipv4 = JsonUtils.getAsPrimitive(data, "system0/PrimaryIpAddress").getAsString();
-				edge.setIpv4(ipv4);
+			break;
+
+		case PRIMARY_IP_ADDRESS:
+			if (value.isJsonPrimitive()) {
+				edge.setIpv4(value.getAsString());
 			}
-			if (data.has("_meta/Version") && data.get("_meta/Version").isJsonPrimitive()) {
-				String version = JsonUtils.getAsPrimitive(data, "_meta/Version").getAsString();
-				edge.setVersion(SemanticVersion.fromString(version));
+			break;
+
+		case VERSION:
+			if (value.isJsonPrimitive()) {
+				edge.setVersion(SemanticVersion.fromString(value.getAsString()));
 			}
-			if (data.has("_sum/State")) {
-				// Read global State
-				Optional<Level> levelOpt = Level.fromJson(data, "_sum/State");
-				Map<ChannelAddress, EdgeConfig.Component.Channel> activeStateChannels = new HashMap<>();
-				if (levelOpt.isPresent() && levelOpt.get() != Level.OK) {
-					// Global State is not "OK" -> Some State-Channel has to be active:
-					for (Entry<String, Component> componentEntry : edge.getConfig().getComponents().entrySet()) {
-						String componentId = componentEntry.getKey();
-						// Get State-Level of this Component
-						Optional<JsonElement> componentStateOpt = this.parent.timedata.getChannelValue(edgeId,
-								new ChannelAddress(componentId, "State"));
-						if (!componentStateOpt.isPresent()) {
-							continue;
-						}
-						Optional<Level> componentLevelOpt = Level.fromJson(componentStateOpt.get());
-						if (!componentLevelOpt.isPresent() || componentLevelOpt.get() == Level.OK) {
-							continue;
-						}
-						// This Components state is not OK -> search for active State-Channels
-						for (Entry<String, Channel> channelEntry : componentEntry.getValue().getStateChannels()
-								.entrySet()) {
-							String channelId = channelEntry.getKey();
-							Optional<JsonElement> valueOptJ = this.parent.timedata.getChannelValue(edgeId,
-									new ChannelAddress(componentId, channelId));
-							if (!valueOptJ.isPresent()) {
-								continue;
-							}
-							Optional<Integer> valueOpt = JsonUtils.getAsOptionalInt(valueOptJ.get());
-							if (!valueOpt.isPresent()) {
-								continue;
-							}
-							if (valueOpt.get() == 1 /* Booleans are transferred as '0' or '1' */) {
-								activeStateChannels.put(//
-										new ChannelAddress(componentId, channelId), //
-										channelEntry.getValue());
-							}
-						}
-					}
-				}
-				edge.setSumState(levelOpt.orElse(null), activeStateChannels);
+			break;
+
+		case SUM_STATE:
+			// Read global State
+			Optional<Level> levelOpt = Level.fromJson(value);
+			Map<ChannelAddress, EdgeConfig.Component.Channel> activeStateChannels;
+			if (levelOpt.isPresent() && levelOpt.get() != Level.OK) {
+				// Global State is not "OK" -> Some State-Channel has to be active
+				activeStateChannels = sumStateIndex.getActiveStateChannels();
+			} else {
+				activeStateChannels = new HashMap<>();
 			}
+			edge.setSumState(levelOpt.orElse(null), activeStateChannels);
+			break;
 		}
 	}
 
@@ -1,16 +1,22 @@
 package io.openems.backend.edgewebsocket.impl;
 
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.java_websocket.WebSocket;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.openems.backend.metadata.api.Edge;
 import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
 import io.openems.common.exceptions.OpenemsError;
 import io.openems.common.exceptions.OpenemsException;
+import io.openems.common.jsonrpc.base.GenericJsonrpcResponseSuccess;
 import io.openems.common.jsonrpc.base.JsonrpcRequest;
 import io.openems.common.jsonrpc.base.JsonrpcResponseSuccess;
+import io.openems.common.jsonrpc.request.ResendDataRequest;
+import io.openems.common.jsonrpc.request.SetChannelDictionaryRequest;
 
 public class OnRequest implements io.openems.common.websocket.OnRequest {
 
@@ -24,8 +30,61 @@ public class OnRequest implements io.openems.common.websocket.OnRequest {
 	@Override
 	public CompletableFuture<? extends JsonrpcResponseSuccess> run(WebSocket ws, JsonrpcRequest request)
 			throws OpenemsException, OpenemsNamedException {
+		// Validate authentication
+		WsData wsData = ws.getAttachment();
+		wsData.assertAuthenticatedWithTimeout(request, 5, TimeUnit.SECONDS);
+
+		// announce incoming message for this Edge
+		Optional<Edge> edge = wsData.getEdge(this.parent.metadata);
+		if (edge.isPresent()) {
+			edge.get().setLastMessageTimestamp();
+		}
+
+		switch (request.getMethod()) {
+		case ResendDataRequest.METHOD:
+			return this.handleResendDataRequest(ResendDataRequest.from(request), wsData);
+
+		case SetChannelDictionaryRequest.METHOD:
+			return this.handleSetChannelDictionaryRequest(SetChannelDictionaryRequest.from(request), wsData);
+		}
+
 		this.parent.logWarn(this.log, "Unhandled Request: " + request);
 		throw OpenemsError.JSONRPC_UNHANDLED_METHOD.exception(request.getMethod());
 	}
 
+	/**
+	 * Handles a ResendDataRequest. The data is only written to timedata; in
+	 * contrast to live data it does not update the Edge state.
+	 * 
+	 * <p>
+	 * The Edge deletes the data from its Outbox on success, so the response is
+	 * sent only after timedata persisted the data.
+	 * 
+	 * @param request the ResendDataRequest
+	 * @param wsData  the WebSocket attachment
+	 * @return the JSON-RPC Success Response Future
+	 * @throws OpenemsNamedException on error
+	 */
+	private CompletableFuture<JsonrpcResponseSuccess> handleResendDataRequest(ResendDataRequest request,
+			WsData wsData) throws OpenemsNamedException {
+		String edgeId = wsData.assertEdgeId(request);
+		return this.parent.timedata.write(edgeId, request.getData()) //
+				.thenApply(ignore -> new GenericJsonrpcResponseSuccess(request.getId()));
+	}
+
+	/**
+	 * Handles a SetChannelDictionaryRequest. Afterwards the Edge may send
+	 * timestamped data for these Channels as binary messages.
+	 * 
+	 * @param request the SetChannelDictionaryRequest
+	 * @param wsData  the WebSocket attachment
+	 * @return the JSON-RPC Success Response Future
+	 * @throws OpenemsNamedException on error
+	 */
+	private CompletableFuture<JsonrpcResponseSuccess> handleSetChannelDictionaryRequest(
+			SetChannelDictionaryRequest request, WsData wsData) throws OpenemsNamedException {
+		wsData.getChannelDictionary().append(request.getOffset(), request.getChannels());
+		return CompletableFuture.completedFuture(new GenericJsonrpcResponseSuccess(request.getId()));
+	}
+
 }
@@ -0,0 +1,145 @@
+package io.openems.backend.edgewebsocket.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+
+import com.google.gson.JsonElement;
+
+import io.openems.backend.timedata.api.Timedata;
+import io.openems.common.channel.Level;
+import io.openems.common.types.ChannelAddress;
+import io.openems.common.types.EdgeConfig;
+import io.openems.common.types.EdgeConfig.Component;
+import io.openems.common.types.EdgeConfig.Component.Channel;
+import io.openems.common.utils.JsonUtils;
+
+/**
+ * Tracks the active State-Channels of one Edge.
+ *
+ * <p>
+ * The index is updated with every received Channel value, so the active
+ * State-Channels for {@link io.openems.backend.metadata.api.Edge#setSumState}
+ * are available without reading all State-Channels of the {@link EdgeConfig}
+ * from Timedata. A State-Channel counts as active if its value is '1' and the
+ * 'State' of its Component is not {@link Level#OK}.
+ */
+public class SumStateIndex {
+
+	private static final String STATE = "State";
+
+	private final EdgeConfig config;
+
+	/**
+	 * All State-Channels of the EdgeConfig.
+	 */
+	private final Map<ChannelAddress, Channel> stateChannels = new HashMap<>();
+
+	/**
+	 * The last known 'State' per Component-ID.
+	 */
+	private final Map<String, Level> componentLevels = new HashMap<>();
+
+	/**
+	 * State-Channels with value '1' per Component-ID.
+	 */
+	private final Map<String, Map<ChannelAddress, Channel>> activeStateChannels = new HashMap<>();
+
+	/**
+	 * @param config the {@link EdgeConfig} of the Edge
+	 */
+	public SumStateIndex(EdgeConfig config) {
+		this.config = config;
+		for (Entry<String, Component> component : config.getComponents().entrySet()) {
+			for (Entry<String, Channel> channel : component.getValue().getStateChannels().entrySet()) {
+				this.stateChannels.put(new ChannelAddress(component.getKey(), channel.getKey()), channel.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Gets the {@link EdgeConfig} this index was built for.
+	 *
+	 * @return the EdgeConfig
+	 */
+	public EdgeConfig getConfig() {
+		return this.config;
+	}
+
+	/**
+	 * Initializes the index with the current values from Timedata. Call once
+	 * after construction.
+	 *
+	 * @param edgeId   the Edge-ID
+	 * @param timedata the Timedata service
+	 */
+	public synchronized void initialize(String edgeId, Timedata timedata) {
+		for (String componentId : this.config.getComponents().keySet()) {
+			ChannelAddress address = new ChannelAddress(componentId, STATE);
+			Optional<JsonElement> value = timedata.getChannelValue(edgeId, address);
+			if (value.isPresent()) {
+				this.update(address, value.get());
+			}
+		}
+		for (ChannelAddress address : this.stateChannels.keySet()) {
+			Optional<JsonElement> value = timedata.getChannelValue(edgeId, address);
+			if (value.isPresent()) {
+				this.update(address, value.get());
+			}
+		}
+	}
+
+	/**
+	 * Applies a received Channel value. Values of Channels that are neither a
+	 * State-Channel nor a Component 'State' are ignored.
+	 *
+	 * @param address the Channel-Address
+	 * @param value   the value
+	 */
+	public synchronized void update(ChannelAddress address, JsonElement value) {
+		String componentId = address.getComponentId();
+		if (STATE.equals(address.getChannelId())) {
+			Optional<Level> level = Level.fromJson(value);
+			if (level.isPresent()) {
+				this.componentLevels.put(componentId, level.get());
+			} else {
+				this.componentLevels.remove(componentId);
+			}
+		}
+
+		Channel channel = this.stateChannels.get(address);
+		if (channel == null) {
+			return;
+		}
+		Optional<Integer> intValue = JsonUtils.getAsOptionalInt(value);
+		if (intValue.isPresent() && intValue.get() == 1 /* Booleans are transferred as '0' or '1' */) {
+			this.activeStateChannels.computeIfAbsent(componentId, c -> new HashMap<>()).put(address, channel);
+		} else {
+			Map<ChannelAddress, Channel> active = this.activeStateChannels.get(componentId);
+			if (active != null) {
+				active.remove(address);
+				if (active.isEmpty()) {
+					this.activeStateChannels.remove(componentId);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the active State-Channels of all Components whose 'State' is not
+	 * {@link Level#OK}.
+	 *
+	 * @return a new Map of the active State-Channels
+	 */
+	public synchronized Map<ChannelAddress, Channel> getActiveStateChannels() {
+		Map<ChannelAddress, Channel> result = new HashMap<>();
+		for (Entry<String, Map<ChannelAddress, Channel>> entry : this.activeStateChannels.entrySet()) {
+			Level level = this.componentLevels.get(entry.getKey());
+			if (level != null && level != Level.OK) {
+				result.putAll(entry.getValue());
+			}
+		}
+		return result;
+	}
+}
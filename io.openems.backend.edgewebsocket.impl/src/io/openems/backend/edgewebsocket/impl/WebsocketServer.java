@@ -1,5 +1,6 @@
 package io.openems.backend.edgewebsocket.impl;
 
+import java.nio.ByteBuffer;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -8,6 +9,8 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 
+import org.java_websocket.WebSocket;
+import org.java_websocket.drafts.Draft;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -25,6 +28,8 @@ import io.openems.common.types.EdgeConfig;
 import io.openems.common.types.SystemLog;
 import io.openems.common.utils.JsonUtils;
 import io.openems.common.websocket.AbstractWebsocketServer;
+import io.openems.common.websocket.BinaryTimestampedData;
+import io.openems.common.websocket.OrderedExecutor;
 
 public class WebsocketServer extends AbstractWebsocketServer<WsData> {
 
@@ -37,8 +42,8 @@ public class WebsocketServer extends AbstractWebsocketServer<WsData> {
 	private final OnError onError;
 	private final OnClose onClose;
 
-	public WebsocketServer(EdgeWebsocketImpl parent, String name, int port) {
-		super(name, port);
+	public WebsocketServer(EdgeWebsocketImpl parent, String name, int port, Draft draft, OrderedExecutor executor) {
+		super(name, port, draft, executor);
 		this.parent = parent;
 		this.onOpen = new OnOpen(parent);
 		this.onRequest = new OnRequest(parent);
@@ -127,6 +132,22 @@ public class WebsocketServer extends AbstractWebsocketServer<WsData> {
 		throw new OpenemsException("EdgeWs. handleNonJsonrpcMessage", lastException);
 	}
 
+	@Override
+	protected JsonrpcMessage parseMessage(String stringMessage) throws OpenemsNamedException {
+		// most messages from Edges are TimestampedDataNotifications
+		Optional<TimestampedDataNotification> timestampedData = TimestampedDataNotification.parse(stringMessage);
+		if (timestampedData.isPresent()) {
+			return timestampedData.get();
+		}
+		return super.parseMessage(stringMessage);
+	}
+
+	@Override
+	protected JsonrpcMessage handleBinaryMessage(WebSocket ws, ByteBuffer bytes) throws OpenemsNamedException {
+		WsData wsData = ws.getAttachment();
+		return BinaryTimestampedData.decode(bytes, wsData.getChannelDictionary());
+	}
+
 	@Override
 	protected void logInfo(Logger log, String message) {
 		this.parent.logInfo(log, message);
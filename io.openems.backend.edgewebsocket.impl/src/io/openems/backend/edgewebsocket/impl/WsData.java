@@ -11,16 +11,27 @@ import io.openems.backend.metadata.api.Metadata;
 import io.openems.common.exceptions.OpenemsException;
 import io.openems.common.jsonrpc.base.JsonrpcMessage;
 import io.openems.common.utils.StringUtils;
+import io.openems.common.websocket.ChannelDictionary;
 
 public class WsData extends io.openems.common.websocket.WsData {
 
 	private CompletableFuture<Boolean> isAuthenticated = new CompletableFuture<Boolean>();
 	private Optional<String> apikey = Optional.empty();
 	private Optional<String> edgeId = Optional.empty();
+	private final ChannelDictionary channelDictionary = new ChannelDictionary();
 
 	public WsData() {
 	}
 
+	/**
+	 * Gets the dictionary for binary timestamped data of this connection.
+	 * 
+	 * @return the ChannelDictionary
+	 */
+	public ChannelDictionary getChannelDictionary() {
+		return this.channelDictionary;
+	}
+
 	public void setAuthenticated(boolean isAuthenticated) {
 		this.isAuthenticated.complete(isAuthenticated);
 	}
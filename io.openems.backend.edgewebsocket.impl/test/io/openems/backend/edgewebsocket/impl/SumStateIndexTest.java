@@ -0,0 +1,66 @@
+package io.openems.backend.edgewebsocket.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+import com.google.gson.JsonNull;
+import com.google.gson.JsonPrimitive;
+
+import io.openems.common.channel.AccessMode;
+import io.openems.common.channel.Level;
+import io.openems.common.channel.Unit;
+import io.openems.common.types.ChannelAddress;
+import io.openems.common.types.EdgeConfig;
+import io.openems.common.types.EdgeConfig.Component;
+import io.openems.common.types.EdgeConfig.Component.Channel;
+import io.openems.common.types.EdgeConfig.Component.Channel.ChannelDetailState;
+import io.openems.common.types.OpenemsType;
+
+public class SumStateIndexTest {
+
+	private static final ChannelAddress ESS_STATE = new ChannelAddress("ess0", "State");
+	private static final ChannelAddress ESS_FAULT = new ChannelAddress("ess0", "Fault");
+	private static final ChannelAddress ESS_WARNING = new ChannelAddress("ess0", "Warning");
+	private static final ChannelAddress METER_STATE = new ChannelAddress("meter0", "State");
+	private static final ChannelAddress METER_FAULT = new ChannelAddress("meter0", "Fault");
+
+	private static Component component(String id, String... stateChannels) {
+		TreeMap<String, Channel> channels = new TreeMap<>();
+		for (String channelId : stateChannels) {
+			channels.put(channelId, new Channel(channelId, OpenemsType.BOOLEAN, AccessMode.READ_ONLY, "",
+					Unit.NONE, new ChannelDetailState(Level.FAULT)));
+		}
+		return new Component(id, id, true, "Factory", new TreeMap<>(), channels);
+	}
+
+	@Test
+	public void test() {
+		EdgeConfig config = new EdgeConfig();
+		config.addComponent("ess0", component("ess0", "Fault", "Warning"));
+		config.addComponent("meter0", component("meter0", "Fault"));
+		SumStateIndex index = new SumStateIndex(config);
+
+		index.update(ESS_FAULT, new JsonPrimitive(1));
+		index.update(METER_FAULT, new JsonPrimitive(1));
+		// Component State is unknown or OK
+		index.update(METER_STATE, new JsonPrimitive(Level.OK.getValue()));
+		assertTrue(index.getActiveStateChannels().isEmpty());
+
+		index.update(ESS_STATE, new JsonPrimitive(Level.FAULT.getValue()));
+		index.update(ESS_WARNING, new JsonPrimitive(0));
+		assertEquals(1, index.getActiveStateChannels().size());
+		assertTrue(index.getActiveStateChannels().containsKey(ESS_FAULT));
+
+		index.update(ESS_WARNING, new JsonPrimitive(1));
+		index.update(ESS_FAULT, JsonNull.INSTANCE);
+		assertEquals(1, index.getActiveStateChannels().size());
+		assertTrue(index.getActiveStateChannels().containsKey(ESS_WARNING));
+
+		index.update(ESS_STATE, new JsonPrimitive(Level.OK.getValue()));
+		assertTrue(index.getActiveStateChannels().isEmpty());
+	}
+}
@@ -0,0 +1,43 @@
+package io.openems.backend.loadtest;
+
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+
+@ObjectClassDefinition(//
+		name = "Backend.LoadTest", //
+		description = "Simulates Edges and UI sessions to put load on an OpenEMS Backend")
+@interface Config {
+
+	@AttributeDefinition(name = "Edge-Websocket URI", description = "The URI of the Edge.Websocket server.")
+	String edgeUri() default "ws://localhost:8081";
+
+	@AttributeDefinition(name = "UI-Websocket URI", description = "The URI of the Ui.Websocket server.")
+	String uiUri() default "ws://localhost:8082";
+
+	@AttributeDefinition(name = "Number of Edges", description = "The number of simulated Edges.")
+	int numberOfEdges() default 100;
+
+	@AttributeDefinition(name = "Number of UI sessions", description = "The number of simulated UI sessions. Session 'n' subscribes Channels of Edge 'n modulo Number of Edges'.")
+	int numberOfUiSessions() default 10;
+
+	@AttributeDefinition(name = "Edge-ID prefix", description = "Edge 'n' has the Edge-ID and Apikey prefix + n. With the default prefix the Edges are accepted by Metadata.Dummy.")
+	String edgeIdPrefix() default "edge";
+
+	@AttributeDefinition(name = "Metadata.File path", description = "If set, a Metadata.File JSON with all simulated Edges is written to this path before connecting.")
+	String metadataFile() default "";
+
+	@AttributeDefinition(name = "Cycle Time", description = "Interval in milliseconds for sending 'timestampedData' from each Edge.")
+	int cycleTime() default 1000;
+
+	@AttributeDefinition(name = "SystemLog Interval", description = "Every Edge sends a 'systemLog' notification every this many cycles; 0 to disable.")
+	int systemLogInterval() default 60;
+
+	@AttributeDefinition(name = "Ramp-Up Time", description = "Time in milliseconds between opening two connections.")
+	int rampUpTime() default 10;
+
+	@AttributeDefinition(name = "Report Interval", description = "Interval in seconds for logging the statistics.")
+	int reportInterval() default 10;
+
+	String webconsole_configurationFactory_nameHint() default "Backend.LoadTest";
+
+}
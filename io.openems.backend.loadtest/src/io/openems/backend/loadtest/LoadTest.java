@@ -0,0 +1,145 @@
+package io.openems.backend.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.ConfigurationPolicy;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.metatype.annotations.Designate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.JsonObject;
+
+import io.openems.backend.common.component.AbstractOpenemsBackendComponent;
+import io.openems.common.utils.JsonUtils;
+import io.openems.common.websocket.OrderedExecutor;
+
+/**
+ * Puts load on an OpenEMS Backend with simulated Edges and UI sessions and
+ * regularly logs the statistics. See readme.md.
+ */
+@Designate(ocd = Config.class, factory = false)
+@Component(name = "Backend.LoadTest", configurationPolicy = ConfigurationPolicy.REQUIRE, immediate = true)
+public class LoadTest extends AbstractOpenemsBackendComponent {
+
+	private final Logger log = LoggerFactory.getLogger(LoadTest.class);
+
+	private final Statistics statistics = new Statistics();
+	private final List<SimulatedEdge> edges = new ArrayList<>();
+	private final List<SimulatedUi> uis = new ArrayList<>();
+
+	private ScheduledExecutorService executor = null;
+
+	public LoadTest() {
+		super("Backend.LoadTest");
+	}
+
+	@Activate
+	void activate(Config config) throws URISyntaxException {
+		this.logInfo(this.log, "Activate [edges=" + config.numberOfEdges() + ";uis=" + config.numberOfUiSessions()
+				+ ";cycleTime=" + config.cycleTime() + "]");
+
+		if (!config.metadataFile().trim().isEmpty()) {
+			this.writeMetadataFile(config);
+		}
+
+		// all simulated connections share one handler pool
+		OrderedExecutor handlers = new OrderedExecutor("LoadTest");
+		URI edgeUri = new URI(config.edgeUri());
+		for (int i = 0; i < config.numberOfEdges(); i++) {
+			String edgeId = config.edgeIdPrefix() + i;
+			this.edges.add(new SimulatedEdge(edgeUri, edgeId, edgeId, handlers, this.statistics));
+		}
+		URI uiUri = new URI(config.uiUri());
+		for (int i = 0; i < config.numberOfUiSessions() && config.numberOfEdges() > 0; i++) {
+			String edgeId = config.edgeIdPrefix() + (i % config.numberOfEdges());
+			this.uis.add(new SimulatedUi(uiUri, i, edgeId, handlers, this.statistics));
+		}
+
+		this.executor = Executors.newScheduledThreadPool(2, new ThreadFactoryBuilder() //
+				.setNameFormat("LoadTest-%d") //
+				.setDaemon(true) //
+				.build());
+
+		// connect Edges, then UI sessions
+		List<Runnable> starts = new ArrayList<>();
+		this.edges.forEach(edge -> starts.add(edge::start));
+		this.uis.forEach(ui -> starts.add(ui::start));
+		long rampUpTime = Math.max(0, config.rampUpTime());
+		for (int i = 0; i < starts.size(); i++) {
+			this.executor.schedule(starts.get(i), i * rampUpTime, TimeUnit.MILLISECONDS);
+		}
+
+		// send data
+		AtomicInteger cycle = new AtomicInteger();
+		this.executor.scheduleAtFixedRate(() -> {
+			int c = cycle.getAndIncrement();
+			boolean sendSystemLog = config.systemLogInterval() > 0 && c % config.systemLogInterval() == 0;
+			for (SimulatedEdge edge : this.edges) {
+				try {
+					edge.cycle(sendSystemLog);
+				} catch (RuntimeException e) {
+					this.statistics.onError();
+				}
+			}
+		}, config.cycleTime(), Math.max(1, config.cycleTime()), TimeUnit.MILLISECONDS);
+
+		// report
+		this.executor.scheduleWithFixedDelay(() -> {
+			int connectedEdges = (int) this.edges.stream().filter(SimulatedEdge::isConnected).count();
+			int connectedUis = (int) this.uis.stream().filter(SimulatedUi::isConnected).count();
+			this.logInfo(this.log, this.statistics.report(connectedEdges, this.edges.size(), connectedUis,
+					this.uis.size()));
+		}, config.reportInterval(), Math.max(1, config.reportInterval()), TimeUnit.SECONDS);
+	}
+
+	@Deactivate
+	void deactivate() {
+		this.logInfo(this.log, "Deactivate");
+		if (this.executor != null) {
+			this.executor.shutdownNow();
+		}
+		this.uis.forEach(SimulatedUi::stop);
+		this.edges.forEach(SimulatedEdge::stop);
+		this.uis.clear();
+		this.edges.clear();
+	}
+
+	/**
+	 * Writes a Metadata.File JSON with all simulated Edges.
+	 *
+	 * @param config the Config
+	 */
+	private void writeMetadataFile(Config config) {
+		JsonObject edges = new JsonObject();
+		for (int i = 0; i < config.numberOfEdges(); i++) {
+			String edgeId = config.edgeIdPrefix() + i;
+			edges.add(edgeId, JsonUtils.buildJsonObject() //
+					.addProperty("comment", "LoadTest Edge #" + i) //
+					.addProperty("apikey", edgeId) //
+					.build());
+		}
+		JsonObject file = JsonUtils.buildJsonObject() //
+				.add("edges", edges) //
+				.build();
+		try {
+			Files.write(Paths.get(config.metadataFile().trim()), file.toString().getBytes(StandardCharsets.UTF_8));
+		} catch (IOException e) {
+			this.logWarn(this.log, "Unable to write Metadata.File [" + config.metadataFile() + "]: " + e.getMessage());
+		}
+	}
+}
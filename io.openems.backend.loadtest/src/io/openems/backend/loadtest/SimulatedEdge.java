@@ -0,0 +1,297 @@
+package io.openems.backend.loadtest;
+
+import java.net.URI;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+
+import io.openems.common.OpenemsConstants;
+import io.openems.common.channel.AccessMode;
+import io.openems.common.channel.Level;
+import io.openems.common.channel.Unit;
+import io.openems.common.jsonrpc.base.GenericJsonrpcResponseSuccess;
+import io.openems.common.jsonrpc.base.JsonrpcMessage;
+import io.openems.common.jsonrpc.notification.EdgeConfigNotification;
+import io.openems.common.jsonrpc.notification.SystemLogNotification;
+import io.openems.common.jsonrpc.notification.TimestampedDataNotification;
+import io.openems.common.types.ChannelAddress;
+import io.openems.common.types.EdgeConfig;
+import io.openems.common.types.EdgeConfig.Component.Channel;
+import io.openems.common.types.EdgeConfig.Component.Channel.ChannelDetail;
+import io.openems.common.types.EdgeConfig.Component.Channel.ChannelDetailOpenemsType;
+import io.openems.common.types.EdgeConfig.Component.Channel.ChannelDetailState;
+import io.openems.common.types.OpenemsType;
+import io.openems.common.types.SystemLog;
+import io.openems.common.websocket.AbstractWebsocketClient;
+import io.openems.common.websocket.OnClose;
+import io.openems.common.websocket.OnError;
+import io.openems.common.websocket.OnNotification;
+import io.openems.common.websocket.OnOpen;
+import io.openems.common.websocket.OnRequest;
+import io.openems.common.websocket.OrderedExecutor;
+import io.openems.common.websocket.WsData;
+
+/**
+ * A simulated Edge that is connected to the Edge.Websocket of the Backend.
+ *
+ * <p>
+ * The Components and Channels follow a typical simulator setup of OpenEMS
+ * Edge: a reacting ESS, a grid meter and a production meter.
+ */
+public class SimulatedEdge extends AbstractWebsocketClient<WsData> {
+
+	public static final ChannelAddress TIMESTAMP = new ChannelAddress("loadtest0", "Timestamp");
+	public static final ChannelAddress SUM_STATE = new ChannelAddress("_sum", "State");
+	public static final ChannelAddress SUM_ESS_SOC = new ChannelAddress("_sum", "EssSoc");
+	public static final ChannelAddress SUM_ESS_ACTIVE_POWER = new ChannelAddress("_sum", "EssActivePower");
+	public static final ChannelAddress SUM_GRID_ACTIVE_POWER = new ChannelAddress("_sum", "GridActivePower");
+	public static final ChannelAddress SUM_PRODUCTION_ACTIVE_POWER = new ChannelAddress("_sum",
+			"ProductionActivePower");
+	public static final ChannelAddress SUM_CONSUMPTION_ACTIVE_POWER = new ChannelAddress("_sum",
+			"ConsumptionActivePower");
+	private static final ChannelAddress META_VERSION = new ChannelAddress("_meta", "Version");
+	private static final ChannelAddress ESS_SOC = new ChannelAddress("ess0", "Soc");
+	private static final ChannelAddress ESS_ACTIVE_POWER = new ChannelAddress("ess0", "ActivePower");
+	private static final ChannelAddress ESS_STATE = new ChannelAddress("ess0", "State");
+	private static final ChannelAddress GRID_ACTIVE_POWER = new ChannelAddress("meter0", "ActivePower");
+	private static final ChannelAddress GRID_STATE = new ChannelAddress("meter0", "State");
+	private static final ChannelAddress PRODUCTION_ACTIVE_POWER = new ChannelAddress("meter1", "ActivePower");
+	private static final ChannelAddress PRODUCTION_STATE = new ChannelAddress("meter1", "State");
+
+	private static final int ESS_CAPACITY = 10_000; // [Wh]
+	private static final int ESS_MAX_POWER = 5_000; // [W]
+	private static final int PRODUCTION_MAX_POWER = 10_000; // [W]
+
+	private final Logger log = LoggerFactory.getLogger(SimulatedEdge.class);
+
+	private final Statistics statistics;
+	private final Random random;
+
+	private final OnOpen onOpen;
+	private final OnRequest onRequest;
+	private final OnNotification onNotification;
+	private final OnError onError;
+	private final OnClose onClose;
+
+	private volatile boolean isConnected = false;
+
+	private double soc; // [%]
+	private int consumption; // [W]
+	private long lastCycle = 0;
+	private int cycles = 0;
+
+	public SimulatedEdge(URI serverUri, String edgeId, String apikey, OrderedExecutor executor,
+			Statistics statistics) {
+		super("LoadTest.Edge:" + edgeId, serverUri, DEFAULT_DRAFT, apikeyHeader(apikey), NO_PROXY, executor);
+		this.statistics = statistics;
+		this.random = new Random(edgeId.hashCode());
+		this.soc = 20 + this.random.nextInt(60);
+		this.consumption = 500 + this.random.nextInt(3000);
+		this.onOpen = (ws, handshake) -> {
+			this.isConnected = true;
+			this.send(new EdgeConfigNotification(SimulatedEdge.createEdgeConfig()));
+		};
+		this.onRequest = (ws, request) -> {
+			this.statistics.onReceived();
+			return CompletableFuture.completedFuture(new GenericJsonrpcResponseSuccess(request.getId()));
+		};
+		this.onNotification = (ws, notification) -> {
+			this.statistics.onReceived();
+		};
+		this.onError = (ws, ex) -> {
+			this.statistics.onError();
+			this.log.warn("Edge [" + this.getName() + "] error: " + ex.getMessage());
+		};
+		this.onClose = (ws, code, reason, remote) -> {
+			this.isConnected = false;
+		};
+	}
+
+	private static Map<String, String> apikeyHeader(String apikey) {
+		Map<String, String> result = new HashMap<>();
+		result.put("apikey", apikey);
+		return result;
+	}
+
+	/**
+	 * Is this Edge connected?.
+	 *
+	 * @return true if connected
+	 */
+	public boolean isConnected() {
+		return this.isConnected;
+	}
+
+	/**
+	 * Sends the Channel values of one cycle and, if requested, a 'systemLog'.
+	 *
+	 * @param sendSystemLog true to send a 'systemLog'
+	 */
+	public synchronized void cycle(boolean sendSystemLog) {
+		if (!this.isConnected) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		TimestampedDataNotification data = new TimestampedDataNotification();
+		data.add(now, this.nextValues(now));
+		this.send(data);
+
+		if (sendSystemLog) {
+			this.send(new SystemLogNotification(new SystemLog(ZonedDateTime.now(ZoneOffset.UTC),
+					SystemLog.Level.INFO, "loadtest", "Cycle [" + this.cycles + "] finished")));
+		}
+		this.cycles++;
+	}
+
+	/**
+	 * Calculates the next values of a simple energy system: production follows
+	 * the time of day, consumption is a random walk and the ESS balances the grid.
+	 *
+	 * @param now the current time in milliseconds
+	 * @return the values
+	 */
+	private Map<ChannelAddress, JsonElement> nextValues(long now) {
+		double dayFraction = (now % 86_400_000L) / 86_400_000.0;
+		int production = (int) Math.max(0, -Math.cos(dayFraction * 2 * Math.PI) * PRODUCTION_MAX_POWER);
+		this.consumption = Math.max(200, Math.min(8_000, this.consumption + this.random.nextInt(401) - 200));
+		int ess = Math.max(-ESS_MAX_POWER, Math.min(ESS_MAX_POWER, this.consumption - production));
+		if ((ess > 0 && this.soc <= 0) || (ess < 0 && this.soc >= 100)) {
+			ess = 0;
+		}
+		if (this.lastCycle != 0) {
+			double hours = (now - this.lastCycle) / 3_600_000.0;
+			this.soc = Math.max(0, Math.min(100, this.soc - ess * hours / ESS_CAPACITY * 100));
+		}
+		this.lastCycle = now;
+		int grid = this.consumption - production - ess;
+		int soc = (int) Math.round(this.soc);
+
+		Map<ChannelAddress, JsonElement> values = new HashMap<>();
+		values.put(TIMESTAMP, new JsonPrimitive(now));
+		values.put(META_VERSION, new JsonPrimitive(OpenemsConstants.VERSION.toString()));
+		values.put(SUM_STATE, new JsonPrimitive(Level.OK.getValue()));
+		values.put(SUM_ESS_SOC, new JsonPrimitive(soc));
+		values.put(SUM_ESS_ACTIVE_POWER, new JsonPrimitive(ess));
+		values.put(SUM_GRID_ACTIVE_POWER, new JsonPrimitive(grid));
+		values.put(SUM_PRODUCTION_ACTIVE_POWER, new JsonPrimitive(production));
+		values.put(SUM_CONSUMPTION_ACTIVE_POWER, new JsonPrimitive(this.consumption));
+		values.put(ESS_SOC, new JsonPrimitive(soc));
+		values.put(ESS_ACTIVE_POWER, new JsonPrimitive(ess));
+		values.put(ESS_STATE, new JsonPrimitive(Level.OK.getValue()));
+		values.put(GRID_ACTIVE_POWER, new JsonPrimitive(grid));
+		values.put(GRID_STATE, new JsonPrimitive(Level.OK.getValue()));
+		values.put(PRODUCTION_ACTIVE_POWER, new JsonPrimitive(production));
+		values.put(PRODUCTION_STATE, new JsonPrimitive(Level.OK.getValue()));
+		return values;
+	}
+
+	private void send(JsonrpcMessage message) {
+		if (this.sendMessage(message)) {
+			this.statistics.onSent();
+		} else {
+			this.statistics.onError();
+		}
+	}
+
+	/**
+	 * Creates the EdgeConfig of a simulated Edge.
+	 *
+	 * @return the EdgeConfig
+	 */
+	protected static EdgeConfig createEdgeConfig() {
+		EdgeConfig config = new EdgeConfig();
+		config.addComponent("_sum", component("_sum", "Core.Sum", //
+				SUM_STATE.getChannelId(), SUM_ESS_SOC.getChannelId(), SUM_ESS_ACTIVE_POWER.getChannelId(),
+				SUM_GRID_ACTIVE_POWER.getChannelId(), SUM_PRODUCTION_ACTIVE_POWER.getChannelId(),
+				SUM_CONSUMPTION_ACTIVE_POWER.getChannelId()));
+		config.addComponent("ess0", component("ess0", "Simulator.EssSymmetric.Reacting", //
+				ESS_STATE.getChannelId(), ESS_SOC.getChannelId(), ESS_ACTIVE_POWER.getChannelId()));
+		config.addComponent("meter0", component("meter0", "Simulator.GridMeter.Acting", //
+				GRID_STATE.getChannelId(), GRID_ACTIVE_POWER.getChannelId()));
+		config.addComponent("meter1", component("meter1", "Simulator.ProductionMeter.Acting", //
+				PRODUCTION_STATE.getChannelId(), PRODUCTION_ACTIVE_POWER.getChannelId()));
+		config.addComponent("loadtest0", component("loadtest0", "Backend.LoadTest", //
+				TIMESTAMP.getChannelId()));
+		return config;
+	}
+
+	private static EdgeConfig.Component component(String id, String factoryId, String... channelIds) {
+		TreeMap<String, Channel> channels = new TreeMap<>();
+		for (String channelId : channelIds) {
+			Unit unit;
+			if (channelId.endsWith("Soc")) {
+				unit = Unit.PERCENT;
+			} else if (channelId.endsWith("ActivePower")) {
+				unit = Unit.WATT;
+			} else {
+				unit = Unit.NONE;
+			}
+			channels.put(channelId, new Channel(channelId, OpenemsType.INTEGER, AccessMode.READ_ONLY, "", unit,
+					new ChannelDetailOpenemsType()));
+		}
+		// a State-Channel as on every OpenEMS Component
+		ChannelDetail warning = new ChannelDetailState(Level.WARNING);
+		channels.put("SimulatedWarning", new Channel("SimulatedWarning", OpenemsType.BOOLEAN, AccessMode.READ_ONLY,
+				"Simulated warning", Unit.NONE, warning));
+		return new EdgeConfig.Component(id, id, true, factoryId, new TreeMap<>(), channels);
+	}
+
+	@Override
+	protected OnOpen getOnOpen() {
+		return this.onOpen;
+	}
+
+	@Override
+	protected OnRequest getOnRequest() {
+		return this.onRequest;
+	}
+
+	@Override
+	protected OnNotification getOnNotification() {
+		return this.onNotification;
+	}
+
+	@Override
+	protected OnError getOnError() {
+		return this.onError;
+	}
+
+	@Override
+	protected OnClose getOnClose() {
+		return this.onClose;
+	}
+
+	@Override
+	protected WsData createWsData() {
+		return new LoadTestWsData();
+	}
+
+	@Override
+	protected void logInfo(Logger log, String message) {
+		log.info(message);
+	}
+
+	@Override
+	protected void logWarn(Logger log, String message) {
+		log.warn(message);
+	}
+
+	protected static class LoadTestWsData extends WsData {
+
+		@Override
+		public String toString() {
+			return "LoadTestWsData[]";
+		}
+
+	}
+}
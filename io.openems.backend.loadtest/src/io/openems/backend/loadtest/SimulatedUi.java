@@ -0,0 +1,165 @@
+package io.openems.backend.loadtest;
+
+import java.net.URI;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonObject;
+
+import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
+import io.openems.common.jsonrpc.base.GenericJsonrpcResponseSuccess;
+import io.openems.common.jsonrpc.notification.AuthenticateWithSessionIdNotification;
+import io.openems.common.jsonrpc.notification.CurrentDataNotification;
+import io.openems.common.jsonrpc.notification.EdgeRpcNotification;
+import io.openems.common.jsonrpc.request.EdgeRpcRequest;
+import io.openems.common.jsonrpc.request.SubscribeChannelsRequest;
+import io.openems.common.utils.JsonUtils;
+import io.openems.common.websocket.AbstractWebsocketClient;
+import io.openems.common.websocket.OnClose;
+import io.openems.common.websocket.OnError;
+import io.openems.common.websocket.OnNotification;
+import io.openems.common.websocket.OnOpen;
+import io.openems.common.websocket.OnRequest;
+import io.openems.common.websocket.OrderedExecutor;
+import io.openems.common.websocket.WsData;
+
+/**
+ * A simulated UI session that is connected to the Ui.Websocket of the Backend
+ * and subscribes the '_sum' Channels of one Edge.
+ */
+public class SimulatedUi extends AbstractWebsocketClient<WsData> {
+
+	private final Logger log = LoggerFactory.getLogger(SimulatedUi.class);
+
+	private final String edgeId;
+	private final Statistics statistics;
+
+	private final OnOpen onOpen;
+	private final OnRequest onRequest;
+	private final OnNotification onNotification;
+	private final OnError onError;
+	private final OnClose onClose;
+
+	private volatile boolean isConnected = false;
+
+	public SimulatedUi(URI serverUri, int id, String edgeId, OrderedExecutor executor, Statistics statistics) {
+		super("LoadTest.Ui:" + id, serverUri, DEFAULT_DRAFT, NO_HTTP_HEADERS, NO_PROXY, executor);
+		this.edgeId = edgeId;
+		this.statistics = statistics;
+		this.onOpen = (ws, handshake) -> {
+			this.isConnected = true;
+		};
+		this.onRequest = (ws, request) -> {
+			return CompletableFuture.completedFuture(new GenericJsonrpcResponseSuccess(request.getId()));
+		};
+		this.onNotification = (ws, notification) -> {
+			this.statistics.onReceived();
+			switch (notification.getMethod()) {
+			case AuthenticateWithSessionIdNotification.METHOD:
+				this.subscribe();
+				break;
+
+			case EdgeRpcNotification.METHOD:
+				JsonObject payload = JsonUtils.getAsJsonObject(notification.getParams(), "payload");
+				if (CurrentDataNotification.METHOD.equals(JsonUtils.getAsString(payload, "method"))) {
+					this.handleCurrentData(JsonUtils.getAsJsonObject(payload, "params"));
+				}
+				break;
+			}
+		};
+		this.onError = (ws, ex) -> {
+			this.statistics.onError();
+			this.log.warn("UI [" + this.getName() + "] error: " + ex.getMessage());
+		};
+		this.onClose = (ws, code, reason, remote) -> {
+			this.isConnected = false;
+		};
+	}
+
+	/**
+	 * Is this UI session connected?.
+	 *
+	 * @return true if connected
+	 */
+	public boolean isConnected() {
+		return this.isConnected;
+	}
+
+	/**
+	 * Subscribes the Channels of the Edge.
+	 *
+	 * @throws OpenemsNamedException on error
+	 */
+	private void subscribe() throws OpenemsNamedException {
+		SubscribeChannelsRequest request = new SubscribeChannelsRequest(0);
+		request.addChannel(SimulatedEdge.TIMESTAMP);
+		request.addChannel(SimulatedEdge.SUM_STATE);
+		request.addChannel(SimulatedEdge.SUM_ESS_SOC);
+		request.addChannel(SimulatedEdge.SUM_ESS_ACTIVE_POWER);
+		request.addChannel(SimulatedEdge.SUM_GRID_ACTIVE_POWER);
+		request.addChannel(SimulatedEdge.SUM_PRODUCTION_ACTIVE_POWER);
+		request.addChannel(SimulatedEdge.SUM_CONSUMPTION_ACTIVE_POWER);
+		this.sendRequest(new EdgeRpcRequest(this.edgeId, request)).whenComplete((response, ex) -> {
+			if (ex != null) {
+				this.statistics.onError();
+				this.log.warn("UI [" + this.getName() + "] unable to subscribe Edge [" + this.edgeId + "]: "
+						+ ex.getMessage());
+			}
+		});
+	}
+
+	/**
+	 * Records the end-to-end latency of received Channel values.
+	 *
+	 * @param currentData the 'currentData' params
+	 */
+	private void handleCurrentData(JsonObject currentData) {
+		Optional<Long> timestamp = JsonUtils.getAsOptionalLong(currentData, SimulatedEdge.TIMESTAMP.toString());
+		if (timestamp.isPresent()) {
+			this.statistics.addLatency(System.currentTimeMillis() - timestamp.get());
+		}
+	}
+
+	@Override
+	protected OnOpen getOnOpen() {
+		return this.onOpen;
+	}
+
+	@Override
+	protected OnRequest getOnRequest() {
+		return this.onRequest;
+	}
+
+	@Override
+	protected OnNotification getOnNotification() {
+		return this.onNotification;
+	}
+
+	@Override
+	protected OnError getOnError() {
+		return this.onError;
+	}
+
+	@Override
+	protected OnClose getOnClose() {
+		return this.onClose;
+	}
+
+	@Override
+	protected WsData createWsData() {
+		return new SimulatedEdge.LoadTestWsData();
+	}
+
+	@Override
+	protected void logInfo(Logger log, String message) {
+		log.info(message);
+	}
+
+	@Override
+	protected void logWarn(Logger log, String message) {
+		log.warn(message);
+	}
+}
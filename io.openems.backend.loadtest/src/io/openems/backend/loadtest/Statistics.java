@@ -0,0 +1,123 @@
+package io.openems.backend.loadtest;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the statistics of a load test.
+ */
+public class Statistics {
+
+	/**
+	 * Maximum number of latency samples per report; further samples replace random
+	 * ones.
+	 */
+	protected static final int MAX_SAMPLES = 100_000;
+
+	private final LongAdder sent = new LongAdder();
+	private final LongAdder received = new LongAdder();
+	private final LongAdder errors = new LongAdder();
+
+	private final long[] latencies = new long[MAX_SAMPLES];
+	private long latencyCount = 0;
+
+	private long lastReport = System.nanoTime();
+
+	/**
+	 * Counts a sent message.
+	 */
+	public void onSent() {
+		this.sent.increment();
+	}
+
+	/**
+	 * Counts a received message.
+	 */
+	public void onReceived() {
+		this.received.increment();
+	}
+
+	/**
+	 * Counts an error.
+	 */
+	public void onError() {
+		this.errors.increment();
+	}
+
+	/**
+	 * Adds an end-to-end latency sample.
+	 *
+	 * @param latency the latency in milliseconds
+	 */
+	public synchronized void addLatency(long latency) {
+		if (this.latencyCount < MAX_SAMPLES) {
+			this.latencies[(int) this.latencyCount] = latency;
+		} else {
+			// reservoir sampling
+			long index = (long) (Math.random() * (this.latencyCount + 1));
+			if (index < MAX_SAMPLES) {
+				this.latencies[(int) index] = latency;
+			}
+		}
+		this.latencyCount++;
+	}
+
+	/**
+	 * Gets the report since the last call and resets the counters.
+	 *
+	 * @param connectedEdges the number of connected Edges
+	 * @param totalEdges     the number of Edges
+	 * @param connectedUis   the number of connected UI sessions
+	 * @param totalUis       the number of UI sessions
+	 * @return the report
+	 */
+	public String report(int connectedEdges, int totalEdges, int connectedUis, int totalUis) {
+		long now = System.nanoTime();
+		long[] latencies;
+		double seconds;
+		synchronized (this) {
+			latencies = Arrays.copyOf(this.latencies, (int) Math.min(this.latencyCount, MAX_SAMPLES));
+			this.latencyCount = 0;
+			seconds = Math.max(1, now - this.lastReport) / 1_000_000_000.0;
+			this.lastReport = now;
+		}
+		Arrays.sort(latencies);
+
+		Runtime runtime = Runtime.getRuntime();
+		long usedHeap = (runtime.totalMemory() - runtime.freeMemory()) / 1024 / 1024;
+		long maxHeap = runtime.maxMemory() / 1024 / 1024;
+
+		StringBuilder b = new StringBuilder() //
+				.append("Edges [").append(connectedEdges).append("/").append(totalEdges).append("] ") //
+				.append("UIs [").append(connectedUis).append("/").append(totalUis).append("] ") //
+				.append("Sent [").append(Math.round(this.sent.sumThenReset() / seconds)).append("/s] ") //
+				.append("Received [").append(Math.round(this.received.sumThenReset() / seconds)).append("/s] ") //
+				.append("Errors [").append(this.errors.sumThenReset()).append("] ") //
+				.append("Latency [");
+		if (latencies.length == 0) {
+			b.append("-");
+		} else {
+			b.append("p50 ").append(Statistics.percentile(latencies, 50)).append(" ms, ") //
+					.append("p95 ").append(Statistics.percentile(latencies, 95)).append(" ms, ") //
+					.append("p99 ").append(Statistics.percentile(latencies, 99)).append(" ms, ") //
+					.append("max ").append(latencies[latencies.length - 1]).append(" ms");
+		}
+		b.append("] ") //
+				.append("Heap [").append(usedHeap).append("/").append(maxHeap).append(" MB] ") //
+				.append("Threads [").append(ManagementFactory.getThreadMXBean().getThreadCount()).append("]");
+		return b.toString();
+	}
+
+	/**
+	 * Gets a percentile of sorted values (nearest-rank method).
+	 *
+	 * @param sorted     the sorted values; not empty
+	 * @param percentile the percentile between 0 and 100
+	 * @return the value
+	 */
+	protected static long percentile(long[] sorted, int percentile) {
+		int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+		return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+	}
+}
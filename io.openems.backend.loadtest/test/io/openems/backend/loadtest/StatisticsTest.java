@@ -0,0 +1,37 @@
+package io.openems.backend.loadtest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class StatisticsTest {
+
+	@Test
+	public void testPercentile() {
+		long[] values = new long[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 };
+		assertEquals(5, Statistics.percentile(values, 50));
+		assertEquals(10, Statistics.percentile(values, 95));
+		assertEquals(1, Statistics.percentile(values, 0));
+		assertEquals(7, Statistics.percentile(new long[] { 7 }, 99));
+	}
+
+	@Test
+	public void testReport() {
+		Statistics statistics = new Statistics();
+		statistics.onSent();
+		statistics.onError();
+		for (int i = 1; i <= 100; i++) {
+			statistics.addLatency(i);
+		}
+		String report = statistics.report(1, 2, 3, 4);
+		assertTrue(report, report.startsWith("Edges [1/2] UIs [3/4] "));
+		assertTrue(report, report.contains("Errors [1]"));
+		assertTrue(report, report.contains("Latency [p50 50 ms, p95 95 ms, p99 99 ms, max 100 ms]"));
+
+		// counters are reset
+		report = statistics.report(1, 2, 3, 4);
+		assertTrue(report, report.contains("Errors [0] Latency [-]"));
+	}
+
+}
@@ -95,8 +95,8 @@ public class Edge {
 	public String toString() {
 		return "Edge [id=" + id + ", comment=" + comment + ", state=" + state + ", version=" + version
 				+ ", producttype=" + producttype + ", deprecatedConfig="
-				+ (config.toString().isEmpty() ? "NOT_SET" : "set") + ", lastMessage=" + lastMessage + ", lastUpdate="
-				+ lastUpdate + ", soc=" + soc + ", ipv4=" + ipv4 + ", isOnline=" + isOnline + "]";
+				+ (this.getConfig().toString().isEmpty() ? "NOT_SET" : "set") + ", lastMessage=" + lastMessage
+				+ ", lastUpdate=" + lastUpdate + ", soc=" + soc + ", ipv4=" + ipv4 + ", isOnline=" + isOnline + "]";
 	}
 
 	/*
@@ -122,6 +122,39 @@ public class Edge {
 		this.isOnline = isOnline;
 	}
 
+	/**
+	 * Takes over the state that was reported by the Edge itself from another
+	 * instance for the same Edge, e.g. when a cached instance is replaced by one
+	 * that was freshly read from the database. Listeners are not called.
+	 * 
+	 * <p>
+	 * The EdgeConfig is not taken over here; it is up to subclasses to decide
+	 * which one is more recent.
+	 * 
+	 * @param other the replaced instance; this instance must not be published yet
+	 */
+	public synchronized void takeOverState(Edge other) {
+		synchronized (other) {
+			this.isOnline = other.isOnline;
+			if (other.lastMessage != null) {
+				this.lastMessage = other.lastMessage;
+			}
+			if (other.lastUpdate != null) {
+				this.lastUpdate = other.lastUpdate;
+			}
+			if (other.soc != null) {
+				this.soc = other.soc;
+			}
+			if (other.ipv4 != null) {
+				this.ipv4 = other.ipv4;
+			}
+			if (other.sumState != null) {
+				this.sumState = other.sumState;
+				this.lastActiveStateChannelsKeys = other.lastActiveStateChannelsKeys;
+			}
+		}
+	}
+
 	/*
 	 * Config
 	 */
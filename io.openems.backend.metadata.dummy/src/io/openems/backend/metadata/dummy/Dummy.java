@@ -2,9 +2,9 @@ package io.openems.backend.metadata.dummy;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -40,8 +40,8 @@ public class Dummy extends AbstractOpenemsBackendComponent implements Metadata {
 	private final AtomicInteger nextUserId = new AtomicInteger(-1);
 	private final AtomicInteger nextEdgeId = new AtomicInteger(-1);
 
-	private final Map<String, BackendUser> users = new HashMap<>();
-	private final Map<String, Edge> edges = new HashMap<>();
+	private final Map<String, BackendUser> users = new ConcurrentHashMap<>();
+	private final Map<String, Edge> edges = new ConcurrentHashMap<>();
 
 	public Dummy() {
 		super("Metadata.Dummy");
@@ -11,6 +11,9 @@ import org.osgi.service.metatype.annotations.ObjectClassDefinition;
 	@AttributeDefinition(name = "Path", description = "The path to the JSON file.")
 	String path();
 
+	@AttributeDefinition(name = "Watch", description = "Reload the file on change.")
+	boolean watch() default true;
+
 	String webconsole_configurationFactory_nameHint() default "Metadata.File";
 
 }
@@ -0,0 +1,144 @@
+package io.openems.backend.metadata.file;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import io.openems.backend.metadata.api.BackendUser;
+import io.openems.backend.metadata.api.Edge;
+import io.openems.backend.metadata.api.Edge.State;
+import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
+import io.openems.common.session.Role;
+import io.openems.common.types.EdgeConfig;
+import io.openems.common.utils.JsonUtils;
+
+/**
+ * Immutable index of the Edges of a Metadata.File JSON file.
+ *
+ * <p>
+ * A changed file is loaded into a new index that replaces the previous one, so
+ * readers never need to lock.
+ */
+public class EdgeIndex {
+
+	/**
+	 * An index without Edges.
+	 */
+	public static final EdgeIndex EMPTY = new EdgeIndex(Collections.emptyMap());
+
+	/**
+	 * Parses the JSON file content. Edges with unchanged Edge-ID, Apikey and
+	 * comment are taken over from the previous index.
+	 *
+	 * @param json     the file content
+	 * @param previous the previous index
+	 * @return the new index
+	 * @throws OpenemsNamedException on parse error
+	 */
+	public static EdgeIndex from(JsonElement json, EdgeIndex previous) throws OpenemsNamedException {
+		JsonObject jEdges = JsonUtils.getAsJsonObject(json, "edges");
+		Map<String, Edge> edges = new HashMap<>();
+		for (Entry<String, JsonElement> entry : jEdges.entrySet()) {
+			String edgeId = entry.getKey();
+			JsonObject edge = JsonUtils.getAsJsonObject(entry.getValue());
+			String apikey = JsonUtils.getAsString(edge, "apikey");
+			String comment = JsonUtils.getAsString(edge, "comment");
+
+			Edge existing = previous.edgesById.get(edgeId);
+			if (existing != null && existing.getApikey().equals(apikey) && existing.getComment().equals(comment)) {
+				edges.put(edgeId, existing);
+				continue;
+			}
+			Edge newEdge = new Edge(//
+					edgeId, // Edge-ID
+					apikey, //
+					comment, //
+					State.ACTIVE, // State
+					"", // Version
+					"", // Product-Type
+					new EdgeConfig(), // Config
+					null, // State of Charge
+					null, // IPv4
+					null // _sum/State
+			);
+			if (existing != null && existing.isOnline()) {
+				newEdge.setOnline(true);
+			}
+			edges.put(edgeId, newEdge);
+		}
+		return new EdgeIndex(edges);
+	}
+
+	private final Map<String, Edge> edgesById;
+	private final Map<String, String> edgeIdsByApikey;
+	private final Collection<Edge> allEdges;
+	private final BackendUser user;
+
+	private EdgeIndex(Map<String, Edge> edgesById) {
+		this.edgesById = edgesById;
+		this.edgeIdsByApikey = new HashMap<>(edgesById.size());
+		List<Edge> allEdges = new ArrayList<>(edgesById.size());
+		this.user = new BackendUser("admin", "Administrator");
+		for (Edge edge : edgesById.values()) {
+			this.edgeIdsByApikey.put(edge.getApikey(), edge.getId());
+			allEdges.add(edge);
+			this.user.addEdgeRole(edge.getId(), Role.ADMIN);
+		}
+		this.allEdges = Collections.unmodifiableList(allEdges);
+	}
+
+	/**
+	 * Gets the Edge-ID for an Apikey.
+	 *
+	 * @param apikey the Apikey
+	 * @return the Edge-ID or Optional.Empty
+	 */
+	public Optional<String> getEdgeIdForApikey(String apikey) {
+		return Optional.ofNullable(this.edgeIdsByApikey.get(apikey));
+	}
+
+	/**
+	 * Gets the Edge for an Edge-ID.
+	 *
+	 * @param edgeId the Edge-ID
+	 * @return the Edge or Optional.Empty
+	 */
+	public Optional<Edge> getEdge(String edgeId) {
+		return Optional.ofNullable(this.edgesById.get(edgeId));
+	}
+
+	/**
+	 * Gets all Edges.
+	 *
+	 * @return an unmodifiable Collection of Edges
+	 */
+	public Collection<Edge> getAllEdges() {
+		return this.allEdges;
+	}
+
+	/**
+	 * Gets the User with 'ADMIN'-permissions on all Edges of this index.
+	 *
+	 * @return the User
+	 */
+	public BackendUser getUser() {
+		return this.user;
+	}
+
+	/**
+	 * Gets the number of Edges.
+	 *
+	 * @return the number of Edges
+	 */
+	public int size() {
+		return this.edgesById.size();
+	}
+}
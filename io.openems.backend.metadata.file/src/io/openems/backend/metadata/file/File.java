@@ -1,15 +1,17 @@
 package io.openems.backend.metadata.file;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
@@ -21,18 +23,12 @@ import org.osgi.service.metatype.annotations.Designate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-
 import io.openems.backend.common.component.AbstractOpenemsBackendComponent;
 import io.openems.backend.metadata.api.Edge;
-import io.openems.backend.metadata.api.Edge.State;
 import io.openems.backend.metadata.api.Metadata;
 import io.openems.backend.metadata.api.BackendUser;
 import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
 import io.openems.common.exceptions.OpenemsException;
-import io.openems.common.session.Role;
-import io.openems.common.types.EdgeConfig;
 import io.openems.common.utils.JsonUtils;
 
 /**
@@ -53,6 +49,10 @@ import io.openems.common.utils.JsonUtils;
  * <p>
  * This implementation does not require any login. It always serves the same
  * user, which has 'ADMIN'-permissions on all given Edges.
+ * 
+ * <p>
+ * Lookups use an immutable {@link EdgeIndex}. Changes to the file are detected
+ * and loaded into a new index; unchanged Edges are kept.
  */
 @Designate(ocd = Config.class, factory = false)
 @Component(name = "Metadata.File", configurationPolicy = ConfigurationPolicy.REQUIRE)
@@ -60,10 +60,14 @@ public class File extends AbstractOpenemsBackendComponent implements Metadata {
 
 	private final Logger log = LoggerFactory.getLogger(File.class);
 
-	private final BackendUser user = new BackendUser("admin", "Administrator");
-	private final Map<String, Edge> edges = new HashMap<>();
+	/**
+	 * The current index; replaced on every reload.
+	 */
+	private volatile EdgeIndex index = EdgeIndex.EMPTY;
 
 	private String path = "";
+	private WatchService watchService = null;
+	private Thread watcher = null;
 
 	public File() {
 		super("Metadata.File");
@@ -78,16 +82,30 @@ public class File extends AbstractOpenemsBackendComponent implements Metadata {
 		CompletableFuture.runAsync(() -> {
 			this.refreshData();
 		});
+
+		if (config.watch()) {
+			this.startWatcher();
+		}
 	}
 
 	@Deactivate
 	void deactivate() {
 		this.logInfo(this.log, "Deactivate");
+		if (this.watcher != null) {
+			this.watcher.interrupt();
+		}
+		if (this.watchService != null) {
+			try {
+				this.watchService.close();
+			} catch (IOException e) {
+				this.logWarn(this.log, "Unable to close file watcher: " + e.getMessage());
+			}
+		}
 	}
 
 	@Override
 	public BackendUser authenticate() throws OpenemsException {
-		return this.user;
+		return this.getIndex().getUser();
 	}
 
 	@Override
@@ -101,82 +119,104 @@ public class File extends AbstractOpenemsBackendComponent implements Metadata {
 	}
 
 	@Override
-	public synchronized Optional<String> getEdgeIdForApikey(String apikey) {
-		this.refreshData();
-		for (Entry<String, Edge> entry : this.edges.entrySet()) {
-			Edge edge = entry.getValue();
-			if (edge.getApikey().equals(apikey)) {
-				return Optional.of(edge.getId());
-			}
-		}
-		return Optional.empty();
+	public Optional<String> getEdgeIdForApikey(String apikey) {
+		return this.getIndex().getEdgeIdForApikey(apikey);
 	}
 
 	@Override
-	public synchronized Optional<Edge> getEdge(String edgeId) {
-		this.refreshData();
-		Edge edge = this.edges.get(edgeId);
-		return Optional.ofNullable(edge);
+	public Optional<Edge> getEdge(String edgeId) {
+		return this.getIndex().getEdge(edgeId);
 	}
 
 	@Override
 	public Optional<BackendUser> getUser(String userId) {
-		return Optional.of(this.user);
+		return Optional.of(this.getIndex().getUser());
 	}
 
 	@Override
-	public synchronized Collection<Edge> getAllEdges() {
-		this.refreshData();
-		return Collections.unmodifiableCollection(this.edges.values());
+	public Collection<Edge> getAllEdges() {
+		return this.getIndex().getAllEdges();
+	}
+
+	/**
+	 * Gets the current index. Tries to read the file if no Edges were read yet.
+	 * 
+	 * @return the EdgeIndex
+	 */
+	private EdgeIndex getIndex() {
+		EdgeIndex index = this.index;
+		if (index.size() == 0) {
+			this.refreshData();
+			index = this.index;
+		}
+		return index;
 	}
 
+	/**
+	 * Reads the file and replaces the index. On error the previous index is kept.
+	 */
 	private synchronized void refreshData() {
-		if (this.edges.isEmpty()) {
-			// read file
-			StringBuilder sb = new StringBuilder();
-			String line = null;
-			try (BufferedReader br = new BufferedReader(new FileReader(this.path))) {
-				while ((line = br.readLine()) != null) {
-					sb.append(line);
-				}
-			} catch (IOException e) {
-				this.logWarn(this.log, "Unable to read file [" + this.path + "]: " + e.getMessage());
-				e.printStackTrace();
-				return;
-			}
+		// read file
+		String content;
+		try {
+			content = new String(Files.readAllBytes(Paths.get(this.path)), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			this.logWarn(this.log, "Unable to read file [" + this.path + "]: " + e.getMessage());
+			return;
+		}
 
-			List<Edge> edges = new ArrayList<>();
+		// parse to JSON
+		EdgeIndex previous = this.index;
+		try {
+			this.index = EdgeIndex.from(JsonUtils.parse(content), previous);
+		} catch (OpenemsNamedException e) {
+			this.logWarn(this.log, "Unable to JSON-parse file [" + this.path + "]: " + e.getMessage());
+			return;
+		}
+		if (previous.size() != this.index.size()) {
+			this.logInfo(this.log, "Read [" + this.index.size() + "] Edges from file [" + this.path + "]");
+		}
+	}
 
-			// parse to JSON
-			try {
-				JsonElement config = JsonUtils.parse(sb.toString());
-				JsonObject jEdges = JsonUtils.getAsJsonObject(config, "edges");
-				for (Entry<String, JsonElement> entry : jEdges.entrySet()) {
-					JsonObject edge = JsonUtils.getAsJsonObject(entry.getValue());
-					edges.add(new Edge(//
-							entry.getKey(), // Edge-ID
-							JsonUtils.getAsString(edge, "apikey"), //
-							JsonUtils.getAsString(edge, "comment"), //
-							State.ACTIVE, // State
-							"", // Version
-							"", // Product-Type
-							new EdgeConfig(), // Config
-							null, // State of Charge
-							null, // IPv4
-							null // _sum/State
-					));
+	/**
+	 * Starts a thread that reloads the file on change.
+	 */
+	private void startWatcher() {
+		Path file = Paths.get(this.path).toAbsolutePath();
+		Path directory = file.getParent();
+		if (directory == null) {
+			return;
+		}
+		try {
+			this.watchService = FileSystems.getDefault().newWatchService();
+			directory.register(this.watchService, StandardWatchEventKinds.ENTRY_CREATE,
+					StandardWatchEventKinds.ENTRY_MODIFY);
+		} catch (IOException e) {
+			this.logWarn(this.log, "Unable to watch file [" + this.path + "]: " + e.getMessage());
+			return;
+		}
+		WatchService watchService = this.watchService;
+		this.watcher = new Thread(() -> {
+			while (!Thread.currentThread().isInterrupted()) {
+				WatchKey key;
+				try {
+					key = watchService.take();
+				} catch (InterruptedException | ClosedWatchServiceException e) {
+					return;
+				}
+				boolean isChanged = false;
+				for (WatchEvent<?> event : key.pollEvents()) {
+					if (file.getFileName().equals(event.context())) {
+						isChanged = true;
+					}
+				}
+				key.reset();
+				if (isChanged) {
+					this.refreshData();
 				}
-			} catch (OpenemsNamedException e) {
-				this.logWarn(this.log, "Unable to JSON-parse file [" + this.path + "]: " + e.getMessage());
-				e.printStackTrace();
-				return;
-			}
-
-			// Add Edges and configure User permissions
-			for (Edge edge : edges) {
-				this.edges.put(edge.getId(), edge);
-				this.user.addEdgeRole(edge.getId(), Role.ADMIN);
 			}
-		}
+		}, "Metadata.File-Watcher");
+		this.watcher.setDaemon(true);
+		this.watcher.start();
 	}
 }
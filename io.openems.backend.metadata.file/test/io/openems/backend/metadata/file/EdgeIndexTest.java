@@ -0,0 +1,51 @@
+package io.openems.backend.metadata.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import io.openems.backend.metadata.api.Edge;
+import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
+import io.openems.common.session.Role;
+import io.openems.common.utils.JsonUtils;
+
+public class EdgeIndexTest {
+
+	@Test
+	public void test() throws OpenemsNamedException {
+		EdgeIndex index0 = EdgeIndex.from(JsonUtils.parse("{ edges: {" //
+				+ "edge0: { comment: 'Edge #0', apikey: 'apikey0' }," //
+				+ "edge1: { comment: 'Edge #1', apikey: 'apikey1' }" //
+				+ "} }"), EdgeIndex.EMPTY);
+		assertEquals(2, index0.size());
+		assertEquals("edge1", index0.getEdgeIdForApikey("apikey1").get());
+		assertFalse(index0.getEdgeIdForApikey("apikey2").isPresent());
+		assertEquals(Role.ADMIN, index0.getUser().getEdgeRole("edge0").get());
+		Edge edge0 = index0.getEdge("edge0").get();
+		Edge edge1 = index0.getEdge("edge1").get();
+		edge1.setOnline(true);
+
+		// reload: edge0 unchanged, edge1 changed, edge2 added
+		EdgeIndex index1 = EdgeIndex.from(JsonUtils.parse("{ edges: {" //
+				+ "edge0: { comment: 'Edge #0', apikey: 'apikey0' }," //
+				+ "edge1: { comment: 'Edge #1', apikey: 'apikey1b' }," //
+				+ "edge2: { comment: 'Edge #2', apikey: 'apikey2' }" //
+				+ "} }"), index0);
+		assertEquals(3, index1.size());
+		assertEquals(3, index1.getAllEdges().size());
+		assertSame(edge0, index1.getEdge("edge0").get());
+		assertNotSame(edge1, index1.getEdge("edge1").get());
+		assertTrue(index1.getEdge("edge1").get().isOnline());
+		assertFalse(index1.getEdgeIdForApikey("apikey1").isPresent());
+		assertEquals("edge1", index1.getEdgeIdForApikey("apikey1b").get());
+
+		// previous index is not modified
+		assertEquals(2, index0.size());
+		assertFalse(index0.getUser().getEdgeRole("edge2").isPresent());
+	}
+
+}
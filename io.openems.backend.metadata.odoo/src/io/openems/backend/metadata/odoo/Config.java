@@ -18,6 +18,12 @@ import org.osgi.service.metatype.annotations.ObjectClassDefinition;
 
 	@AttributeDefinition(name = "URL", description = "The odoo URL")
 	String url();
-	
+
+	@AttributeDefinition(name = "Write Interval", description = "Interval in seconds for writing changed Edge fields to Odoo. Only the latest value per Edge and field is written.")
+	int writeInterval() default 5;
+
+	@AttributeDefinition(name = "Snapshot File", description = "Optional path to a local snapshot of the Edges. If set, Edges are restored from the snapshot at startup while Odoo is read in the background. The file contains the apikeys of all Edges; it is created readable by its owner only - keep it on a protected file system.")
+	String snapshotFile() default "";
+
 	String webconsole_configurationFactory_nameHint() default "Metadata.Odoo";
 }
@@ -1,8 +1,11 @@
 package io.openems.backend.metadata.odoo;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import io.openems.backend.metadata.api.Edge;
@@ -23,16 +26,44 @@ public class EdgeCache {
 	private ConcurrentHashMap<String, String> apikeyToEdgeId = new ConcurrentHashMap<>();
 
 	/**
-	 * Adds an Edge to the Cache.
+	 * Adds an Edge to the Cache. An Edge with the same Odoo-ID is replaced.
 	 * 
 	 * @param edge the Edge
 	 */
-	public void add(MyEdge edge) {
+	public synchronized void add(MyEdge edge) {
+		MyEdge previous = this.getEdgeFromOdooId(edge.getOdooId());
+		if (previous != null) {
+			this.remove(previous);
+		}
 		this.edgeIdToEdge.put(edge.getId(), edge);
 		this.odooIdToEdgeId.put(edge.getOdooId(), edge.getId());
 		this.apikeyToEdgeId.put(edge.getApikey(), edge.getId());
 	}
 
+	/**
+	 * Removes all Edges whose Odoo-ID is not in the given Set, e.g. Edges that
+	 * were restored from a snapshot but were deleted in Odoo.
+	 * 
+	 * @param odooIds the Odoo-IDs to keep
+	 * @return the number of removed Edges
+	 */
+	public synchronized int retainAll(Set<Integer> odooIds) {
+		int count = 0;
+		for (MyEdge edge : this.edgeIdToEdge.values()) {
+			if (!odooIds.contains(edge.getOdooId())) {
+				this.remove(edge);
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private void remove(MyEdge edge) {
+		this.edgeIdToEdge.remove(edge.getId(), edge);
+		this.odooIdToEdgeId.remove(edge.getOdooId(), edge.getId());
+		this.apikeyToEdgeId.remove(edge.getApikey(), edge.getId());
+	}
+
 	/**
 	 * Gets an Edge from its Edge-ID.
 	 * 
@@ -76,4 +107,13 @@ public class EdgeCache {
 		return Collections.unmodifiableCollection(this.edgeIdToEdge.values());
 	}
 
+	/**
+	 * Gets all Edges as MyEdge.
+	 * 
+	 * @return a new List of Edges
+	 */
+	public List<MyEdge> getAllMyEdges() {
+		return new ArrayList<>(this.edgeIdToEdge.values());
+	}
+
 }
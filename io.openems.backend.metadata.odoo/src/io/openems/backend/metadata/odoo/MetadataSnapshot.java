@@ -0,0 +1,97 @@
+package io.openems.backend.metadata.odoo;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+
+import io.openems.backend.metadata.api.Edge.State;
+import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
+import io.openems.common.utils.JsonUtils;
+
+/**
+ * Reads and writes a local snapshot of the Edges from Odoo.
+ *
+ * <p>
+ * The snapshot allows serving Edge authentication right after a restart while
+ * the Edges are read from Odoo in the background. As it contains the apikeys of
+ * all Edges, the file is only readable by its owner.
+ */
+public class MetadataSnapshot {
+
+	private MetadataSnapshot() {
+	}
+
+	/**
+	 * Reads the Edges from a snapshot file.
+	 *
+	 * @param file the snapshot file
+	 * @return the Edges
+	 * @throws IOException           on error
+	 * @throws OpenemsNamedException on error
+	 */
+	public static List<MyEdge> read(Path file) throws IOException, OpenemsNamedException {
+		JsonArray edges;
+		try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			edges = JsonUtils.getAsJsonArray(new JsonParser().parse(reader));
+		}
+		List<MyEdge> result = new ArrayList<>(edges.size());
+		for (JsonElement edge : edges) {
+			result.add(new MyEdge(//
+					JsonUtils.getAsInt(edge, "odooId"), //
+					JsonUtils.getAsString(edge, "id"), //
+					JsonUtils.getAsString(edge, "apikey"), //
+					JsonUtils.getAsOptionalString(edge, "comment").orElse(""), //
+					State.valueOf(JsonUtils.getAsString(edge, "state")), //
+					JsonUtils.getAsOptionalString(edge, "version").orElse(""), //
+					JsonUtils.getAsOptionalString(edge, "producttype").orElse(""), //
+					JsonUtils.getAsOptionalString(edge, "config").orElse(""), //
+					null, null, null));
+		}
+		return result;
+	}
+
+	/**
+	 * Writes the Edges to a snapshot file. The file is replaced atomically and
+	 * created with owner-only permissions on POSIX file systems.
+	 *
+	 * @param file  the snapshot file
+	 * @param edges the Edges
+	 * @throws IOException on error
+	 */
+	public static void write(Path file, Collection<MyEdge> edges) throws IOException {
+		JsonArray result = new JsonArray();
+		for (MyEdge edge : edges) {
+			result.add(JsonUtils.buildJsonObject() //
+					.addProperty("odooId", edge.getOdooId()) //
+					.addProperty("id", edge.getId()) //
+					.addProperty("apikey", edge.getApikey()) //
+					.addProperty("comment", edge.getComment()) //
+					.addProperty("state", edge.getState().name()) //
+					.addProperty("version", edge.getVersion().toString()) //
+					.addProperty("producttype", edge.getProducttype()) //
+					.addProperty("config", edge.getConfigJson()) //
+					.build());
+		}
+		Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+		Files.deleteIfExists(tmp);
+		if (tmp.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+			Files.createFile(tmp, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+		}
+		try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+			writer.write(result.toString());
+		}
+		Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+}
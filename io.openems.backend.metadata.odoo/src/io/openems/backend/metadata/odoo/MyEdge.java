@@ -1,21 +1,123 @@
 package io.openems.backend.metadata.odoo;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import io.openems.backend.metadata.api.Edge;
 import io.openems.common.channel.Level;
+import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
 import io.openems.common.types.EdgeConfig;
+import io.openems.common.utils.JsonUtils;
 
 public class MyEdge extends Edge {
 
+	private final Logger log = LoggerFactory.getLogger(MyEdge.class);
+
 	private final int odooId;
 
+	/**
+	 * The EdgeConfig as JSON string as read from Odoo; parsed on first access and
+	 * null afterwards.
+	 */
+	private volatile String configJson;
+	private volatile EdgeConfig config = null;
+	/**
+	 * True if the EdgeConfig was received from the Edge, i.e. via
+	 * {@link #setConfig(EdgeConfig)}.
+	 */
+	private boolean isConfigFromEdge = false;
+
+	/**
+	 * Creates a MyEdge.
+	 *
+	 * @param odooId      the Odoo-ID
+	 * @param edgeId      the Edge-ID
+	 * @param apikey      the API-Key
+	 * @param comment     the comment
+	 * @param state       the State
+	 * @param version     the OpenEMS version
+	 * @param producttype the product type
+	 * @param configJson  the EdgeConfig as JSON string; parsed on first access
+	 * @param soc         the State-of-Charge
+	 * @param ipv4        the IPv4 address
+	 * @param sumState    the _sum/State
+	 */
 	public MyEdge(int odooId, String edgeId, String apikey, String comment, State state, String version,
-			String producttype, EdgeConfig config, Integer soc, String ipv4, Level sumState) {
-		super(edgeId, apikey, comment, state, version, producttype, config, soc, ipv4, sumState);
+			String producttype, String configJson, Integer soc, String ipv4, Level sumState) {
+		super(edgeId, apikey, comment, state, version, producttype, null, soc, ipv4, sumState);
 		this.odooId = odooId;
+		this.configJson = configJson;
 	}
 
 	public int getOdooId() {
 		return this.odooId;
 	}
 
+	@Override
+	public EdgeConfig getConfig() {
+		if (this.configJson != null) {
+			synchronized (this) {
+				String configJson = this.configJson;
+				if (configJson != null) {
+					this.config = this.parseConfig(configJson);
+					this.configJson = null;
+				}
+			}
+		}
+		return this.config;
+	}
+
+	@Override
+	public synchronized void setConfig(EdgeConfig config) {
+		super.setConfig(config);
+		this.config = config;
+		this.configJson = null;
+		this.isConfigFromEdge = true;
+	}
+
+	@Override
+	public synchronized void takeOverState(Edge other) {
+		super.takeOverState(other);
+		if (other instanceof MyEdge) {
+			MyEdge otherEdge = (MyEdge) other;
+			synchronized (otherEdge) {
+				if (otherEdge.isConfigFromEdge) {
+					// more recent than the EdgeConfig read from Odoo
+					this.config = otherEdge.config;
+					this.configJson = null;
+					this.isConfigFromEdge = true;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the EdgeConfig as JSON string, without parsing it if it was not yet
+	 * accessed.
+	 *
+	 * @return the JSON string
+	 */
+	public String getConfigJson() {
+		String configJson = this.configJson;
+		if (configJson != null) {
+			return configJson;
+		}
+		return this.getConfig().toJson().toString();
+	}
+
+	private EdgeConfig parseConfig(String configJson) {
+		if (configJson.isEmpty()) {
+			return new EdgeConfig();
+		}
+		try {
+			return EdgeConfig.fromJson(//
+					JsonUtils.getAsJsonObject(//
+							JsonUtils.parse(configJson)));
+		} catch (OpenemsNamedException e) {
+			this.log.debug("Unable to read Edge Config for Odoo-ID [" + this.odooId + "] Edge-ID [" + this.getId()
+					+ "]: " + e.getMessage());
+			return new EdgeConfig();
+		}
+	}
+
 }
@@ -1,12 +1,25 @@
 package io.openems.backend.metadata.odoo;
 
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
 
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
@@ -16,6 +29,7 @@ import org.osgi.service.metatype.annotations.Designate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.gson.GsonBuilder;
 
 import io.openems.backend.common.component.AbstractOpenemsBackendComponent;
@@ -31,10 +45,8 @@ import io.openems.common.exceptions.OpenemsError;
 import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
 import io.openems.common.exceptions.OpenemsException;
 import io.openems.common.jsonrpc.base.JsonrpcResponseSuccess;
-import io.openems.common.types.EdgeConfig;
 import io.openems.common.types.EdgeConfigDiff;
 import io.openems.common.types.EdgeConfig.Component.JsonFormat;
-import io.openems.common.utils.JsonUtils;
 import io.openems.common.utils.StringUtils;
 
 @Designate(ocd = Config.class, factory = false)
@@ -45,6 +57,12 @@ public class Odoo extends AbstractOpenemsBackendComponent implements Metadata {
 
 	private static final int READ_BATCH_SIZE = 300;
 	private static final int MAX_TRIES = 10;
+	private static final int MAX_PARALLEL_READS = 4;
+
+	private static final Field[] EDGE_FIELDS = new Field[] { Field.EdgeDevice.ID, Field.EdgeDevice.APIKEY,
+			Field.EdgeDevice.NAME, Field.EdgeDevice.COMMENT, Field.EdgeDevice.OPENEMS_VERSION,
+			Field.EdgeDevice.PRODUCT_TYPE, Field.EdgeDevice.OPENEMS_CONFIG, Field.EdgeDevice.SOC, Field.EdgeDevice.IPV4,
+			Field.EdgeDevice.STATE, Field.EdgeDevice.OPENEMS_SUM_STATE, Field.EdgeDevice.OPENEMS_IS_CONNECTED };
 
 	private final Logger log = LoggerFactory.getLogger(Odoo.class);
 	private final OdooWriteWorker writeWorker;
@@ -60,7 +78,14 @@ public class Odoo extends AbstractOpenemsBackendComponent implements Metadata {
 	 */
 	private EdgeCache edges = new EdgeCache();
 
+	/**
+	 * Odoo-IDs of the Edges that were read from Odoo since activation.
+	 */
+	private final Set<Integer> freshOdooIds = ConcurrentHashMap.newKeySet();
+
 	private CompletableFuture<Void> initializeEdgesTask = null;
+	private volatile boolean isInitialized = false;
+	private Path snapshotFile = null;
 
 	public Odoo() {
 		super("Metadata.Odoo");
@@ -72,21 +97,29 @@ public class Odoo extends AbstractOpenemsBackendComponent implements Metadata {
 		this.logInfo(this.log, "Activate [url=" + config.url() + ";database=" + config.database() + ";uid="
 				+ config.uid() + ";password=" + (config.password() != null ? "ok" : "NOT_SET") + "]");
 		this.odooCredentials = OdooCredentials.fromConfig(config);
-		this.writeWorker.start(odooCredentials);
+		this.writeWorker.start(odooCredentials, config.writeInterval());
+		if (config.snapshotFile() != null && !config.snapshotFile().trim().isEmpty()) {
+			this.snapshotFile = Paths.get(config.snapshotFile().trim());
+			this.readSnapshot();
+		}
 		this.initializeEdgesTask = CompletableFuture.runAsync(this.initializeEdges);
 	}
 
 	@Deactivate
 	void deactivate() {
 		this.logInfo(this.log, "Deactivate");
-		this.writeWorker.stop();
+		this.writeWorker.stop(this.odooCredentials);
 		if (this.initializeEdgesTask != null) {
 			this.initializeEdgesTask.cancel(true);
 		}
+		if (this.isInitialized) {
+			this.writeSnapshot();
+		}
 	}
 
 	/**
-	 * Reads all Edges from Odoo and puts them in a local Cache.
+	 * Reads all Edges from Odoo and puts them in a local Cache. Batches are read
+	 * in parallel.
 	 */
 	private Runnable initializeEdges = () -> {
 		// get the Odoo-IDs for each Edge
@@ -100,96 +133,176 @@ public class Odoo extends AbstractOpenemsBackendComponent implements Metadata {
 		}
 
 		// read Edge records from Odoo in batches
-		for (int firstIndex = 0; firstIndex < edgeIds.length; firstIndex += READ_BATCH_SIZE) {
-			this.logInfo(this.log, "Reading batch of [" + READ_BATCH_SIZE + "] starting from [" + firstIndex + "]");
-
-			// collect Odoo-IDs for batch
-			int lastIndex = firstIndex + READ_BATCH_SIZE - 1 > edgeIds.length ? edgeIds.length
-					: firstIndex + READ_BATCH_SIZE - 1;
-			Integer[] batchEdgeIds = new Integer[lastIndex - firstIndex + 1];
-			// note: Odoo explicitly needs Integer[] and not int[]
-			for (int i = 0; i <= lastIndex - firstIndex; i++) {
-				batchEdgeIds[i] = edgeIds[firstIndex + i];
+		ExecutorService executor = Executors.newFixedThreadPool(MAX_PARALLEL_READS, new ThreadFactoryBuilder() //
+				.setNameFormat("Metadata.Odoo-Init-%d") //
+				.setDaemon(true) //
+				.build());
+		AtomicBoolean isComplete = new AtomicBoolean(true);
+		try {
+			List<CompletableFuture<Void>> futures = new ArrayList<>();
+			for (int firstIndex = 0; firstIndex < edgeIds.length; firstIndex += READ_BATCH_SIZE) {
+				// collect Odoo-IDs for batch
+				// note: Odoo explicitly needs Integer[] and not int[]
+				Integer[] batchEdgeIds = IntStream.of(edgeIds) //
+						.skip(firstIndex) //
+						.limit(READ_BATCH_SIZE) //
+						.boxed() //
+						.toArray(Integer[]::new);
+				final int index = firstIndex;
+				futures.add(CompletableFuture.runAsync(() -> {
+					if (!this.readBatch(index, batchEdgeIds)) {
+						isComplete.set(false);
+					}
+				}, executor));
 			}
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+		} catch (CancellationException | CompletionException e) {
+			this.logWarn(this.log, "Reading batches aborted: " + e.getMessage());
+			return;
+		} finally {
+			executor.shutdownNow();
+		}
+		this.isInitialized = true;
+		this.logInfo(this.log, "Reading batches finished");
 
-			// read data from Odoo
-			Map<String, Object>[] edgeMaps = null;
-			boolean retry = true;
-			int tries = MAX_TRIES;
-			while (tries-- > 0 && retry) {
-				try {
-					edgeMaps = OdooUtils.readMany(Odoo.this.odooCredentials, ODOO_MODEL, //
-							batchEdgeIds, //
-							new Field[] { Field.EdgeDevice.ID, Field.EdgeDevice.APIKEY, Field.EdgeDevice.NAME,
-									Field.EdgeDevice.COMMENT, Field.EdgeDevice.OPENEMS_VERSION,
-									Field.EdgeDevice.PRODUCT_TYPE, Field.EdgeDevice.OPENEMS_CONFIG,
-									Field.EdgeDevice.SOC, Field.EdgeDevice.IPV4, Field.EdgeDevice.STATE,
-									Field.EdgeDevice.OPENEMS_SUM_STATE, Field.EdgeDevice.OPENEMS_IS_CONNECTED });
-					retry = false;
-				} catch (OpenemsException e) {
-					this.logError(this.log, "Unable to read Edges from Odoo: " + e.getMessage());
-					e.printStackTrace();
-				}
+		if (isComplete.get()) {
+			// remove Edges from the snapshot that do not exist anymore
+			int removed = this.edges.retainAll(this.freshOdooIds);
+			if (removed > 0) {
+				this.logInfo(this.log, "Removed [" + removed + "] Edges that are not in Odoo anymore");
 			}
-			if (tries == 0 || edgeMaps == null) {
-				this.logError(this.log,
-						"Unable to read read batch of [" + READ_BATCH_SIZE + "] from [" + firstIndex + "]");
-				continue;
+			this.writeSnapshot();
+		}
+	};
+
+	/**
+	 * Reads a batch of Edges from Odoo and puts them in the local Cache.
+	 * 
+	 * @param firstIndex the index of the first Edge; for logging
+	 * @param odooIds    the Odoo-IDs of the Edges
+	 * @return true on success
+	 */
+	private boolean readBatch(int firstIndex, Integer[] odooIds) {
+		this.logInfo(this.log, "Reading batch of [" + odooIds.length + "] starting from [" + firstIndex + "]");
+
+		// read data from Odoo
+		Map<String, Object>[] edgeMaps = null;
+		int tries = MAX_TRIES;
+		while (tries-- > 0 && edgeMaps == null) {
+			try {
+				edgeMaps = OdooUtils.readMany(this.odooCredentials, ODOO_MODEL, odooIds, EDGE_FIELDS);
+			} catch (OpenemsException e) {
+				this.logError(this.log, "Unable to read Edges from Odoo: " + e.getMessage());
+				e.printStackTrace();
 			}
+		}
+		if (edgeMaps == null) {
+			this.logError(this.log, "Unable to read read batch of [" + odooIds.length + "] from [" + firstIndex + "]");
+			return false;
+		}
 
-			// parse fields from Odoo
-			for (Map<String, Object> edgeMap : edgeMaps) {
-				// simple fields
-				Integer odooId = OdooUtils.getAsInteger(edgeMap.get(Field.EdgeDevice.ID.n()));
-				String edgeId = OdooUtils.getAsString(edgeMap.get(Field.EdgeDevice.NAME.n()));
-
-				// Config
-				EdgeConfig config;
-				String configString = OdooUtils.getAsString(edgeMap.get(Field.EdgeDevice.OPENEMS_CONFIG.n()));
-				if (configString.isEmpty()) {
-					config = new EdgeConfig();
-				}
-				try {
-					config = EdgeConfig.fromJson(//
-							JsonUtils.getAsJsonObject(//
-									JsonUtils.parse(configString)));
-				} catch (OpenemsNamedException e) {
-					this.logDebug(this.log, "Unable to read Edge Config for Odoo-ID [" + odooId + "] Edge-ID [" + edgeId
-							+ "]: " + e.getMessage());
-					config = new EdgeConfig();
-				}
+		for (Map<String, Object> edgeMap : edgeMaps) {
+			this.addEdge(this.parseEdge(edgeMap));
+		}
+		return true;
+	}
 
-				// State
-				String stateString = OdooUtils.getAsString(edgeMap.get(Field.EdgeDevice.STATE.n()));
-				State state;
-				try {
-					state = State.valueOf(stateString.toUpperCase().replaceAll("-", "_"));
-				} catch (IllegalArgumentException e) {
-					this.logWarn(this.log,
-							"Edge [" + edgeId + "]. Unable to get State from [" + stateString + "]: " + e.getMessage());
-					state = State.INACTIVE; // Default
-				}
+	/**
+	 * Parses an Edge record from Odoo. The EdgeConfig is parsed on first access.
+	 * 
+	 * @param edgeMap the record
+	 * @return the Edge
+	 */
+	private MyEdge parseEdge(Map<String, Object> edgeMap) {
+		// simple fields
+		Integer odooId = OdooUtils.getAsInteger(edgeMap.get(Field.EdgeDevice.ID.n()));
+		String edgeId = OdooUtils.getAsString(edgeMap.get(Field.EdgeDevice.NAME.n()));
+
+		// State
+		String stateString = OdooUtils.getAsString(edgeMap.get(Field.EdgeDevice.STATE.n()));
+		State state;
+		try {
+			state = State.valueOf(stateString.toUpperCase().replaceAll("-", "_"));
+		} catch (IllegalArgumentException e) {
+			this.logWarn(this.log,
+					"Edge [" + edgeId + "]. Unable to get State from [" + stateString + "]: " + e.getMessage());
+			state = State.INACTIVE; // Default
+		}
 
-				// more simple fields
-				String apikey = OdooUtils.getAsString(edgeMap.get(Field.EdgeDevice.APIKEY.n()));
-				String comment = OdooUtils.getAsString(edgeMap.get(Field.EdgeDevice.COMMENT.n()));
-				String version = OdooUtils.getAsString(edgeMap.get(Field.EdgeDevice.OPENEMS_VERSION.n()));
-				String productType = OdooUtils.getAsString(edgeMap.get(Field.EdgeDevice.PRODUCT_TYPE.n()));
-				String initialIpv4 = OdooUtils.getAsString(edgeMap.get(Field.EdgeDevice.IPV4.n()));
-				Integer initialSoc = OdooUtils.getAsInteger(edgeMap.get(Field.EdgeDevice.SOC.n()));
-
-				// Create instance of Edge and register listeners
-				MyEdge edge = new MyEdge(//
-						odooId, //
-						edgeId, apikey, comment, state, version, productType, config, initialSoc, initialIpv4, null);
-				this.addListeners(edge);
+		// more simple fields
+		String apikey = OdooUtils.getAsString(edgeMap.get(Field.EdgeDevice.APIKEY.n()));
+		String comment = OdooUtils.getAsString(edgeMap.get(Field.EdgeDevice.COMMENT.n()));
+		String version = OdooUtils.getAsString(edgeMap.get(Field.EdgeDevice.OPENEMS_VERSION.n()));
+		String productType = OdooUtils.getAsString(edgeMap.get(Field.EdgeDevice.PRODUCT_TYPE.n()));
+		String config = OdooUtils.getAsString(edgeMap.get(Field.EdgeDevice.OPENEMS_CONFIG.n()));
+		String initialIpv4 = OdooUtils.getAsString(edgeMap.get(Field.EdgeDevice.IPV4.n()));
+		Integer initialSoc = OdooUtils.getAsInteger(edgeMap.get(Field.EdgeDevice.SOC.n()));
+
+		return new MyEdge(//
+				odooId, //
+				edgeId, apikey, comment, state, version, productType, config, initialSoc, initialIpv4, null);
+	}
+
+	/**
+	 * Registers listeners and puts an Edge read from Odoo in the local Cache. An
+	 * Edge from the snapshot is replaced, taking over the state the Edge reported
+	 * in the meantime; an Edge that was already read from Odoo is kept.
+	 * 
+	 * @param edge the Edge
+	 * @return the Edge in the Cache
+	 */
+	private MyEdge addEdge(MyEdge edge) {
+		synchronized (this.freshOdooIds) {
+			MyEdge existing = this.edges.getEdgeFromOdooId(edge.getOdooId());
+			if (!this.freshOdooIds.add(edge.getOdooId()) && existing != null) {
+				return existing;
+			}
+			this.addListeners(edge);
+			if (existing == null) {
+				this.edges.add(edge);
+				return edge;
+			}
+			synchronized (existing) {
+				// Edge might have connected with its snapshot metadata
+				edge.takeOverState(existing);
+				this.edges.add(edge);
+			}
+			return edge;
+		}
+	}
 
-				// store in cache
+	/**
+	 * Restores the local Cache from the snapshot file.
+	 */
+	private void readSnapshot() {
+		if (!Files.exists(this.snapshotFile)) {
+			return;
+		}
+		try {
+			List<MyEdge> edges = MetadataSnapshot.read(this.snapshotFile);
+			for (MyEdge edge : edges) {
+				this.addListeners(edge);
 				this.edges.add(edge);
 			}
+			this.logInfo(this.log, "Restored [" + edges.size() + "] Edges from snapshot [" + this.snapshotFile + "]");
+		} catch (IOException | OpenemsNamedException | IllegalArgumentException e) {
+			this.logWarn(this.log, "Unable to read snapshot [" + this.snapshotFile + "]: " + e.getMessage());
 		}
-		this.logInfo(this.log, "Reading batches finished");
-	};
+	}
+
+	/**
+	 * Writes the local Cache to the snapshot file.
+	 */
+	private void writeSnapshot() {
+		if (this.snapshotFile == null) {
+			return;
+		}
+		try {
+			MetadataSnapshot.write(this.snapshotFile, this.edges.getAllMyEdges());
+		} catch (IOException e) {
+			this.logWarn(this.log, "Unable to write snapshot [" + this.snapshotFile + "]: " + e.getMessage());
+		}
+	}
 
 	/**
 	 * Adds Listeners to act on changes to Edge.
@@ -317,18 +430,13 @@ public class Odoo extends AbstractOpenemsBackendComponent implements Metadata {
 	}
 
 	/**
-	 * Writes one field to Odoo.
+	 * Queues fields of an Edge for writing to Odoo. See {@link OdooWriteWorker}.
 	 * 
 	 * @param edge        the Edge
 	 * @param fieldValues the FieldValues
 	 */
 	private void write(MyEdge edge, FieldValue<?>... fieldValues) {
-		try {
-			OdooUtils.write(this.odooCredentials, ODOO_MODEL, new Integer[] { edge.getOdooId() }, fieldValues);
-		} catch (OpenemsException e) {
-			this.logError(this.log, "Unable to update Edge [" + edge.getId() + "] Odoo-ID [" + edge.getOdooId()
-					+ "] Fields [" + fieldValues.toString() + "]: " + e.getMessage());
-		}
+		this.writeWorker.write(edge, fieldValues);
 	}
 
 	@Override
@@ -338,7 +446,27 @@ public class Odoo extends AbstractOpenemsBackendComponent implements Metadata {
 
 	@Override
 	public Optional<String> getEdgeIdForApikey(String apikey) {
-		return this.edges.getEdgeIdFromApikey(apikey);
+		Optional<String> edgeId = this.edges.getEdgeIdFromApikey(apikey);
+		if (edgeId.isPresent() || this.isInitialized) {
+			return edgeId;
+		}
+		// Edges are still being read from Odoo: read this Edge directly
+		try {
+			int[] odooIds = OdooUtils.search(this.odooCredentials, ODOO_MODEL,
+					new Domain(Field.EdgeDevice.APIKEY.n(), "=", apikey));
+			if (odooIds.length == 0) {
+				return Optional.empty();
+			}
+			Map<String, Object>[] edgeMaps = OdooUtils.readMany(this.odooCredentials, ODOO_MODEL,
+					new Integer[] { odooIds[0] }, EDGE_FIELDS);
+			if (edgeMaps.length == 0) {
+				return Optional.empty();
+			}
+			return Optional.of(this.addEdge(this.parseEdge(edgeMaps[0])).getId());
+		} catch (OpenemsException e) {
+			this.logWarn(this.log, "Unable to read Edge for Apikey from Odoo: " + e.getMessage());
+			return Optional.empty();
+		}
 	}
 
 	@Override
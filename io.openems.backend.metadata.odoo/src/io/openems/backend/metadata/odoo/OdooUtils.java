@@ -10,6 +10,7 @@ import java.net.URL;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.xmlrpc.XmlRpcException;
 import org.apache.xmlrpc.client.XmlRpcClient;
@@ -80,23 +81,36 @@ public class OdooUtils {
 			}
 
 		} catch (IOException e) {
-			e.printStackTrace();
-			throw OpenemsError.GENERIC.exception(e.getMessage());
-		} finally {
+			// drop the connection; on success it is kept alive for reuse
 			if (connection != null) {
 				connection.disconnect();
 			}
+			e.printStackTrace();
+			throw OpenemsError.GENERIC.exception(e.getMessage());
 		}
 	}
 
+	/**
+	 * XML-RPC clients per Odoo URL. Clients are thread-safe; reusing them allows
+	 * reusing the kept-alive HTTP connections.
+	 */
+	private static final Map<String, XmlRpcClient> XML_RPC_CLIENTS = new ConcurrentHashMap<>();
+
 	private static Object executeKw(String url, Object[] params) throws XmlRpcException, MalformedURLException {
-		final XmlRpcClient client = new XmlRpcClient();
-		XmlRpcClientConfigImpl config = new XmlRpcClientConfigImpl();
-		config.setEnabledForExtensions(true);
-		config.setServerURL(new URL(String.format("%s/xmlrpc/2/object", url)));
-		config.setConnectionTimeout(10_000 /* 10 seconds */);
-		config.setReplyTimeout(60_000 /* 60 seconds */);
-		client.setConfig(config);
+		XmlRpcClient client = XML_RPC_CLIENTS.get(url);
+		if (client == null) {
+			client = new XmlRpcClient();
+			XmlRpcClientConfigImpl config = new XmlRpcClientConfigImpl();
+			config.setEnabledForExtensions(true);
+			config.setServerURL(new URL(String.format("%s/xmlrpc/2/object", url)));
+			config.setConnectionTimeout(10_000 /* 10 seconds */);
+			config.setReplyTimeout(60_000 /* 60 seconds */);
+			client.setConfig(config);
+			XmlRpcClient existing = XML_RPC_CLIENTS.putIfAbsent(url, client);
+			if (existing != null) {
+				client = existing;
+			}
+		}
 		return client.execute("execute_kw", params);
 	}
 
@@ -2,7 +2,13 @@ package io.openems.backend.metadata.odoo;
 
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -16,9 +22,19 @@ import org.slf4j.LoggerFactory;
 import io.openems.common.exceptions.OpenemsException;
 
 /**
- * This worker combines writes to lastMessage and lastUpdate fields, to avoid
- * DDOSing Odoo by writing too often.
- * 
+ * This worker combines writes to Odoo, to avoid DDOSing Odoo by writing too
+ * often.
+ *
+ * <ul>
+ * <li>lastMessage and lastUpdate fields are written every
+ * {@link #UPDATE_INTERVAL_IN_SECONDS}
+ * <li>all other fields are collected per Edge and written every 'writeInterval'
+ * seconds. Only the latest value per Edge and field is kept. Edges with the
+ * same value for a field are written in one call.
+ * <li>fields that are queued together - e.g. OPENEMS_SUM_STATE and
+ * OPENEMS_SUM_STATE_TEXT - are kept, written and requeued as one unit.
+ * </ul>
+ *
  * @author stefan.feilmeier
  *
  */
@@ -26,37 +42,65 @@ public class OdooWriteWorker {
 
 	private static final int UPDATE_INTERVAL_IN_SECONDS = 60;
 
+	/**
+	 * Maximum number of records per 'write' call.
+	 */
+	protected static final int MAX_IDS_PER_WRITE = 500;
+
 	private final Logger log = LoggerFactory.getLogger(OdooWriteWorker.class);
 	private final Odoo parent;
 
 	/**
-	 * Holds the scheduled task.
+	 * Holds the scheduled tasks.
 	 */
-	private ScheduledFuture<?> future = null;
+	private final List<ScheduledFuture<?>> futures = new ArrayList<>();
 
 	/**
 	 * Executor for subscriptions task.
 	 */
 	private final ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
 
+	/**
+	 * Pending values per fields per Odoo-ID; guarded by itself.
+	 */
+	private final Map<Integer, Map<List<Field>, List<Object>>> pendingFieldValues = new HashMap<>();
+
 	public OdooWriteWorker(Odoo parent) {
 		this.parent = parent;
 	}
 
-	public synchronized void start(OdooCredentials odooCredentials) {
-		this.future = this.executor.scheduleWithFixedDelay(//
+	/**
+	 * Starts the worker.
+	 *
+	 * @param odooCredentials the Odoo credentials
+	 * @param writeInterval   the interval for writing field values in seconds
+	 */
+	public synchronized void start(OdooCredentials odooCredentials, int writeInterval) {
+		this.futures.add(this.executor.scheduleWithFixedDelay(//
 				() -> task.accept(odooCredentials), //
-				0, UPDATE_INTERVAL_IN_SECONDS, TimeUnit.SECONDS);
+				0, UPDATE_INTERVAL_IN_SECONDS, TimeUnit.SECONDS));
+		this.futures.add(this.executor.scheduleWithFixedDelay(//
+				() -> this.flush(odooCredentials), //
+				writeInterval, Math.max(1, writeInterval), TimeUnit.SECONDS));
 	}
 
-	public synchronized void stop() {
+	/**
+	 * Stops the worker after writing pending field values.
+	 *
+	 * @param odooCredentials the Odoo credentials
+	 */
+	public synchronized void stop(OdooCredentials odooCredentials) {
 		// unsubscribe regular task
-		if (this.future != null) {
-			this.future.cancel(true);
+		for (ScheduledFuture<?> future : this.futures) {
+			future.cancel(false);
 		}
+		this.futures.clear();
 		// Shutdown executor
 		if (this.executor != null) {
 			try {
+				if (odooCredentials != null) {
+					executor.execute(() -> this.flush(odooCredentials));
+				}
 				executor.shutdown();
 				executor.awaitTermination(5, TimeUnit.SECONDS);
 			} catch (InterruptedException e) {
@@ -76,33 +120,27 @@ public class OdooWriteWorker {
 		 */
 		String time = OdooUtils.DATETIME_FORMATTER.format(ZonedDateTime.now(ZoneOffset.UTC));
 		{
-			Integer[] ids;
+			List<Integer> ids;
 			synchronized (this.lastMessageOdooIds) {
-				ids = this.lastMessageOdooIds.toArray(new Integer[this.lastMessageOdooIds.size()]);
+				ids = new ArrayList<>(this.lastMessageOdooIds);
 				this.lastMessageOdooIds.clear();
 			}
-			if (ids.length > 0) {
-				try {
-					OdooUtils.write(odooCredentials, Odoo.ODOO_MODEL, ids,
-							new FieldValue<String>(Field.EdgeDevice.LAST_MESSAGE, time));
-				} catch (OpenemsException e) {
-					log.error("Unable to write lastMessage: " + e.getMessage());
-				}
+			try {
+				this.write(odooCredentials, ids, new FieldValue<String>(Field.EdgeDevice.LAST_MESSAGE, time));
+			} catch (OpenemsException e) {
+				log.error("Unable to write lastMessage: " + e.getMessage());
 			}
 		}
 		{
-			Integer[] ids;
+			List<Integer> ids;
 			synchronized (this.lastUpdateOdooIds) {
-				ids = this.lastUpdateOdooIds.toArray(new Integer[this.lastUpdateOdooIds.size()]);
+				ids = new ArrayList<>(this.lastUpdateOdooIds);
 				this.lastUpdateOdooIds.clear();
 			}
-			if (ids.length > 0) {
-				try {
-					OdooUtils.write(odooCredentials, Odoo.ODOO_MODEL, ids,
-							new FieldValue<String>(Field.EdgeDevice.LAST_UPDATE, time));
-				} catch (OpenemsException e) {
-					log.error("Unable to write lastUpdate: " + e.getMessage());
-				}
+			try {
+				this.write(odooCredentials, ids, new FieldValue<String>(Field.EdgeDevice.LAST_UPDATE, time));
+			} catch (OpenemsException e) {
+				log.error("Unable to write lastUpdate: " + e.getMessage());
 			}
 		}
 	};
@@ -122,4 +160,125 @@ public class OdooWriteWorker {
 		}
 	}
 
+	/**
+	 * Queues field values of an Edge for writing. The field values are written
+	 * together in one call. Previously queued values of the same fields are
+	 * replaced.
+	 *
+	 * @param edge        the Edge
+	 * @param fieldValues the FieldValues
+	 */
+	public void write(MyEdge edge, FieldValue<?>... fieldValues) {
+		if (fieldValues.length == 0) {
+			return;
+		}
+		List<Field> fields = new ArrayList<>(fieldValues.length);
+		List<Object> values = new ArrayList<>(fieldValues.length);
+		for (FieldValue<?> fieldValue : fieldValues) {
+			fields.add(fieldValue.getField());
+			values.add(fieldValue.getValue());
+		}
+		synchronized (this.pendingFieldValues) {
+			Map<List<Field>, List<Object>> pending = this.pendingFieldValues.computeIfAbsent(edge.getOdooId(),
+					id -> new HashMap<>());
+			pending.keySet().removeIf(f -> !Collections.disjoint(f, fields));
+			pending.put(fields, values);
+		}
+	}
+
+	/**
+	 * Gets the number of Edges with pending field values.
+	 *
+	 * @return the number of Edges
+	 */
+	public int getPendingCount() {
+		synchronized (this.pendingFieldValues) {
+			return this.pendingFieldValues.size();
+		}
+	}
+
+	/**
+	 * Writes all pending field values. Values that could not be written are queued
+	 * again, unless a newer value was queued in the meantime.
+	 *
+	 * @param odooCredentials the Odoo credentials
+	 */
+	private void flush(OdooCredentials odooCredentials) {
+		Map<Integer, Map<List<Field>, List<Object>>> pending;
+		synchronized (this.pendingFieldValues) {
+			if (this.pendingFieldValues.isEmpty()) {
+				return;
+			}
+			pending = new HashMap<>(this.pendingFieldValues);
+			this.pendingFieldValues.clear();
+		}
+
+		for (Entry<List<Field>, Map<List<Object>, List<Integer>>> fields : OdooWriteWorker
+				.groupByFieldValue(pending).entrySet()) {
+			for (Entry<List<Object>, List<Integer>> values : fields.getValue().entrySet()) {
+				FieldValue<?>[] fieldValues = new FieldValue<?>[fields.getKey().size()];
+				for (int i = 0; i < fieldValues.length; i++) {
+					fieldValues[i] = new FieldValue<Object>(fields.getKey().get(i), values.getKey().get(i));
+				}
+				try {
+					this.write(odooCredentials, values.getValue(), fieldValues);
+				} catch (OpenemsException e) {
+					log.error("Unable to write " + fields.getKey() + " for [" + values.getValue().size()
+							+ "] Edges: " + e.getMessage());
+					this.requeue(values.getValue(), fields.getKey(), values.getKey());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Groups pending field values by fields and values.
+	 *
+	 * @param pending the pending values per fields per Odoo-ID
+	 * @return the Odoo-IDs per values per fields
+	 */
+	protected static Map<List<Field>, Map<List<Object>, List<Integer>>> groupByFieldValue(
+			Map<Integer, Map<List<Field>, List<Object>>> pending) {
+		Map<List<Field>, Map<List<Object>, List<Integer>>> result = new HashMap<>();
+		for (Entry<Integer, Map<List<Field>, List<Object>>> edge : pending.entrySet()) {
+			for (Entry<List<Field>, List<Object>> fieldValues : edge.getValue().entrySet()) {
+				result.computeIfAbsent(fieldValues.getKey(), f -> new HashMap<>()) //
+						.computeIfAbsent(fieldValues.getValue(), v -> new ArrayList<>()) //
+						.add(edge.getKey());
+			}
+		}
+		return result;
+	}
+
+	private void requeue(List<Integer> ids, List<Field> fields, List<Object> values) {
+		synchronized (this.pendingFieldValues) {
+			for (Integer id : ids) {
+				Map<List<Field>, List<Object>> pending = this.pendingFieldValues.computeIfAbsent(id,
+						i -> new HashMap<>());
+				// do not overwrite newer values
+				if (pending.keySet().stream().allMatch(f -> Collections.disjoint(f, fields))) {
+					pending.put(fields, values);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes the same field values to many records, in calls of at most
+	 * {@link #MAX_IDS_PER_WRITE} records.
+	 *
+	 * @param odooCredentials the Odoo credentials
+	 * @param ids             the Odoo-IDs
+	 * @param fieldValues     the FieldValues
+	 * @throws OpenemsException on error
+	 */
+	private void write(OdooCredentials odooCredentials, List<Integer> ids, FieldValue<?>... fieldValues)
+			throws OpenemsException {
+		for (int i = 0; i < ids.size(); i += MAX_IDS_PER_WRITE) {
+			List<Integer> batch = ids.subList(i, Math.min(ids.size(), i + MAX_IDS_PER_WRITE));
+			// note: Odoo explicitly needs Integer[] and not int[]
+			OdooUtils.write(odooCredentials, Odoo.ODOO_MODEL, batch.toArray(new Integer[batch.size()]),
+					fieldValues);
+		}
+	}
 }
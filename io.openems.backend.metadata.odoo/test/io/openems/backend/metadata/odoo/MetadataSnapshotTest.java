@@ -0,0 +1,52 @@
+package io.openems.backend.metadata.odoo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.openems.backend.metadata.api.Edge.State;
+import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
+
+public class MetadataSnapshotTest {
+
+	@Test
+	public void test() throws IOException, OpenemsNamedException {
+		Path file = Files.createTempFile("metadata", ".json");
+		try {
+			MyEdge edge0 = new MyEdge(1, "edge0", "apikey0", "comment0", State.ACTIVE, "2019.10.0", "pro", "", null,
+					null, null);
+			MyEdge edge1 = new MyEdge(2, "edge1", "apikey1", "comment1", State.TEST, "", "", "invalid", null, null,
+					null);
+			MetadataSnapshot.write(file, Arrays.asList(edge0, edge1));
+			if (file.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+				// contains apikeys: only readable by the owner
+				assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(file)));
+			}
+
+			List<MyEdge> edges = MetadataSnapshot.read(file);
+			assertEquals(2, edges.size());
+			MyEdge edge = edges.get(0);
+			assertEquals(1, edge.getOdooId());
+			assertEquals("edge0", edge.getId());
+			assertEquals("apikey0", edge.getApikey());
+			assertEquals(State.ACTIVE, edges.get(0).getState());
+			assertEquals("2019.10.0", edge.getVersion().toString());
+			assertEquals(State.TEST, edges.get(1).getState());
+
+			// config is kept unparsed; invalid config is parsed to an empty EdgeConfig
+			assertEquals("invalid", edges.get(1).getConfigJson());
+			assertTrue(edges.get(1).getConfig().getComponents().isEmpty());
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+}
@@ -0,0 +1,76 @@
+package io.openems.backend.metadata.odoo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import io.openems.backend.metadata.api.Edge.State;
+import io.openems.common.channel.Level;
+import io.openems.common.types.EdgeConfig;
+
+public class MyEdgeTest {
+
+	@Test
+	public void testTakeOverState() {
+		MyEdge snapshot = new MyEdge(1, "edge0", "apikey0", "", State.ACTIVE, "2019.10.0", "", "", null, null, null);
+		EdgeConfig config = new EdgeConfig();
+		snapshot.setOnline(true);
+		snapshot.setConfig(config);
+		snapshot.setSoc(42);
+		snapshot.setIpv4("10.0.0.1");
+		snapshot.setSumState(Level.WARNING, new HashMap<>());
+		snapshot.setLastMessageTimestamp();
+		snapshot.setLastUpdateTimestamp();
+
+		MyEdge fresh = new MyEdge(1, "edge0", "apikey0", "", State.ACTIVE, "2019.10.0", "", "{}", 10, "10.0.0.2",
+				null);
+		AtomicInteger listenerCalls = new AtomicInteger();
+		fresh.onSetOnline(isOnline -> listenerCalls.incrementAndGet());
+		fresh.onSetConfig(c -> listenerCalls.incrementAndGet());
+		fresh.takeOverState(snapshot);
+
+		assertTrue(fresh.isOnline());
+		assertSame(config, fresh.getConfig());
+		assertEquals(snapshot.getLastMessageTimestamp(), fresh.getLastMessageTimestamp());
+		assertEquals(snapshot.getLastUpdateTimestamp(), fresh.getLastUpdateTimestamp());
+		assertEquals(0, listenerCalls.get());
+
+		// unchanged values do not trigger the listeners again
+		AtomicInteger changes = new AtomicInteger();
+		fresh.onSetSoc(soc -> changes.incrementAndGet());
+		fresh.onSetIpv4(ipv4 -> changes.incrementAndGet());
+		fresh.onSetSumState((sumState, channels) -> changes.incrementAndGet());
+		fresh.setSoc(42);
+		fresh.setIpv4("10.0.0.1");
+		fresh.setSumState(Level.WARNING, new HashMap<>());
+		assertEquals(0, changes.get());
+	}
+
+	@Test
+	public void testTakeOverStateOfDisconnectedEdge() {
+		MyEdge snapshot = new MyEdge(1, "edge0", "apikey0", "", State.ACTIVE, "2019.10.0", "", "", null, null, null);
+
+		MyEdge fresh = new MyEdge(1, "edge0", "apikey0", "", State.ACTIVE, "2019.10.0", "", "{}", 10, "10.0.0.2",
+				null);
+		fresh.takeOverState(snapshot);
+
+		// values read from Odoo are kept
+		assertFalse(fresh.isOnline());
+		assertEquals("{}", fresh.getConfigJson());
+		assertNotNull(fresh.getConfig());
+		AtomicInteger changes = new AtomicInteger();
+		fresh.onSetSoc(soc -> changes.incrementAndGet());
+		fresh.onSetIpv4(ipv4 -> changes.incrementAndGet());
+		fresh.setSoc(10);
+		fresh.setIpv4("10.0.0.2");
+		assertEquals(0, changes.get());
+	}
+
+}
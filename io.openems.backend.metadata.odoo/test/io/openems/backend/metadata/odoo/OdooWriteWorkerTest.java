@@ -0,0 +1,44 @@
+package io.openems.backend.metadata.odoo;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+public class OdooWriteWorkerTest {
+
+	private static final List<Field> IS_CONNECTED = Arrays.asList(Field.EdgeDevice.OPENEMS_IS_CONNECTED);
+	private static final List<Field> SOC = Arrays.asList(Field.EdgeDevice.SOC);
+	private static final List<Field> SUM_STATE = Arrays.asList(Field.EdgeDevice.OPENEMS_SUM_STATE,
+			Field.EdgeDevice.OPENEMS_SUM_STATE_TEXT);
+
+	@Test
+	public void testGroupByFieldValue() {
+		Map<Integer, Map<List<Field>, List<Object>>> pending = new TreeMap<>();
+		for (int id = 0; id < 4; id++) {
+			Map<List<Field>, List<Object>> fieldValues = new HashMap<>();
+			fieldValues.put(IS_CONNECTED, Arrays.asList(id % 2 == 0));
+			if (id < 2) {
+				fieldValues.put(SOC, Arrays.asList("50"));
+			}
+			// same state, but different state text for Edge 3
+			fieldValues.put(SUM_STATE, Arrays.asList("warning", id == 3 ? "ess0/Fault" : "ess0/Warning"));
+			pending.put(id, fieldValues);
+		}
+
+		Map<List<Field>, Map<List<Object>, List<Integer>>> groups = OdooWriteWorker.groupByFieldValue(pending);
+		assertEquals(3, groups.size());
+		assertEquals(Arrays.asList(0, 2), groups.get(IS_CONNECTED).get(Arrays.asList(true)));
+		assertEquals(Arrays.asList(1, 3), groups.get(IS_CONNECTED).get(Arrays.asList(false)));
+		assertEquals(Arrays.asList(0, 1), groups.get(SOC).get(Arrays.asList("50")));
+		// state and state text are grouped as one unit
+		assertEquals(Arrays.asList(0, 1, 2), groups.get(SUM_STATE).get(Arrays.asList("warning", "ess0/Warning")));
+		assertEquals(Arrays.asList(3), groups.get(SUM_STATE).get(Arrays.asList("warning", "ess0/Fault")));
+	}
+
+}
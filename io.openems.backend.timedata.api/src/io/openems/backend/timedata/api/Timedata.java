@@ -1,6 +1,7 @@
 package io.openems.backend.timedata.api;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import org.osgi.annotation.versioning.ProviderType;
 
@@ -20,9 +21,21 @@ public interface Timedata extends CommonTimedataService {
 	 * @param edgeId The unique Edge-ID
 	 * @param data   Table of timestamp (epoch in seconds), Channel-Address and the
 	 *               Channel value as JsonElement. Sorted by timestamp.
+	 * @return a future that is completed once the data is persisted; completed
+	 *         exceptionally if it could not be persisted
 	 * @throws OpenemsException
 	 */
-	public void write(String edgeId, TreeBasedTable<Long, ChannelAddress, JsonElement> data) throws OpenemsException;
+	public CompletableFuture<Void> write(String edgeId, TreeBasedTable<Long, ChannelAddress, JsonElement> data)
+			throws OpenemsException;
+
+	/**
+	 * Informs the Timedata service that the Edge has no connection anymore, so
+	 * that state which is only required while receiving data can be released.
+	 * 
+	 * @param edgeId The unique Edge-ID
+	 */
+	public default void edgeDisconnected(String edgeId) {
+	}
 
 	/**
 	 * Gets the latest value for the given ChannelAddress.
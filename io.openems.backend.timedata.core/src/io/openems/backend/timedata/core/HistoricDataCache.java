@@ -0,0 +1,365 @@
+package io.openems.backend.timedata.core;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import com.google.gson.JsonElement;
+
+import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
+import io.openems.common.types.ChannelAddress;
+
+/**
+ * Caches the results of historic data and energy queries.
+ *
+ * <p>
+ * Historic data is split into time buckets of {@link #ROWS_PER_BUCKET} rows
+ * that are aligned to the epoch, like the 'GROUP BY time()' of InfluxDB. Only
+ * closed buckets - which end at least {@link #CLOSED_DELAY} seconds in the past
+ * - are cached; the open bucket is always queried. Energy queries are cached
+ * only if the complete range is closed.
+ *
+ * <p>
+ * The cache is bounded by the estimated memory of its entries; the least
+ * recently used entries are evicted first. Data that is written late for a
+ * closed bucket has to be reported via {@link #invalidate(String, long)} once
+ * it was written to InfluxDB. Results of queries that were running meanwhile
+ * are not cached.
+ */
+public class HistoricDataCache {
+
+	@FunctionalInterface
+	public interface DataQuery {
+		/**
+		 * Queries historic data.
+		 *
+		 * @param fromDate the From-Date
+		 * @param toDate   the To-Date
+		 * @return the historic data
+		 * @throws OpenemsNamedException on error
+		 */
+		public SortedMap<ZonedDateTime, SortedMap<ChannelAddress, JsonElement>> query(ZonedDateTime fromDate,
+				ZonedDateTime toDate) throws OpenemsNamedException;
+	}
+
+	@FunctionalInterface
+	public interface EnergyQuery {
+		/**
+		 * Queries historic energy.
+		 *
+		 * @return the historic energy
+		 * @throws OpenemsNamedException on error
+		 */
+		public SortedMap<ChannelAddress, JsonElement> query() throws OpenemsNamedException;
+	}
+
+	/**
+	 * Number of rows in one time bucket.
+	 */
+	public static final int ROWS_PER_BUCKET = 144;
+
+	/**
+	 * A bucket is closed if it ended at least this number of seconds ago.
+	 */
+	public static final long CLOSED_DELAY = 5 * 60;
+
+	/**
+	 * Estimated memory of one cached value in bytes.
+	 */
+	private static final long BYTES_PER_VALUE = 64;
+
+	private final long maxBytes;
+	private final Clock clock;
+	private final LinkedHashMap<Key, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	// Edge-ID -> number of invalidations
+	private final Map<String, Long> generations = new HashMap<>();
+	private long bytes = 0;
+	private long hits = 0;
+	private long misses = 0;
+
+	/**
+	 * @param maxBytes the maximum estimated memory in bytes
+	 */
+	public HistoricDataCache(long maxBytes) {
+		this(maxBytes, Clock.systemUTC());
+	}
+
+	/**
+	 * @param maxBytes the maximum estimated memory in bytes
+	 * @param clock    the Clock
+	 */
+	public HistoricDataCache(long maxBytes, Clock clock) {
+		this.maxBytes = maxBytes;
+		this.clock = clock;
+	}
+
+	/**
+	 * Queries historic data; closed time buckets are served from the cache.
+	 *
+	 * @param edgeId     the Edge-ID
+	 * @param fromDate   the From-Date
+	 * @param toDate     the To-Date
+	 * @param channels   the Channels
+	 * @param resolution the resolution in seconds
+	 * @param query      queries InfluxDB for a range of buckets
+	 * @return the historic data
+	 * @throws OpenemsNamedException on error
+	 */
+	public SortedMap<ZonedDateTime, SortedMap<ChannelAddress, JsonElement>> queryHistoricData(String edgeId,
+			ZonedDateTime fromDate, ZonedDateTime toDate, Set<ChannelAddress> channels, int resolution,
+			DataQuery query) throws OpenemsNamedException {
+		long from = fromDate.toEpochSecond();
+		long to = toDate.toEpochSecond();
+		long bucketLength = (long) resolution * ROWS_PER_BUCKET;
+		long closedUntil = this.clock.instant().getEpochSecond() - CLOSED_DELAY;
+		TreeSet<ChannelAddress> channelSet = new TreeSet<>(channels);
+		long generation = this.getGeneration(edgeId);
+
+		SortedMap<ZonedDateTime, SortedMap<ChannelAddress, JsonElement>> result = new TreeMap<>();
+		long missingStart = -1;
+		long bucketStart = Math.floorDiv(from, bucketLength) * bucketLength;
+		for (; bucketStart < to; bucketStart += bucketLength) {
+			long bucketEnd = bucketStart + bucketLength;
+			if (bucketEnd > closedUntil) {
+				// open bucket: query the rest
+				break;
+			}
+			SortedMap<ZonedDateTime, SortedMap<ChannelAddress, JsonElement>> rows = this
+					.getData(new Key(edgeId, channelSet, resolution, bucketStart, bucketEnd));
+			if (rows != null) {
+				if (missingStart != -1) {
+					this.queryAndCache(result, edgeId, channelSet, resolution, missingStart, bucketStart, fromDate,
+							query, generation);
+					missingStart = -1;
+				}
+				result.putAll(rows);
+			} else if (missingStart == -1) {
+				missingStart = bucketStart;
+			}
+		}
+		if (missingStart != -1) {
+			this.queryAndCache(result, edgeId, channelSet, resolution, missingStart, bucketStart, fromDate, query,
+					generation);
+		}
+		if (bucketStart < to) {
+			// open bucket and everything after it
+			result.putAll(query.query(ofEpochSecond(bucketStart, fromDate), toDate));
+		}
+
+		// remove rows outside the requested range and adjust the time zone
+		SortedMap<ZonedDateTime, SortedMap<ChannelAddress, JsonElement>> filtered = new TreeMap<>();
+		for (Entry<ZonedDateTime, SortedMap<ChannelAddress, JsonElement>> row : result.entrySet()) {
+			long timestamp = row.getKey().toEpochSecond();
+			if (timestamp + resolution > from && timestamp < to) {
+				filtered.put(row.getKey().withZoneSameInstant(fromDate.getZone()), row.getValue());
+			}
+		}
+		return filtered;
+	}
+
+	/**
+	 * Queries historic energy; ranges that are completely closed are served from
+	 * the cache.
+	 *
+	 * @param edgeId   the Edge-ID
+	 * @param fromDate the From-Date
+	 * @param toDate   the To-Date
+	 * @param channels the Channels
+	 * @param query    queries InfluxDB
+	 * @return the historic energy
+	 * @throws OpenemsNamedException on error
+	 */
+	public SortedMap<ChannelAddress, JsonElement> queryHistoricEnergy(String edgeId, ZonedDateTime fromDate,
+			ZonedDateTime toDate, Set<ChannelAddress> channels, EnergyQuery query) throws OpenemsNamedException {
+		long closedUntil = this.clock.instant().getEpochSecond() - CLOSED_DELAY;
+		if (toDate.toEpochSecond() > closedUntil) {
+			return query.query();
+		}
+		Key key = new Key(edgeId, new TreeSet<>(channels), 0, fromDate.toEpochSecond(), toDate.toEpochSecond());
+		long generation;
+		synchronized (this) {
+			generation = this.getGeneration(edgeId);
+			CacheEntry entry = this.entries.get(key);
+			if (entry != null) {
+				this.hits++;
+				return new TreeMap<>(entry.energy);
+			}
+			this.misses++;
+		}
+		SortedMap<ChannelAddress, JsonElement> result = query.query();
+		this.put(key, new CacheEntry(null, Collections.unmodifiableSortedMap(new TreeMap<>(result)), result.size()),
+				generation);
+		return result;
+	}
+
+	/**
+	 * Removes all entries of the Edge that contain data at or after the given
+	 * timestamp. Call this after data was written for a closed bucket.
+	 *
+	 * @param edgeId    the Edge-ID
+	 * @param timestamp the epoch timestamp in seconds of the eldest written data
+	 */
+	public synchronized void invalidate(String edgeId, long timestamp) {
+		// running queries might have read the data before it was written
+		this.generations.merge(edgeId, 1L, Long::sum);
+		Iterator<Entry<Key, CacheEntry>> iterator = this.entries.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Entry<Key, CacheEntry> entry = iterator.next();
+			Key key = entry.getKey();
+			if (key.edgeId.equals(edgeId) && key.end > timestamp) {
+				this.bytes -= entry.getValue().bytes;
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Checks if data for the given timestamp may already be cached.
+	 *
+	 * @param timestamp the epoch timestamp in seconds
+	 * @return true if the timestamp belongs to a closed bucket
+	 */
+	public boolean isClosed(long timestamp) {
+		return timestamp < this.clock.instant().getEpochSecond() - CLOSED_DELAY;
+	}
+
+	/**
+	 * Gets the number of cached entries.
+	 *
+	 * @return the number of entries
+	 */
+	public synchronized int size() {
+		return this.entries.size();
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "entries " + this.entries.size() + ", " + this.bytes / 1024 + " kB, hits " + this.hits + ", misses "
+				+ this.misses;
+	}
+
+	private void queryAndCache(SortedMap<ZonedDateTime, SortedMap<ChannelAddress, JsonElement>> result,
+			String edgeId, TreeSet<ChannelAddress> channels, int resolution, long start, long end,
+			ZonedDateTime zone, DataQuery query, long generation) throws OpenemsNamedException {
+		SortedMap<ZonedDateTime, SortedMap<ChannelAddress, JsonElement>> rows = query
+				.query(ofEpochSecond(start, zone), ofEpochSecond(end, zone));
+		result.putAll(rows);
+
+		// split into buckets
+		long bucketLength = (long) resolution * ROWS_PER_BUCKET;
+		for (long bucketStart = start; bucketStart < end; bucketStart += bucketLength) {
+			SortedMap<ZonedDateTime, SortedMap<ChannelAddress, JsonElement>> bucket = rows.subMap(
+					ofEpochSecond(bucketStart, zone), ofEpochSecond(bucketStart + bucketLength, zone));
+			SortedMap<ZonedDateTime, SortedMap<ChannelAddress, JsonElement>> copy = new TreeMap<>();
+			for (Entry<ZonedDateTime, SortedMap<ChannelAddress, JsonElement>> row : bucket.entrySet()) {
+				copy.put(row.getKey(), Collections.unmodifiableSortedMap(row.getValue()));
+			}
+			this.put(new Key(edgeId, channels, resolution, bucketStart, bucketStart + bucketLength),
+					new CacheEntry(Collections.unmodifiableSortedMap(copy), null,
+							(long) copy.size() * (channels.size() + 1)), generation);
+		}
+	}
+
+	private synchronized SortedMap<ZonedDateTime, SortedMap<ChannelAddress, JsonElement>> getData(Key key) {
+		CacheEntry entry = this.entries.get(key);
+		if (entry == null) {
+			this.misses++;
+			return null;
+		}
+		this.hits++;
+		return entry.data;
+	}
+
+	private synchronized long getGeneration(String edgeId) {
+		return this.generations.getOrDefault(edgeId, 0L);
+	}
+
+	/**
+	 * Adds an entry, unless it is too big or the data of the Edge was
+	 * invalidated since the query started.
+	 *
+	 * @param key        the Key
+	 * @param entry      the CacheEntry
+	 * @param generation the generation of the Edge when the query started
+	 */
+	private synchronized void put(Key key, CacheEntry entry, long generation) {
+		if (entry.bytes > this.maxBytes || generation != this.getGeneration(key.edgeId)) {
+			return;
+		}
+		CacheEntry previous = this.entries.put(key, entry);
+		if (previous != null) {
+			this.bytes -= previous.bytes;
+		}
+		this.bytes += entry.bytes;
+
+		// evict least recently used entries
+		Iterator<CacheEntry> iterator = this.entries.values().iterator();
+		while (this.bytes > this.maxBytes && iterator.hasNext()) {
+			this.bytes -= iterator.next().bytes;
+			iterator.remove();
+		}
+	}
+
+	private static ZonedDateTime ofEpochSecond(long epochSecond, ZonedDateTime zone) {
+		return ZonedDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), zone.getZone());
+	}
+
+	private static class CacheEntry {
+		private final SortedMap<ZonedDateTime, SortedMap<ChannelAddress, JsonElement>> data;
+		private final SortedMap<ChannelAddress, JsonElement> energy;
+		private final long bytes;
+
+		private CacheEntry(SortedMap<ZonedDateTime, SortedMap<ChannelAddress, JsonElement>> data,
+				SortedMap<ChannelAddress, JsonElement> energy, long values) {
+			this.data = data;
+			this.energy = energy;
+			this.bytes = values * BYTES_PER_VALUE;
+		}
+	}
+
+	private static class Key {
+		private final String edgeId;
+		private final Set<ChannelAddress> channels;
+		private final int resolution;
+		private final long start;
+		private final long end;
+
+		private Key(String edgeId, Set<ChannelAddress> channels, int resolution, long start, long end) {
+			this.edgeId = edgeId;
+			this.channels = channels;
+			this.resolution = resolution;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(this.edgeId, this.channels, this.resolution, this.start, this.end);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return this.resolution == other.resolution && this.start == other.start && this.end == other.end
+					&& this.edgeId.equals(other.edgeId) && this.channels.equals(other.channels);
+		}
+	}
+
+}
@@ -0,0 +1,163 @@
+package io.openems.backend.timedata.core;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+
+import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
+import io.openems.common.types.ChannelAddress;
+
+public class HistoricDataCacheTest {
+
+	private static final int RESOLUTION = 300;
+	private static final long BUCKET = RESOLUTION * HistoricDataCache.ROWS_PER_BUCKET;
+	private static final ChannelAddress SOC = new ChannelAddress("ess0", "Soc");
+	private static final Set<ChannelAddress> CHANNELS = Collections.singleton(SOC);
+	private static final ZoneId ZONE = ZoneOffset.UTC;
+
+	/**
+	 * Simulates InfluxDB: returns one row per resolution within the range.
+	 */
+	private static class Database implements HistoricDataCache.DataQuery {
+		private final List<String> queries = new ArrayList<>();
+
+		@Override
+		public SortedMap<ZonedDateTime, SortedMap<ChannelAddress, JsonElement>> query(ZonedDateTime fromDate,
+				ZonedDateTime toDate) throws OpenemsNamedException {
+			this.queries.add(fromDate.toEpochSecond() / BUCKET + "-" + toDate.toEpochSecond() / BUCKET);
+			SortedMap<ZonedDateTime, SortedMap<ChannelAddress, JsonElement>> result = new TreeMap<>();
+			long start = Math.floorDiv(fromDate.toEpochSecond(), RESOLUTION) * RESOLUTION;
+			for (long t = start; t < toDate.toEpochSecond(); t += RESOLUTION) {
+				SortedMap<ChannelAddress, JsonElement> row = new TreeMap<>();
+				row.put(SOC, new JsonPrimitive(t));
+				result.put(date(t), row);
+			}
+			return result;
+		}
+	}
+
+	private static ZonedDateTime date(long epochSecond) {
+		return ZonedDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZONE);
+	}
+
+	private static Clock clock(long epochSecond) {
+		return Clock.fixed(Instant.ofEpochSecond(epochSecond), ZONE);
+	}
+
+	@Test
+	public void testClosedBucketsAreCached() throws OpenemsNamedException {
+		long now = 10 * BUCKET + BUCKET / 2;
+		HistoricDataCache cache = new HistoricDataCache(1024 * 1024, clock(now));
+		Database database = new Database();
+
+		SortedMap<ZonedDateTime, SortedMap<ChannelAddress, JsonElement>> result = cache.queryHistoricData("edge0",
+				date(7 * BUCKET), date(now), CHANNELS, RESOLUTION, database);
+		assertEquals((now - 7 * BUCKET) / RESOLUTION, result.size());
+		// one query for the closed buckets, one for the open bucket
+		assertEquals("[7-10, 10-10]", database.queries.toString());
+		assertEquals(3, cache.size());
+
+		database.queries.clear();
+		SortedMap<ZonedDateTime, SortedMap<ChannelAddress, JsonElement>> again = cache.queryHistoricData("edge0",
+				date(7 * BUCKET), date(now), CHANNELS, RESOLUTION, database);
+		assertEquals(result.keySet(), again.keySet());
+		assertEquals(7 * BUCKET, again.get(date(7 * BUCKET)).get(SOC).getAsLong());
+		// only the open bucket is queried again
+		assertEquals("[10-10]", database.queries.toString());
+
+		// a gap in the cache is filled with one query
+		database.queries.clear();
+		cache.queryHistoricData("edge0", date(5 * BUCKET), date(now), CHANNELS, RESOLUTION, database);
+		assertEquals("[5-7, 10-10]", database.queries.toString());
+	}
+
+	@Test
+	public void testRangeIsFiltered() throws OpenemsNamedException {
+		HistoricDataCache cache = new HistoricDataCache(1024 * 1024, clock(100 * BUCKET));
+		Database database = new Database();
+		long from = 3 * BUCKET + 10 * RESOLUTION;
+		long to = from + 5 * RESOLUTION;
+		SortedMap<ZonedDateTime, SortedMap<ChannelAddress, JsonElement>> result = cache.queryHistoricData("edge0",
+				date(from), date(to), CHANNELS, RESOLUTION, database);
+		assertEquals(5, result.size());
+		assertEquals(date(from), result.firstKey());
+	}
+
+	@Test
+	public void testInvalidate() throws OpenemsNamedException {
+		HistoricDataCache cache = new HistoricDataCache(1024 * 1024, clock(100 * BUCKET));
+		Database database = new Database();
+		cache.queryHistoricData("edge0", date(0), date(4 * BUCKET), CHANNELS, RESOLUTION, database);
+		cache.queryHistoricData("edge1", date(0), date(4 * BUCKET), CHANNELS, RESOLUTION, database);
+		assertEquals(8, cache.size());
+
+		cache.invalidate("edge0", 2 * BUCKET + 1);
+		assertEquals(6, cache.size());
+	}
+
+	@Test
+	public void testInvalidateDuringQuery() throws OpenemsNamedException {
+		HistoricDataCache cache = new HistoricDataCache(1024 * 1024, clock(100 * BUCKET));
+		Database database = new Database();
+		// late data is written while the query is running
+		cache.queryHistoricData("edge0", date(0), date(4 * BUCKET), CHANNELS, RESOLUTION, (from, to) -> {
+			SortedMap<ZonedDateTime, SortedMap<ChannelAddress, JsonElement>> result = database.query(from, to);
+			cache.invalidate("edge0", BUCKET);
+			return result;
+		});
+		assertEquals(0, cache.size());
+
+		cache.queryHistoricData("edge0", date(0), date(4 * BUCKET), CHANNELS, RESOLUTION, database);
+		assertEquals(4, cache.size());
+	}
+
+	@Test
+	public void testEviction() throws OpenemsNamedException {
+		// room for about two buckets
+		long bucketBytes = HistoricDataCache.ROWS_PER_BUCKET * 2 * 64;
+		HistoricDataCache cache = new HistoricDataCache(2 * bucketBytes + 1, clock(100 * BUCKET));
+		Database database = new Database();
+		cache.queryHistoricData("edge0", date(0), date(4 * BUCKET), CHANNELS, RESOLUTION, database);
+		assertEquals(2, cache.size());
+
+		// the most recently used buckets are kept
+		database.queries.clear();
+		cache.queryHistoricData("edge0", date(2 * BUCKET), date(4 * BUCKET), CHANNELS, RESOLUTION, database);
+		assertEquals("[]", database.queries.toString());
+	}
+
+	@Test
+	public void testEnergy() throws OpenemsNamedException {
+		HistoricDataCache cache = new HistoricDataCache(1024 * 1024, clock(100 * BUCKET));
+		int[] queries = new int[1];
+		HistoricDataCache.EnergyQuery query = () -> {
+			queries[0]++;
+			SortedMap<ChannelAddress, JsonElement> result = new TreeMap<>();
+			result.put(SOC, new JsonPrimitive(42));
+			return result;
+		};
+		cache.queryHistoricEnergy("edge0", date(0), date(BUCKET), CHANNELS, query);
+		cache.queryHistoricEnergy("edge0", date(0), date(BUCKET), CHANNELS, query);
+		assertEquals(1, queries[0]);
+
+		// open range is not cached
+		cache.queryHistoricEnergy("edge0", date(0), date(100 * BUCKET), CHANNELS, query);
+		cache.queryHistoricEnergy("edge0", date(0), date(100 * BUCKET), CHANNELS, query);
+		assertEquals(3, queries[0]);
+	}
+}
@@ -8,6 +8,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
@@ -58,7 +59,8 @@ public class TimedataDummy extends AbstractOpenemsBackendComponent implements Ti
 	}
 
 	@Override
-	public void write(String edgeId, TreeBasedTable<Long, ChannelAddress, JsonElement> data) throws OpenemsException {
+	public CompletableFuture<Void> write(String edgeId, TreeBasedTable<Long, ChannelAddress, JsonElement> data)
+			throws OpenemsException {
 		// get existing or create new EdgeCache
 		EdgeCache edgeCache = this.edgeCacheMap.get(edgeId);
 		if (edgeCache == null) {
@@ -102,6 +104,7 @@ public class TimedataDummy extends AbstractOpenemsBackendComponent implements Ti
 				}
 			}
 		}
+		return CompletableFuture.completedFuture(null);
 	}
 
 	@Override
@@ -29,6 +29,24 @@ import org.osgi.service.metatype.annotations.ObjectClassDefinition;
 	@AttributeDefinition(name = "Retention-Policy", description = "The InfluxDB retention policy")
 	String retentionPolicy() default "autogen";
 
+	@AttributeDefinition(name = "Write mode", description = "FULL writes the last known values of all Channels for every timestamp; DELTA writes only received values and fills gaps on query. In DELTA mode the mean per resolution is not time-weighted: a value that did not change is counted only once.")
+	WriteMode writeMode() default WriteMode.FULL;
+
+	@AttributeDefinition(name = "Lanes", description = "Number of parallel writers; Edges are distributed by Edge-ID.")
+	int lanes() default 4;
+
+	@AttributeDefinition(name = "Lane queue size", description = "Maximum number of queued messages per lane. If full, receiving data from the Edges is blocked.")
+	int laneQueueSize() default 1000;
+
+	@AttributeDefinition(name = "Batch size", description = "Maximum number of points per write to InfluxDB.")
+	int batchSize() default 5000;
+
+	@AttributeDefinition(name = "Batch linger [ms]", description = "Maximum time a point waits for more points before it is written.")
+	int batchLinger() default 1000;
+
+	@AttributeDefinition(name = "Query cache size [MB]", description = "Maximum memory for cached historic query results; 0 to disable.")
+	int queryCacheSize() default 64;
+
 	@AttributeDefinition(name = "Read-Only mode", description = "Activates the read-only mode. Then no data is written to InfluxDB.")
 	boolean isReadOnly() default false;
 
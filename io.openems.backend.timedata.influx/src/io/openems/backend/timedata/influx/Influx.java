@@ -1,13 +1,18 @@
 package io.openems.backend.timedata.influx;
 
 import java.time.ZonedDateTime;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.SortedMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -35,6 +40,7 @@ import io.openems.backend.metadata.api.Edge;
 import io.openems.backend.metadata.api.Metadata;
 import io.openems.backend.timedata.api.Timedata;
 import io.openems.backend.timedata.core.EdgeCache;
+import io.openems.backend.timedata.core.HistoricDataCache;
 import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
 import io.openems.common.exceptions.OpenemsException;
 import io.openems.common.types.ChannelAddress;
@@ -50,10 +56,32 @@ public class Influx extends AbstractOpenemsBackendComponent implements Timedata
 
 	private static final Pattern NAME_NUMBER_PATTERN = Pattern.compile("[^0-9]+([0-9]+)$");
 
+	/**
+	 * Cached values are valid for 5 minutes.
+	 */
+	private static final int CACHE_PERIOD_SECONDS = 5 * 60;
+
+	private static final int DEBUG_LOG_INTERVAL_MINUTES = 1;
+
 	private final Logger log = LoggerFactory.getLogger(Influx.class);
-	private final Map<String, EdgeCache> edgeCacheMap = new HashMap<>();
+
+	/**
+	 * Each EdgeCache is only modified by the ingest lane of its Edge.
+	 */
+	private final Map<String, EdgeCache> edgeCacheMap = new ConcurrentHashMap<>();
+
+	/**
+	 * Timestamp of the last write of all cached values per Edge; only used in
+	 * {@link WriteMode#DELTA}.
+	 */
+	private final Map<String, Long> fullWriteTimestampMap = new ConcurrentHashMap<>();
+
+	private final ScheduledExecutorService debugLogExecutor = Executors.newSingleThreadScheduledExecutor();
 
 	private InfluxConnector influxConnector = null;
+	private IngestPipeline ingestPipeline = null;
+	private HistoricDataCache queryCache = null;
+	private WriteMode writeMode = WriteMode.FULL;
 
 	public Influx() {
 		super("Timedata.InfluxDB");
@@ -72,32 +100,116 @@ public class Influx extends AbstractOpenemsBackendComponent implements Timedata
 				";username=" + config.username() + //
 				";password=" + (config.password() != null ? "ok" : "NOT_SET") + //
 				";measurement=" + config.measurement() + //
+				";writeMode=" + config.writeMode() + //
+				";lanes=" + config.lanes() + //
+				";batchSize=" + config.batchSize() + //
+				";batchLinger=" + config.batchLinger() + //
+				";queryCacheSize=" + config.queryCacheSize() + //
 				(config.isReadOnly() ? ";READ_ONLY_MODE" : "") + //
 				"]");
 
+		this.writeMode = config.writeMode();
 		this.influxConnector = new InfluxConnector(config.url(), config.port(), config.username(), config.password(),
-				config.database(), config.retentionPolicy(), config.isReadOnly(), //
-				(failedPoints, throwable) -> {
-					String pointsString = StreamSupport.stream(failedPoints.spliterator(), false)
-							.map(Point::lineProtocol).collect(Collectors.joining(","));
-					this.logError(this.log, "Unable to write to InfluxDB: " + throwable.getMessage() + " for "
-							+ StringUtils.toShortString(pointsString, 100));
-				});
+				config.database(), config.retentionPolicy(), config.isReadOnly(), this::logWriteError);
+		InfluxConnector influxConnector = this.influxConnector;
+		this.ingestPipeline = new IngestPipeline(this.getName(), config.lanes(), config.laneQueueSize(),
+				config.batchSize(), config.batchLinger(), //
+				points -> influxConnector.write(points), this::logWriteError);
+
+		if (config.queryCacheSize() > 0) {
+			this.queryCache = new HistoricDataCache(config.queryCacheSize() * 1024L * 1024L);
+		}
+
+		this.debugLogExecutor.scheduleWithFixedDelay(() -> {
+			for (IngestPipeline.Statistics statistics : this.ingestPipeline.getStatistics()) {
+				this.logInfo(this.log, "Ingest " + statistics);
+			}
+			if (this.queryCache != null) {
+				this.logInfo(this.log, "Query cache " + this.queryCache);
+			}
+		}, DEBUG_LOG_INTERVAL_MINUTES, DEBUG_LOG_INTERVAL_MINUTES, TimeUnit.MINUTES);
 	}
 
 	@Deactivate
 	void deactivate() {
 		this.logInfo(this.log, "Deactivate");
+		this.debugLogExecutor.shutdownNow();
+		if (this.ingestPipeline != null) {
+			this.ingestPipeline.stop();
+		}
 		if (this.influxConnector != null) {
 			this.influxConnector.deactivate();
 		}
 	}
 
+	/**
+	 * Logs an error while writing to InfluxDB.
+	 * 
+	 * @param failedPoints the Points that were not written
+	 * @param throwable    the error
+	 */
+	private void logWriteError(Iterable<Point> failedPoints, Throwable throwable) {
+		String pointsString = StreamSupport.stream(failedPoints.spliterator(), false).map(Point::lineProtocol)
+				.collect(Collectors.joining(","));
+		this.logError(this.log, "Unable to write to InfluxDB: " + throwable.getMessage() + " for "
+				+ StringUtils.toShortString(pointsString, 100));
+	}
+
 	@Override
-	public void write(String edgeId, TreeBasedTable<Long, ChannelAddress, JsonElement> data) throws OpenemsException {
+	public CompletableFuture<Void> write(String edgeId, TreeBasedTable<Long, ChannelAddress, JsonElement> data)
+			throws OpenemsException {
 		// parse the numeric EdgeId
 		int influxEdgeId = Influx.parseNumberFromName(edgeId);
 
+		// the caller keeps reading the data while the lane adds the cached values
+		TreeBasedTable<Long, ChannelAddress, JsonElement> copy = TreeBasedTable.create(data);
+
+		// blocks if InfluxDB falls behind
+		CompletableFuture<Void> written = this.ingestPipeline.submit(edgeId,
+				() -> this.prepareWrite(edgeId, influxEdgeId, copy));
+
+		// late data changes closed buckets of the query cache; invalidate them once
+		// the data is in InfluxDB
+		HistoricDataCache queryCache = this.queryCache;
+		if (queryCache != null && !data.isEmpty()) {
+			long eldest = TimeUnit.MILLISECONDS.toSeconds(data.rowKeySet().first());
+			written.thenRun(() -> {
+				if (queryCache.isClosed(eldest)) {
+					queryCache.invalidate(edgeId, eldest);
+				}
+			});
+		}
+		return written;
+	}
+
+	@Override
+	public void edgeDisconnected(String edgeId) {
+		if (this.writeMode != WriteMode.DELTA) {
+			return;
+		}
+		try {
+			// after the queued data of the Edge
+			this.ingestPipeline.submit(edgeId, () -> {
+				this.fullWriteTimestampMap.remove(edgeId);
+				return Collections.emptyList();
+			});
+		} catch (OpenemsException e) {
+			this.fullWriteTimestampMap.remove(edgeId);
+		}
+	}
+
+	/**
+	 * Applies the EdgeCache and converts the data to InfluxDB Points. Executed on
+	 * the ingest lane of the Edge.
+	 * 
+	 * @param edgeId       the Edge-ID
+	 * @param influxEdgeId the unique, numeric identifier of the Edge
+	 * @param data         a private copy of the data; cached values are added
+	 * @return the Points
+	 * @throws OpenemsException on error
+	 */
+	private List<Point> prepareWrite(String edgeId, int influxEdgeId,
+			TreeBasedTable<Long, ChannelAddress, JsonElement> data) throws OpenemsException {
 		// get existing or create new DeviceCache
 		EdgeCache edgeCache = this.edgeCacheMap.get(edgeId);
 		if (edgeCache == null) {
@@ -120,16 +232,18 @@ public class Influx extends AbstractOpenemsBackendComponent implements Timedata
 
 			} else {
 				// incoming data is more recent than cache
-				if (timestamp < cacheTimestamp + 5 * 60 * 1000) {
+				if (timestamp < cacheTimestamp + CACHE_PERIOD_SECONDS * 1000) {
 					// cache is valid (not elder than 5 minutes)
-					for (Entry<ChannelAddress, JsonElement> cacheEntry : edgeCache.getChannelCacheEntries()
-							.entrySet()) {
-						ChannelAddress channel = cacheEntry.getKey();
-						// check if there is a current value for this timestamp + channel
-						JsonElement existingValue = data.get(timestamp, channel);
-						if (existingValue == null) {
-							// if not -> add cache data to write data
-							data.put(timestamp, channel, cacheEntry.getValue());
+					if (this.isFullWrite(edgeId, timestamp)) {
+						for (Entry<ChannelAddress, JsonElement> cacheEntry : edgeCache.getChannelCacheEntries()
+								.entrySet()) {
+							ChannelAddress channel = cacheEntry.getKey();
+							// check if there is a current value for this timestamp + channel
+							JsonElement existingValue = data.get(timestamp, channel);
+							if (existingValue == null) {
+								// if not -> add cache data to write data
+								data.put(timestamp, channel, cacheEntry.getValue());
+							}
 						}
 					}
 				} else {
@@ -150,24 +264,43 @@ public class Influx extends AbstractOpenemsBackendComponent implements Timedata
 			}
 		}
 
-		// Write data to default location
-		this.writeData(influxEdgeId, data);
+		return this.toPoints(influxEdgeId, data);
 	}
 
 	/**
-	 * Actually writes the data to InfluxDB.
+	 * Decides if the cached values should be added to the data of this timestamp.
+	 * In {@link WriteMode#DELTA} this happens only once per cache period, so that
+	 * queries can fill missing values from the previous values.
+	 * 
+	 * @param edgeId    the Edge-ID
+	 * @param timestamp the timestamp
+	 * @return true to write all cached values
+	 */
+	private boolean isFullWrite(String edgeId, long timestamp) {
+		if (this.writeMode == WriteMode.FULL) {
+			return true;
+		}
+		Long lastFullWrite = this.fullWriteTimestampMap.get(edgeId);
+		if (lastFullWrite == null || timestamp < lastFullWrite
+				|| timestamp >= lastFullWrite + CACHE_PERIOD_SECONDS * 1000) {
+			this.fullWriteTimestampMap.put(edgeId, timestamp);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Converts the data to InfluxDB Points.
 	 * 
 	 * @param influxEdgeId the unique, numeric identifier of the Edge
 	 * @param data         the data
+	 * @return the Points
 	 * @throws OpenemsException on error
 	 */
-	private void writeData(int influxEdgeId, TreeBasedTable<Long, ChannelAddress, JsonElement> data)
+	private List<Point> toPoints(int influxEdgeId, TreeBasedTable<Long, ChannelAddress, JsonElement> data)
 			throws OpenemsException {
+		List<Point> points = new ArrayList<>();
 		Set<Entry<Long, Map<ChannelAddress, JsonElement>>> dataEntries = data.rowMap().entrySet();
-		if (dataEntries.isEmpty()) {
-			// no data to write
-			return;
-		}
 
 		for (Entry<Long, Map<ChannelAddress, JsonElement>> dataEntry : dataEntries) {
 			Set<Entry<ChannelAddress, JsonElement>> channelEntries = dataEntry.getValue().entrySet();
@@ -183,12 +316,19 @@ public class Influx extends AbstractOpenemsBackendComponent implements Timedata
 					.tag(InfluxConstants.TAG, String.valueOf(influxEdgeId)) //
 					.time(timestamp, TimeUnit.MILLISECONDS);
 			for (Entry<ChannelAddress, JsonElement> channelEntry : channelEntries) {
-				Influx.addValue(builder, channelEntry.getKey().toString(), channelEntry.getValue());
+				String field = channelEntry.getKey().toString();
+				JsonElement value = channelEntry.getValue();
+				Influx.addValue(builder, field, value);
+				if (value != null && value.isJsonPrimitive() && value.getAsJsonPrimitive().isNumber()) {
+					this.influxConnector.updateEnergyIndex(Optional.of(influxEdgeId), timestamp, field,
+							value.getAsNumber());
+				}
 			}
 			if (builder.hasFields()) {
-				this.influxConnector.write(builder.build());
+				points.add(builder.build());
 			}
 		}
+		return points;
 	}
 
 	public static Integer parseNumberFromName(String name) throws OpenemsException {
@@ -211,6 +351,33 @@ public class Influx extends AbstractOpenemsBackendComponent implements Timedata
 		// parse the numeric EdgeId
 		Optional<Integer> influxEdgeId = Optional.of(Influx.parseNumberFromName(edgeId));
 
+		HistoricDataCache queryCache = this.queryCache;
+		if (queryCache != null) {
+			return queryCache.queryHistoricData(edgeId, fromDate, toDate, channels, resolution,
+					(from, to) -> this.queryHistoricData(influxEdgeId, from, to, channels, resolution));
+		}
+		return this.queryHistoricData(influxEdgeId, fromDate, toDate, channels, resolution);
+	}
+
+	/**
+	 * Queries historic data from InfluxDB.
+	 * 
+	 * @param influxEdgeId the unique, numeric identifier of the Edge
+	 * @param fromDate     the From-Date
+	 * @param toDate       the To-Date
+	 * @param channels     the Channels
+	 * @param resolution   the resolution in seconds
+	 * @return the historic data
+	 * @throws OpenemsNamedException on error
+	 */
+	private SortedMap<ZonedDateTime, SortedMap<ChannelAddress, JsonElement>> queryHistoricData(
+			Optional<Integer> influxEdgeId, ZonedDateTime fromDate, ZonedDateTime toDate, Set<ChannelAddress> channels,
+			int resolution) throws OpenemsNamedException {
+		if (this.writeMode == WriteMode.DELTA) {
+			// fill values that were not written because they did not change
+			return this.influxConnector.queryHistoricData(influxEdgeId, fromDate, toDate, channels, resolution,
+					CACHE_PERIOD_SECONDS);
+		}
 		return this.influxConnector.queryHistoricData(influxEdgeId, fromDate, toDate, channels, resolution);
 	}
 
@@ -219,6 +386,12 @@ public class Influx extends AbstractOpenemsBackendComponent implements Timedata
 			ZonedDateTime toDate, Set<ChannelAddress> channels) throws OpenemsNamedException {
 		// parse the numeric EdgeId
 		Optional<Integer> influxEdgeId = Optional.of(Influx.parseNumberFromName(edgeId));
+
+		HistoricDataCache queryCache = this.queryCache;
+		if (queryCache != null) {
+			return queryCache.queryHistoricEnergy(edgeId, fromDate, toDate, channels,
+					() -> this.influxConnector.queryHistoricEnergy(influxEdgeId, fromDate, toDate, channels));
+		}
 		return this.influxConnector.queryHistoricEnergy(influxEdgeId, fromDate, toDate, channels);
 	}
 
@@ -0,0 +1,483 @@
+package io.openems.backend.timedata.influx;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+
+import org.influxdb.InfluxDBException;
+import org.influxdb.dto.Point;
+
+import io.openems.common.exceptions.OpenemsException;
+
+/**
+ * Writes the data of all Edges to InfluxDB.
+ *
+ * <p>
+ * Edges are sharded by Edge-ID across a fixed number of lanes. Each lane is
+ * the single writer for its Edges: it prepares the Points in the order of
+ * submission and collects the Points of all its Edges into one batch, which
+ * is written when it reaches 'batchSize' or after 'linger' milliseconds. If
+ * InfluxDB falls behind, the queue of a lane fills up and
+ * {@link #submit(String, Preparation)} blocks - i.e. backpressure is applied
+ * to the Edge websocket.
+ *
+ * <p>
+ * A batch that could not be written because of an I/O error or a retryable
+ * InfluxDB error (see {@link InfluxDBException#isRetryWorth()}) is retried with
+ * an increasing delay until it succeeds, e.g. while InfluxDB is not available.
+ * Meanwhile the lane does not take new messages, so its queue fills up and
+ * backpressure is applied as well. Any other error is permanent: the messages
+ * of the batch are then written one by one, so that only the Points of the
+ * faulty messages are dropped. Points that can not be written while stopping
+ * are dropped as well.
+ */
+public class IngestPipeline {
+
+	/**
+	 * Delay before the first retry of a failed write; doubled for every further
+	 * retry up to {@link #MAX_RETRY_DELAY}.
+	 */
+	private static final long MIN_RETRY_DELAY = 1_000; // [ms]
+	private static final long MAX_RETRY_DELAY = 60_000; // [ms]
+
+	/**
+	 * Prepares the Points for one message. Executed on the lane of the Edge.
+	 */
+	@FunctionalInterface
+	public interface Preparation {
+		/**
+		 * Prepares the Points.
+		 *
+		 * @return the Points to write
+		 * @throws OpenemsException on error
+		 */
+		public List<Point> prepare() throws OpenemsException;
+	}
+
+	/**
+	 * Writes a batch of Points.
+	 */
+	@FunctionalInterface
+	public interface Writer {
+		/**
+		 * Writes the Points.
+		 *
+		 * @param points the Points
+		 * @throws Exception on error
+		 */
+		public void write(List<Point> points) throws Exception;
+	}
+
+	/**
+	 * Statistics of one lane since the last call of
+	 * {@link IngestPipeline#getStatistics()}.
+	 */
+	public static class Statistics {
+		private final int lane;
+		private final int queueSize;
+		private final long messages;
+		private final long points;
+		private final long failedPoints;
+		private final long retries;
+		private final long averageLag;
+		private final long maxLag;
+
+		private Statistics(int lane, int queueSize, long messages, long points, long failedPoints, long retries,
+				long averageLag, long maxLag) {
+			this.lane = lane;
+			this.queueSize = queueSize;
+			this.messages = messages;
+			this.points = points;
+			this.failedPoints = failedPoints;
+			this.retries = retries;
+			this.averageLag = averageLag;
+			this.maxLag = maxLag;
+		}
+
+		/**
+		 * Gets the current number of queued messages.
+		 *
+		 * @return the number of messages
+		 */
+		public int getQueueSize() {
+			return this.queueSize;
+		}
+
+		/**
+		 * Gets the number of handled messages.
+		 *
+		 * @return the number of messages
+		 */
+		public long getMessages() {
+			return this.messages;
+		}
+
+		/**
+		 * Gets the number of successfully written Points.
+		 *
+		 * @return the number of Points
+		 */
+		public long getPoints() {
+			return this.points;
+		}
+
+		/**
+		 * Gets the number of Points that could not be written and were dropped.
+		 *
+		 * @return the number of Points
+		 */
+		public long getFailedPoints() {
+			return this.failedPoints;
+		}
+
+		/**
+		 * Gets the number of retried writes.
+		 *
+		 * @return the number of retries
+		 */
+		public long getRetries() {
+			return this.retries;
+		}
+
+		/**
+		 * Gets the average time from submission of a message until its Points were
+		 * written.
+		 *
+		 * @return the time in milliseconds
+		 */
+		public long getAverageLag() {
+			return this.averageLag;
+		}
+
+		/**
+		 * Gets the maximum time from submission of a message until its Points were
+		 * written.
+		 *
+		 * @return the time in milliseconds
+		 */
+		public long getMaxLag() {
+			return this.maxLag;
+		}
+
+		@Override
+		public String toString() {
+			return "Lane " + this.lane + ": queue " + this.queueSize + ", messages " + this.messages + ", points "
+					+ this.points + ", failed " + this.failedPoints + ", retries " + this.retries + ", lag "
+					+ this.averageLag + " ms (max " + this.maxLag + " ms)";
+		}
+	}
+
+	private final Lane[] lanes;
+
+	/**
+	 * @param name         to identify the threads
+	 * @param lanes        the number of lanes
+	 * @param queueSize    the maximum number of queued messages per lane
+	 * @param batchSize    the maximum number of Points per write
+	 * @param linger       the maximum time in milliseconds a Point waits for
+	 *                     more Points
+	 * @param writer       writes a batch of Points
+	 * @param onWriteError a callback for every failed write, i.e. '(points,
+	 *                     throwable) -> {}'
+	 */
+	public IngestPipeline(String name, int lanes, int queueSize, int batchSize, int linger,
+			Writer writer, BiConsumer<List<Point>, Throwable> onWriteError) {
+		this.lanes = new Lane[Math.max(1, lanes)];
+		for (int i = 0; i < this.lanes.length; i++) {
+			this.lanes[i] = new Lane(name, i, queueSize, batchSize, linger, writer, onWriteError);
+		}
+		for (Lane lane : this.lanes) {
+			lane.thread.start();
+		}
+	}
+
+	/**
+	 * Submits a message of an Edge. Blocks while the queue of the lane is full.
+	 *
+	 * <p>
+	 * The returned future is completed once the Points of the message were
+	 * written; exceptionally if they were dropped. Dependent actions are executed
+	 * on the lane, so they must not block.
+	 *
+	 * @param edgeId      the Edge-ID
+	 * @param preparation prepares the Points on the lane of the Edge
+	 * @return a future that is completed when the Points were written
+	 * @throws OpenemsException if the pipeline was stopped or the thread was
+	 *                          interrupted
+	 */
+	public CompletableFuture<Void> submit(String edgeId, Preparation preparation) throws OpenemsException {
+		return this.getLane(edgeId).submit(preparation);
+	}
+
+	/**
+	 * Gets the Statistics of all lanes and starts a new measurement period.
+	 *
+	 * @return the Statistics per lane
+	 */
+	public List<Statistics> getStatistics() {
+		List<Statistics> result = new ArrayList<>(this.lanes.length);
+		for (Lane lane : this.lanes) {
+			result.add(lane.getStatistics());
+		}
+		return result;
+	}
+
+	/**
+	 * Stops all lanes after writing the queued messages. Failed writes are not
+	 * retried anymore.
+	 */
+	public void stop() {
+		for (Lane lane : this.lanes) {
+			lane.isRunning = false;
+			LockSupport.unpark(lane.thread);
+		}
+		for (Lane lane : this.lanes) {
+			try {
+				lane.thread.join(TimeUnit.SECONDS.toMillis(10));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	private Lane getLane(String edgeId) {
+		return this.lanes[Math.floorMod(edgeId.hashCode(), this.lanes.length)];
+	}
+
+	private static class Message {
+		private final Preparation preparation;
+		private final CompletableFuture<Void> future = new CompletableFuture<>();
+		private final long submitted = System.nanoTime();
+		private List<Point> points = Collections.emptyList();
+
+		private Message(Preparation preparation) {
+			this.preparation = preparation;
+		}
+	}
+
+	private static class Lane implements Runnable {
+		private final int index;
+		private final BlockingQueue<Message> queue;
+		private final int batchSize;
+		private final long linger;
+		private final Writer writer;
+		private final BiConsumer<List<Point>, Throwable> onWriteError;
+		private final Thread thread;
+
+		private final List<Point> batch = new ArrayList<>();
+		private final List<Message> batchMessages = new ArrayList<>();
+		private long batchStarted = 0;
+		private volatile boolean isRunning = true;
+
+		private final AtomicLong messages = new AtomicLong();
+		private final AtomicLong points = new AtomicLong();
+		private final AtomicLong failedPoints = new AtomicLong();
+		private final AtomicLong retries = new AtomicLong();
+		private final AtomicLong lagSum = new AtomicLong();
+		private final AtomicLong maxLag = new AtomicLong();
+
+		private Lane(String name, int index, int queueSize, int batchSize, int linger, Writer writer,
+				BiConsumer<List<Point>, Throwable> onWriteError) {
+			this.index = index;
+			this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+			this.batchSize = Math.max(1, batchSize);
+			this.linger = TimeUnit.MILLISECONDS.toNanos(Math.max(0, linger));
+			this.writer = writer;
+			this.onWriteError = onWriteError;
+			this.thread = new Thread(this, name + "-Lane-" + index);
+			this.thread.setDaemon(true);
+		}
+
+		private CompletableFuture<Void> submit(Preparation preparation) throws OpenemsException {
+			if (!this.isRunning) {
+				throw new OpenemsException("Ingest lane [" + this.index + "] is stopped");
+			}
+			Message message = new Message(preparation);
+			try {
+				this.queue.put(message);
+				return message.future;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new OpenemsException("Interrupted while waiting for ingest lane [" + this.index + "]");
+			}
+		}
+
+		@Override
+		public void run() {
+			while (this.isRunning || !this.queue.isEmpty()) {
+				Message message;
+				try {
+					message = this.queue.poll(this.getWaitTime(), TimeUnit.NANOSECONDS);
+				} catch (InterruptedException e) {
+					break;
+				}
+				if (message != null) {
+					this.prepare(message);
+				}
+				if (this.batch.size() >= this.batchSize
+						|| (!this.batch.isEmpty() && System.nanoTime() - this.batchStarted >= this.linger)) {
+					this.flush();
+				}
+			}
+			this.flush();
+		}
+
+		/**
+		 * Gets the time to wait for the next message.
+		 *
+		 * @return the time in nanoseconds
+		 */
+		private long getWaitTime() {
+			if (!this.isRunning) {
+				return 0;
+			}
+			if (this.batch.isEmpty()) {
+				// check 'isRunning' regularly
+				return TimeUnit.SECONDS.toNanos(1);
+			}
+			return Math.max(0, this.batchStarted + this.linger - System.nanoTime());
+		}
+
+		private void prepare(Message message) {
+			List<Point> points;
+			try {
+				points = message.preparation.prepare();
+			} catch (Throwable e) {
+				this.onWriteError.accept(new ArrayList<>(), e);
+				this.finish(message, e);
+				return;
+			}
+			if (points.isEmpty()) {
+				this.finish(message, null);
+				return;
+			}
+			if (this.batch.isEmpty()) {
+				this.batchStarted = System.nanoTime();
+			}
+			message.points = points;
+			this.batch.addAll(points);
+			this.batchMessages.add(message);
+		}
+
+		private void flush() {
+			if (this.batch.isEmpty()) {
+				return;
+			}
+			List<Point> batch = new ArrayList<>(this.batch);
+			List<Message> messages = new ArrayList<>(this.batchMessages);
+			this.batch.clear();
+			this.batchMessages.clear();
+			Throwable error = this.write(batch);
+			if (error != null && messages.size() > 1 && !isRetryWorth(error)) {
+				// rejected for good, e.g. a field type conflict; write the messages one by one
+				for (Message message : messages) {
+					Throwable messageError = this.write(message.points);
+					if (messageError != null) {
+						this.failedPoints.addAndGet(message.points.size());
+					}
+					this.finish(message, messageError);
+				}
+				return;
+			}
+			if (error != null) {
+				this.failedPoints.addAndGet(batch.size());
+			}
+			for (Message message : messages) {
+				this.finish(message, error);
+			}
+		}
+
+		/**
+		 * Writes Points; retries as long as the error is worth it and the lane is
+		 * running.
+		 *
+		 * @param points the Points
+		 * @return the error if the Points could not be written; null on success
+		 */
+		private Throwable write(List<Point> points) {
+			long delay = MIN_RETRY_DELAY;
+			while (true) {
+				try {
+					this.writer.write(points);
+					this.points.addAndGet(points.size());
+					return null;
+				} catch (Throwable e) {
+					this.onWriteError.accept(points, e);
+					if (!this.isRunning || !isRetryWorth(e)) {
+						return e;
+					}
+				}
+				// keep the Points; the queue fills up meanwhile
+				this.retries.incrementAndGet();
+				this.sleep(delay);
+				delay = Math.min(2 * delay, MAX_RETRY_DELAY);
+			}
+		}
+
+		/**
+		 * Waits before a retry; returns early if the lane is stopped.
+		 *
+		 * @param delay the delay in milliseconds
+		 */
+		private void sleep(long delay) {
+			long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+			long remaining;
+			while (this.isRunning && (remaining = end - System.nanoTime()) > 0) {
+				LockSupport.parkNanos(this, remaining);
+			}
+		}
+
+		/**
+		 * Is a write that failed with the given error worth a retry? Only I/O errors
+		 * and retryable InfluxDB errors are; everything else, e.g. a bug in
+		 * serialization, would fail again and stall the lane forever.
+		 *
+		 * @param e the error
+		 * @return true if the write should be retried
+		 */
+		private static boolean isRetryWorth(Throwable e) {
+			if (e instanceof InfluxDBException) {
+				return ((InfluxDBException) e).isRetryWorth();
+			}
+			return e instanceof IOException || e instanceof UncheckedIOException;
+		}
+
+		/**
+		 * Completes a message.
+		 *
+		 * @param message the Message
+		 * @param error   the reason why its Points were dropped; null if they were
+		 *                written
+		 */
+		private void finish(Message message, Throwable error) {
+			long lag = System.nanoTime() - message.submitted;
+			this.messages.incrementAndGet();
+			this.lagSum.addAndGet(lag);
+			this.maxLag.accumulateAndGet(lag, Math::max);
+			if (error == null) {
+				message.future.complete(null);
+			} else {
+				message.future.completeExceptionally(error);
+			}
+		}
+
+		private Statistics getStatistics() {
+			long messages = this.messages.getAndSet(0);
+			long lag = this.lagSum.getAndSet(0);
+			return new Statistics(this.index, this.queue.size(), messages, this.points.getAndSet(0),
+					this.failedPoints.getAndSet(0), this.retries.getAndSet(0), //
+					messages == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(lag / messages), //
+					TimeUnit.NANOSECONDS.toMillis(this.maxLag.getAndSet(0)));
+		}
+	}
+}
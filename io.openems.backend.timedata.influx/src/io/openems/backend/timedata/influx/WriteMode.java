@@ -0,0 +1,20 @@
+package io.openems.backend.timedata.influx;
+
+public enum WriteMode {
+	/**
+	 * Writes the last known values of all Channels for every timestamp.
+	 */
+	FULL,
+	/**
+	 * Writes only the values that were received for a timestamp, plus the last
+	 * known values of all Channels once per cache period. Missing values are
+	 * filled on query.
+	 *
+	 * <p>
+	 * Values are filled after InfluxDB aggregated them to the requested
+	 * resolution. The mean of a resolution interval is therefore not
+	 * time-weighted: a value that stayed the same for most of the interval is
+	 * counted only once.
+	 */
+	DELTA;
+}
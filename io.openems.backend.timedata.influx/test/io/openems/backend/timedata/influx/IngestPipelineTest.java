@@ -0,0 +1,212 @@
+package io.openems.backend.timedata.influx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.influxdb.InfluxDBException;
+import org.influxdb.InfluxDBIOException;
+import org.influxdb.dto.Point;
+import org.junit.Test;
+
+public class IngestPipelineTest {
+
+	private static Point point(String edgeId, long timestamp) {
+		return Point.measurement("data") //
+				.tag("edge", edgeId) //
+				.time(timestamp, TimeUnit.MILLISECONDS) //
+				.addField("value", timestamp) //
+				.build();
+	}
+
+	@Test
+	public void testBatchingAndOrder() throws Exception {
+		List<List<Point>> batches = Collections.synchronizedList(new ArrayList<>());
+		IngestPipeline pipeline = new IngestPipeline("test", 1, 100, 10, 60_000, batches::add, (points, e) -> {
+		});
+		for (long i = 0; i < 25; i++) {
+			final long timestamp = i;
+			pipeline.submit("edge0", () -> Collections.singletonList(point("edge0", timestamp)));
+		}
+		pipeline.stop();
+
+		assertEquals(3, batches.size());
+		assertEquals(10, batches.get(0).size());
+		assertEquals(10, batches.get(1).size());
+		assertEquals(5, batches.get(2).size());
+		long expected = 0;
+		for (List<Point> batch : batches) {
+			for (Point point : batch) {
+				assertTrue(point.lineProtocol().endsWith(" " + expected++ * 1_000_000));
+			}
+		}
+		IngestPipeline.Statistics statistics = pipeline.getStatistics().get(0);
+		assertEquals(25, statistics.getMessages());
+		assertEquals(25, statistics.getPoints());
+	}
+
+	@Test
+	public void testFutureIsCompletedAfterWrite() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		IngestPipeline pipeline = new IngestPipeline("test", 1, 10, 10, 0, points -> release.await(), (points, e) -> {
+		});
+		CompletableFuture<Void> written = pipeline.submit("edge0",
+				() -> Collections.singletonList(point("edge0", 1)));
+		CompletableFuture<Void> empty = pipeline.submit("edge0", () -> Collections.emptyList());
+		Thread.sleep(100);
+		assertFalse(written.isDone());
+
+		release.countDown();
+		written.get(10, TimeUnit.SECONDS);
+		empty.get(10, TimeUnit.SECONDS);
+		pipeline.stop();
+	}
+
+	@Test
+	public void testLinger() throws Exception {
+		CountDownLatch written = new CountDownLatch(1);
+		IngestPipeline pipeline = new IngestPipeline("test", 2, 100, 1_000, 50, points -> written.countDown(),
+				(points, e) -> {
+				});
+		pipeline.submit("edge0", () -> Collections.singletonList(point("edge0", 1)));
+		assertTrue(written.await(10, TimeUnit.SECONDS));
+		pipeline.stop();
+	}
+
+	@Test
+	public void testBackpressure() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		IngestPipeline pipeline = new IngestPipeline("test", 1, 1, 1, 0, points -> release.await(), (points, e) -> {
+		});
+		// first message is being written, second is queued
+		pipeline.submit("edge0", () -> Collections.singletonList(point("edge0", 1)));
+		Thread.sleep(100);
+		pipeline.submit("edge0", () -> Collections.singletonList(point("edge0", 2)));
+
+		CountDownLatch submitted = new CountDownLatch(1);
+		Thread thread = new Thread(() -> {
+			try {
+				pipeline.submit("edge0", () -> Collections.singletonList(point("edge0", 3)));
+				submitted.countDown();
+			} catch (Exception e) {
+				// ignore
+			}
+		});
+		thread.start();
+		assertFalse(submitted.await(200, TimeUnit.MILLISECONDS));
+
+		release.countDown();
+		assertTrue(submitted.await(10, TimeUnit.SECONDS));
+		pipeline.stop();
+		assertEquals(3, pipeline.getStatistics().get(0).getPoints());
+	}
+
+	@Test
+	public void testWriteError() throws Exception {
+		List<Point> failed = Collections.synchronizedList(new ArrayList<>());
+		IngestPipeline pipeline = new IngestPipeline("test", 1, 10, 10, 0, points -> {
+			throw InfluxDBException.buildExceptionForErrorState(
+					"{\"error\":\"partial write: field type conflict: input field \\\"value\\\" dropped=1\"}");
+		}, (points, e) -> failed.addAll(points));
+		CompletableFuture<Void> written = pipeline.submit("edge0",
+				() -> Collections.singletonList(point("edge0", 1)));
+		Thread.sleep(200);
+		assertTrue(written.isCompletedExceptionally());
+		// rejected for good: not retried
+		assertEquals(1, failed.size());
+		IngestPipeline.Statistics statistics = pipeline.getStatistics().get(0);
+		assertEquals(1, statistics.getFailedPoints());
+		assertEquals(0, statistics.getRetries());
+		pipeline.stop();
+	}
+
+	@Test
+	public void testRetryUntilWritten() throws Exception {
+		AtomicInteger attempts = new AtomicInteger();
+		List<Point> written = Collections.synchronizedList(new ArrayList<>());
+		IngestPipeline pipeline = new IngestPipeline("test", 1, 1, 1, 0, points -> {
+			if (attempts.incrementAndGet() == 1) {
+				throw new InfluxDBIOException(new IOException("unavailable"));
+			}
+			written.addAll(points);
+		}, (points, e) -> {
+		});
+		pipeline.submit("edge0", () -> Collections.singletonList(point("edge0", 1)));
+		Thread.sleep(100);
+		// first message is retried, second is queued; the third one blocks
+		pipeline.submit("edge0", () -> Collections.singletonList(point("edge0", 2)));
+		CountDownLatch submitted = new CountDownLatch(1);
+		Thread thread = new Thread(() -> {
+			try {
+				pipeline.submit("edge0", () -> Collections.singletonList(point("edge0", 3)));
+				submitted.countDown();
+			} catch (Exception e) {
+				// ignore
+			}
+		});
+		thread.start();
+		assertFalse(submitted.await(200, TimeUnit.MILLISECONDS));
+
+		// retried after one second
+		assertTrue(submitted.await(10, TimeUnit.SECONDS));
+		pipeline.stop();
+		assertEquals(3, written.size());
+		IngestPipeline.Statistics statistics = pipeline.getStatistics().get(0);
+		assertEquals(3, statistics.getPoints());
+		assertEquals(0, statistics.getFailedPoints());
+		assertEquals(1, statistics.getRetries());
+	}
+
+	@Test
+	public void testUnexpectedErrorIsNotRetried() throws Exception {
+		IngestPipeline pipeline = new IngestPipeline("test", 1, 10, 10, 0, points -> {
+			throw new NullPointerException();
+		}, (points, e) -> {
+		});
+		CompletableFuture<Void> written = pipeline.submit("edge0",
+				() -> Collections.singletonList(point("edge0", 1)));
+		Thread.sleep(200);
+		assertTrue(written.isCompletedExceptionally());
+		IngestPipeline.Statistics statistics = pipeline.getStatistics().get(0);
+		assertEquals(1, statistics.getFailedPoints());
+		assertEquals(0, statistics.getRetries());
+		pipeline.stop();
+	}
+
+	@Test
+	public void testRejectedMessageDoesNotDropBatch() throws Exception {
+		List<Point> written = Collections.synchronizedList(new ArrayList<>());
+		IngestPipeline pipeline = new IngestPipeline("test", 1, 10, 10, 60_000, points -> {
+			for (Point point : points) {
+				if (point.lineProtocol().contains("edge=edge1")) {
+					throw InfluxDBException.buildExceptionForErrorState(
+							"{\"error\":\"partial write: field type conflict: input field \\\"value\\\" dropped=1\"}");
+				}
+			}
+			written.addAll(points);
+		}, (points, e) -> {
+		});
+		CompletableFuture<Void> good0 = pipeline.submit("edge0", () -> Collections.singletonList(point("edge0", 1)));
+		CompletableFuture<Void> bad = pipeline.submit("edge1", () -> Collections.singletonList(point("edge1", 1)));
+		CompletableFuture<Void> good2 = pipeline.submit("edge2", () -> Collections.singletonList(point("edge2", 1)));
+		pipeline.stop();
+
+		assertTrue(good0.isDone() && !good0.isCompletedExceptionally());
+		assertTrue(bad.isCompletedExceptionally());
+		assertTrue(good2.isDone() && !good2.isCompletedExceptionally());
+		assertEquals(2, written.size());
+		IngestPipeline.Statistics statistics = pipeline.getStatistics().get(0);
+		assertEquals(2, statistics.getPoints());
+		assertEquals(1, statistics.getFailedPoints());
+		assertEquals(0, statistics.getRetries());
+	}
+}
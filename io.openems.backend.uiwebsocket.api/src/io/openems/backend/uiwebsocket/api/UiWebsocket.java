@@ -1,14 +1,18 @@
 package io.openems.backend.uiwebsocket.api;
 
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
 import org.osgi.annotation.versioning.ProviderType;
 
+import com.google.gson.JsonElement;
+
 import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
 import io.openems.common.jsonrpc.base.JsonrpcNotification;
 import io.openems.common.jsonrpc.base.JsonrpcRequest;
 import io.openems.common.jsonrpc.base.JsonrpcResponseSuccess;
+import io.openems.common.types.ChannelAddress;
 
 @ProviderType
 public interface UiWebsocket {
@@ -44,4 +48,22 @@ public interface UiWebsocket {
 	 */
 	public void send(String edgeId, JsonrpcNotification notification) throws OpenemsNamedException;
 
+	/**
+	 * Checks whether any UI session subscribed Channels of the Edge; use this to
+	 * avoid preparing values for {@link #publishCurrentData(String, Map)}.
+	 * 
+	 * @param edgeId the Edge-ID
+	 * @return true if values of the Edge should be published
+	 */
+	public boolean hasCurrentDataSubscribers(String edgeId);
+
+	/**
+	 * Publishes the latest Channel values received from an Edge to the UI
+	 * sessions that subscribed them.
+	 * 
+	 * @param edgeId the Edge-ID
+	 * @param values the latest value per Channel
+	 */
+	public void publishCurrentData(String edgeId, Map<ChannelAddress, JsonElement> values);
+
 }
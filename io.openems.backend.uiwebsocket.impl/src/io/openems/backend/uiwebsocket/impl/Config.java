@@ -3,6 +3,9 @@ package io.openems.backend.uiwebsocket.impl;
 import org.osgi.service.metatype.annotations.AttributeDefinition;
 import org.osgi.service.metatype.annotations.ObjectClassDefinition;
 
+import io.openems.common.websocket.OrderedExecutor;
+import io.openems.common.websocket.OrderedExecutor.OverflowPolicy;
+
 @ObjectClassDefinition(//
 		name = "Ui.Websocket", //
 		description = "Configures the websocket server for OpenEMS UI")
@@ -11,6 +14,27 @@ import org.osgi.service.metatype.annotations.ObjectClassDefinition;
 	@AttributeDefinition(name = "Port", description = "The port of the websocket server.")
 	int port() default 8082;
 
+	@AttributeDefinition(name = "Compression Level", description = "Level of 'permessage-deflate' compression (0-9). -1 disables compression.")
+	int compressionLevel() default -1;
+
+	@AttributeDefinition(name = "Compression without Context Takeover", description = "Reset the compression context after every message. Saves memory per connection at the cost of compression ratio.")
+	boolean compressionNoContextTakeover() default false;
+
+	@AttributeDefinition(name = "Handler Threads", description = "Number of threads for handling messages. Messages of one connection are handled in order. 0: two per CPU core.")
+	int handlerThreads() default 0;
+
+	@AttributeDefinition(name = "Handler Queue Size", description = "Maximum number of messages waiting to be handled.")
+	int handlerQueueSize() default OrderedExecutor.DEFAULT_CAPACITY;
+
+	@AttributeDefinition(name = "Handler Overflow Policy", description = "What to do with new messages if the queue is full: REJECT the new message or DROP_OLDEST message of the connection. Dropped or rejected requests are answered with an error. BLOCK is not supported, as it would stall other connections.")
+	OverflowPolicy handlerOverflowPolicy() default OverflowPolicy.REJECT;
+
+	@AttributeDefinition(name = "Push Current Data", description = "Push Channel values to subscribed UI sessions as they are received from the Edge. If disabled, values are polled every 2 seconds.")
+	boolean pushCurrentData() default true;
+
+	@AttributeDefinition(name = "Push Minimum Interval", description = "Minimum time in milliseconds between two pushed notifications to a UI session. Values received in the meantime are combined.")
+	int pushMinInterval() default 500;
+
 	String webconsole_configurationFactory_nameHint() default "Ui Websocket";
 
 }
@@ -0,0 +1,143 @@
+package io.openems.backend.uiwebsocket.impl;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.JsonElement;
+
+import io.openems.common.types.ChannelAddress;
+
+/**
+ * Publishes the Channel values received from an Edge to the UI sessions that
+ * subscribed them.
+ *
+ * <p>
+ * Every Edge has a topic with the {@link SubscribedChannelsWorker}s that are
+ * subscribed to it. A published message is handed to every subscriber of the
+ * Edge once; each subscriber collects the values of its Channels and sends
+ * them at most once per 'minInterval'.
+ */
+public class CurrentDataPublisher {
+
+	private final Logger log = LoggerFactory.getLogger(CurrentDataPublisher.class);
+
+	private final Map<String, Set<SubscribedChannelsWorker>> topics = new ConcurrentHashMap<>();
+	private final ScheduledExecutorService executor;
+	private final long minInterval;
+
+	/**
+	 * @param name        to identify the thread
+	 * @param minInterval the minimum time between two notifications to a
+	 *                    subscriber in milliseconds
+	 */
+	public CurrentDataPublisher(String name, int minInterval) {
+		ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder() //
+				.setNameFormat(name + "-CurrentData") //
+				.setDaemon(true) //
+				.build());
+		executor.setRemoveOnCancelPolicy(true);
+		this.executor = executor;
+		this.minInterval = TimeUnit.MILLISECONDS.toNanos(Math.max(0, minInterval));
+	}
+
+	/**
+	 * Subscribes a worker to the topic of an Edge.
+	 *
+	 * @param edgeId the Edge-ID
+	 * @param worker the SubscribedChannelsWorker
+	 */
+	public synchronized void subscribe(String edgeId, SubscribedChannelsWorker worker) {
+		this.topics.computeIfAbsent(edgeId, e -> ConcurrentHashMap.newKeySet()).add(worker);
+	}
+
+	/**
+	 * Unsubscribes a worker from the topic of an Edge.
+	 *
+	 * @param edgeId the Edge-ID
+	 * @param worker the SubscribedChannelsWorker
+	 */
+	public synchronized void unsubscribe(String edgeId, SubscribedChannelsWorker worker) {
+		Set<SubscribedChannelsWorker> workers = this.topics.get(edgeId);
+		if (workers != null) {
+			workers.remove(worker);
+			if (workers.isEmpty()) {
+				this.topics.remove(edgeId);
+			}
+		}
+	}
+
+	/**
+	 * Checks whether a UI session subscribed Channels of the Edge.
+	 *
+	 * @param edgeId the Edge-ID
+	 * @return true if there are subscribers
+	 */
+	public boolean hasSubscribers(String edgeId) {
+		return this.topics.containsKey(edgeId);
+	}
+
+	/**
+	 * Publishes the latest values of an Edge.
+	 *
+	 * @param edgeId the Edge-ID
+	 * @param values the latest value per Channel
+	 */
+	public void publish(String edgeId, Map<ChannelAddress, JsonElement> values) {
+		for (SubscribedChannelsWorker worker : this.topics.getOrDefault(edgeId, Collections.emptySet())) {
+			try {
+				worker.offer(edgeId, values);
+			} catch (RuntimeException e) {
+				this.log.warn("Unable to publish CurrentData of [" + edgeId + "]: " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Gets the number of Edges with subscribers.
+	 *
+	 * @return the number of topics
+	 */
+	public int getTopicCount() {
+		return this.topics.size();
+	}
+
+	/**
+	 * Stops the publisher. Pending notifications are discarded.
+	 */
+	public void stop() {
+		this.executor.shutdownNow();
+	}
+
+	/**
+	 * Gets the minimum time between two notifications to a subscriber.
+	 *
+	 * @return the time in nanoseconds
+	 */
+	protected long getMinInterval() {
+		return this.minInterval;
+	}
+
+	/**
+	 * Schedules the sending of the collected values of a subscriber.
+	 *
+	 * @param flush the task
+	 * @param delay the delay in nanoseconds
+	 */
+	protected void schedule(Runnable flush, long delay) {
+		try {
+			this.executor.schedule(flush, delay, TimeUnit.NANOSECONDS);
+		} catch (RejectedExecutionException e) {
+			// stopped
+		}
+	}
+}
@@ -8,6 +8,7 @@ import org.slf4j.LoggerFactory;
 
 import io.openems.backend.metadata.api.BackendUser;
 import io.openems.common.exceptions.OpenemsException;
+import io.openems.common.websocket.WebsocketUtils;
 
 public class OnClose implements io.openems.common.websocket.OnClose {
 
@@ -23,13 +24,18 @@ public class OnClose implements io.openems.common.websocket.OnClose {
 		// get current User
 		WsData wsData = ws.getAttachment();
 		Optional<BackendUser> userOpt = wsData.getUser(this.parent.metadata);
+		String compression = WebsocketUtils.getCompressionStatistics(ws) //
+				.map(s -> " Compression [" + s + "]").orElse("");
 		if (userOpt.isPresent()) {
 			BackendUser user = userOpt.get();
-			this.parent.logInfo(this.log, "User [" + user.getId() + ":" + user.getName() + "] disconnected.");
+			this.parent.logInfo(this.log, "User [" + user.getId() + ":" + user.getName() + "] disconnected."
+					+ compression);
 		} else {
-			this.parent.logInfo(this.log, "User [" + wsData.getUserId().orElse("UNKNOWN") + "] disconnected.");
+			this.parent.logInfo(this.log, "User [" + wsData.getUserId().orElse("UNKNOWN") + "] disconnected."
+					+ compression);
 		}
 
+		this.parent.wsDataIndex.remove(wsData);
 		wsData.dispose();
 	}
 
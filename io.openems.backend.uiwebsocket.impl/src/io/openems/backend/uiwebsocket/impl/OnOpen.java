@@ -66,6 +66,7 @@ public class OnOpen implements io.openems.common.websocket.OnOpen {
 		// generate token
 		UUID token = UUID.randomUUID();
 		wsData.setToken(token);
+		this.parent.wsDataIndex.add(wsData, token, user.getEdgeRoles().keySet());
 
 		// send connection successful reply
 		List<EdgeMetadata> metadatas = new ArrayList<>();
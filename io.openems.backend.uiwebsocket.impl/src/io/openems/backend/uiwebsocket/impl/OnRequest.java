@@ -103,6 +103,8 @@ public class OnRequest implements io.openems.common.websocket.OnRequest {
 		JsonrpcRequest request = edgeRpcRequest.getPayload();
 		User user = backendUser.getAsCommonUser(edgeId);
 		user.assertRoleIsAtLeast(EdgeRpcRequest.METHOD, Role.GUEST);
+		// User might have been granted access after authentication
+		this.parent.wsDataIndex.addEdgeId(wsData, edgeId);
 
 		CompletableFuture<JsonrpcResponseSuccess> resultFuture;
 		switch (request.getMethod()) {
@@ -1,33 +1,215 @@
 package io.openems.backend.uiwebsocket.impl;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.SortedSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.gson.JsonElement;
 import com.google.gson.JsonNull;
 
+import io.openems.common.exceptions.OpenemsException;
 import io.openems.common.jsonrpc.base.JsonrpcNotification;
 import io.openems.common.jsonrpc.notification.CurrentDataNotification;
 import io.openems.common.jsonrpc.notification.EdgeRpcNotification;
+import io.openems.common.jsonrpc.request.SubscribeChannelsRequest;
+import io.openems.common.session.Role;
 import io.openems.common.types.ChannelAddress;
+import io.openems.common.websocket.SubscriptionScheduler;
+import io.openems.common.websocket.SubscriptionScheduler.Tick;
 
 public class SubscribedChannelsWorker extends io.openems.common.websocket.SubscribedChannelsWorker {
 
+	/**
+	 * If values are pushed, all subscribed Channels are still sent every this
+	 * many ticks, to recover from missed or reordered messages.
+	 */
+	protected static final int PUSH_RESYNC_TICKS = 15;
+
+	private final Logger log = LoggerFactory.getLogger(SubscribedChannelsWorker.class);
 	private final UiWebsocketImpl parent;
 
-	private String edgeId = null;
+	/**
+	 * The Edge-ID; changed only while holding the lock on {@link #pending}.
+	 */
+	private volatile String edgeId = null;
+
+	/**
+	 * The Edge-ID this worker is subscribed to at the {@link CurrentDataPublisher}.
+	 */
+	private String publisherEdgeId = null;
 
-	public SubscribedChannelsWorker(UiWebsocketImpl parent, WsData wsData) {
-		super(wsData);
+	/**
+	 * The Channels of the last full update and the ticks since then.
+	 */
+	private SortedSet<ChannelAddress> lastTickChannels = null;
+	private String lastTickEdgeId = null;
+	private int ticksSinceUpdate = 0;
+
+	/**
+	 * Values collected from the {@link CurrentDataPublisher}; guarded by itself.
+	 */
+	private final Map<ChannelAddress, JsonElement> pending = new HashMap<>();
+	private boolean isFlushScheduled = false;
+	private long lastFlush = Long.MIN_VALUE;
+
+	public SubscribedChannelsWorker(UiWebsocketImpl parent, SubscriptionScheduler scheduler, WsData wsData) {
+		super(scheduler, wsData);
 		this.parent = parent;
 	}
 
 	/**
-	 * Sets the Edge-ID.
-	 * 
+	 * Sets the Edge-ID. Values that were collected for another Edge are discarded.
+	 *
 	 * @param edgeId the Edge-ID
 	 */
 	public void setEdgeId(String edgeId) {
-		this.edgeId = edgeId;
+		synchronized (this.pending) {
+			if (!Objects.equals(this.edgeId, edgeId)) {
+				this.pending.clear();
+			}
+			this.edgeId = edgeId;
+		}
+	}
+
+	@Override
+	public synchronized void handleSubscribeChannelsRequest(Role role, SubscribeChannelsRequest request) {
+		super.handleSubscribeChannelsRequest(role, request);
+		this.updatePublisherSubscription();
+	}
+
+	@Override
+	public synchronized void dispose() {
+		super.dispose();
+		CurrentDataPublisher publisher = this.getPublisher();
+		if (publisher != null && this.publisherEdgeId != null) {
+			publisher.unsubscribe(this.publisherEdgeId, this);
+		}
+		this.publisherEdgeId = null;
+	}
+
+	/**
+	 * Subscribes to the topic of the current Edge at the
+	 * {@link CurrentDataPublisher} if Channels are subscribed.
+	 */
+	private void updatePublisherSubscription() {
+		CurrentDataPublisher publisher = this.getPublisher();
+		if (publisher == null) {
+			return;
+		}
+		String edgeId = this.getChannels().isEmpty() ? null : this.edgeId;
+		if (this.publisherEdgeId != null && !this.publisherEdgeId.equals(edgeId)) {
+			publisher.unsubscribe(this.publisherEdgeId, this);
+		}
+		if (edgeId != null) {
+			publisher.subscribe(edgeId, this);
+		}
+		this.publisherEdgeId = edgeId;
+	}
+
+	@Override
+	public void onTick(Tick tick) {
+		if (this.getPublisher() != null) {
+			// values are pushed; only send all Channels after a new subscription and for
+			// resynchronization
+			SortedSet<ChannelAddress> channels = this.getChannels();
+			String edgeId = this.edgeId;
+			if (channels == this.lastTickChannels && edgeId != null && edgeId.equals(this.lastTickEdgeId)
+					&& ++this.ticksSinceUpdate < PUSH_RESYNC_TICKS) {
+				return;
+			}
+			this.lastTickChannels = channels;
+			this.lastTickEdgeId = edgeId;
+			this.ticksSinceUpdate = 0;
+		}
+		super.onTick(tick);
+	}
+
+	/**
+	 * Offers the latest values of the Edge. Values of subscribed Channels are
+	 * collected and sent at most once per minimum interval of the
+	 * {@link CurrentDataPublisher}.
+	 *
+	 * @param edgeId the Edge-ID
+	 * @param values the latest value per Channel
+	 */
+	protected void offer(String edgeId, Map<ChannelAddress, JsonElement> values) {
+		CurrentDataPublisher publisher = this.getPublisher();
+		if (publisher == null) {
+			return;
+		}
+		SortedSet<ChannelAddress> channels = this.getChannels();
+		synchronized (this.pending) {
+			if (!edgeId.equals(this.edgeId)) {
+				// published before the subscription was moved to another Edge
+				return;
+			}
+			for (ChannelAddress channel : channels) {
+				JsonElement value = values.get(channel);
+				if (value != null) {
+					this.pending.put(channel, value);
+				}
+			}
+			if (this.pending.isEmpty() || this.isFlushScheduled) {
+				return;
+			}
+			this.isFlushScheduled = true;
+			long delay = this.lastFlush == Long.MIN_VALUE ? 0
+					: Math.max(0, this.lastFlush + publisher.getMinInterval() - System.nanoTime());
+			publisher.schedule(this::flush, delay);
+		}
+	}
+
+	/**
+	 * Sends the collected values.
+	 */
+	private void flush() {
+		CurrentDataNotification currentData = new CurrentDataNotification();
+		int count = 0;
+		String edgeId;
+		synchronized (this.pending) {
+			this.isFlushScheduled = false;
+			this.lastFlush = System.nanoTime();
+			edgeId = this.edgeId;
+			if (this.pending.isEmpty() || edgeId == null) {
+				return;
+			}
+			// a changed subscription may have removed Channels in the meantime
+			SortedSet<ChannelAddress> channels = this.getChannels();
+			for (Entry<ChannelAddress, JsonElement> entry : this.pending.entrySet()) {
+				if (channels.contains(entry.getKey())) {
+					currentData.add(entry.getKey(), entry.getValue());
+					count++;
+				}
+			}
+			this.pending.clear();
+		}
+		if (count == 0) {
+			return;
+		}
+		try {
+			this.wsData.send(new EdgeRpcNotification(edgeId, currentData).toString());
+		} catch (OpenemsException e) {
+			this.log.warn("Unable to send pushed SubscribedChannels: " + e.getMessage());
+		}
+	}
+
+	private CurrentDataPublisher getPublisher() {
+		if (this.parent == null) {
+			return null;
+		}
+		return this.parent.currentDataPublisher;
+	}
+
+	@Override
+	protected Object getPayloadKey(SortedSet<ChannelAddress> channels) {
+		return Arrays.asList(this.edgeId, channels);
 	}
 
 	@Override
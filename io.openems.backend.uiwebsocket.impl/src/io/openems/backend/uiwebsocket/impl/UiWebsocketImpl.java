@@ -1,14 +1,16 @@
 package io.openems.backend.uiwebsocket.impl;
 
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
-import org.java_websocket.WebSocket;
+import org.java_websocket.drafts.Draft;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.ConfigurationPolicy;
@@ -16,6 +18,9 @@ import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.metatype.annotations.Designate;
 import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonElement;
 
 import io.openems.backend.common.component.AbstractOpenemsBackendComponent;
 import io.openems.backend.edgewebsocket.api.EdgeWebsocket;
@@ -28,16 +33,28 @@ import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
 import io.openems.common.jsonrpc.base.JsonrpcNotification;
 import io.openems.common.jsonrpc.base.JsonrpcRequest;
 import io.openems.common.jsonrpc.base.JsonrpcResponseSuccess;
-import io.openems.common.session.Role;
+import io.openems.common.types.ChannelAddress;
+import io.openems.common.websocket.OrderedExecutor;
+import io.openems.common.websocket.PerMessageDeflateExtension;
 
 @Designate(ocd = Config.class, factory = false)
 @Component(name = "Ui.Websocket", configurationPolicy = ConfigurationPolicy.REQUIRE, immediate = true)
 public class UiWebsocketImpl extends AbstractOpenemsBackendComponent implements UiWebsocket {
 
-	// private final Logger log = LoggerFactory.getLogger(UiWebsocket.class);
+	private static final int DEBUG_LOG_INTERVAL_MINUTES = 1;
+
+	private final Logger log = LoggerFactory.getLogger(UiWebsocketImpl.class);
+	private final ScheduledExecutorService debugLogExecutor = Executors.newSingleThreadScheduledExecutor();
+
+	protected final WsDataIndex wsDataIndex = new WsDataIndex();
 
 	protected WebsocketServer server = null;
 
+	/**
+	 * Pushes Channel values to subscribed UI sessions; null if disabled.
+	 */
+	protected volatile CurrentDataPublisher currentDataPublisher = null;
+
 	@Reference
 	protected volatile Metadata metadata;
 
@@ -53,21 +70,45 @@ public class UiWebsocketImpl extends AbstractOpenemsBackendComponent implements
 
 	@Activate
 	void activate(Config config) {
-		this.startServer(config.port());
+		if (config.pushCurrentData()) {
+			this.currentDataPublisher = new CurrentDataPublisher(this.getName(), config.pushMinInterval());
+		}
+		this.startServer(config.port(),
+				PerMessageDeflateExtension.createDraft(config.compressionLevel(),
+						config.compressionNoContextTakeover(), PerMessageDeflateExtension.DEFAULT_THRESHOLD),
+				new OrderedExecutor(this.getName(), config.handlerThreads(), config.handlerQueueSize(),
+						config.handlerOverflowPolicy()));
+		this.debugLogExecutor.scheduleWithFixedDelay(() -> {
+			WebsocketServer server = this.server;
+			if (server != null) {
+				CurrentDataPublisher publisher = this.currentDataPublisher;
+				this.logInfo(this.log, "Handler " + server.getExecutor().getStatistics() + ", Connections "
+						+ this.wsDataIndex.size() + " for " + this.wsDataIndex.getEdgeCount() + " Edges"
+						+ (publisher != null ? ", Push topics " + publisher.getTopicCount() : ""));
+			}
+		}, DEBUG_LOG_INTERVAL_MINUTES, DEBUG_LOG_INTERVAL_MINUTES, TimeUnit.MINUTES);
 	}
 
 	@Deactivate
 	void deactivate() {
+		this.debugLogExecutor.shutdownNow();
 		this.stopServer();
+		CurrentDataPublisher publisher = this.currentDataPublisher;
+		if (publisher != null) {
+			publisher.stop();
+			this.currentDataPublisher = null;
+		}
 	}
 
 	/**
 	 * Create and start new server.
 	 * 
-	 * @param port the port
+	 * @param port     the port
+	 * @param draft    the websocket Draft
+	 * @param executor the executor for handling messages
 	 */
-	private synchronized void startServer(int port) {
-		this.server = new WebsocketServer(this, "Ui.Websocket", port);
+	private synchronized void startServer(int port, Draft draft, OrderedExecutor executor) {
+		this.server = new WebsocketServer(this, "Ui.Websocket", port, draft, executor);
 		this.server.start();
 	}
 
@@ -111,6 +152,20 @@ public class UiWebsocketImpl extends AbstractOpenemsBackendComponent implements
 		}
 	}
 
+	@Override
+	public boolean hasCurrentDataSubscribers(String edgeId) {
+		CurrentDataPublisher publisher = this.currentDataPublisher;
+		return publisher != null && publisher.hasSubscribers(edgeId);
+	}
+
+	@Override
+	public void publishCurrentData(String edgeId, Map<ChannelAddress, JsonElement> values) {
+		CurrentDataPublisher publisher = this.currentDataPublisher;
+		if (publisher != null) {
+			publisher.publish(edgeId, values);
+		}
+	}
+
 	/**
 	 * Gets the WebSocket connection attachment for a UI token.
 	 * 
@@ -119,14 +174,9 @@ public class UiWebsocketImpl extends AbstractOpenemsBackendComponent implements
 	 * @throws OpenemsNamedException if there is no connection with this token
 	 */
 	private WsData getWsDataForTokenOrError(UUID token) throws OpenemsNamedException {
-		Collection<WebSocket> connections = this.server.getConnections();
-		for (Iterator<WebSocket> iter = connections.iterator(); iter.hasNext();) {
-			WebSocket websocket = iter.next();
-			WsData wsData = websocket.getAttachment();
-			Optional<UUID> thisToken = wsData.getToken();
-			if (thisToken.isPresent() && thisToken.get().equals(token)) {
-				return wsData;
-			}
+		Optional<WsData> wsData = this.wsDataIndex.getForToken(token);
+		if (wsData.isPresent()) {
+			return wsData.get();
 		}
 		throw OpenemsError.BACKEND_NO_UI_WITH_TOKEN.exception(token);
 	}
@@ -140,24 +190,11 @@ public class UiWebsocketImpl extends AbstractOpenemsBackendComponent implements
 	 */
 	private List<WsData> getWsDatasForEdgeId(String edgeId) {
 		List<WsData> result = new ArrayList<>();
-		Collection<WebSocket> connections = this.server.getConnections();
-		for (Iterator<WebSocket> iter = connections.iterator(); iter.hasNext();) {
-			WebSocket websocket = iter.next();
-			WsData wsData = websocket.getAttachment();
-			// get attachment User-ID
-			Optional<String> userIdOpt = wsData.getUserId();
-			if (userIdOpt.isPresent()) {
-				String userId = userIdOpt.get();
-				// get BackendUser for User-ID
-				Optional<BackendUser> userOpt = this.metadata.getUser(userId);
-				if (userOpt.isPresent()) {
-					BackendUser user = userOpt.get();
-					Optional<Role> edgeRoleOpt = user.getEdgeRole(edgeId);
-					if (edgeRoleOpt.isPresent()) {
-						// User has access to this Edge-ID
-						result.add(wsData);
-					}
-				}
+		for (WsData wsData : this.wsDataIndex.getForEdgeId(edgeId)) {
+			// make sure the access has not been revoked in the meantime
+			Optional<BackendUser> userOpt = wsData.getUser(this.metadata);
+			if (userOpt.isPresent() && userOpt.get().getEdgeRole(edgeId).isPresent()) {
+				result.add(wsData);
 			}
 		}
 		return result;
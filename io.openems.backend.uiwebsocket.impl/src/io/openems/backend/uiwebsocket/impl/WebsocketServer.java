@@ -1,5 +1,6 @@
 package io.openems.backend.uiwebsocket.impl;
 
+import org.java_websocket.drafts.Draft;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -7,6 +8,7 @@ import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
 import io.openems.common.exceptions.OpenemsException;
 import io.openems.common.jsonrpc.base.JsonrpcMessage;
 import io.openems.common.websocket.AbstractWebsocketServer;
+import io.openems.common.websocket.OrderedExecutor;
 
 public class WebsocketServer extends AbstractWebsocketServer<WsData> {
 
@@ -19,8 +21,8 @@ public class WebsocketServer extends AbstractWebsocketServer<WsData> {
 	private final OnError onError;
 	private final OnClose onClose;
 
-	public WebsocketServer(UiWebsocketImpl parent, String name, int port) {
-		super(name, port);
+	public WebsocketServer(UiWebsocketImpl parent, String name, int port, Draft draft, OrderedExecutor executor) {
+		super(name, port, draft, executor);
 		this.parent = parent;
 		this.onOpen = new OnOpen(parent);
 		this.onRequest = new OnRequest(parent);
@@ -31,7 +33,7 @@ public class WebsocketServer extends AbstractWebsocketServer<WsData> {
 
 	@Override
 	protected WsData createWsData() {
-		return new WsData(this.parent);
+		return new WsData(this.parent, this.getSubscriptionScheduler());
 	}
 
 	@Override
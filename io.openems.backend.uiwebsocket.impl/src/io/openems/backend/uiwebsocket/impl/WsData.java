@@ -7,6 +7,7 @@ import io.openems.backend.metadata.api.Metadata;
 import io.openems.backend.metadata.api.BackendUser;
 import io.openems.common.exceptions.OpenemsError;
 import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
+import io.openems.common.websocket.SubscriptionScheduler;
 
 public class WsData extends io.openems.common.websocket.WsData {
 
@@ -14,8 +15,8 @@ public class WsData extends io.openems.common.websocket.WsData {
 	private Optional<String> userId = Optional.empty();
 	private Optional<UUID> token = Optional.empty();
 
-	public WsData(UiWebsocketImpl parent) {
-		this.subscribedChannelsWorker = new SubscribedChannelsWorker(parent, this);
+	public WsData(UiWebsocketImpl parent, SubscriptionScheduler scheduler) {
+		this.subscribedChannelsWorker = new SubscribedChannelsWorker(parent, scheduler, this);
 	}
 
 	@Override
@@ -0,0 +1,118 @@
+package io.openems.backend.uiwebsocket.impl;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Indexes the authenticated UI connections by token and by Edge-ID.
+ *
+ * <p>
+ * Lookups are lock-free; updates of one connection are synchronized to keep
+ * the indexes consistent.
+ */
+public class WsDataIndex {
+
+	private final Map<UUID, WsData> byToken = new ConcurrentHashMap<>();
+	private final Map<String, Set<WsData>> byEdgeId = new ConcurrentHashMap<>();
+	private final Map<WsData, Set<String>> edgeIdsByWsData = new ConcurrentHashMap<>();
+
+	/**
+	 * Adds an authenticated connection.
+	 *
+	 * @param wsData  the WebSocket attachment
+	 * @param token   the token of the connection
+	 * @param edgeIds the Edge-IDs the User has access to
+	 */
+	public synchronized void add(WsData wsData, UUID token, Collection<String> edgeIds) {
+		this.byToken.put(token, wsData);
+		for (String edgeId : edgeIds) {
+			this.addEdgeId(wsData, edgeId);
+		}
+	}
+
+	/**
+	 * Adds an Edge-ID to an authenticated connection, e.g. if the User was granted
+	 * access to the Edge after authentication.
+	 *
+	 * @param wsData the WebSocket attachment
+	 * @param edgeId the Edge-ID
+	 */
+	public synchronized void addEdgeId(WsData wsData, String edgeId) {
+		Set<String> edgeIds = this.edgeIdsByWsData.computeIfAbsent(wsData, w -> ConcurrentHashMap.newKeySet());
+		if (edgeIds.add(edgeId)) {
+			this.byEdgeId.computeIfAbsent(edgeId, e -> ConcurrentHashMap.newKeySet()).add(wsData);
+		}
+	}
+
+	/**
+	 * Removes a connection from all indexes.
+	 *
+	 * @param wsData the WebSocket attachment
+	 */
+	public synchronized void remove(WsData wsData) {
+		Optional<UUID> token = wsData.getToken();
+		if (token.isPresent()) {
+			this.byToken.remove(token.get(), wsData);
+		}
+		Set<String> edgeIds = this.edgeIdsByWsData.remove(wsData);
+		if (edgeIds == null) {
+			return;
+		}
+		for (String edgeId : edgeIds) {
+			Set<WsData> wsDatas = this.byEdgeId.get(edgeId);
+			if (wsDatas != null) {
+				wsDatas.remove(wsData);
+				if (wsDatas.isEmpty()) {
+					this.byEdgeId.remove(edgeId);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the connection with the given token.
+	 *
+	 * @param token the token
+	 * @return the WsData or Optional.Empty
+	 */
+	public Optional<WsData> getForToken(UUID token) {
+		return Optional.ofNullable(this.byToken.get(token));
+	}
+
+	/**
+	 * Gets the connections of Users with access to the Edge.
+	 *
+	 * @param edgeId the Edge-ID
+	 * @return the WsDatas; empty if there are none
+	 */
+	public Collection<WsData> getForEdgeId(String edgeId) {
+		Set<WsData> wsDatas = this.byEdgeId.get(edgeId);
+		if (wsDatas == null) {
+			return Collections.emptySet();
+		}
+		return Collections.unmodifiableSet(wsDatas);
+	}
+
+	/**
+	 * Gets the number of indexed connections.
+	 *
+	 * @return the number of connections
+	 */
+	public int size() {
+		return this.byToken.size();
+	}
+
+	/**
+	 * Gets the number of indexed Edges.
+	 *
+	 * @return the number of Edges
+	 */
+	public int getEdgeCount() {
+		return this.byEdgeId.size();
+	}
+}
@@ -0,0 +1,136 @@
+package io.openems.backend.uiwebsocket.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+import io.openems.common.jsonrpc.request.SubscribeChannelsRequest;
+import io.openems.common.session.Role;
+import io.openems.common.types.ChannelAddress;
+import io.openems.common.websocket.SubscriptionScheduler;
+
+public class CurrentDataPublisherTest {
+
+	private static final ChannelAddress SOC = new ChannelAddress("ess0", "Soc");
+	private static final ChannelAddress POWER = new ChannelAddress("ess0", "ActivePower");
+
+	private static class DummyWsData extends WsData {
+		private final List<String> sent = Collections.synchronizedList(new ArrayList<>());
+
+		public DummyWsData(UiWebsocketImpl parent, SubscriptionScheduler scheduler) {
+			super(parent, scheduler);
+		}
+
+		@Override
+		public void send(String text) {
+			this.sent.add(text);
+		}
+	}
+
+	private static Map<ChannelAddress, JsonElement> values(int soc, int power) {
+		Map<ChannelAddress, JsonElement> values = new HashMap<>();
+		values.put(SOC, new JsonPrimitive(soc));
+		values.put(POWER, new JsonPrimitive(power));
+		return values;
+	}
+
+	private static String getEdgeId(String message) {
+		return new JsonParser().parse(message).getAsJsonObject().getAsJsonObject("params").get("edgeId")
+				.getAsString();
+	}
+
+	private static JsonObject getCurrentData(String message) {
+		return new JsonParser().parse(message).getAsJsonObject().getAsJsonObject("params")
+				.getAsJsonObject("payload").getAsJsonObject("params");
+	}
+
+	@Test
+	public void test() throws Exception {
+		UiWebsocketImpl parent = new UiWebsocketImpl();
+		CurrentDataPublisher publisher = new CurrentDataPublisher("test", 200);
+		parent.currentDataPublisher = publisher;
+		// a stopped scheduler does not poll
+		SubscriptionScheduler scheduler = new SubscriptionScheduler("test");
+		scheduler.stop();
+		DummyWsData wsData = new DummyWsData(parent, scheduler);
+
+		SubscribedChannelsWorker worker = wsData.getSubscribedChannelsWorker();
+		worker.setEdgeId("edge0");
+		SubscribeChannelsRequest request = new SubscribeChannelsRequest(1);
+		request.getChannels().add(SOC);
+		worker.handleSubscribeChannelsRequest(Role.GUEST, request);
+		assertTrue(publisher.hasSubscribers("edge0"));
+
+		// first message is sent immediately
+		publisher.publish("edge0", values(50, 1000));
+		publisher.publish("edge1", values(10, 0));
+		Thread.sleep(100);
+		assertEquals(1, wsData.sent.size());
+		JsonObject currentData = getCurrentData(wsData.sent.get(0));
+		assertEquals(50, currentData.get("ess0/Soc").getAsInt());
+		assertFalse(currentData.has("ess0/ActivePower"));
+
+		// following messages are combined
+		publisher.publish("edge0", values(51, 1000));
+		publisher.publish("edge0", values(52, 1000));
+		Thread.sleep(50);
+		assertEquals(1, wsData.sent.size());
+		Thread.sleep(300);
+		assertEquals(2, wsData.sent.size());
+		assertEquals(52, getCurrentData(wsData.sent.get(1)).get("ess0/Soc").getAsInt());
+
+		wsData.dispose();
+		assertFalse(publisher.hasSubscribers("edge0"));
+		publisher.stop();
+	}
+
+	@Test
+	public void testSwitchEdge() throws Exception {
+		UiWebsocketImpl parent = new UiWebsocketImpl();
+		CurrentDataPublisher publisher = new CurrentDataPublisher("test", 200);
+		parent.currentDataPublisher = publisher;
+		SubscriptionScheduler scheduler = new SubscriptionScheduler("test");
+		scheduler.stop();
+		DummyWsData wsData = new DummyWsData(parent, scheduler);
+
+		SubscribedChannelsWorker worker = wsData.getSubscribedChannelsWorker();
+		worker.setEdgeId("edge0");
+		SubscribeChannelsRequest request = new SubscribeChannelsRequest(1);
+		request.getChannels().add(SOC);
+		worker.handleSubscribeChannelsRequest(Role.GUEST, request);
+		publisher.publish("edge0", values(50, 1000));
+		Thread.sleep(50);
+		assertEquals(1, wsData.sent.size());
+
+		// flush of edge0 is pending while the UI switches to edge1
+		publisher.publish("edge0", values(51, 1000));
+		worker.setEdgeId("edge1");
+		publisher.publish("edge0", values(52, 1000));
+		worker.handleSubscribeChannelsRequest(Role.GUEST, request);
+		assertFalse(publisher.hasSubscribers("edge0"));
+		Thread.sleep(300);
+		assertEquals(1, wsData.sent.size());
+
+		publisher.publish("edge1", values(10, 0));
+		Thread.sleep(300);
+		assertEquals(2, wsData.sent.size());
+		assertEquals("edge1", getEdgeId(wsData.sent.get(1)));
+		assertEquals(10, getCurrentData(wsData.sent.get(1)).get("ess0/Soc").getAsInt());
+
+		wsData.dispose();
+		publisher.stop();
+	}
+}
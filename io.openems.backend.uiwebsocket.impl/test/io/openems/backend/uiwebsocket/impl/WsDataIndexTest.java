@@ -0,0 +1,52 @@
+package io.openems.backend.uiwebsocket.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import io.openems.common.websocket.SubscriptionScheduler;
+
+public class WsDataIndexTest {
+
+	private static WsData wsData(SubscriptionScheduler scheduler, UUID token) {
+		WsData wsData = new WsData(null, scheduler);
+		wsData.setToken(token);
+		return wsData;
+	}
+
+	@Test
+	public void test() {
+		SubscriptionScheduler scheduler = new SubscriptionScheduler("test");
+		WsDataIndex index = new WsDataIndex();
+		UUID token0 = UUID.randomUUID();
+		UUID token1 = UUID.randomUUID();
+		WsData wsData0 = wsData(scheduler, token0);
+		WsData wsData1 = wsData(scheduler, token1);
+
+		index.add(wsData0, token0, Arrays.asList("edge0", "edge1"));
+		index.add(wsData1, token1, Arrays.asList("edge1"));
+		assertSame(wsData0, index.getForToken(token0).get());
+		assertEquals(1, index.getForEdgeId("edge0").size());
+		assertEquals(2, index.getForEdgeId("edge1").size());
+		assertTrue(index.getForEdgeId("edge2").isEmpty());
+
+		// access granted after authentication
+		index.addEdgeId(wsData1, "edge2");
+		assertTrue(index.getForEdgeId("edge2").contains(wsData1));
+
+		index.remove(wsData1);
+		assertFalse(index.getForToken(token1).isPresent());
+		assertEquals(1, index.getForEdgeId("edge1").size());
+		assertTrue(index.getForEdgeId("edge2").isEmpty());
+		assertEquals(1, index.size());
+		assertEquals(2, index.getEdgeCount());
+
+		scheduler.stop();
+	}
+}
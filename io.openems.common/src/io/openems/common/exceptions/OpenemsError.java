@@ -46,6 +46,7 @@ public enum OpenemsError {
 	JSONRPC_UNHANDLED_METHOD(4001, "Unhandled JSON-RPC method [%s]"), //
 	JSONRPC_INVALID_MESSAGE(4002, "JSON-RPC Message is not a valid Request, Result or Notification: %s"), //
 	JSONRPC_RESPONSE_WITHOUT_REQUEST(4003, "Got Response without Request: %s"), //
+	JSONRPC_BUSY(4004, "Too many pending messages. Request [%s] was rejected"), //
 
 	/*
 	 * JSON Errors. 5000-5999
@@ -1,11 +1,17 @@
 package io.openems.common.jsonrpc.notification;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Optional;
 
 import com.google.common.collect.TreeBasedTable;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
 import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
 import io.openems.common.jsonrpc.base.JsonrpcNotification;
@@ -31,6 +37,10 @@ import io.openems.common.utils.JsonUtils;
 public class TimestampedDataNotification extends JsonrpcNotification {
 
 	public static TimestampedDataNotification from(JsonrpcNotification notification) throws OpenemsNamedException {
+		if (notification instanceof TimestampedDataNotification) {
+			// e.g. decoded from a binary message
+			return (TimestampedDataNotification) notification;
+		}
 		TimestampedDataNotification result = new TimestampedDataNotification();
 		JsonObject j = notification.getParams();
 		for (Entry<String, JsonElement> e1 : j.entrySet()) {
@@ -43,6 +53,70 @@ public class TimestampedDataNotification extends JsonrpcNotification {
 		return result;
 	}
 
+	/**
+	 * Parses a serialized JSON-RPC message in a single pass if it is a
+	 * TimestampedDataNotification, i.e. without building a JsonObject tree of the
+	 * whole message first.
+	 * 
+	 * <p>
+	 * Requires 'method' to be serialized before 'params', as done by
+	 * {@link JsonrpcNotification#toJsonObject()}. The remaining members are still
+	 * scanned after 'params', so a message that carries an 'id' anywhere is never
+	 * mistaken for a notification.
+	 * 
+	 * @param message the serialized JSON-RPC message
+	 * @return the TimestampedDataNotification; Optional.Empty if the message is
+	 *         something else or cannot be parsed this way
+	 */
+	public static Optional<TimestampedDataNotification> parse(String message) {
+		JsonParser parser = new JsonParser();
+		try (JsonReader reader = new JsonReader(new StringReader(message))) {
+			if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+				return Optional.empty();
+			}
+			reader.beginObject();
+			boolean isTimestampedData = false;
+			TimestampedDataNotification result = null;
+			while (reader.hasNext()) {
+				switch (reader.nextName()) {
+				case "method":
+					if (reader.peek() != JsonToken.STRING || !METHOD.equals(reader.nextString())) {
+						return Optional.empty();
+					}
+					isTimestampedData = true;
+					break;
+				case "params":
+					if (!isTimestampedData || result != null) {
+						return Optional.empty();
+					}
+					result = new TimestampedDataNotification();
+					reader.beginObject();
+					while (reader.hasNext()) {
+						long timestamp = Long.parseLong(reader.nextName());
+						reader.beginObject();
+						while (reader.hasNext()) {
+							ChannelAddress address = ChannelAddress.fromString(reader.nextName());
+							result.add(timestamp, address, parser.parse(reader));
+						}
+						reader.endObject();
+					}
+					reader.endObject();
+					break;
+				case "id":
+					// a JSON-RPC Request - also if 'id' follows 'params'
+					return Optional.empty();
+				default:
+					reader.skipValue();
+				}
+			}
+			reader.endObject();
+			return Optional.ofNullable(result);
+		} catch (IOException | RuntimeException | OpenemsNamedException e) {
+			// handled by the generic parser
+			return Optional.empty();
+		}
+	}
+
 	public static final String METHOD = "timestampedData";
 
 	private final TreeBasedTable<Long, ChannelAddress, JsonElement> data = TreeBasedTable.create();
@@ -0,0 +1,96 @@
+package io.openems.common.jsonrpc.request;
+
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.UUID;
+
+import com.google.common.collect.TreeBasedTable;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import io.openems.common.exceptions.OpenemsError;
+import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
+import io.openems.common.jsonrpc.base.JsonrpcRequest;
+import io.openems.common.types.ChannelAddress;
+import io.openems.common.utils.JsonUtils;
+
+/**
+ * Represents a JSON-RPC Request for timestamped data that is resent from the
+ * Edge outbox to Backend. In contrast to a 'timestampedData' Notification the
+ * Backend confirms storing the data with a JSON-RPC Response.
+ *
+ * <pre>
+ * {
+ *   "jsonrpc": "2.0",
+ *   "id": "UUID",
+ *   "method": "resendData",
+ *   "params": {
+ *     [timestamp: epoch in milliseconds]: {
+ *       [channelAddress]: String | Number
+ *     }
+ *   }
+ * }
+ * </pre>
+ */
+public class ResendDataRequest extends JsonrpcRequest {
+
+	public static final String METHOD = "resendData";
+
+	public static ResendDataRequest from(JsonrpcRequest r) throws OpenemsNamedException {
+		ResendDataRequest result = new ResendDataRequest(r.getId());
+		JsonObject j = r.getParams();
+		for (Entry<String, JsonElement> e1 : j.entrySet()) {
+			long timestamp;
+			try {
+				timestamp = Long.parseLong(e1.getKey());
+			} catch (NumberFormatException e) {
+				throw OpenemsError.JSON_NO_INTEGER.exception(e1.getKey());
+			}
+			JsonObject jTime = JsonUtils.getAsJsonObject(e1.getValue());
+			for (Entry<String, JsonElement> e2 : jTime.entrySet()) {
+				result.add(timestamp, ChannelAddress.fromString(e2.getKey()), e2.getValue());
+			}
+		}
+		return result;
+	}
+
+	private final TreeBasedTable<Long, ChannelAddress, JsonElement> data = TreeBasedTable.create();
+
+	public ResendDataRequest() {
+		this(UUID.randomUUID());
+	}
+
+	private ResendDataRequest(UUID id) {
+		super(id, METHOD);
+	}
+
+	public void add(long timestamp, ChannelAddress address, JsonElement value) {
+		this.data.put(timestamp, address, value);
+	}
+
+	@Override
+	public JsonObject getParams() {
+		JsonObject p = new JsonObject();
+		for (Entry<Long, Map<ChannelAddress, JsonElement>> e1 : this.data.rowMap().entrySet()) {
+			JsonObject jTime = new JsonObject();
+			for (Entry<ChannelAddress, JsonElement> e2 : e1.getValue().entrySet()) {
+				jTime.add(e2.getKey().toString(), e2.getValue());
+			}
+			p.add(e1.getKey().toString(), jTime);
+		}
+		return p;
+	}
+
+	public TreeBasedTable<Long, ChannelAddress, JsonElement> getData() {
+		return this.data;
+	}
+
+	/**
+	 * Gets the number of timestamps in this request.
+	 *
+	 * @return the number of timestamps
+	 */
+	public int getNumberOfTimestamps() {
+		return this.data.rowKeySet().size();
+	}
+}
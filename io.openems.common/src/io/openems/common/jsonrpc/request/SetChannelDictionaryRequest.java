@@ -0,0 +1,84 @@
+package io.openems.common.jsonrpc.request;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
+import io.openems.common.jsonrpc.base.JsonrpcRequest;
+import io.openems.common.types.ChannelAddress;
+import io.openems.common.utils.JsonUtils;
+
+/**
+ * Represents a JSON-RPC Request to append Channels to the Channel dictionary of
+ * a websocket connection. Data for Channels in the dictionary may then be sent
+ * as binary frames.
+ *
+ * <p>
+ * An 'offset' of '0' replaces the dictionary. Otherwise it has to match the
+ * current size of the dictionary.
+ *
+ * <pre>
+ * {
+ *   "jsonrpc": "2.0",
+ *   "id": "UUID",
+ *   "method": "setChannelDictionary",
+ *   "params": {
+ *     "offset": number,
+ *     "channels": string[]
+ *   }
+ * }
+ * </pre>
+ */
+public class SetChannelDictionaryRequest extends JsonrpcRequest {
+
+	public static final String METHOD = "setChannelDictionary";
+
+	public static SetChannelDictionaryRequest from(JsonrpcRequest r) throws OpenemsNamedException {
+		JsonObject p = r.getParams();
+		int offset = JsonUtils.getAsInt(p, "offset");
+		List<ChannelAddress> channels = new ArrayList<>();
+		for (JsonElement channel : JsonUtils.getAsJsonArray(p, "channels")) {
+			channels.add(ChannelAddress.fromString(JsonUtils.getAsString(channel)));
+		}
+		return new SetChannelDictionaryRequest(r.getId(), offset, channels);
+	}
+
+	private final int offset;
+	private final List<ChannelAddress> channels;
+
+	public SetChannelDictionaryRequest(int offset, List<ChannelAddress> channels) {
+		this(UUID.randomUUID(), offset, channels);
+	}
+
+	private SetChannelDictionaryRequest(UUID id, int offset, List<ChannelAddress> channels) {
+		super(id, METHOD);
+		this.offset = offset;
+		this.channels = channels;
+	}
+
+	public int getOffset() {
+		return this.offset;
+	}
+
+	public List<ChannelAddress> getChannels() {
+		return this.channels;
+	}
+
+	@Override
+	public JsonObject getParams() {
+		JsonArray channels = new JsonArray();
+		for (ChannelAddress channel : this.channels) {
+			channels.add(new JsonPrimitive(channel.toString()));
+		}
+		return JsonUtils.buildJsonObject() //
+				.addProperty("offset", this.offset) //
+				.add("channels", channels) //
+				.build();
+	}
+}
@@ -62,7 +62,12 @@ public class SubscribeChannelsRequest extends JsonrpcRequest {
 		this(UUID.randomUUID(), count);
 	}
 
-	private void addChannel(ChannelAddress address) {
+	/**
+	 * Adds a Channel to the subscription.
+	 * 
+	 * @param address the Channel-Address
+	 */
+	public void addChannel(ChannelAddress address) {
 		this.channels.add(address);
 	}
 
@@ -1,12 +1,11 @@
 package io.openems.common.websocket;
 
-import java.util.concurrent.CompletableFuture;
-
 import org.slf4j.Logger;
 
 public abstract class AbstractWebsocket<T extends WsData> {
 
 	private final String name;
+	private final OrderedExecutor executor;
 
 	/**
 	 * Creates an empty WsData object that is attached to the WebSocket as early as
@@ -59,7 +58,16 @@ public abstract class AbstractWebsocket<T extends WsData> {
 	protected abstract OnClose getOnClose();
 
 	public AbstractWebsocket(String name) {
+		this(name, new OrderedExecutor(name));
+	}
+
+	/**
+	 * @param name     to identify this websocket client/server
+	 * @param executor the executor for handling websocket events
+	 */
+	public AbstractWebsocket(String name, OrderedExecutor executor) {
 		this.name = name;
+		this.executor = executor;
 	}
 
 	/**
@@ -71,13 +79,22 @@ public abstract class AbstractWebsocket<T extends WsData> {
 		return name;
 	}
 
+	/**
+	 * Gets the executor that handles websocket events; ordered per connection.
+	 * 
+	 * @return the OrderedExecutor
+	 */
+	public OrderedExecutor getExecutor() {
+		return this.executor;
+	}
+
 	/**
 	 * Handles an internal Error asynchronously
 	 * 
 	 * @param e
 	 */
 	protected void handleInternalErrorAsync(Exception e) {
-		CompletableFuture.runAsync(new OnInternalErrorHandler(this.getOnInternalError(), e));
+		this.executor.executeUnordered(new OnInternalErrorHandler(this.getOnInternalError(), e));
 	}
 
 	/**
@@ -4,6 +4,7 @@ import java.net.Proxy;
 import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
 import org.java_websocket.client.WebSocketClient;
@@ -58,14 +59,19 @@ public abstract class AbstractWebsocketClient<T extends WsData> extends Abstract
 
 	protected AbstractWebsocketClient(String name, URI serverUri, Draft draft, Map<String, String> httpHeaders,
 			Proxy proxy) {
-		super(name);
+		this(name, serverUri, draft, httpHeaders, proxy, new OrderedExecutor(name));
+	}
+
+	protected AbstractWebsocketClient(String name, URI serverUri, Draft draft, Map<String, String> httpHeaders,
+			Proxy proxy, OrderedExecutor executor) {
+		super(name, executor);
 		this.serverUri = serverUri;
 		this.ws = new WebSocketClient(serverUri, draft, httpHeaders) {
 
 			@Override
 			public void onOpen(ServerHandshake handshake) {
 				JsonObject jHandshake = WebsocketUtils.handshakeToJsonObject(handshake);
-				CompletableFuture.runAsync(
+				executor.executeAlways(this,
 						new OnOpenHandler(AbstractWebsocketClient.this, AbstractWebsocketClient.this.ws, jHandshake));
 			}
 
@@ -74,17 +80,21 @@ public abstract class AbstractWebsocketClient<T extends WsData> extends Abstract
 				try {
 					JsonrpcMessage message = JsonrpcMessage.from(stringMessage);
 					if (message instanceof JsonrpcRequest) {
-						CompletableFuture.runAsync(new OnRequestHandler(AbstractWebsocketClient.this, ws,
-								(JsonrpcRequest) message, (response) -> {
+						JsonrpcRequest request = (JsonrpcRequest) message;
+						Runnable busy = () -> AbstractWebsocketClient.this.sendMessage(OnRequestHandler.busy(request));
+						if (!executor.execute(this, new OnRequestHandler(AbstractWebsocketClient.this, ws, request,
+								(response) -> {
 									AbstractWebsocketClient.this.sendMessage(response);
-								}));
+								}), busy)) {
+							busy.run();
+						}
 
 					} else if (message instanceof JsonrpcResponse) {
-						CompletableFuture.runAsync(
+						executor.executeUnordered(
 								new OnResponseHandler(AbstractWebsocketClient.this, ws, (JsonrpcResponse) message));
 
 					} else if (message instanceof JsonrpcNotification) {
-						CompletableFuture.runAsync(new OnNotificationHandler(AbstractWebsocketClient.this, ws,
+						executor.execute(this, new OnNotificationHandler(AbstractWebsocketClient.this, ws,
 								(JsonrpcNotification) message));
 
 					}
@@ -95,12 +105,13 @@ public abstract class AbstractWebsocketClient<T extends WsData> extends Abstract
 
 			@Override
 			public void onError(Exception ex) {
-				CompletableFuture.runAsync(new OnErrorHandler(AbstractWebsocketClient.this, ws, ex));
+				executor.executeAlways(this, new OnErrorHandler(AbstractWebsocketClient.this, ws, ex));
 			}
 
 			@Override
 			public void onClose(int code, String reason, boolean remote) {
-				CompletableFuture.runAsync(new OnCloseHandler(AbstractWebsocketClient.this, ws, code, reason, remote));
+				executor.executeAlways(this,
+						new OnCloseHandler(AbstractWebsocketClient.this, ws, code, reason, remote));
 
 				AbstractWebsocketClient.this.log.info(
 						"Websocket [" + serverUri.toString() + "] closed. Code [" + code + "] Reason [" + reason + "]");
@@ -162,8 +173,12 @@ public abstract class AbstractWebsocketClient<T extends WsData> extends Abstract
 	};
 
 	public void sendMessageOrError(JsonrpcMessage message) throws OpenemsException {
+		String text = message.toString();
 		try {
-			this.ws.send(message.toString());
+			// compression extensions require serialized sending
+			synchronized (this.ws) {
+				this.ws.send(text);
+			}
 		} catch (Exception e) {
 			if (e instanceof WebsocketNotConnectedException) {
 				AbstractWebsocketClient.this.reconnectorWorker.triggerNextRun();
@@ -190,6 +205,38 @@ public abstract class AbstractWebsocketClient<T extends WsData> extends Abstract
 		}
 	}
 
+	/**
+	 * Sends a binary message. Returns true if sending was successful, otherwise
+	 * false. Also logs a warning in that case.
+	 * 
+	 * @param bytes the binary message
+	 * @return true on success
+	 */
+	public boolean sendBinaryMessage(byte[] bytes) {
+		try {
+			synchronized (this.ws) {
+				this.ws.send(bytes);
+			}
+			return true;
+		} catch (Exception e) {
+			if (e instanceof WebsocketNotConnectedException) {
+				AbstractWebsocketClient.this.reconnectorWorker.triggerNextRun();
+			}
+			log.warn("Unable to send binary message. " + e.getClass().getSimpleName());
+			return false;
+		}
+	}
+
+	/**
+	 * Gets the compression statistics of the current connection.
+	 * 
+	 * @return the statistics; empty if 'permessage-deflate' was not negotiated
+	 */
+	public Optional<PerMessageDeflateExtension.Statistics> getCompressionStatistics() {
+		// the Draft of the WebSocketClient is only the prototype for the connection
+		return WebsocketUtils.getCompressionStatistics(this.ws.getConnection());
+	}
+
 	/**
 	 * Sends a JSON-RPC Request and returns a future Response.
 	 * 
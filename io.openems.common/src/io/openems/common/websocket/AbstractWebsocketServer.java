@@ -3,10 +3,13 @@ package io.openems.common.websocket;
 import java.io.IOException;
 import java.net.BindException;
 import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
 import java.util.Collection;
-import java.util.concurrent.CompletableFuture;
+import java.util.Collections;
 
 import org.java_websocket.WebSocket;
+import org.java_websocket.drafts.Draft;
+import org.java_websocket.drafts.Draft_6455;
 import org.java_websocket.handshake.ClientHandshake;
 import org.java_websocket.server.WebSocketServer;
 import org.slf4j.Logger;
@@ -26,15 +29,44 @@ public abstract class AbstractWebsocketServer<T extends WsData> extends Abstract
 	private final Logger log = LoggerFactory.getLogger(AbstractWebsocketServer.class);
 	private final int port;
 	private final WebSocketServer ws;
+	private final SubscriptionScheduler subscriptionScheduler;
 
 	/**
 	 * @param name to identify this server
 	 * @param port to listen on
 	 */
 	protected AbstractWebsocketServer(String name, int port) {
-		super(name);
+		this(name, port, new Draft_6455());
+	}
+
+	/**
+	 * @param name  to identify this server
+	 * @param port  to listen on
+	 * @param draft the websocket Draft, e.g. with
+	 *              {@link PerMessageDeflateExtension}
+	 */
+	protected AbstractWebsocketServer(String name, int port, Draft draft) {
+		this(name, port, draft, new OrderedExecutor(name, 0, OrderedExecutor.DEFAULT_CAPACITY,
+				OrderedExecutor.DEFAULT_SERVER_OVERFLOW_POLICY));
+	}
+
+	/**
+	 * @param name     to identify this server
+	 * @param port     to listen on
+	 * @param draft    the websocket Draft, e.g. with
+	 *                 {@link PerMessageDeflateExtension}
+	 * @param executor the executor for handling websocket events; must not use
+	 *                 {@link OrderedExecutor.OverflowPolicy#BLOCK}, as that would stall all
+	 *                 connections that share a websocket thread
+	 */
+	protected AbstractWebsocketServer(String name, int port, Draft draft, OrderedExecutor executor) {
+		super(name, executor);
+		if (executor.getOverflowPolicy() == OrderedExecutor.OverflowPolicy.BLOCK) {
+			throw new IllegalArgumentException("Overflow policy [BLOCK] is not supported for websocket servers");
+		}
 		this.port = port;
-		this.ws = new WebSocketServer(new InetSocketAddress(port)) {
+		this.subscriptionScheduler = new SubscriptionScheduler(name);
+		this.ws = new WebSocketServer(new InetSocketAddress(port), Collections.singletonList(draft)) {
 
 			@Override
 			public void onStart() {
@@ -46,7 +78,7 @@ public abstract class AbstractWebsocketServer<T extends WsData> extends Abstract
 				wsData.setWebsocket(ws);
 				ws.setAttachment(wsData);
 				JsonObject jHandshake = WebsocketUtils.handshakeToJsonObject(handshake);
-				CompletableFuture.runAsync(new OnOpenHandler(AbstractWebsocketServer.this, ws, jHandshake));
+				executor.executeAlways(ws, new OnOpenHandler(AbstractWebsocketServer.this, ws, jHandshake));
 			}
 
 			@Override
@@ -54,7 +86,7 @@ public abstract class AbstractWebsocketServer<T extends WsData> extends Abstract
 				try {
 					JsonrpcMessage message;
 					try {
-						message = JsonrpcMessage.from(stringMessage);
+						message = AbstractWebsocketServer.this.parseMessage(stringMessage);
 
 					} catch (OpenemsNamedException e) {
 						// handle deprecated non-JSON-RPC messages
@@ -62,17 +94,22 @@ public abstract class AbstractWebsocketServer<T extends WsData> extends Abstract
 					}
 
 					if (message instanceof JsonrpcRequest) {
-						CompletableFuture.runAsync(new OnRequestHandler(AbstractWebsocketServer.this, ws,
-								(JsonrpcRequest) message, (response) -> {
+						JsonrpcRequest request = (JsonrpcRequest) message;
+						Runnable busy = () -> AbstractWebsocketServer.this.sendMessage(ws,
+								OnRequestHandler.busy(request));
+						if (!executor.execute(ws, new OnRequestHandler(AbstractWebsocketServer.this, ws, request,
+								(response) -> {
 									AbstractWebsocketServer.this.sendMessage(ws, response);
-								}));
+								}), busy)) {
+							busy.run();
+						}
 
 					} else if (message instanceof JsonrpcResponse) {
-						CompletableFuture.runAsync(
+						executor.executeUnordered(
 								new OnResponseHandler(AbstractWebsocketServer.this, ws, (JsonrpcResponse) message));
 
 					} else if (message instanceof JsonrpcNotification) {
-						CompletableFuture.runAsync(new OnNotificationHandler(AbstractWebsocketServer.this, ws,
+						executor.execute(ws, new OnNotificationHandler(AbstractWebsocketServer.this, ws,
 								(JsonrpcNotification) message));
 
 					}
@@ -81,18 +118,33 @@ public abstract class AbstractWebsocketServer<T extends WsData> extends Abstract
 				}
 			}
 
+			@Override
+			public void onMessage(WebSocket ws, ByteBuffer bytes) {
+				try {
+					// decode in the websocket thread to keep the order of messages
+					JsonrpcMessage message = AbstractWebsocketServer.this.handleBinaryMessage(ws, bytes);
+					if (message instanceof JsonrpcNotification) {
+						executor.execute(ws, new OnNotificationHandler(AbstractWebsocketServer.this, ws,
+								(JsonrpcNotification) message));
+					}
+				} catch (OpenemsNamedException e) {
+					AbstractWebsocketServer.this.handleInternalErrorAsync(e);
+				}
+			}
+
 			@Override
 			public void onError(WebSocket ws, Exception ex) {
 				if (ws == null) {
 					AbstractWebsocketServer.this.handleInternalErrorAsync(ex);
 				} else {
-					CompletableFuture.runAsync(new OnErrorHandler(AbstractWebsocketServer.this, ws, ex));
+					executor.executeAlways(ws, new OnErrorHandler(AbstractWebsocketServer.this, ws, ex));
 				}
 			}
 
 			@Override
 			public void onClose(WebSocket ws, int code, String reason, boolean remote) {
-				CompletableFuture.runAsync(new OnCloseHandler(AbstractWebsocketServer.this, ws, code, reason, remote));
+				executor.executeAlways(ws,
+						new OnCloseHandler(AbstractWebsocketServer.this, ws, code, reason, remote));
 			}
 		};
 		// Allow the port to be reused. See
@@ -111,6 +163,16 @@ public abstract class AbstractWebsocketServer<T extends WsData> extends Abstract
 		};
 	};
 
+	/**
+	 * Gets the {@link SubscriptionScheduler} that is shared by all connections of
+	 * this server.
+	 *
+	 * @return the SubscriptionScheduler
+	 */
+	public SubscriptionScheduler getSubscriptionScheduler() {
+		return this.subscriptionScheduler;
+	}
+
 	public Collection<WebSocket> getConnections() {
 		return this.ws.getConnections();
 	}
@@ -122,7 +184,11 @@ public abstract class AbstractWebsocketServer<T extends WsData> extends Abstract
 	 * @param message the JSON-RPC Message
 	 */
 	public void sendMessage(WebSocket ws, JsonrpcMessage message) {
-		ws.send(message.toString());
+		String text = message.toString();
+		// compression extensions require serialized sending
+		synchronized (ws) {
+			ws.send(text);
+		}
 	}
 
 	/**
@@ -148,6 +214,7 @@ public abstract class AbstractWebsocketServer<T extends WsData> extends Abstract
 	 * Stops the websocket server
 	 */
 	public void stop() {
+		this.subscriptionScheduler.stop();
 		int tries = 3;
 		while (tries-- > 0) {
 			try {
@@ -166,6 +233,18 @@ public abstract class AbstractWebsocketServer<T extends WsData> extends Abstract
 		this.log.error("Stopping websocket server [" + this.getName() + "] failed too often.");
 	}
 
+	/**
+	 * Parses a text message to a JSON-RPC message. Override to decode frequent
+	 * messages in a single pass.
+	 * 
+	 * @param stringMessage the text message
+	 * @return the JSON-RPC message
+	 * @throws OpenemsNamedException if the message is not valid JSON-RPC
+	 */
+	protected JsonrpcMessage parseMessage(String stringMessage) throws OpenemsNamedException {
+		return JsonrpcMessage.from(stringMessage);
+	}
+
 	/**
 	 * Convert deprecated Non-JSON-RPC messages to JSON-RPC messages.
 	 * 
@@ -177,4 +256,16 @@ public abstract class AbstractWebsocketServer<T extends WsData> extends Abstract
 		throw new OpenemsException("Unhandled Non-JSON-RPC message", e);
 	}
 
+	/**
+	 * Convert binary messages to JSON-RPC messages.
+	 * 
+	 * @param ws    the WebSocket
+	 * @param bytes the binary message
+	 * @return the JSON-RPC message
+	 * @throws OpenemsNamedException on error
+	 */
+	protected JsonrpcMessage handleBinaryMessage(WebSocket ws, ByteBuffer bytes) throws OpenemsNamedException {
+		throw new OpenemsException("Unhandled binary message");
+	}
+
 }
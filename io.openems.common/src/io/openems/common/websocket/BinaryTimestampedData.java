@@ -0,0 +1,228 @@
+package io.openems.common.websocket;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonPrimitive;
+
+import io.openems.common.exceptions.OpenemsException;
+import io.openems.common.jsonrpc.notification.TimestampedDataNotification;
+import io.openems.common.types.ChannelAddress;
+
+/**
+ * Compact binary encoding of a {@link TimestampedDataNotification}, sent as
+ * binary websocket frame from Edge to Backend.
+ *
+ * <p>
+ * ChannelAddresses are replaced by their index in a {@link ChannelDictionary}
+ * that was negotiated before via 'setChannelDictionary' Request. Numbers are
+ * encoded as varints:
+ *
+ * <pre>
+ * [byte version]
+ * [varint number of timestamps]
+ *   [zigzag varint timestamp delta to previous timestamp]
+ *   [varint number of values]
+ *     [varint index delta to previous index]
+ *     [byte type][value]
+ * </pre>
+ */
+public class BinaryTimestampedData {
+
+	public static final byte VERSION = 1;
+
+	private static final byte TYPE_NULL = 0;
+	private static final byte TYPE_LONG = 1;
+	private static final byte TYPE_DOUBLE = 2;
+	private static final byte TYPE_FLOAT = 3;
+	private static final byte TYPE_STRING = 4;
+	private static final byte TYPE_FALSE = 5;
+	private static final byte TYPE_TRUE = 6;
+
+	private BinaryTimestampedData() {
+	}
+
+	/**
+	 * Encodes a TimestampedDataNotification.
+	 *
+	 * @param message    the TimestampedDataNotification
+	 * @param dictionary the ChannelDictionary
+	 * @return the encoded bytes
+	 * @throws OpenemsException if a Channel is not in the dictionary
+	 */
+	public static byte[] encode(TimestampedDataNotification message, ChannelDictionary dictionary)
+			throws OpenemsException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(VERSION);
+		Map<Long, Map<ChannelAddress, JsonElement>> rows = message.getData().rowMap();
+		writeVarLong(out, rows.size());
+		long lastTimestamp = 0;
+		for (Entry<Long, Map<ChannelAddress, JsonElement>> row : rows.entrySet()) {
+			writeVarLong(out, zigzag(row.getKey() - lastTimestamp));
+			lastTimestamp = row.getKey();
+
+			// sort values by index to encode small index deltas
+			Map<ChannelAddress, JsonElement> values = row.getValue();
+			long[] entries = new long[values.size()];
+			JsonElement[] elements = new JsonElement[values.size()];
+			int i = 0;
+			for (Entry<ChannelAddress, JsonElement> value : values.entrySet()) {
+				Integer index = dictionary.getIndex(value.getKey());
+				if (index == null) {
+					throw new OpenemsException("Channel [" + value.getKey() + "] is not in the dictionary");
+				}
+				// index in the upper, position in the lower bits
+				entries[i] = ((long) index << 32) | i;
+				elements[i] = value.getValue();
+				i++;
+			}
+			Arrays.sort(entries);
+
+			writeVarLong(out, entries.length);
+			int lastIndex = -1;
+			for (long entry : entries) {
+				int index = (int) (entry >>> 32);
+				writeVarLong(out, index - lastIndex - 1);
+				lastIndex = index;
+				writeValue(out, elements[(int) entry]);
+			}
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Decodes a TimestampedDataNotification.
+	 *
+	 * @param buffer     the encoded bytes
+	 * @param dictionary the ChannelDictionary
+	 * @return the TimestampedDataNotification
+	 * @throws OpenemsException on error
+	 */
+	public static TimestampedDataNotification decode(ByteBuffer buffer, ChannelDictionary dictionary)
+			throws OpenemsException {
+		try {
+			byte version = buffer.get();
+			if (version != VERSION) {
+				throw new OpenemsException("Unsupported binary timestamped data version [" + version + "]");
+			}
+			TimestampedDataNotification result = new TimestampedDataNotification();
+			long noOfTimestamps = readVarLong(buffer);
+			long timestamp = 0;
+			for (long t = 0; t < noOfTimestamps; t++) {
+				timestamp += unzigzag(readVarLong(buffer));
+				long noOfValues = readVarLong(buffer);
+				int index = -1;
+				for (long v = 0; v < noOfValues; v++) {
+					index += (int) readVarLong(buffer) + 1;
+					result.add(timestamp, dictionary.getAddress(index), readValue(buffer));
+				}
+			}
+			return result;
+		} catch (BufferUnderflowException e) {
+			throw new OpenemsException("Binary timestamped data is incomplete");
+		}
+	}
+
+	private static void writeValue(ByteArrayOutputStream out, JsonElement element) throws OpenemsException {
+		if (element == null || element.isJsonNull()) {
+			out.write(TYPE_NULL);
+			return;
+		}
+		if (!element.isJsonPrimitive()) {
+			throw new OpenemsException("Unable to encode value [" + element + "]");
+		}
+		JsonPrimitive p = element.getAsJsonPrimitive();
+		if (p.isBoolean()) {
+			out.write(p.getAsBoolean() ? TYPE_TRUE : TYPE_FALSE);
+
+		} else if (p.isString()) {
+			byte[] bytes = p.getAsString().getBytes(StandardCharsets.UTF_8);
+			out.write(TYPE_STRING);
+			writeVarLong(out, bytes.length);
+			out.write(bytes, 0, bytes.length);
+
+		} else {
+			Number n = p.getAsNumber();
+			if (n instanceof Integer || n instanceof Long || n instanceof Short || n instanceof Byte) {
+				out.write(TYPE_LONG);
+				writeVarLong(out, zigzag(n.longValue()));
+			} else if (n instanceof Float) {
+				out.write(TYPE_FLOAT);
+				writeFixed(out, Float.floatToIntBits(n.floatValue()), 4);
+			} else {
+				out.write(TYPE_DOUBLE);
+				writeFixed(out, Double.doubleToLongBits(n.doubleValue()), 8);
+			}
+		}
+	}
+
+	private static JsonElement readValue(ByteBuffer buffer) throws OpenemsException {
+		byte type = buffer.get();
+		switch (type) {
+		case TYPE_NULL:
+			return JsonNull.INSTANCE;
+		case TYPE_LONG:
+			return new JsonPrimitive(unzigzag(readVarLong(buffer)));
+		case TYPE_DOUBLE:
+			return new JsonPrimitive(buffer.getDouble());
+		case TYPE_FLOAT:
+			return new JsonPrimitive(buffer.getFloat());
+		case TYPE_STRING:
+			long length = readVarLong(buffer);
+			if (length < 0 || length > buffer.remaining()) {
+				throw new OpenemsException("Invalid string length [" + length + "]");
+			}
+			byte[] bytes = new byte[(int) length];
+			buffer.get(bytes);
+			return new JsonPrimitive(new String(bytes, StandardCharsets.UTF_8));
+		case TYPE_FALSE:
+			return new JsonPrimitive(false);
+		case TYPE_TRUE:
+			return new JsonPrimitive(true);
+		default:
+			throw new OpenemsException("Unknown value type [" + type + "]");
+		}
+	}
+
+	private static void writeFixed(ByteArrayOutputStream out, long value, int bytes) {
+		// big-endian, as read by ByteBuffer
+		for (int i = bytes - 1; i >= 0; i--) {
+			out.write((int) (value >>> (i * 8)));
+		}
+	}
+
+	private static void writeVarLong(ByteArrayOutputStream out, long value) {
+		while ((value & ~0x7FL) != 0) {
+			out.write((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.write((int) value);
+	}
+
+	private static long readVarLong(ByteBuffer buffer) throws OpenemsException {
+		long result = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			byte b = buffer.get();
+			result |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return result;
+			}
+		}
+		throw new OpenemsException("Invalid varint");
+	}
+
+	private static long zigzag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	private static long unzigzag(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+}
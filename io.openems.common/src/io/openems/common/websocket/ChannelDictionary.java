@@ -0,0 +1,80 @@
+package io.openems.common.websocket;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.openems.common.exceptions.OpenemsException;
+import io.openems.common.types.ChannelAddress;
+
+/**
+ * Maps ChannelAddresses to indexes for {@link BinaryTimestampedData}.
+ *
+ * <p>
+ * A dictionary belongs to one websocket connection. It is only ever appended
+ * to, so an index that was once assigned stays valid until the dictionary is
+ * cleared.
+ */
+public class ChannelDictionary {
+
+	private final List<ChannelAddress> addresses = new ArrayList<>();
+	private final Map<ChannelAddress, Integer> indexes = new HashMap<>();
+
+	/**
+	 * Appends Channels to the dictionary. An offset of '0' replaces the existing
+	 * dictionary.
+	 *
+	 * @param offset   the index of the first given Channel
+	 * @param channels the Channels
+	 * @throws OpenemsException if the offset does not match the dictionary size
+	 */
+	public synchronized void append(int offset, List<ChannelAddress> channels) throws OpenemsException {
+		if (offset == 0) {
+			this.clear();
+		} else if (offset != this.addresses.size()) {
+			throw new OpenemsException("Channel dictionary offset [" + offset + "] does not match size ["
+					+ this.addresses.size() + "]");
+		}
+		for (ChannelAddress channel : channels) {
+			this.indexes.put(channel, this.addresses.size());
+			this.addresses.add(channel);
+		}
+	}
+
+	/**
+	 * Clears the dictionary.
+	 */
+	public synchronized void clear() {
+		this.addresses.clear();
+		this.indexes.clear();
+	}
+
+	/**
+	 * Gets the index of a Channel.
+	 *
+	 * @param channel the ChannelAddress
+	 * @return the index; null if the Channel is not in the dictionary
+	 */
+	public synchronized Integer getIndex(ChannelAddress channel) {
+		return this.indexes.get(channel);
+	}
+
+	/**
+	 * Gets the Channel with the given index.
+	 *
+	 * @param index the index
+	 * @return the ChannelAddress
+	 * @throws OpenemsException if the index is unknown
+	 */
+	public synchronized ChannelAddress getAddress(int index) throws OpenemsException {
+		if (index < 0 || index >= this.addresses.size()) {
+			throw new OpenemsException("Channel dictionary index [" + index + "] is unknown");
+		}
+		return this.addresses.get(index);
+	}
+
+	public synchronized int size() {
+		return this.addresses.size();
+	}
+}
@@ -1,13 +1,14 @@
 package io.openems.common.websocket;
 
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletionException;
 import java.util.function.Consumer;
 
 import org.java_websocket.WebSocket;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.openems.common.exceptions.OpenemsError;
 import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
 import io.openems.common.jsonrpc.base.JsonrpcRequest;
 import io.openems.common.jsonrpc.base.JsonrpcResponse;
@@ -31,25 +32,45 @@ public class OnRequestHandler implements Runnable {
 		this.responseCallback = responseCallback;
 	}
 
+	/**
+	 * Creates the error response for a Request that was rejected because there are
+	 * too many pending messages.
+	 * 
+	 * @param request the JSON-RPC Request
+	 * @return the JSON-RPC Error Response
+	 */
+	public static JsonrpcResponseError busy(JsonrpcRequest request) {
+		return new JsonrpcResponseError(request.getId(),
+				new OpenemsNamedException(OpenemsError.JSONRPC_BUSY, request.getMethod()));
+	}
+
 	@Override
 	public final void run() {
-		JsonrpcResponse response;
+		CompletableFuture<? extends JsonrpcResponseSuccess> responseFuture;
 		try {
-			CompletableFuture<? extends JsonrpcResponseSuccess> responseFuture = this.parent.getOnRequest().run(this.ws,
-					this.request);
-			// Get success response
-			response = responseFuture.get();
+			responseFuture = this.parent.getOnRequest().run(this.ws, this.request);
 		} catch (OpenemsNamedException e) {
 			// Get Named Exception error response
 			this.parent.logWarn(this.log, "JSON-RPC Error Response: " + e.getMessage());
-			response = new JsonrpcResponseError(request.getId(), e);
-		} catch (ExecutionException | InterruptedException e) {
-			// Get GENERIC error response
-			this.parent.logWarn(this.log, "JSON-RPC Error Response: " + e.getMessage());
-			response = new JsonrpcResponseError(request.getId(), e.getMessage());
+			this.responseCallback.accept(new JsonrpcResponseError(this.request.getId(), e));
+			return;
 		}
 
-		responseCallback.accept(response);
+		// Do not block the handler thread while waiting for the response; following
+		// messages of this connection would have to wait.
+		responseFuture.whenComplete((success, ex) -> {
+			JsonrpcResponse response;
+			if (ex == null) {
+				// Get success response
+				response = success;
+			} else {
+				// Get GENERIC error response
+				Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+				this.parent.logWarn(this.log, "JSON-RPC Error Response: " + cause.toString());
+				response = new JsonrpcResponseError(this.request.getId(), cause.toString());
+			}
+			this.responseCallback.accept(response);
+		});
 	}
 
 }
@@ -0,0 +1,429 @@
+package io.openems.common.websocket;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Executes the handlers of websocket events.
+ *
+ * <p>
+ * Tasks with the same key (i.e. of the same connection) are executed serially
+ * in the order of submission; tasks with different keys run in parallel on a
+ * fixed number of threads. The number of queued tasks is limited by
+ * 'capacity'; the {@link OverflowPolicy} defines what happens if it is
+ * exceeded.
+ */
+public class OrderedExecutor {
+
+	public enum OverflowPolicy {
+		/**
+		 * Reject the new task.
+		 */
+		REJECT,
+		/**
+		 * Drop the oldest queued task of the same key; reject the new task if there is
+		 * none. The 'onDrop' callback of the dropped task is called, e.g. to answer a
+		 * JSON-RPC Request.
+		 */
+		DROP_OLDEST,
+		/**
+		 * Block the submitting thread until there is space in the queue. This
+		 * propagates backpressure to the websocket connection.
+		 *
+		 * <p>
+		 * Only for clients: on a server the submitting thread reads from many
+		 * connections, so one slow connection would stall all others.
+		 */
+		BLOCK;
+	}
+
+	/**
+	 * Statistics since the last call of {@link OrderedExecutor#getStatistics()}.
+	 */
+	public static class Statistics {
+		private final int queueSize;
+		private final int maxQueueSize;
+		private final long handledTasks;
+		private final long rejectedTasks;
+		private final long averageLatency;
+		private final long maxLatency;
+
+		private Statistics(int queueSize, int maxQueueSize, long handledTasks, long rejectedTasks,
+				long averageLatency, long maxLatency) {
+			this.queueSize = queueSize;
+			this.maxQueueSize = maxQueueSize;
+			this.handledTasks = handledTasks;
+			this.rejectedTasks = rejectedTasks;
+			this.averageLatency = averageLatency;
+			this.maxLatency = maxLatency;
+		}
+
+		/**
+		 * Gets the current number of queued and running tasks.
+		 *
+		 * @return the number of tasks
+		 */
+		public int getQueueSize() {
+			return this.queueSize;
+		}
+
+		/**
+		 * Gets the maximum number of queued and running tasks.
+		 *
+		 * @return the number of tasks
+		 */
+		public int getMaxQueueSize() {
+			return this.maxQueueSize;
+		}
+
+		/**
+		 * Gets the number of finished tasks.
+		 *
+		 * @return the number of tasks
+		 */
+		public long getHandledTasks() {
+			return this.handledTasks;
+		}
+
+		/**
+		 * Gets the number of rejected or dropped tasks.
+		 *
+		 * @return the number of tasks
+		 */
+		public long getRejectedTasks() {
+			return this.rejectedTasks;
+		}
+
+		/**
+		 * Gets the average time from submission to the end of a task.
+		 *
+		 * @return the time in milliseconds
+		 */
+		public long getAverageLatency() {
+			return this.averageLatency;
+		}
+
+		/**
+		 * Gets the maximum time from submission to the end of a task.
+		 *
+		 * @return the time in milliseconds
+		 */
+		public long getMaxLatency() {
+			return this.maxLatency;
+		}
+
+		@Override
+		public String toString() {
+			return "queue " + this.queueSize + " (max " + this.maxQueueSize + "), handled " + this.handledTasks
+					+ ", rejected " + this.rejectedTasks + ", latency " + this.averageLatency + " ms (max "
+					+ this.maxLatency + " ms)";
+		}
+	}
+
+	public static final int DEFAULT_THREADS = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+	public static final int DEFAULT_CAPACITY = 10_000;
+	public static final OverflowPolicy DEFAULT_OVERFLOW_POLICY = OverflowPolicy.BLOCK;
+	public static final OverflowPolicy DEFAULT_SERVER_OVERFLOW_POLICY = OverflowPolicy.REJECT;
+
+	/**
+	 * Maximum number of tasks of one key that are executed before other keys get
+	 * their turn.
+	 */
+	private static final int MAX_TASKS_PER_TURN = 16;
+	private static final long OVERFLOW_LOG_INTERVAL = TimeUnit.MINUTES.toNanos(1);
+
+	private final Logger log = LoggerFactory.getLogger(OrderedExecutor.class);
+
+	private final String name;
+	private final int capacity;
+	private final OverflowPolicy overflowPolicy;
+	private final ThreadPoolExecutor pool;
+	private final Semaphore permits;
+	private final ConcurrentHashMap<Object, Strand> strands = new ConcurrentHashMap<>();
+
+	private final AtomicLong handledTasks = new AtomicLong();
+	private final AtomicLong rejectedTasks = new AtomicLong();
+	private final AtomicLong latencySum = new AtomicLong();
+	private final AtomicLong maxLatency = new AtomicLong();
+	private volatile int maxQueueSize = 0;
+	private volatile long lastOverflowLog = System.nanoTime() - OVERFLOW_LOG_INTERVAL;
+
+	public OrderedExecutor(String name) {
+		this(name, DEFAULT_THREADS, DEFAULT_CAPACITY, DEFAULT_OVERFLOW_POLICY);
+	}
+
+	/**
+	 * @param name           to identify the threads
+	 * @param threads        the number of threads; 0 for
+	 *                       {@link #DEFAULT_THREADS}
+	 * @param capacity       the maximum number of queued tasks
+	 * @param overflowPolicy the {@link OverflowPolicy}
+	 */
+	public OrderedExecutor(String name, int threads, int capacity, OverflowPolicy overflowPolicy) {
+		if (threads <= 0) {
+			threads = DEFAULT_THREADS;
+		}
+		this.name = name;
+		this.capacity = capacity;
+		this.overflowPolicy = overflowPolicy;
+		this.permits = new Semaphore(capacity);
+		ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(),
+				new ThreadFactoryBuilder().setNameFormat(name + "-%d").setDaemon(true).build());
+		// idle threads terminate, so there is no need to shut down the pool
+		pool.allowCoreThreadTimeOut(true);
+		this.pool = pool;
+	}
+
+	/**
+	 * Executes a task after all previously submitted tasks of the same key. The
+	 * task counts against the capacity of the queue.
+	 *
+	 * @param key  the key, e.g. the WebSocket
+	 * @param task the task
+	 * @return false if the task was rejected
+	 */
+	public boolean execute(Object key, Runnable task) {
+		return this.execute(key, task, null);
+	}
+
+	/**
+	 * Executes a task after all previously submitted tasks of the same key. The
+	 * task counts against the capacity of the queue.
+	 *
+	 * @param key    the key, e.g. the WebSocket
+	 * @param task   the task
+	 * @param onDrop called instead of the task if it is dropped later by
+	 *               {@link OverflowPolicy#DROP_OLDEST}; may be null
+	 * @return false if the task was rejected
+	 */
+	public boolean execute(Object key, Runnable task, Runnable onDrop) {
+		switch (this.overflowPolicy) {
+		case BLOCK:
+			if (!this.permits.tryAcquire()) {
+				this.logOverflow();
+				try {
+					this.permits.acquire();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return this.reject();
+				}
+			}
+			break;
+
+		case DROP_OLDEST:
+			if (!this.permits.tryAcquire()) {
+				this.logOverflow();
+				Strand strand = this.strands.get(key);
+				Task dropped = strand == null ? null : strand.dropOldest();
+				if (dropped == null) {
+					return this.reject();
+				}
+				// the permit of the dropped task is taken over
+				this.rejectedTasks.incrementAndGet();
+				if (dropped.onDrop != null) {
+					this.submit(new Task(dropped.onDrop, null, false));
+				}
+			}
+			break;
+
+		case REJECT:
+			if (!this.permits.tryAcquire()) {
+				this.logOverflow();
+				return this.reject();
+			}
+			break;
+		}
+		this.enqueue(key, new Task(task, onDrop, true));
+		return true;
+	}
+
+	/**
+	 * Executes a task after all previously submitted tasks of the same key. The
+	 * task is never rejected; use this for events like 'open' and 'close' of a
+	 * connection.
+	 *
+	 * @param key  the key, e.g. the WebSocket
+	 * @param task the task
+	 */
+	public void executeAlways(Object key, Runnable task) {
+		this.enqueue(key, new Task(task, null, false));
+	}
+
+	/**
+	 * Executes a task without ordering, e.g. to complete a JSON-RPC Response. The
+	 * task is never rejected.
+	 *
+	 * @param task the task
+	 */
+	public void executeUnordered(Runnable task) {
+		this.submit(new Task(task, null, false));
+	}
+
+	/**
+	 * Gets the {@link OverflowPolicy}.
+	 *
+	 * @return the policy
+	 */
+	public OverflowPolicy getOverflowPolicy() {
+		return this.overflowPolicy;
+	}
+
+	/**
+	 * Gets the Statistics and starts a new measurement period.
+	 *
+	 * @return the Statistics
+	 */
+	public Statistics getStatistics() {
+		long handled = this.handledTasks.getAndSet(0);
+		long latency = this.latencySum.getAndSet(0);
+		int queueSize = this.getQueueSize();
+		int maxQueueSize = Math.max(this.maxQueueSize, queueSize);
+		this.maxQueueSize = queueSize;
+		return new Statistics(queueSize, maxQueueSize, handled, this.rejectedTasks.getAndSet(0),
+				handled == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(latency / handled),
+				TimeUnit.NANOSECONDS.toMillis(this.maxLatency.getAndSet(0)));
+	}
+
+	/**
+	 * Gets the number of queued and running tasks that count against the
+	 * capacity.
+	 *
+	 * @return the number of tasks
+	 */
+	public int getQueueSize() {
+		return this.capacity - this.permits.availablePermits();
+	}
+
+	private void enqueue(Object key, Task task) {
+		while (true) {
+			Strand strand = this.strands.computeIfAbsent(key, Strand::new);
+			if (strand.add(task)) {
+				break;
+			}
+			// strand was finished in the meantime
+		}
+		int queueSize = this.getQueueSize();
+		if (queueSize > this.maxQueueSize) {
+			this.maxQueueSize = queueSize;
+		}
+	}
+
+	private void submit(Runnable runnable) {
+		this.pool.execute(runnable);
+	}
+
+	private boolean reject() {
+		this.rejectedTasks.incrementAndGet();
+		return false;
+	}
+
+	private void logOverflow() {
+		long now = System.nanoTime();
+		if (now - this.lastOverflowLog > OVERFLOW_LOG_INTERVAL) {
+			this.lastOverflowLog = now;
+			this.log.warn("[" + this.name + "] Handler queue is full (" + this.capacity + "). Policy ["
+					+ this.overflowPolicy + "]");
+		}
+	}
+
+	private class Task implements Runnable {
+		private final Runnable runnable;
+		private final Runnable onDrop;
+		private final boolean holdsPermit;
+		private final long created = System.nanoTime();
+
+		private Task(Runnable runnable, Runnable onDrop, boolean holdsPermit) {
+			this.runnable = runnable;
+			this.onDrop = onDrop;
+			this.holdsPermit = holdsPermit;
+		}
+
+		@Override
+		public void run() {
+			try {
+				this.runnable.run();
+			} catch (Throwable e) {
+				OrderedExecutor.this.log.error("[" + OrderedExecutor.this.name + "] Handler failed: "
+						+ e.getClass().getSimpleName() + ": " + e.getMessage());
+			} finally {
+				this.finish();
+			}
+		}
+
+		private void finish() {
+			if (this.holdsPermit) {
+				OrderedExecutor.this.permits.release();
+			}
+			long latency = System.nanoTime() - this.created;
+			OrderedExecutor.this.handledTasks.incrementAndGet();
+			OrderedExecutor.this.latencySum.addAndGet(latency);
+			OrderedExecutor.this.maxLatency.accumulateAndGet(latency, Math::max);
+		}
+	}
+
+	/**
+	 * Queue of tasks of one key. It is scheduled on the pool while it has tasks.
+	 */
+	private class Strand implements Runnable {
+		private final Object key;
+		private final ArrayDeque<Task> tasks = new ArrayDeque<>();
+		private boolean isScheduled = false;
+		private boolean isFinished = false;
+
+		private Strand(Object key) {
+			this.key = key;
+		}
+
+		private synchronized boolean add(Task task) {
+			if (this.isFinished) {
+				return false;
+			}
+			this.tasks.add(task);
+			if (!this.isScheduled) {
+				this.isScheduled = true;
+				OrderedExecutor.this.submit(this);
+			}
+			return true;
+		}
+
+		private synchronized Task dropOldest() {
+			for (Task task : this.tasks) {
+				if (task.holdsPermit) {
+					this.tasks.remove(task);
+					return task;
+				}
+			}
+			return null;
+		}
+
+		@Override
+		public void run() {
+			for (int i = 0; i < MAX_TASKS_PER_TURN; i++) {
+				Task task;
+				synchronized (this) {
+					task = this.tasks.poll();
+					if (task == null) {
+						this.isScheduled = false;
+						this.isFinished = true;
+						OrderedExecutor.this.strands.remove(this.key, this);
+						return;
+					}
+				}
+				task.run();
+			}
+			// give other keys a turn
+			OrderedExecutor.this.submit(this);
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package io.openems.common.websocket;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Optional;
+
+import org.java_websocket.drafts.Draft;
+import org.java_websocket.drafts.Draft_6455;
+import org.java_websocket.extensions.IExtension;
+import org.java_websocket.framing.Framedata;
+
+/**
+ * A {@link Draft_6455} with {@link PerMessageDeflateExtension}.
+ *
+ * <p>
+ * Java-WebSocket 1.4.0 does not write the RSV bits of outgoing frames, so the
+ * 'compressed' flag (RSV1) is set here. The negotiated extension is also kept
+ * after the connection was closed, to be able to log its statistics.
+ */
+class PerMessageDeflateDraft extends Draft_6455 {
+
+	private static final byte RSV1 = 0x40;
+
+	private final PerMessageDeflateExtension extension;
+	private boolean wasNegotiated = false;
+
+	PerMessageDeflateDraft(PerMessageDeflateExtension extension) {
+		super(Collections.<IExtension>singletonList(extension));
+		this.extension = extension;
+	}
+
+	/**
+	 * Gets the compression statistics of this connection.
+	 *
+	 * @return the statistics; empty if 'permessage-deflate' was not negotiated
+	 */
+	Optional<PerMessageDeflateExtension.Statistics> getStatistics() {
+		if (this.wasNegotiated || this.getExtension() == this.extension) {
+			return Optional.of(this.extension.getStatistics());
+		}
+		return Optional.empty();
+	}
+
+	@Override
+	public ByteBuffer createBinaryFrame(Framedata framedata) {
+		ByteBuffer buffer = super.createBinaryFrame(framedata);
+		if (framedata.isRSV1()) {
+			int first = buffer.position();
+			buffer.put(first, (byte) (buffer.get(first) | RSV1));
+		}
+		return buffer;
+	}
+
+	@Override
+	public void reset() {
+		// reset() replaces the negotiated extension
+		this.wasNegotiated |= this.getExtension() == this.extension;
+		super.reset();
+	}
+
+	@Override
+	public Draft copyInstance() {
+		return new PerMessageDeflateDraft((PerMessageDeflateExtension) this.extension.copyInstance());
+	}
+
+	@Override
+	public String toString() {
+		return "PerMessageDeflateDraft";
+	}
+}
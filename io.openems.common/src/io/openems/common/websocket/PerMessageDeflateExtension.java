@@ -0,0 +1,410 @@
+package io.openems.common.websocket;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.java_websocket.drafts.Draft;
+import org.java_websocket.drafts.Draft_6455;
+import org.java_websocket.exceptions.InvalidDataException;
+import org.java_websocket.extensions.CompressionExtension;
+import org.java_websocket.extensions.IExtension;
+import org.java_websocket.framing.CloseFrame;
+import org.java_websocket.framing.ContinuousFrame;
+import org.java_websocket.framing.DataFrame;
+import org.java_websocket.framing.Framedata;
+import org.java_websocket.framing.FramedataImpl1;
+
+/**
+ * Implements the 'permessage-deflate' websocket extension (RFC 7692).
+ *
+ * <p>
+ * One instance is created per connection via {@link #copyInstance()}. It holds
+ * a {@link Deflater} for outgoing and an {@link Inflater} for incoming messages
+ * and keeps {@link Statistics} about compression ratio and CPU time.
+ *
+ * <p>
+ * java.util.zip always uses a window of 2^15 bytes for compression. Offers that
+ * restrict the window of this side are therefore declined and the connection
+ * falls back to uncompressed messages; smaller windows of the peer are
+ * supported.
+ */
+public class PerMessageDeflateExtension extends CompressionExtension {
+
+	/**
+	 * Statistics about the compression of one connection.
+	 */
+	public static class Statistics {
+		private final long sentBytes;
+		private final long sentCompressedBytes;
+		private final long receivedBytes;
+		private final long receivedCompressedBytes;
+		private final long cpuNanos;
+
+		private Statistics(long sentBytes, long sentCompressedBytes, long receivedBytes, long receivedCompressedBytes,
+				long cpuNanos) {
+			this.sentBytes = sentBytes;
+			this.sentCompressedBytes = sentCompressedBytes;
+			this.receivedBytes = receivedBytes;
+			this.receivedCompressedBytes = receivedCompressedBytes;
+			this.cpuNanos = cpuNanos;
+		}
+
+		/**
+		 * Gets the payload size of sent messages before compression.
+		 *
+		 * @return the size in bytes
+		 */
+		public long getSentBytes() {
+			return this.sentBytes;
+		}
+
+		/**
+		 * Gets the payload size of sent messages after compression.
+		 *
+		 * @return the size in bytes
+		 */
+		public long getSentCompressedBytes() {
+			return this.sentCompressedBytes;
+		}
+
+		/**
+		 * Gets the payload size of received messages after decompression.
+		 *
+		 * @return the size in bytes
+		 */
+		public long getReceivedBytes() {
+			return this.receivedBytes;
+		}
+
+		/**
+		 * Gets the payload size of received messages before decompression.
+		 *
+		 * @return the size in bytes
+		 */
+		public long getReceivedCompressedBytes() {
+			return this.receivedCompressedBytes;
+		}
+
+		/**
+		 * Gets the time spent for compression and decompression.
+		 *
+		 * @return the time in nanoseconds
+		 */
+		public long getCpuNanos() {
+			return this.cpuNanos;
+		}
+
+		/**
+		 * Gets the ratio of compressed to uncompressed size of all messages.
+		 *
+		 * @return the ratio; '1' if nothing was compressed
+		 */
+		public double getRatio() {
+			long total = this.sentBytes + this.receivedBytes;
+			if (total == 0) {
+				return 1;
+			}
+			return (double) (this.sentCompressedBytes + this.receivedCompressedBytes) / total;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("sent %d/%d bytes, received %d/%d bytes, ratio %.2f, cpu %d ms",
+					this.sentCompressedBytes, this.sentBytes, this.receivedCompressedBytes, this.receivedBytes,
+					this.getRatio(), this.cpuNanos / 1_000_000);
+		}
+	}
+
+	public static final String EXTENSION_NAME = "permessage-deflate";
+
+	/**
+	 * Messages smaller than this are sent uncompressed by default; the deflate
+	 * overhead outweighs the savings.
+	 */
+	public static final int DEFAULT_THRESHOLD = 256;
+
+	private static final String SERVER_NO_CONTEXT_TAKEOVER = "server_no_context_takeover";
+	private static final String CLIENT_NO_CONTEXT_TAKEOVER = "client_no_context_takeover";
+	private static final String SERVER_MAX_WINDOW_BITS = "server_max_window_bits";
+	private static final String CLIENT_MAX_WINDOW_BITS = "client_max_window_bits";
+	private static final int MAX_WINDOW_BITS = 15;
+	private static final byte[] TAIL = { 0x00, 0x00, (byte) 0xff, (byte) 0xff };
+
+	/**
+	 * Creates a websocket Draft that offers/accepts 'permessage-deflate'.
+	 *
+	 * @param compressionLevel the {@link Deflater} level (0-9); -1 disables
+	 *                         compression
+	 * @param noContextTakeover reset the compression context after every message;
+	 *                         saves memory at the cost of compression ratio
+	 * @param threshold        the minimum payload size in bytes for compressing a
+	 *                         message
+	 * @return the Draft
+	 */
+	public static Draft createDraft(int compressionLevel, boolean noContextTakeover, int threshold) {
+		if (compressionLevel < 0) {
+			return new Draft_6455();
+		}
+		return new PerMessageDeflateDraft(new PerMessageDeflateExtension(compressionLevel, noContextTakeover, threshold));
+	}
+
+	private final int compressionLevel;
+	private final boolean noContextTakeover;
+	private final int threshold;
+
+	/*
+	 * Negotiated parameters
+	 */
+	private boolean resetDeflater = false;
+	private boolean resetInflater = false;
+	private String response = EXTENSION_NAME;
+
+	private Deflater deflater = null;
+	private Inflater inflater = null;
+	private boolean isInflatingMessage = false;
+
+	private volatile long sentBytes = 0;
+	private volatile long sentCompressedBytes = 0;
+	private volatile long receivedBytes = 0;
+	private volatile long receivedCompressedBytes = 0;
+	private volatile long deflateNanos = 0;
+	private volatile long inflateNanos = 0;
+
+	public PerMessageDeflateExtension(int compressionLevel, boolean noContextTakeover, int threshold) {
+		this.compressionLevel = compressionLevel;
+		this.noContextTakeover = noContextTakeover;
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Gets the compression statistics of this connection.
+	 *
+	 * @return the Statistics
+	 */
+	public Statistics getStatistics() {
+		return new Statistics(this.sentBytes, this.sentCompressedBytes, this.receivedBytes,
+				this.receivedCompressedBytes, this.deflateNanos + this.inflateNanos);
+	}
+
+	@Override
+	public void encodeFrame(Framedata frame) {
+		if (!(frame instanceof DataFrame) || frame instanceof ContinuousFrame || !frame.isFin()) {
+			// only complete Text and Binary messages are compressed
+			return;
+		}
+		ByteBuffer payload = frame.getPayloadData();
+		int length = payload.remaining();
+		if (length < this.threshold) {
+			this.sentBytes += length;
+			this.sentCompressedBytes += length;
+			return;
+		}
+
+		long start = System.nanoTime();
+		if (this.deflater == null) {
+			this.deflater = new Deflater(this.compressionLevel, true);
+		}
+		byte[] input = new byte[length];
+		payload.duplicate().get(input);
+		this.deflater.setInput(input);
+		ByteArrayOutputStream out = new ByteArrayOutputStream(length / 2 + 16);
+		byte[] buffer = new byte[Math.max(1024, length / 2)];
+		int count;
+		do {
+			count = this.deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+			out.write(buffer, 0, count);
+		} while (count == buffer.length);
+		if (this.resetDeflater) {
+			this.deflater.reset();
+		}
+
+		// remove the 0x00 0x00 0xff 0xff tail of the sync flush
+		byte[] compressed = out.toByteArray();
+		int compressedLength = compressed.length - TAIL.length;
+		FramedataImpl1 f = (FramedataImpl1) frame;
+		f.setPayload(ByteBuffer.wrap(compressed, 0, compressedLength).slice());
+		f.setRSV1(true);
+		this.deflateNanos += System.nanoTime() - start;
+		this.sentBytes += length;
+		this.sentCompressedBytes += compressedLength;
+	}
+
+	@Override
+	public void decodeFrame(Framedata frame) throws InvalidDataException {
+		if (!(frame instanceof DataFrame)) {
+			return;
+		}
+		if (!(frame instanceof ContinuousFrame)) {
+			// first frame of a message
+			this.isInflatingMessage = frame.isRSV1();
+		}
+		ByteBuffer payload = frame.getPayloadData();
+		if (!this.isInflatingMessage) {
+			this.receivedBytes += payload.remaining();
+			this.receivedCompressedBytes += payload.remaining();
+			return;
+		}
+
+		long start = System.nanoTime();
+		if (this.inflater == null) {
+			this.inflater = new Inflater(true);
+		}
+		int compressedLength = payload.remaining();
+		ByteArrayOutputStream out = new ByteArrayOutputStream(compressedLength * 4 + 16);
+		try {
+			byte[] input = new byte[compressedLength];
+			payload.duplicate().get(input);
+			this.inflate(input, out);
+			if (frame.isFin()) {
+				this.inflate(TAIL, out);
+				if (this.resetInflater || this.inflater.finished()) {
+					this.inflater.reset();
+				}
+				this.isInflatingMessage = false;
+			}
+		} catch (DataFormatException e) {
+			throw new InvalidDataException(CloseFrame.POLICY_VALIDATION, e.getMessage());
+		}
+
+		FramedataImpl1 f = (FramedataImpl1) frame;
+		f.setPayload(ByteBuffer.wrap(out.toByteArray()));
+		f.setRSV1(false);
+		this.inflateNanos += System.nanoTime() - start;
+		this.receivedBytes += out.size();
+		this.receivedCompressedBytes += compressedLength;
+	}
+
+	private void inflate(byte[] input, ByteArrayOutputStream out) throws DataFormatException {
+		this.inflater.setInput(input);
+		byte[] buffer = new byte[Math.max(1024, input.length * 2)];
+		while (true) {
+			int count = this.inflater.inflate(buffer);
+			out.write(buffer, 0, count);
+			if (count == buffer.length) {
+				// there might be more output
+				continue;
+			}
+			if (this.inflater.finished() || this.inflater.needsInput()) {
+				return;
+			}
+			if (this.inflater.needsDictionary()) {
+				throw new DataFormatException("Preset dictionary is not supported");
+			}
+			if (count == 0) {
+				return;
+			}
+		}
+	}
+
+	@Override
+	public boolean acceptProvidedExtensionAsServer(String offers) {
+		for (String offer : offers.split(",")) {
+			String[] params = offer.trim().split(";");
+			if (!params[0].trim().equalsIgnoreCase(EXTENSION_NAME)) {
+				continue;
+			}
+			boolean serverNoContextTakeover = this.noContextTakeover;
+			boolean acceptable = true;
+			for (int i = 1; i < params.length; i++) {
+				String[] param = params[i].trim().split("=");
+				String name = param[0].trim();
+				if (name.equalsIgnoreCase(SERVER_NO_CONTEXT_TAKEOVER)) {
+					serverNoContextTakeover = true;
+				} else if (name.equalsIgnoreCase(SERVER_MAX_WINDOW_BITS)) {
+					// the window of java.util.zip can not be reduced
+					acceptable = param.length > 1 && parseWindowBits(param[1]) == MAX_WINDOW_BITS;
+				} else if (!name.equalsIgnoreCase(CLIENT_NO_CONTEXT_TAKEOVER)
+						&& !name.equalsIgnoreCase(CLIENT_MAX_WINDOW_BITS)) {
+					acceptable = false;
+				}
+			}
+			if (!acceptable) {
+				continue;
+			}
+			this.resetDeflater = serverNoContextTakeover;
+			this.resetInflater = this.noContextTakeover;
+			StringBuilder response = new StringBuilder(EXTENSION_NAME);
+			if (serverNoContextTakeover) {
+				response.append("; ").append(SERVER_NO_CONTEXT_TAKEOVER);
+			}
+			if (this.noContextTakeover) {
+				response.append("; ").append(CLIENT_NO_CONTEXT_TAKEOVER);
+			}
+			this.response = response.toString();
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public boolean acceptProvidedExtensionAsClient(String response) {
+		String[] params = response.trim().split(";");
+		if (!params[0].trim().equalsIgnoreCase(EXTENSION_NAME)) {
+			return false;
+		}
+		this.resetDeflater = this.noContextTakeover;
+		this.resetInflater = false;
+		for (int i = 1; i < params.length; i++) {
+			String[] param = params[i].trim().split("=");
+			String name = param[0].trim();
+			if (name.equalsIgnoreCase(CLIENT_NO_CONTEXT_TAKEOVER)) {
+				this.resetDeflater = true;
+			} else if (name.equalsIgnoreCase(SERVER_NO_CONTEXT_TAKEOVER)) {
+				this.resetInflater = true;
+			} else if (name.equalsIgnoreCase(CLIENT_MAX_WINDOW_BITS)) {
+				// not offered, so the server must not send it
+				return false;
+			} else if (!name.equalsIgnoreCase(SERVER_MAX_WINDOW_BITS)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public String getProvidedExtensionAsClient() {
+		if (this.noContextTakeover) {
+			return EXTENSION_NAME + "; " + CLIENT_NO_CONTEXT_TAKEOVER;
+		}
+		return EXTENSION_NAME;
+	}
+
+	@Override
+	public String getProvidedExtensionAsServer() {
+		return this.response;
+	}
+
+	@Override
+	public IExtension copyInstance() {
+		return new PerMessageDeflateExtension(this.compressionLevel, this.noContextTakeover, this.threshold);
+	}
+
+	@Override
+	public void reset() {
+		this.isInflatingMessage = false;
+		if (this.deflater != null) {
+			this.deflater.end();
+			this.deflater = null;
+		}
+		if (this.inflater != null) {
+			this.inflater.end();
+			this.inflater = null;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "PerMessageDeflateExtension";
+	}
+
+	private static int parseWindowBits(String value) {
+		try {
+			return Integer.parseInt(value.trim().replace("\"", ""));
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+}
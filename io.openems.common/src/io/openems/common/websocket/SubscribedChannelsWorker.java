@@ -1,12 +1,9 @@
 package io.openems.common.websocket;
 
-import java.util.Optional;
+import java.util.Collections;
 import java.util.Set;
+import java.util.SortedSet;
 import java.util.TreeSet;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 
 import org.java_websocket.WebSocket;
 import org.slf4j.Logger;
@@ -20,39 +17,35 @@ import io.openems.common.jsonrpc.notification.CurrentDataNotification;
 import io.openems.common.jsonrpc.request.SubscribeChannelsRequest;
 import io.openems.common.session.Role;
 import io.openems.common.types.ChannelAddress;
+import io.openems.common.websocket.SubscriptionScheduler.Subscription;
+import io.openems.common.websocket.SubscriptionScheduler.Tick;
 
-public abstract class SubscribedChannelsWorker {
-
-	protected final static int UPDATE_INTERVAL_IN_SECONDS = 2;
+public abstract class SubscribedChannelsWorker implements Subscription {
 
 	private final Logger log = LoggerFactory.getLogger(SubscribedChannelsWorker.class);
 
 	/**
-	 * Executor for subscriptions task
-	 */
-	private final ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
-
-	/**
-	 * Holds subscribed channels
+	 * Shared scheduler of the websocket server.
 	 */
-	private final TreeSet<ChannelAddress> channels = new TreeSet<>();
+	private final SubscriptionScheduler scheduler;
 
 	/**
-	 * Holds the scheduled task for currentData
+	 * Holds subscribed channels. The Set is replaced, never modified.
 	 */
-	private Optional<ScheduledFuture<?>> futureOpt = Optional.empty();
+	private volatile SortedSet<ChannelAddress> channels = Collections.emptySortedSet();
 
 	protected final WsData wsData;
 
 	private int lastRequestCount = Integer.MIN_VALUE;
 
-	public SubscribedChannelsWorker(WsData wsData) {
+	public SubscribedChannelsWorker(SubscriptionScheduler scheduler, WsData wsData) {
+		this.scheduler = scheduler;
 		this.wsData = wsData;
 	}
 
 	/**
 	 * Applies a SubscribeChannelsRequest.
-	 * 
+	 *
 	 * @param role    the Role - no specific level required
 	 * @param request the SubscribeChannelsRequest
 	 */
@@ -65,66 +58,85 @@ public abstract class SubscribedChannelsWorker {
 
 	/**
 	 * Sets the subscribed Channels.
-	 * 
+	 *
 	 * @param channels Set of ChannelAddresses
 	 */
 	private synchronized void setChannels(Set<ChannelAddress> channels) {
-		// stop current thread
-		if (this.futureOpt.isPresent()) {
-			this.futureOpt.get().cancel(true);
-			this.futureOpt = Optional.empty();
+		this.channels = Collections.unmodifiableSortedSet(new TreeSet<>(channels));
+
+		if (channels.isEmpty()) {
+			this.scheduler.remove(this);
+		} else {
+			// (re)adding triggers an immediate update
+			this.scheduler.add(this);
+		}
+	}
+
+	/**
+	 * Gets the subscribed Channels.
+	 *
+	 * @return an unmodifiable Set of ChannelAddresses
+	 */
+	protected SortedSet<ChannelAddress> getChannels() {
+		return this.channels;
+	}
+
+	@Override
+	public void onTick(Tick tick) {
+		/*
+		 * This task is executed regularly. Sends data to Websocket.
+		 */
+		WebSocket ws = this.wsData.getWebsocket();
+		if (ws == null || !ws.isOpen()) {
+			// disconnected; stop worker
+			this.dispose();
+			return;
 		}
 
-		// clear existing channels
-		this.channels.clear();
-
-		// set new channels
-		this.channels.addAll(channels);
-
-		if (!channels.isEmpty()) {
-			// registered channels -> create new thread
-			this.futureOpt = Optional.of(this.executor.scheduleWithFixedDelay(() -> {
-				/*
-				 * This task is executed regularly. Sends data to Websocket.
-				 */
-				WebSocket ws = this.wsData.getWebsocket();
-				if (ws == null || !ws.isOpen()) {
-					// disconnected; stop worker
-					this.dispose();
-					return;
-				}
-
-				try {
-					this.wsData.send(this.getJsonRpcNotification(this.getCurrentData()));
-				} catch (OpenemsException e) {
-					this.log.warn("Unable to send SubscribedChannels: " + e.getMessage());
-				}
-
-			}, 0, UPDATE_INTERVAL_IN_SECONDS, TimeUnit.SECONDS));
+		SortedSet<ChannelAddress> channels = this.channels;
+		if (channels.isEmpty()) {
+			return;
+		}
+		String payload = tick.getPayload(this.getPayloadKey(channels),
+				() -> this.getJsonRpcNotification(this.getCurrentData(channels)).toString());
+		try {
+			this.wsData.send(payload);
+		} catch (OpenemsException e) {
+			this.log.warn("Unable to send SubscribedChannels: " + e.getMessage());
 		}
 	}
 
 	public void dispose() {
 		// unsubscribe regular task
-		if (this.futureOpt.isPresent()) {
-			futureOpt.get().cancel(true);
-		}
+		this.scheduler.remove(this);
 	}
 
 	/**
 	 * Gets a JSON-RPC Notification with all subscribed channels data
 	 *
-	 * @return
+	 * @param channels the subscribed Channels
+	 * @return the CurrentDataNotification
 	 */
-	private CurrentDataNotification getCurrentData() {
+	private CurrentDataNotification getCurrentData(Set<ChannelAddress> channels) {
 		CurrentDataNotification result = new CurrentDataNotification();
-		for (ChannelAddress channel : this.channels) {
+		for (ChannelAddress channel : channels) {
 			JsonElement value = this.getChannelValue(channel);
 			result.add(channel, value);
 		}
 		return result;
 	}
 
+	/**
+	 * Gets the key that identifies the payload for the given Channels. Workers
+	 * with equal keys within one tick share the same serialized payload.
+	 *
+	 * @param channels the subscribed Channels
+	 * @return the key; by default the Channels
+	 */
+	protected Object getPayloadKey(SortedSet<ChannelAddress> channels) {
+		return channels;
+	}
+
 	protected abstract JsonElement getChannelValue(ChannelAddress channelAddress);
 
 	protected abstract JsonrpcNotification getJsonRpcNotification(CurrentDataNotification currentData);
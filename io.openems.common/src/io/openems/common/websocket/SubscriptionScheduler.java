@@ -0,0 +1,211 @@
+package io.openems.common.websocket;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Triggers the {@link Subscription}s of all connections of a websocket server
+ * on one shared thread.
+ *
+ * <p>
+ * All Subscriptions are handled in one batch per tick. Within a tick,
+ * Subscriptions with the same key (e.g. the same set of Channels) share one
+ * serialized payload via {@link Tick#getPayload(Object, Supplier)}.
+ */
+public class SubscriptionScheduler {
+
+	public static final int DEFAULT_INTERVAL_SECONDS = 2;
+
+	/**
+	 * A regularly triggered task of one connection.
+	 */
+	public interface Subscription {
+
+		/**
+		 * Called once after {@link SubscriptionScheduler#add(Subscription)} and then
+		 * on every tick.
+		 *
+		 * @param tick the current {@link Tick}
+		 */
+		public void onTick(Tick tick);
+
+	}
+
+	/**
+	 * Holds the payloads that were created during one tick.
+	 */
+	public static class Tick {
+
+		private final Map<Object, String> payloads = new HashMap<>();
+		private int createdPayloads = 0;
+		private int reusedPayloads = 0;
+
+		/**
+		 * Gets the payload for the given key; creates it if it was not yet created
+		 * during this tick.
+		 *
+		 * @param key     the key, i.e. everything the payload depends on
+		 * @param factory creates the serialized payload
+		 * @return the payload
+		 */
+		public String getPayload(Object key, Supplier<String> factory) {
+			String payload = this.payloads.get(key);
+			if (payload == null) {
+				payload = factory.get();
+				this.payloads.put(key, payload);
+				this.createdPayloads++;
+			} else {
+				this.reusedPayloads++;
+			}
+			return payload;
+		}
+
+		/**
+		 * Gets the number of payloads that were created during this tick.
+		 *
+		 * @return the number of payloads
+		 */
+		public int getCreatedPayloads() {
+			return this.createdPayloads;
+		}
+
+		/**
+		 * Gets the number of payloads that were reused during this tick.
+		 *
+		 * @return the number of payloads
+		 */
+		public int getReusedPayloads() {
+			return this.reusedPayloads;
+		}
+	}
+
+	private final Logger log = LoggerFactory.getLogger(SubscriptionScheduler.class);
+
+	private final String name;
+	private final long interval;
+	private final TimeUnit unit;
+	private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+	private ScheduledExecutorService executor = null;
+	private boolean isStopped = false;
+
+	public SubscriptionScheduler(String name) {
+		this(name, DEFAULT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * @param name     to identify the thread
+	 * @param interval the interval between two ticks
+	 * @param unit     the {@link TimeUnit} of the interval
+	 */
+	public SubscriptionScheduler(String name, long interval, TimeUnit unit) {
+		this.name = name;
+		this.interval = interval;
+		this.unit = unit;
+	}
+
+	/**
+	 * Adds a Subscription. It is triggered immediately and then on every tick.
+	 *
+	 * @param subscription the {@link Subscription}
+	 */
+	public void add(Subscription subscription) {
+		ScheduledExecutorService executor = this.getExecutor();
+		if (executor == null) {
+			// already stopped
+			return;
+		}
+		this.subscriptions.add(subscription);
+		try {
+			executor.execute(() -> {
+				if (this.subscriptions.contains(subscription)) {
+					this.trigger(subscription, new Tick());
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			// stopped in the meantime
+		}
+	}
+
+	/**
+	 * Removes a Subscription.
+	 *
+	 * @param subscription the {@link Subscription}
+	 */
+	public void remove(Subscription subscription) {
+		this.subscriptions.remove(subscription);
+	}
+
+	/**
+	 * Gets the number of Subscriptions.
+	 *
+	 * @return the number of Subscriptions
+	 */
+	public int size() {
+		return this.subscriptions.size();
+	}
+
+	/**
+	 * Stops the scheduler. Subscriptions are not triggered anymore.
+	 */
+	public synchronized void stop() {
+		this.isStopped = true;
+		this.subscriptions.clear();
+		if (this.executor != null) {
+			this.executor.shutdownNow();
+			this.executor = null;
+		}
+	}
+
+	/**
+	 * Gets the executor; starts it on first call.
+	 *
+	 * @return the executor; null if the scheduler was stopped
+	 */
+	private synchronized ScheduledExecutorService getExecutor() {
+		if (this.isStopped) {
+			return null;
+		}
+		if (this.executor == null) {
+			this.executor = Executors.newSingleThreadScheduledExecutor(
+					new ThreadFactoryBuilder().setNameFormat(this.name + "-Subscriptions").setDaemon(true).build());
+			this.executor.scheduleWithFixedDelay(this::tick, this.interval, this.interval, this.unit);
+		}
+		return this.executor;
+	}
+
+	/**
+	 * Triggers all Subscriptions with a shared {@link Tick}.
+	 *
+	 * @return the Tick
+	 */
+	protected Tick tick() {
+		Tick tick = new Tick();
+		for (Subscription subscription : this.subscriptions) {
+			this.trigger(subscription, tick);
+		}
+		return tick;
+	}
+
+	private void trigger(Subscription subscription, Tick tick) {
+		try {
+			subscription.onTick(tick);
+		} catch (Throwable e) {
+			// never stop the scheduled task
+			this.log.warn("[" + this.name + "] Subscription failed: " + e.getClass().getSimpleName() + ": "
+					+ e.getMessage());
+		}
+	}
+}
@@ -1,8 +1,10 @@
 package io.openems.common.websocket;
 
 import java.util.Iterator;
+import java.util.Optional;
 
 import org.java_websocket.WebSocket;
+import org.java_websocket.drafts.Draft;
 import org.java_websocket.handshake.Handshakedata;
 
 import com.google.gson.JsonObject;
@@ -42,4 +44,20 @@ public class WebsocketUtils {
 		return wsData.toString();
 	}
 
+	/**
+	 * Gets the compression statistics of a WebSocket connection.
+	 * 
+	 * @param ws the WebSocket
+	 * @return the statistics; empty if 'permessage-deflate' was not negotiated
+	 */
+	public static Optional<PerMessageDeflateExtension.Statistics> getCompressionStatistics(WebSocket ws) {
+		if (ws == null) {
+			return Optional.empty();
+		}
+		Draft draft = ws.getDraft();
+		if (!(draft instanceof PerMessageDeflateDraft)) {
+			return Optional.empty();
+		}
+		return ((PerMessageDeflateDraft) draft).getStatistics();
+	}
 }
@@ -88,18 +88,36 @@ public abstract class WsData {
 		this.sendMessage(notification);
 	}
 
+	/**
+	 * Sends an already serialized JSON-RPC Notification to a WebSocket, e.g. a
+	 * payload that is shared by multiple WebSockets.
+	 *
+	 * @param text the serialized JSON-RPC Notification
+	 * @throws OpenemsException on error
+	 */
+	public void send(String text) throws OpenemsException {
+		this.sendText(text);
+	}
+
 	/**
 	 * Sends the JSON-RPC message.
-	 * 
+	 *
 	 * @param message the JSON-RPC Message
 	 * @throws OpenemsException on error
 	 */
 	private void sendMessage(JsonrpcMessage message) throws OpenemsException {
+		this.sendText(message.toString());
+	}
+
+	private void sendText(String text) throws OpenemsException {
 		if (this.websocket == null) {
 			throw new OpenemsException("There is no Websocket defined for this WsData.");
 		}
 		try {
-			this.websocket.send(message.toString());
+			// compression extensions require serialized sending
+			synchronized (this.websocket) {
+				this.websocket.send(text);
+			}
 		} catch (WebsocketNotConnectedException e) {
 			throw new OpenemsException("Websocket is not connected: " + e.getMessage());
 		}
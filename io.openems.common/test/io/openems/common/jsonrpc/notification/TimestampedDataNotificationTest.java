@@ -0,0 +1,61 @@
+package io.openems.common.jsonrpc.notification;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Optional;
+
+import org.junit.Test;
+
+import com.google.gson.JsonPrimitive;
+
+import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
+import io.openems.common.jsonrpc.base.GenericJsonrpcNotification;
+import io.openems.common.jsonrpc.base.JsonrpcMessage;
+import io.openems.common.types.ChannelAddress;
+
+public class TimestampedDataNotificationTest {
+
+	@Test
+	public void testParse() throws OpenemsNamedException {
+		TimestampedDataNotification notification = new TimestampedDataNotification();
+		notification.add(1000, new ChannelAddress("ess0", "Soc"), new JsonPrimitive(50));
+		notification.add(1000, new ChannelAddress("_meta", "Version"), new JsonPrimitive("2019.10.0"));
+		notification.add(2000, new ChannelAddress("ess0", "Soc"), new JsonPrimitive(51.5));
+		String message = notification.toString();
+
+		Optional<TimestampedDataNotification> parsed = TimestampedDataNotification.parse(message);
+		assertTrue(parsed.isPresent());
+		TimestampedDataNotification expected = TimestampedDataNotification
+				.from((GenericJsonrpcNotification) JsonrpcMessage.from(message));
+		assertEquals(expected.getData(), parsed.get().getData());
+		assertEquals(51.5, parsed.get().getData().get(2000L, new ChannelAddress("ess0", "Soc")).getAsDouble(), 0);
+	}
+
+	@Test
+	public void testParseOtherMessages() {
+		// other method
+		assertFalse(TimestampedDataNotification
+				.parse("{\"jsonrpc\":\"2.0\",\"method\":\"systemLog\",\"params\":{}}").isPresent());
+		// request
+		assertFalse(TimestampedDataNotification
+				.parse("{\"jsonrpc\":\"2.0\",\"id\":\"x\",\"method\":\"timestampedData\",\"params\":{}}")
+				.isPresent());
+		// request with 'id' after 'params'
+		assertFalse(TimestampedDataNotification.parse(
+				"{\"jsonrpc\":\"2.0\",\"method\":\"timestampedData\",\"params\":{\"1000\":{\"ess0/Soc\":50}},\"id\":\"x\"}")
+				.isPresent());
+		// duplicate 'params'
+		assertFalse(TimestampedDataNotification
+				.parse("{\"jsonrpc\":\"2.0\",\"method\":\"timestampedData\",\"params\":{},\"params\":{}}")
+				.isPresent());
+		// 'params' before 'method' is left to the generic parser
+		assertFalse(TimestampedDataNotification
+				.parse("{\"jsonrpc\":\"2.0\",\"params\":{},\"method\":\"timestampedData\"}").isPresent());
+		// invalid
+		assertFalse(TimestampedDataNotification.parse("{\"jsonrpc\":\"2.0\",\"method\":\"timestampedData\",")
+				.isPresent());
+		assertFalse(TimestampedDataNotification.parse("[]").isPresent());
+	}
+}
@@ -0,0 +1,111 @@
+package io.openems.common.websocket;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.google.gson.JsonNull;
+import com.google.gson.JsonPrimitive;
+
+import io.openems.common.exceptions.OpenemsException;
+import io.openems.common.jsonrpc.notification.TimestampedDataNotification;
+import io.openems.common.types.ChannelAddress;
+
+public class BinaryTimestampedDataTest {
+
+	private static final ChannelAddress SOC = new ChannelAddress("ess0", "Soc");
+	private static final ChannelAddress POWER = new ChannelAddress("meter0", "ActivePower");
+	private static final ChannelAddress VERSION = new ChannelAddress("_meta", "Version");
+	private static final ChannelAddress VOLTAGE = new ChannelAddress("battery0", "Voltage");
+
+	@Test
+	public void testRoundtrip() throws OpenemsException {
+		ChannelDictionary dictionary = new ChannelDictionary();
+		dictionary.append(0, Arrays.asList(SOC, POWER, VERSION, VOLTAGE));
+
+		TimestampedDataNotification message = new TimestampedDataNotification();
+		message.add(1_560_000_000_000L, SOC, new JsonPrimitive(55));
+		message.add(1_560_000_000_000L, POWER, new JsonPrimitive(-12_345));
+		message.add(1_560_000_000_000L, VERSION, new JsonPrimitive("2019.10.0"));
+		message.add(1_560_000_000_000L, VOLTAGE, new JsonPrimitive(1.5f));
+		message.add(1_560_000_010_000L, POWER, new JsonPrimitive(2.25));
+		message.add(1_560_000_010_000L, SOC, JsonNull.INSTANCE);
+
+		byte[] bytes = BinaryTimestampedData.encode(message, dictionary);
+		TimestampedDataNotification result = BinaryTimestampedData.decode(ByteBuffer.wrap(bytes), dictionary);
+
+		assertEquals(message.getParams(), result.getParams());
+		assertTrue(bytes.length < message.toString().length() / 4);
+	}
+
+	@Test(expected = OpenemsException.class)
+	public void testUnknownChannel() throws OpenemsException {
+		ChannelDictionary dictionary = new ChannelDictionary();
+		dictionary.append(0, Arrays.asList(SOC));
+
+		TimestampedDataNotification message = new TimestampedDataNotification();
+		message.add(1_560_000_000_000L, POWER, new JsonPrimitive(0));
+		BinaryTimestampedData.encode(message, dictionary);
+	}
+
+	@Test
+	public void testInvalidStringLength() throws OpenemsException {
+		ChannelDictionary dictionary = new ChannelDictionary();
+		dictionary.append(0, Arrays.asList(VERSION));
+		TimestampedDataNotification message = new TimestampedDataNotification();
+		message.add(1_560_000_000_000L, VERSION, new JsonPrimitive("2019.10.0"));
+		byte[] bytes = BinaryTimestampedData.encode(message, dictionary);
+
+		// truncated
+		try {
+			BinaryTimestampedData.decode(ByteBuffer.wrap(bytes, 0, bytes.length - 1), dictionary);
+			fail();
+		} catch (OpenemsException e) {
+			// expected
+		}
+
+		// oversized and negative lengths; the string length is the varint before the
+		// last 9 bytes
+		int lengthPosition = bytes.length - 10;
+		assertEquals(9, bytes[lengthPosition]);
+		for (byte[] length : new byte[][] { //
+				{ (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07 }, // Integer.MAX_VALUE
+				{ (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF,
+						(byte) 0xFF, (byte) 0xFF, 0x01 } // -1
+		}) {
+			ByteBuffer buffer = ByteBuffer.allocate(bytes.length + length.length);
+			buffer.put(bytes, 0, lengthPosition).put(length).put(bytes, lengthPosition + 1, 9);
+			buffer.flip();
+			try {
+				BinaryTimestampedData.decode(buffer, dictionary);
+				fail();
+			} catch (OpenemsException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void testDictionaryAppend() throws OpenemsException {
+		ChannelDictionary dictionary = new ChannelDictionary();
+		dictionary.append(0, Arrays.asList(SOC, POWER));
+		dictionary.append(2, Arrays.asList(VERSION));
+		assertEquals(VERSION, dictionary.getAddress(2));
+
+		try {
+			dictionary.append(1, Arrays.asList(VOLTAGE));
+		} catch (OpenemsException e) {
+			// offset does not match
+		}
+		assertEquals(3, dictionary.size());
+
+		dictionary.append(0, Arrays.asList(VOLTAGE));
+		assertEquals(Integer.valueOf(0), dictionary.getIndex(VOLTAGE));
+		assertEquals(null, dictionary.getIndex(SOC));
+	}
+}
@@ -0,0 +1,112 @@
+package io.openems.common.websocket;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.openems.common.websocket.OrderedExecutor.OverflowPolicy;
+
+public class OrderedExecutorTest {
+
+	@Test
+	public void testOrderPerKey() throws InterruptedException {
+		OrderedExecutor executor = new OrderedExecutor("test", 4, 10_000, OverflowPolicy.BLOCK);
+		final int keys = 8;
+		final int tasks = 500;
+		List<List<Integer>> results = new ArrayList<>();
+		for (int k = 0; k < keys; k++) {
+			results.add(Collections.synchronizedList(new ArrayList<>()));
+		}
+		CountDownLatch done = new CountDownLatch(keys * tasks);
+		for (int i = 0; i < tasks; i++) {
+			for (int k = 0; k < keys; k++) {
+				final int key = k;
+				final int value = i;
+				assertTrue(executor.execute("key" + key, () -> {
+					results.get(key).add(value);
+					done.countDown();
+				}));
+			}
+		}
+		assertTrue(done.await(10, TimeUnit.SECONDS));
+		for (List<Integer> result : results) {
+			for (int i = 0; i < tasks; i++) {
+				assertEquals(Integer.valueOf(i), result.get(i));
+			}
+		}
+		OrderedExecutor.Statistics statistics = executor.getStatistics();
+		assertEquals(keys * tasks, statistics.getHandledTasks());
+		assertEquals(0, statistics.getRejectedTasks());
+	}
+
+	@Test
+	public void testReject() throws InterruptedException {
+		OrderedExecutor executor = new OrderedExecutor("test", 1, 2, OverflowPolicy.REJECT);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(2);
+		Runnable blocking = () -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				// ignore
+			}
+			done.countDown();
+		};
+		assertTrue(executor.execute("a", blocking));
+		assertTrue(executor.execute("a", blocking));
+		assertFalse(executor.execute("a", blocking));
+		assertEquals(2, executor.getQueueSize());
+
+		// 'always' tasks are not limited
+		executor.executeAlways("a", () -> {
+		});
+
+		release.countDown();
+		assertTrue(done.await(10, TimeUnit.SECONDS));
+		assertEquals(1, executor.getStatistics().getRejectedTasks());
+	}
+
+	@Test
+	public void testDropOldest() throws InterruptedException {
+		OrderedExecutor executor = new OrderedExecutor("test", 1, 2, OverflowPolicy.DROP_OLDEST);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		List<String> result = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch done = new CountDownLatch(3);
+		assertTrue(executor.execute("a", () -> {
+			started.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				// ignore
+			}
+			result.add("first");
+			done.countDown();
+		}));
+		assertTrue(started.await(10, TimeUnit.SECONDS));
+		assertTrue(executor.execute("a", () -> result.add("dropped"), () -> {
+			// e.g. answer a JSON-RPC Request with 'busy'
+			result.add("onDrop");
+			done.countDown();
+		}));
+		assertTrue(executor.execute("a", () -> {
+			result.add("last");
+			done.countDown();
+		}));
+
+		release.countDown();
+		assertTrue(done.await(10, TimeUnit.SECONDS));
+		assertEquals(3, result.size());
+		assertTrue(result.contains("onDrop"));
+		assertFalse(result.contains("dropped"));
+		assertTrue(result.indexOf("first") < result.indexOf("last"));
+	}
+}
@@ -0,0 +1,126 @@
+package io.openems.common.websocket;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.java_websocket.exceptions.InvalidDataException;
+import org.java_websocket.framing.TextFrame;
+import org.junit.Test;
+
+public class PerMessageDeflateExtensionTest {
+
+	private static final String MESSAGE = "{\"jsonrpc\":\"2.0\",\"method\":\"timestampedData\",\"params\":{"
+			+ "\"1560000000000\":{\"ess0/Soc\":55,\"meter0/ActivePower\":-12345,\"ess0/ActivePower\":1000}}}";
+
+	private static TextFrame frame(String text) {
+		TextFrame frame = new TextFrame();
+		frame.setPayload(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)));
+		frame.setFin(true);
+		return frame;
+	}
+
+	private static String payload(TextFrame frame) {
+		ByteBuffer payload = frame.getPayloadData();
+		byte[] bytes = new byte[payload.remaining()];
+		payload.duplicate().get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static PerMessageDeflateExtension[] negotiate(boolean serverNoContextTakeover,
+			boolean clientNoContextTakeover) {
+		PerMessageDeflateExtension server = (PerMessageDeflateExtension) new PerMessageDeflateExtension(6,
+				serverNoContextTakeover, 0).copyInstance();
+		PerMessageDeflateExtension client = (PerMessageDeflateExtension) new PerMessageDeflateExtension(6,
+				clientNoContextTakeover, 0).copyInstance();
+		assertTrue(server.acceptProvidedExtensionAsServer(client.getProvidedExtensionAsClient()));
+		assertTrue(client.acceptProvidedExtensionAsClient(server.getProvidedExtensionAsServer()));
+		return new PerMessageDeflateExtension[] { server, client };
+	}
+
+	@Test
+	public void testRoundtrip() throws InvalidDataException {
+		PerMessageDeflateExtension[] extensions = negotiate(false, false);
+		PerMessageDeflateExtension server = extensions[0];
+		PerMessageDeflateExtension client = extensions[1];
+
+		// context takeover: following messages compress better
+		int lastLength = Integer.MAX_VALUE;
+		for (int i = 0; i < 3; i++) {
+			TextFrame frame = frame(MESSAGE);
+			client.encodeFrame(frame);
+			assertTrue(frame.isRSV1());
+			assertTrue(frame.getPayloadData().remaining() <= lastLength);
+			lastLength = frame.getPayloadData().remaining();
+
+			server.isFrameValid(frame);
+			server.decodeFrame(frame);
+			assertFalse(frame.isRSV1());
+			assertEquals(MESSAGE, payload(frame));
+		}
+		assertTrue(client.getStatistics().getRatio() < 0.5);
+		assertEquals(3 * MESSAGE.length(), server.getStatistics().getReceivedBytes());
+	}
+
+	@Test
+	public void testNoContextTakeover() throws InvalidDataException {
+		PerMessageDeflateExtension[] extensions = negotiate(true, false);
+		PerMessageDeflateExtension server = extensions[0];
+		PerMessageDeflateExtension client = extensions[1];
+		assertEquals("permessage-deflate; server_no_context_takeover; client_no_context_takeover",
+				server.getProvidedExtensionAsServer());
+
+		int length = -1;
+		for (int i = 0; i < 3; i++) {
+			TextFrame frame = frame(MESSAGE);
+			server.encodeFrame(frame);
+			if (length != -1) {
+				assertEquals(length, frame.getPayloadData().remaining());
+			}
+			length = frame.getPayloadData().remaining();
+
+			client.decodeFrame(frame);
+			assertEquals(MESSAGE, payload(frame));
+		}
+	}
+
+	@Test
+	public void testThreshold() throws InvalidDataException {
+		PerMessageDeflateExtension extension = new PerMessageDeflateExtension(6, false, 1024);
+		TextFrame frame = frame(MESSAGE);
+		extension.encodeFrame(frame);
+		assertFalse(frame.isRSV1());
+		assertEquals(MESSAGE, payload(frame));
+	}
+
+	@Test
+	public void testDraftWritesRsv1() throws InvalidDataException {
+		PerMessageDeflateDraft draft = (PerMessageDeflateDraft) PerMessageDeflateExtension.createDraft(6, false, 0)
+				.copyInstance();
+		TextFrame frame = frame(MESSAGE);
+		ByteBuffer buffer = draft.createBinaryFrame(frame);
+		assertEquals(0, buffer.get(buffer.position()) & 0x40);
+
+		// not negotiated, but flagged as compressed
+		frame.setRSV1(true);
+		buffer = draft.createBinaryFrame(frame);
+		assertEquals(0x40, buffer.get(buffer.position()) & 0x40);
+		assertFalse(draft.getStatistics().isPresent());
+	}
+
+	@Test
+	public void testNegotiation() {
+		PerMessageDeflateExtension server = new PerMessageDeflateExtension(6, false, 0);
+		assertFalse(server.acceptProvidedExtensionAsServer("x-webkit-deflate-frame"));
+		assertFalse(server.acceptProvidedExtensionAsServer("permessage-deflate; server_max_window_bits=10"));
+		assertTrue(server.acceptProvidedExtensionAsServer(
+				"permessage-deflate; server_max_window_bits=10, permessage-deflate; client_max_window_bits"));
+		assertEquals("permessage-deflate", server.getProvidedExtensionAsServer());
+
+		PerMessageDeflateExtension client = new PerMessageDeflateExtension(6, false, 0);
+		assertFalse(client.acceptProvidedExtensionAsClient("permessage-deflate; client_max_window_bits=10"));
+	}
+}
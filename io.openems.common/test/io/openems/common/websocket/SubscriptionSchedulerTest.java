@@ -0,0 +1,79 @@
+package io.openems.common.websocket;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import io.openems.common.websocket.SubscriptionScheduler.Subscription;
+import io.openems.common.websocket.SubscriptionScheduler.Tick;
+
+public class SubscriptionSchedulerTest {
+
+	@Test
+	public void testSharedPayload() throws InterruptedException {
+		SubscriptionScheduler scheduler = new SubscriptionScheduler("test", 1, TimeUnit.HOURS);
+		AtomicInteger serialized = new AtomicInteger();
+		List<String> sent = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch initial = new CountDownLatch(100);
+		for (int i = 0; i < 100; i++) {
+			final String key = "channels" + (i % 2);
+			scheduler.add(tick -> {
+				sent.add(tick.getPayload(key, () -> {
+					serialized.incrementAndGet();
+					return new String(key);
+				}));
+				initial.countDown();
+			});
+		}
+		// wait for the immediate triggers on add()
+		assertTrue(initial.await(10, TimeUnit.SECONDS));
+		sent.clear();
+		serialized.set(0);
+
+		Tick tick = scheduler.tick();
+		assertEquals(100, sent.size());
+		assertEquals(2, serialized.get());
+		assertEquals(2, tick.getCreatedPayloads());
+		assertEquals(98, tick.getReusedPayloads());
+		for (String payload : sent) {
+			assertSame(sent.get(sent.indexOf(payload)), payload);
+		}
+		scheduler.stop();
+	}
+
+	@Test
+	public void testAddTriggersImmediately() throws InterruptedException {
+		SubscriptionScheduler scheduler = new SubscriptionScheduler("test", 1, TimeUnit.HOURS);
+		CountDownLatch triggered = new CountDownLatch(1);
+		scheduler.add(tick -> triggered.countDown());
+		assertTrue(triggered.await(10, TimeUnit.SECONDS));
+		scheduler.stop();
+	}
+
+	@Test
+	public void testRemoveAndStop() {
+		SubscriptionScheduler scheduler = new SubscriptionScheduler("test", 1, TimeUnit.HOURS);
+		AtomicInteger count = new AtomicInteger();
+		Subscription failing = tick -> {
+			throw new IllegalStateException("failing");
+		};
+		Subscription counting = tick -> count.incrementAndGet();
+		scheduler.add(failing);
+		scheduler.add(counting);
+		scheduler.remove(failing);
+		assertEquals(1, scheduler.size());
+
+		scheduler.stop();
+		scheduler.add(counting);
+		assertEquals(0, scheduler.size());
+	}
+}
@@ -138,6 +138,13 @@ public interface Channel<T> {
 	 */
 	public void onChange(Consumer<Value<T>> callback);
 
+	/**
+	 * Removes an onChange callback that was added via {@link #onChange(Consumer)}.
+	 * 
+	 * @param callback the callback
+	 */
+	public void removeOnChangeCallback(Consumer<Value<T>> callback);
+
 	/**
 	 * Deactivates the Channel and makes sure all callbacks are released for garbe
 	 * collection to avoid memory-leaks.
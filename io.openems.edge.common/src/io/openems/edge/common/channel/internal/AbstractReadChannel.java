@@ -157,6 +157,11 @@ public abstract class AbstractReadChannel<D extends AbstractDoc<T>, T> implement
 		this.onChangeCallbacks.add(callback);
 	}
 
+	@Override
+	public void removeOnChangeCallback(Consumer<Value<T>> callback) {
+		this.onChangeCallbacks.remove(callback);
+	}
+
 	/*
 	 * This is to help WriteChannels implement the WriteChannel interface.
 	 * 'onSetNextWriteCallbacks' is not final by purpose, because it might be called
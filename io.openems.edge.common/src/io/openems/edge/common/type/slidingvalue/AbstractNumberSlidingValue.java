@@ -1,35 +1,94 @@
 package io.openems.edge.common.type.slidingvalue;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 import io.openems.common.types.OpenemsType;
 
-public abstract class AbstractNumberSlidingValue<T> extends SlidingValue<T> {
+/**
+ * Calculates the 'Sliding Value' of numeric values with constant memory.
+ * 
+ * <p>
+ * Values are not stored; instead sum, count, minimum, maximum and last value
+ * are aggregated in primitive fields by the subclasses. The class does not
+ * lock; values are expected to be added and read by one thread at a time.
+ *
+ * @param <T> the type of the Value
+ */
+public abstract class AbstractNumberSlidingValue<T extends Number> extends SlidingValue<T> {
 
-	protected final List<T> values = new ArrayList<>();
+	protected int count = 0;
 
 	protected AbstractNumberSlidingValue(OpenemsType type) {
 		super(type);
 	}
 
 	@Override
-	public synchronized void addValue(T value) {
-		if (value != null) {
-			this.values.add(value);
+	public void addValue(T value) {
+		this.addValue(value, 1);
+	}
+
+	@Override
+	public void addValue(T value, int times) {
+		if (value != null && times > 0) {
+			this.add(value, times);
 		}
 	}
 
+	/**
+	 * Adds a non-null value to the aggregated fields and increases the count.
+	 * 
+	 * @param value the value
+	 * @param times the number of samples
+	 */
+	protected abstract void add(T value, int times);
+
+	/**
+	 * Resets the aggregated fields.
+	 */
+	protected abstract void resetAggregate();
+
 	@Override
-	protected synchronized void resetValues() {
-		this.values.clear();
+	protected void resetValues() {
+		this.count = 0;
+		this.resetAggregate();
 	}
 
+	/**
+	 * Gets the number of values added since the last reset.
+	 * 
+	 * @return the number of values
+	 */
+	public int getCount() {
+		return this.count;
+	}
+
+	/**
+	 * Gets the minimum value since the last reset.
+	 * 
+	 * @return the minimum; empty if no value was added
+	 */
+	public abstract Optional<T> getMin();
+
+	/**
+	 * Gets the maximum value since the last reset.
+	 * 
+	 * @return the maximum; empty if no value was added
+	 */
+	public abstract Optional<T> getMax();
+
+	/**
+	 * Gets the last value since the last reset.
+	 * 
+	 * @return the last value; empty if no value was added
+	 */
+	public abstract Optional<T> getLast();
+
 	@Override
 	public String toString() {
-		return this.values.stream() //
-				.map(Object::toString) //
-				.collect(Collectors.joining(","));
+		if (this.count == 0) {
+			return "";
+		}
+		return "count=" + this.count + ",min=" + this.getMin().get() + ",max=" + this.getMax().get() + ",last="
+				+ this.getLast().get();
 	}
 }
@@ -1,26 +1,83 @@
 package io.openems.edge.common.type.slidingvalue;
 
 import java.util.Optional;
-import java.util.OptionalDouble;
 
 import io.openems.common.types.OpenemsType;
 
 public class DoubleSlidingValue extends AbstractNumberSlidingValue<Double> {
 
+	private double sum = 0;
+	private double min = Double.POSITIVE_INFINITY;
+	private double max = Double.NEGATIVE_INFINITY;
+	private double last = 0;
+
 	public DoubleSlidingValue() {
 		super(OpenemsType.DOUBLE);
 	}
 
+	/**
+	 * Adds a value.
+	 * 
+	 * @param value the value
+	 */
+	public void addValue(double value) {
+		this.addValue(value, 1);
+	}
+
+	/**
+	 * Adds a value that was valid for several samples.
+	 * 
+	 * @param value the value
+	 * @param times the number of samples
+	 */
+	public void addValue(double value, int times) {
+		if (times <= 0) {
+			return;
+		}
+		this.sum += value * times;
+		if (value < this.min) {
+			this.min = value;
+		}
+		if (value > this.max) {
+			this.max = value;
+		}
+		this.last = value;
+		this.count += times;
+	}
+
+	@Override
+	protected void add(Double value, int times) {
+		this.addValue(value.doubleValue(), times);
+	}
+
+	@Override
+	protected void resetAggregate() {
+		this.sum = 0;
+		this.min = Double.POSITIVE_INFINITY;
+		this.max = Double.NEGATIVE_INFINITY;
+		this.last = 0;
+	}
+
 	@Override
 	protected Optional<Double> getSlidingValue() {
-		OptionalDouble result = this.values.stream() //
-				.mapToDouble(Double::doubleValue) //
-				.average();
-		if (result.isPresent()) {
-			return Optional.of(result.getAsDouble());
-		} else {
+		if (this.count == 0) {
 			return Optional.empty();
 		}
+		return Optional.of(this.sum / this.count);
+	}
+
+	@Override
+	public Optional<Double> getMin() {
+		return this.count == 0 ? Optional.empty() : Optional.of(this.min);
 	}
 
+	@Override
+	public Optional<Double> getMax() {
+		return this.count == 0 ? Optional.empty() : Optional.of(this.max);
+	}
+
+	@Override
+	public Optional<Double> getLast() {
+		return this.count == 0 ? Optional.empty() : Optional.of(this.last);
+	}
 }
@@ -1,31 +1,88 @@
 package io.openems.edge.common.type.slidingvalue;
 
 import java.util.Optional;
-import java.util.OptionalDouble;
 
 import io.openems.common.types.OpenemsType;
 
 public class FloatSlidingValue extends AbstractNumberSlidingValue<Float> {
 
+	private double sum = 0;
+	private float min = Float.POSITIVE_INFINITY;
+	private float max = Float.NEGATIVE_INFINITY;
+	private float last = 0;
+
 	public FloatSlidingValue() {
 		super(OpenemsType.FLOAT);
 	}
 
+	/**
+	 * Adds a value.
+	 * 
+	 * @param value the value
+	 */
+	public void addValue(float value) {
+		this.addValue(value, 1);
+	}
+
+	/**
+	 * Adds a value that was valid for several samples.
+	 * 
+	 * @param value the value
+	 * @param times the number of samples
+	 */
+	public void addValue(float value, int times) {
+		if (times <= 0) {
+			return;
+		}
+		this.sum += (double) value * times;
+		if (value < this.min) {
+			this.min = value;
+		}
+		if (value > this.max) {
+			this.max = value;
+		}
+		this.last = value;
+		this.count += times;
+	}
+
+	@Override
+	protected void add(Float value, int times) {
+		this.addValue(value.floatValue(), times);
+	}
+
+	@Override
+	protected void resetAggregate() {
+		this.sum = 0;
+		this.min = Float.POSITIVE_INFINITY;
+		this.max = Float.NEGATIVE_INFINITY;
+		this.last = 0;
+	}
+
 	@Override
 	protected Optional<Float> getSlidingValue() {
-		OptionalDouble result = this.values.stream() //
-				.mapToDouble(Float::doubleValue) //
-				.average();
-		if (result.isPresent()) {
-			double value = result.getAsDouble();
-			if (value < Float.MIN_VALUE || value > Float.MAX_VALUE) {
-				return Optional.empty();
-			} else {
-				return Optional.of((float) value);
-			}
-		} else {
+		if (this.count == 0) {
 			return Optional.empty();
 		}
+		double value = this.sum / this.count;
+		if (value < Float.MIN_VALUE || value > Float.MAX_VALUE) {
+			return Optional.empty();
+		} else {
+			return Optional.of((float) value);
+		}
 	}
 
+	@Override
+	public Optional<Float> getMin() {
+		return this.count == 0 ? Optional.empty() : Optional.of(this.min);
+	}
+
+	@Override
+	public Optional<Float> getMax() {
+		return this.count == 0 ? Optional.empty() : Optional.of(this.max);
+	}
+
+	@Override
+	public Optional<Float> getLast() {
+		return this.count == 0 ? Optional.empty() : Optional.of(this.last);
+	}
 }
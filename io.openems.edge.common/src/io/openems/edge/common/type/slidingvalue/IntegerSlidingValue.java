@@ -1,31 +1,88 @@
 package io.openems.edge.common.type.slidingvalue;
 
 import java.util.Optional;
-import java.util.OptionalDouble;
 
 import io.openems.common.types.OpenemsType;
 
 public class IntegerSlidingValue extends AbstractNumberSlidingValue<Integer> {
 
+	private long sum = 0;
+	private int min = Integer.MAX_VALUE;
+	private int max = Integer.MIN_VALUE;
+	private int last = 0;
+
 	public IntegerSlidingValue() {
 		super(OpenemsType.INTEGER);
 	}
 
+	/**
+	 * Adds a value.
+	 * 
+	 * @param value the value
+	 */
+	public void addValue(int value) {
+		this.addValue(value, 1);
+	}
+
+	/**
+	 * Adds a value that was valid for several samples.
+	 * 
+	 * @param value the value
+	 * @param times the number of samples
+	 */
+	public void addValue(int value, int times) {
+		if (times <= 0) {
+			return;
+		}
+		this.sum += (long) value * times;
+		if (value < this.min) {
+			this.min = value;
+		}
+		if (value > this.max) {
+			this.max = value;
+		}
+		this.last = value;
+		this.count += times;
+	}
+
+	@Override
+	protected void add(Integer value, int times) {
+		this.addValue(value.intValue(), times);
+	}
+
+	@Override
+	protected void resetAggregate() {
+		this.sum = 0;
+		this.min = Integer.MAX_VALUE;
+		this.max = Integer.MIN_VALUE;
+		this.last = 0;
+	}
+
 	@Override
 	protected Optional<Integer> getSlidingValue() {
-		OptionalDouble result = this.values.stream() //
-				.mapToInt(Integer::intValue) //
-				.average();
-		if (result.isPresent()) {
-			double doubleValue = result.getAsDouble();
-			long value = Math.round(doubleValue);
-			if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
-				return Optional.empty();
-			} else {
-				return Optional.of((int) value);
-			}
-		} else {
+		if (this.count == 0) {
+			return Optional.empty();
+		}
+		long value = Math.round((double) this.sum / this.count);
+		if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
 			return Optional.empty();
+		} else {
+			return Optional.of((int) value);
 		}
 	}
+
+	@Override
+	public Optional<Integer> getMin() {
+		return this.count == 0 ? Optional.empty() : Optional.of(this.min);
+	}
+
+	@Override
+	public Optional<Integer> getMax() {
+		return this.count == 0 ? Optional.empty() : Optional.of(this.max);
+	}
+
+	@Override
+	public Optional<Integer> getLast() {
+		return this.count == 0 ? Optional.empty() : Optional.of(this.last);
+	}
 }
@@ -13,7 +13,12 @@ public class LatestSlidingValue extends SlidingValue<Object> {
 	}
 
 	@Override
-	public synchronized void addValue(Object value) {
+	public void addValue(Object value) {
+		this.value = value;
+	}
+
+	@Override
+	public void addValue(Object value, int times) {
 		this.value = value;
 	}
 
@@ -1,26 +1,83 @@
 package io.openems.edge.common.type.slidingvalue;
 
 import java.util.Optional;
-import java.util.OptionalDouble;
 
 import io.openems.common.types.OpenemsType;
 
 public class LongSlidingValue extends AbstractNumberSlidingValue<Long> {
 
+	private long sum = 0;
+	private long min = Long.MAX_VALUE;
+	private long max = Long.MIN_VALUE;
+	private long last = 0;
+
 	public LongSlidingValue() {
 		super(OpenemsType.LONG);
 	}
 
+	/**
+	 * Adds a value.
+	 * 
+	 * @param value the value
+	 */
+	public void addValue(long value) {
+		this.addValue(value, 1);
+	}
+
+	/**
+	 * Adds a value that was valid for several samples.
+	 * 
+	 * @param value the value
+	 * @param times the number of samples
+	 */
+	public void addValue(long value, int times) {
+		if (times <= 0) {
+			return;
+		}
+		this.sum += value * times;
+		if (value < this.min) {
+			this.min = value;
+		}
+		if (value > this.max) {
+			this.max = value;
+		}
+		this.last = value;
+		this.count += times;
+	}
+
+	@Override
+	protected void add(Long value, int times) {
+		this.addValue(value.longValue(), times);
+	}
+
+	@Override
+	protected void resetAggregate() {
+		this.sum = 0;
+		this.min = Long.MAX_VALUE;
+		this.max = Long.MIN_VALUE;
+		this.last = 0;
+	}
+
 	@Override
 	protected Optional<Long> getSlidingValue() {
-		OptionalDouble result = this.values.stream() //
-				.mapToLong(Long::longValue) //
-				.average();
-		if (result.isPresent()) {
-			double doubleValue = result.getAsDouble();
-			return Optional.of(Math.round(doubleValue));
-		} else {
+		if (this.count == 0) {
 			return Optional.empty();
 		}
+		return Optional.of(Math.round((double) this.sum / this.count));
+	}
+
+	@Override
+	public Optional<Long> getMin() {
+		return this.count == 0 ? Optional.empty() : Optional.of(this.min);
+	}
+
+	@Override
+	public Optional<Long> getMax() {
+		return this.count == 0 ? Optional.empty() : Optional.of(this.max);
+	}
+
+	@Override
+	public Optional<Long> getLast() {
+		return this.count == 0 ? Optional.empty() : Optional.of(this.last);
 	}
 }
@@ -1,31 +1,88 @@
 package io.openems.edge.common.type.slidingvalue;
 
 import java.util.Optional;
-import java.util.OptionalDouble;
 
 import io.openems.common.types.OpenemsType;
 
 public class ShortSlidingValue extends AbstractNumberSlidingValue<Short> {
 
+	private long sum = 0;
+	private short min = Short.MAX_VALUE;
+	private short max = Short.MIN_VALUE;
+	private short last = 0;
+
 	public ShortSlidingValue() {
 		super(OpenemsType.SHORT);
 	}
 
+	/**
+	 * Adds a value.
+	 * 
+	 * @param value the value
+	 */
+	public void addValue(short value) {
+		this.addValue(value, 1);
+	}
+
+	/**
+	 * Adds a value that was valid for several samples.
+	 * 
+	 * @param value the value
+	 * @param times the number of samples
+	 */
+	public void addValue(short value, int times) {
+		if (times <= 0) {
+			return;
+		}
+		this.sum += (long) value * times;
+		if (value < this.min) {
+			this.min = value;
+		}
+		if (value > this.max) {
+			this.max = value;
+		}
+		this.last = value;
+		this.count += times;
+	}
+
+	@Override
+	protected void add(Short value, int times) {
+		this.addValue(value.shortValue(), times);
+	}
+
+	@Override
+	protected void resetAggregate() {
+		this.sum = 0;
+		this.min = Short.MAX_VALUE;
+		this.max = Short.MIN_VALUE;
+		this.last = 0;
+	}
+
 	@Override
 	protected Optional<Short> getSlidingValue() {
-		OptionalDouble result = this.values.stream() //
-				.mapToInt(Short::intValue) //
-				.average();
-		if (result.isPresent()) {
-			double doubleValue = result.getAsDouble();
-			long value = Math.round(doubleValue);
-			if (value < Short.MIN_VALUE || value > Short.MAX_VALUE) {
-				return Optional.empty();
-			} else {
-				return Optional.of((short) value);
-			}
-		} else {
+		if (this.count == 0) {
+			return Optional.empty();
+		}
+		long value = Math.round((double) this.sum / this.count);
+		if (value < Short.MIN_VALUE || value > Short.MAX_VALUE) {
 			return Optional.empty();
+		} else {
+			return Optional.of((short) value);
 		}
 	}
+
+	@Override
+	public Optional<Short> getMin() {
+		return this.count == 0 ? Optional.empty() : Optional.of(this.min);
+	}
+
+	@Override
+	public Optional<Short> getMax() {
+		return this.count == 0 ? Optional.empty() : Optional.of(this.max);
+	}
+
+	@Override
+	public Optional<Short> getLast() {
+		return this.count == 0 ? Optional.empty() : Optional.of(this.last);
+	}
 }
@@ -37,6 +37,15 @@ public abstract class SlidingValue<T> {
 	 */
 	public abstract void addValue(T value);
 
+	/**
+	 * Adds a value that was valid for several samples, e.g. a Channel value that
+	 * was unchanged for several Cycles.
+	 * 
+	 * @param value the value
+	 * @param times the number of samples
+	 */
+	public abstract void addValue(T value, int times);
+
 	/**
 	 * Gets the sliding value, e.g. the average of all values.
 	 * 
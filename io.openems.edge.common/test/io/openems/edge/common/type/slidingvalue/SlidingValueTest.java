@@ -0,0 +1,66 @@
+package io.openems.edge.common.type.slidingvalue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import com.google.gson.JsonNull;
+import com.google.gson.JsonPrimitive;
+
+public class SlidingValueTest {
+
+	@Test
+	public void testInteger() {
+		IntegerSlidingValue v = new IntegerSlidingValue();
+		v.addValue(1);
+		v.addValue((Integer) null);
+		v.addValue(2);
+		v.addValue(Integer.valueOf(4));
+		assertEquals(3, v.getCount());
+		assertEquals(Integer.valueOf(1), v.getMin().get());
+		assertEquals(Integer.valueOf(4), v.getMax().get());
+		assertEquals(Integer.valueOf(4), v.getLast().get());
+		// average 2.33 is rounded
+		assertEquals(new JsonPrimitive(2), v.getValue());
+
+		// values were reset
+		assertEquals(0, v.getCount());
+		assertEquals(JsonNull.INSTANCE, v.getValue());
+		assertNull(v.getChangedValueOrNull());
+	}
+
+	@Test
+	public void testLong() {
+		LongSlidingValue v = new LongSlidingValue();
+		v.addValue(Long.MAX_VALUE / 2);
+		v.addValue(Long.MAX_VALUE / 2);
+		assertEquals(new JsonPrimitive(Math.round((double) (Long.MAX_VALUE / 2))), v.getValue());
+	}
+
+	@Test
+	public void testShort() {
+		ShortSlidingValue v = new ShortSlidingValue();
+		v.addValue(Short.MIN_VALUE);
+		v.addValue((short) -1);
+		assertEquals(new JsonPrimitive((short) -16384), v.getValue());
+	}
+
+	@Test
+	public void testDouble() {
+		DoubleSlidingValue v = new DoubleSlidingValue();
+		v.addValue(0.5);
+		v.addValue(1.0);
+		assertEquals(new JsonPrimitive(0.75), v.getValue());
+	}
+
+	@Test
+	public void testLatest() {
+		LatestSlidingValue v = new LatestSlidingValue(io.openems.common.types.OpenemsType.BOOLEAN);
+		v.addValue(true);
+		v.addValue(false);
+		// Booleans are sent as numbers
+		assertEquals(new JsonPrimitive(0), v.getValue());
+	}
+
+}
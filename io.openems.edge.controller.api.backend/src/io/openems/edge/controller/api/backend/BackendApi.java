@@ -1,12 +1,17 @@
 package io.openems.edge.controller.api.backend;
 
+import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.Proxy;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
+import org.java_websocket.drafts.Draft;
 import org.ops4j.pax.logging.spi.PaxAppender;
 import org.ops4j.pax.logging.spi.PaxLoggingEvent;
 import org.osgi.service.cm.ConfigurationEvent;
@@ -27,11 +32,14 @@ import org.osgi.service.metatype.annotations.Designate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.openems.common.channel.Unit;
 import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
 import io.openems.common.jsonrpc.notification.EdgeConfigNotification;
 import io.openems.common.jsonrpc.notification.SystemLogNotification;
 import io.openems.common.types.EdgeConfig;
+import io.openems.common.types.OpenemsType;
 import io.openems.common.websocket.AbstractWebsocketClient;
+import io.openems.common.websocket.PerMessageDeflateExtension;
 import io.openems.edge.common.channel.Doc;
 import io.openems.edge.common.component.AbstractOpenemsComponent;
 import io.openems.edge.common.component.ComponentManager;
@@ -55,6 +63,7 @@ public class BackendApi extends AbstractOpenemsComponent
 
 	protected static final int DEFAULT_NO_OF_CYCLES = 10;
 	protected static final String COMPONENT_NAME = "Controller.Api.Backend";
+	protected static final int OUTBOX_SEGMENT_SIZE = 1024 * 1024; // 1 MiB
 
 	protected final BackendWorker worker = new BackendWorker(this);
 
@@ -63,6 +72,8 @@ public class BackendApi extends AbstractOpenemsComponent
 	private final Logger log = LoggerFactory.getLogger(BackendApi.class);
 
 	protected WebsocketClient websocket = null;
+	protected Outbox outbox = null;
+	protected BinaryEncoder binaryEncoder = null;
 	protected int noOfCycles = DEFAULT_NO_OF_CYCLES; // default, is going to be overwritten by config
 	protected boolean debug = false;
 
@@ -76,7 +87,12 @@ public class BackendApi extends AbstractOpenemsComponent
 	protected ComponentManager componentManager;
 
 	public enum ChannelId implements io.openems.edge.common.channel.ChannelId {
-		;
+		COMPRESSION_RATIO(Doc.of(OpenemsType.INTEGER) //
+				.unit(Unit.PERCENT) //
+				.text("Compressed size of websocket messages in percent of the uncompressed size")), //
+		COMPRESSION_CPU_TIME(Doc.of(OpenemsType.LONG) //
+				.unit(Unit.MILLISECONDS) //
+				.text("Time spent for websocket compression since connect"));
 		private final Doc doc;
 
 		private ChannelId(Doc doc) {
@@ -127,12 +143,33 @@ public class BackendApi extends AbstractOpenemsComponent
 			proxy = new Proxy(config.proxyType(), new InetSocketAddress(config.proxyAddress(), config.proxyPort()));
 		}
 
+		// Open persistent Outbox
+		if (!config.outboxPath().trim().isEmpty()) {
+			try {
+				this.outbox = new Outbox(Paths.get(config.outboxPath().trim()), OUTBOX_SEGMENT_SIZE,
+						config.outboxMaxSize() * 1024L * 1024L, TimeUnit.HOURS.toMillis(config.outboxMaxAge()));
+			} catch (IOException e) {
+				log.error("Unable to open Outbox [" + config.outboxPath() + "]: " + e.getMessage());
+				this.outbox = null;
+			}
+		}
+
+		// Compact binary encoding of timestamped data
+		if (config.binaryEncoding()) {
+			this.binaryEncoder = new BinaryEncoder(this);
+		} else {
+			this.binaryEncoder = null;
+		}
+
 		// create http headers
 		Map<String, String> httpHeaders = new HashMap<>();
 		httpHeaders.put("apikey", config.apikey());
 
 		// Create Websocket instance
-		this.websocket = new WebsocketClient(this, COMPONENT_NAME + ":" + this.id(), uri, httpHeaders, proxy);
+		Draft draft = PerMessageDeflateExtension.createDraft(config.compressionLevel(),
+				config.compressionNoContextTakeover(), PerMessageDeflateExtension.DEFAULT_THRESHOLD);
+		this.websocket = new WebsocketClient(this, COMPONENT_NAME + ":" + this.id(), uri, draft, httpHeaders,
+				proxy);
 		this.websocket.start();
 
 		// Activate worker
@@ -143,6 +180,11 @@ public class BackendApi extends AbstractOpenemsComponent
 	protected void deactivate() {
 		super.deactivate();
 		this.worker.deactivate();
+		this.worker.unregisterChannels();
+		if (this.outbox != null) {
+			this.outbox.close();
+			this.outbox = null;
+		}
 		if (this.websocket != null) {
 			this.websocket.stop();
 		}
@@ -151,6 +193,16 @@ public class BackendApi extends AbstractOpenemsComponent
 	@Override
 	public void run() throws OpenemsNamedException {
 		this.apiWorker.run();
+
+		// update compression statistics
+		WebsocketClient ws = this.websocket;
+		if (ws != null) {
+			Optional<PerMessageDeflateExtension.Statistics> statistics = ws.getCompressionStatistics();
+			this.channel(ChannelId.COMPRESSION_RATIO)
+					.setNextValue(statistics.map(s -> (int) Math.round(s.getRatio() * 100)).orElse(null));
+			this.channel(ChannelId.COMPRESSION_CPU_TIME)
+					.setNextValue(statistics.map(s -> s.getCpuNanos() / 1_000_000).orElse(null));
+		}
 	}
 
 	@Override
@@ -193,7 +245,7 @@ public class BackendApi extends AbstractOpenemsComponent
 	public void handleEvent(Event event) {
 		switch (event.getTopic()) {
 		case EdgeEventConstants.TOPIC_CYCLE_AFTER_PROCESS_IMAGE:
-			this.worker.triggerNextRun();
+			this.worker.onAfterProcessImage();
 			break;
 		}
 	}
@@ -206,6 +258,11 @@ public class BackendApi extends AbstractOpenemsComponent
 		if (ws == null) {
 			return;
 		}
+		BinaryEncoder binaryEncoder = this.binaryEncoder;
+		if (binaryEncoder != null) {
+			// renegotiate Channel dictionary
+			binaryEncoder.reset();
+		}
 		ws.sendMessage(message);
 	}
 }
@@ -1,55 +1,98 @@
 package io.openems.edge.controller.api.backend;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import com.google.common.collect.EvictingQueue;
 import com.google.gson.JsonElement;
 
 import io.openems.common.channel.AccessMode;
+import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
 import io.openems.common.jsonrpc.base.JsonrpcMessage;
+import io.openems.common.jsonrpc.base.JsonrpcResponseSuccess;
 import io.openems.common.jsonrpc.notification.TimestampedDataNotification;
 import io.openems.common.types.ChannelAddress;
-import io.openems.common.types.OpenemsType;
 import io.openems.common.worker.AbstractCycleWorker;
-import io.openems.edge.common.channel.EnumReadChannel;
-import io.openems.edge.common.type.slidingvalue.DoubleSlidingValue;
-import io.openems.edge.common.type.slidingvalue.FloatSlidingValue;
-import io.openems.edge.common.type.slidingvalue.IntegerSlidingValue;
-import io.openems.edge.common.type.slidingvalue.LatestSlidingValue;
-import io.openems.edge.common.type.slidingvalue.LongSlidingValue;
-import io.openems.edge.common.type.slidingvalue.ShortSlidingValue;
-import io.openems.edge.common.type.slidingvalue.SlidingValue;
-
+import io.openems.edge.common.channel.Channel;
+import io.openems.edge.common.component.OpenemsComponent;
+
+/**
+ * Collects Channel values and sends them to the Backend.
+ *
+ * <p>
+ * Channel values are captured via {@link ChannelSlot}s that are registered once
+ * per Channel and updated on Channel value changes. Every 'noOfCycles' the
+ * values are collected in the Cycle thread ({@link #onAfterProcessImage()})
+ * and the resulting message is handed over to the worker thread, which sends
+ * it via websocket.
+ */
 class BackendWorker extends AbstractCycleWorker {
 
 	private static final int MAX_CACHED_MESSAGES = 1000;
+	// Limits for one ResendDataRequest from the Outbox
+	private static final int MAX_RESEND_RECORDS = 360;
+	private static final int MAX_RESEND_BYTES = 4 * 1024 * 1024; // 4 MiB
+	private static final long RESEND_TIMEOUT = 60_000; // [ms]
 
-	// private final Logger log = LoggerFactory.getLogger(BackendWorker.class);
+	private final Logger log = LoggerFactory.getLogger(BackendWorker.class);
 
 	private final BackendApi parent;
 
+	/*
+	 * Fields that are only accessed from the Cycle thread
+	 */
+
+	// The registered ChannelSlots per Component
+	private final Map<OpenemsComponent, ChannelSlot[]> registeredComponents = new IdentityHashMap<>();
+
+	// All registered ChannelSlots
+	private ChannelSlot[] slots = new ChannelSlot[0];
+
+	// Counts the Cycles since activation
+	private int cycle = 0;
+
 	// Counts the number of Cycles till data is sent to Backend.
 	private int cycleCount = 0;
 
-	// Holds an current NoOfCycles
-	private Optional<Integer> increasedNoOfCycles = Optional.empty();
+	/*
+	 * Fields that are shared between Cycle thread and worker thread
+	 */
 
-	// Current values
-	private final ConcurrentHashMap<ChannelAddress, SlidingValue<?>> data = new ConcurrentHashMap<>();
+	// Holds an current NoOfCycles
+	private volatile Optional<Integer> increasedNoOfCycles = Optional.empty();
 
-	// Unsent queue (FIFO)
-	private EvictingQueue<JsonrpcMessage> unsent = EvictingQueue.create(MAX_CACHED_MESSAGES);
+	// Messages that are ready to be sent
+	private final Queue<TimestampedDataNotification> pending = new ConcurrentLinkedQueue<>();
 
 	// By default the worker reads and sends only changed values. If this variable
 	// is set to 'false', it sends all values once.
 	private final AtomicBoolean sendChangedValuesOnly = new AtomicBoolean(false);
 
+	/*
+	 * Fields that are only accessed from the worker thread
+	 */
+
+	// Unsent queue (FIFO); used if no Outbox is available
+	private EvictingQueue<JsonrpcMessage> unsent = EvictingQueue.create(MAX_CACHED_MESSAGES);
+
+	// The pending ResendDataRequest from the Outbox
+	private volatile CompletableFuture<JsonrpcResponseSuccess> resendFuture = null;
+	private long resendTimestamp = 0;
+
 	BackendWorker(BackendApi parent) {
 		this.parent = parent;
 	}
@@ -64,58 +107,78 @@ class BackendWorker extends AbstractCycleWorker {
 		super.deactivate();
 	}
 
+	/**
+	 * Removes all Channel callbacks. Call this from the Cycle thread or after the
+	 * Cycle stopped calling {@link #onAfterProcessImage()}.
+	 */
+	public synchronized void unregisterChannels() {
+		for (ChannelSlot slot : this.slots) {
+			slot.unregister();
+		}
+		this.registeredComponents.clear();
+		this.slots = new ChannelSlot[0];
+	}
+
 	/**
 	 * Triggers sending all Channel values once. After executing once, this is reset
 	 * automatically to default 'send changed values only' mode.
 	 */
 	public void sendValuesOfAllChannelsOnce() {
 		this.sendChangedValuesOnly.set(false);
-		this.triggerNextRun();
 	}
 
-	@Override
-	protected void forever() {
-		// Update the data from ChannelValues
-		this.updateData();
+	/**
+	 * Gets the current Cycle. Called by {@link ChannelSlot}s.
+	 *
+	 * @return the current Cycle
+	 */
+	int getCycle() {
+		return this.cycle;
+	}
+
+	/**
+	 * Called from the Cycle thread after the process image was switched.
+	 */
+	public synchronized void onAfterProcessImage() {
+		if (this.cycle == 0) {
+			this.updateRegistrations();
+		}
 
 		// Increase CycleCount
-		if (++this.cycleCount < this.parent.noOfCycles) {
-			// Stop here if not reached CycleCount
-			return;
+		if (++this.cycleCount >= this.increasedNoOfCycles.orElse(this.parent.noOfCycles)) {
+			// Reached CycleCount -> Collect data
+			this.cycleCount = 0;
+			this.collectData();
+			this.updateRegistrations();
 		}
 
-		/*
-		 * Reached CycleCount -> Send data
-		 */
-		// Reset CycleCount
-		this.cycleCount = 0;
+		this.cycle++;
+	}
 
+	/**
+	 * Collects the values of all registered Channels and queues them for sending.
+	 */
+	private void collectData() {
 		// resets the mode to 'send changed values only'
 		boolean sendChangedValuesOnly = this.sendChangedValuesOnly.getAndSet(true);
 
 		// Prepare message values
 		Map<ChannelAddress, JsonElement> sendValues = new HashMap<>();
 
-		if (sendChangedValuesOnly) {
-			// Only Changed Values
-			for (Entry<ChannelAddress, SlidingValue<?>> entry : this.data.entrySet()) {
-				JsonElement changedValueOrNull = entry.getValue().getChangedValueOrNull();
+		for (ChannelSlot slot : this.slots) {
+			slot.flush(this.cycle);
+			if (sendChangedValuesOnly) {
+				// Only Changed Values
+				JsonElement changedValueOrNull = slot.getChangedValueOrNull();
 				if (changedValueOrNull != null) {
-					sendValues.put(entry.getKey(), changedValueOrNull);
+					sendValues.put(slot.getAddress(), changedValueOrNull);
 				}
-			}
-		} else {
-			// All Values
-			for (Entry<ChannelAddress, SlidingValue<?>> entry : this.data.entrySet()) {
-				sendValues.put(entry.getKey(), entry.getValue().getValue());
+			} else {
+				// All Values
+				sendValues.put(slot.getAddress(), slot.getValue());
 			}
 		}
 
-		boolean canSendFromCache;
-
-		/*
-		 * send, if list is not empty
-		 */
 		if (!sendValues.isEmpty()) {
 			// Get timestamp and round to Cycle-Time
 			int cycleTime = this.getCycleTime();
@@ -124,22 +187,94 @@ class BackendWorker extends AbstractCycleWorker {
 			// create JSON-RPC notification
 			TimestampedDataNotification message = new TimestampedDataNotification();
 			message.add(timestamp, sendValues);
+			this.pending.add(message);
+		}
+		this.triggerNextRun();
+	}
 
-			// reset cycleTime to default
-			resetNoOfCycles();
+	/**
+	 * Registers {@link ChannelSlot}s for new Components and removes the ones of
+	 * disabled or removed Components.
+	 */
+	private void updateRegistrations() {
+		List<OpenemsComponent> components = new ArrayList<>();
+		for (OpenemsComponent component : this.parent.componentManager.getComponents()) {
+			if (component.isEnabled()) {
+				components.add(component);
+			}
+		}
 
-			boolean wasSent = this.parent.websocket.sendMessage(message);
-			if (!wasSent) {
+		boolean changed = false;
+		// Remove old Components
+		Map<OpenemsComponent, Boolean> current = new IdentityHashMap<>();
+		for (OpenemsComponent component : components) {
+			current.put(component, Boolean.TRUE);
+		}
+		for (Iterator<Entry<OpenemsComponent, ChannelSlot[]>> iterator = this.registeredComponents.entrySet()
+				.iterator(); iterator.hasNext();) {
+			Entry<OpenemsComponent, ChannelSlot[]> entry = iterator.next();
+			if (!current.containsKey(entry.getKey())) {
+				for (ChannelSlot slot : entry.getValue()) {
+					slot.unregister();
+				}
+				iterator.remove();
+				changed = true;
+			}
+		}
+
+		// Add new Components
+		for (OpenemsComponent component : components) {
+			if (this.registeredComponents.containsKey(component)) {
+				continue;
+			}
+			List<ChannelSlot> componentSlots = new ArrayList<>();
+			for (Channel<?> channel : component.channels()) {
+				// Ignore WRITE_ONLY Channels
+				AccessMode accessMode = channel.channelDoc().getAccessMode();
+				if (accessMode == AccessMode.READ_ONLY || accessMode == AccessMode.READ_WRITE) {
+					componentSlots.add(new ChannelSlot(this, channel, this.cycle + 1));
+				}
+			}
+			this.registeredComponents.put(component, componentSlots.toArray(new ChannelSlot[componentSlots.size()]));
+			changed = true;
+		}
+
+		if (changed) {
+			List<ChannelSlot> slots = new ArrayList<>();
+			for (ChannelSlot[] componentSlots : this.registeredComponents.values()) {
+				for (ChannelSlot slot : componentSlots) {
+					slots.add(slot);
+				}
+			}
+			this.slots = slots.toArray(new ChannelSlot[slots.size()]);
+		}
+	}
+
+	@Override
+	protected void forever() {
+		boolean canSendFromCache = true;
+		Outbox outbox = this.parent.outbox;
+
+		/*
+		 * send pending messages
+		 */
+		TimestampedDataNotification message;
+		while ((message = this.pending.poll()) != null) {
+			boolean wasSent = this.send(message);
+			if (wasSent) {
+				// reset cycleTime to default
+				resetNoOfCycles();
+
+			} else {
 				// increase cycleTime
 				increaseNoOfCycles();
 
 				// cache data for later
-				this.unsent.add(message);
+				if (outbox == null || !this.appendToOutbox(outbox, message)) {
+					this.unsent.add(message);
+				}
 			}
-
 			canSendFromCache = wasSent;
-		} else {
-			canSendFromCache = true;
 		}
 
 		// send from cache
@@ -153,82 +288,98 @@ class BackendWorker extends AbstractCycleWorker {
 				}
 			}
 		}
+
+		// resend from Outbox
+		if (canSendFromCache && outbox != null) {
+			this.resendFromOutbox(outbox);
+		}
+	}
+
+	/**
+	 * Sends a message; as binary message if possible, otherwise as JSON.
+	 *
+	 * @param message the TimestampedDataNotification
+	 * @return true if sending was successful
+	 */
+	private boolean send(TimestampedDataNotification message) {
+		BinaryEncoder binaryEncoder = this.parent.binaryEncoder;
+		if (binaryEncoder != null) {
+			byte[] bytes = binaryEncoder.encodeOrNull(message);
+			if (bytes != null) {
+				return this.parent.websocket.sendBinaryMessage(bytes);
+			}
+		}
+		return this.parent.websocket.sendMessage(message);
+	}
+
+	/**
+	 * Stores the data of a message in the persistent Outbox.
+	 *
+	 * @param outbox  the Outbox
+	 * @param message the TimestampedDataNotification
+	 * @return true on success
+	 */
+	private boolean appendToOutbox(Outbox outbox, TimestampedDataNotification message) {
+		try {
+			for (Entry<Long, Map<ChannelAddress, JsonElement>> row : message.getData().rowMap().entrySet()) {
+				outbox.append(row.getKey(), row.getValue());
+			}
+			outbox.flush();
+			return true;
+		} catch (IOException e) {
+			this.parent.logWarn(this.log, "Unable to write to Outbox: " + e.getMessage());
+			return false;
+		}
 	}
 
 	/**
-	 * Cycles through all Channels and updates the value.
+	 * Resends data from the persistent Outbox. Only one ResendDataRequest is on its
+	 * way at any time; the next one is sent once the Backend confirmed the
+	 * previous one. This limits the load on Backend after a reconnect.
+	 *
+	 * @param outbox the Outbox
 	 */
-	private void updateData() {
-		this.parent.componentManager.getComponents().parallelStream() //
-				.filter(c -> c.isEnabled()) //
-				.flatMap(component -> component.channels().parallelStream()) //
-				.filter(channel -> // Ignore WRITE_ONLY Channels
-				channel.channelDoc().getAccessMode() == AccessMode.READ_ONLY
-						|| channel.channelDoc().getAccessMode() == AccessMode.READ_WRITE)
-				.forEach(channel -> {
-					ChannelAddress address = channel.address();
-					Object value = channel.value().get();
-
-					// Get existing SlidingValue object or add new one
-					SlidingValue<?> slidingValue = this.data.get(address);
-
-					if (slidingValue == null) {
-						// Create new SlidingValue object
-						if (channel instanceof EnumReadChannel) {
-							slidingValue = new LatestSlidingValue(OpenemsType.INTEGER);
-						} else {
-							switch (channel.getType()) {
-							case INTEGER:
-								slidingValue = new IntegerSlidingValue();
-								break;
-							case DOUBLE:
-								slidingValue = new DoubleSlidingValue();
-								break;
-							case FLOAT:
-								slidingValue = new FloatSlidingValue();
-								break;
-							case LONG:
-								slidingValue = new LongSlidingValue();
-								break;
-							case SHORT:
-								slidingValue = new ShortSlidingValue();
-								break;
-							case BOOLEAN:
-							case STRING:
-								slidingValue = new LatestSlidingValue(channel.getType());
-								break;
-							}
-						}
-						this.data.put(address, slidingValue);
-					}
-
-					// Add Value to SlidingValue object
-					if (slidingValue instanceof LatestSlidingValue) {
-						((LatestSlidingValue) slidingValue).addValue(value);
-					} else {
-						switch (channel.getType()) {
-						case INTEGER:
-							((IntegerSlidingValue) slidingValue).addValue((Integer) value);
-							break;
-						case DOUBLE:
-							((DoubleSlidingValue) slidingValue).addValue((Double) value);
-							break;
-						case FLOAT:
-							((FloatSlidingValue) slidingValue).addValue((Float) value);
-							break;
-						case LONG:
-							((LongSlidingValue) slidingValue).addValue((Long) value);
-							break;
-						case SHORT:
-							((ShortSlidingValue) slidingValue).addValue((Short) value);
-							break;
-						case BOOLEAN:
-						case STRING:
-							// already covered as they are of type LatestSlidingValue
-							break;
-						}
-					}
-				});
+	private void resendFromOutbox(Outbox outbox) {
+		CompletableFuture<JsonrpcResponseSuccess> future = this.resendFuture;
+		if (future != null) {
+			if (!future.isDone() && System.currentTimeMillis() - this.resendTimestamp < RESEND_TIMEOUT) {
+				// wait for the response
+				return;
+			}
+			if (!future.isDone()) {
+				// timeout -> read the same data again
+				future.cancel(false);
+				outbox.rewind();
+			}
+			this.resendFuture = null;
+		}
+
+		if (outbox.isEmpty()) {
+			return;
+		}
+		Outbox.Batch batch = outbox.read(MAX_RESEND_RECORDS, MAX_RESEND_BYTES);
+		if (batch.getRecords() == 0) {
+			return;
+		}
+		try {
+			future = this.parent.websocket.sendRequest(batch.getRequest());
+		} catch (OpenemsNamedException e) {
+			this.parent.logWarn(this.log, "Unable to resend data from Outbox: " + e.getMessage());
+			outbox.rewind();
+			return;
+		}
+		this.resendFuture = future;
+		this.resendTimestamp = System.currentTimeMillis();
+		final CompletableFuture<JsonrpcResponseSuccess> thisFuture = future;
+		future.whenComplete((response, ex) -> {
+			if (ex == null) {
+				outbox.commit(batch);
+				this.triggerNextRun();
+			} else if (this.resendFuture == thisFuture) {
+				this.parent.logWarn(this.log, "Backend did not confirm data from Outbox: " + ex.getMessage());
+				outbox.rewind();
+			}
+		});
 	}
 
 	/**
@@ -256,4 +407,4 @@ class BackendWorker extends AbstractCycleWorker {
 		this.increasedNoOfCycles = Optional.empty();
 	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,119 @@
+package io.openems.edge.controller.api.backend;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
+import io.openems.common.exceptions.OpenemsException;
+import io.openems.common.jsonrpc.base.JsonrpcResponseSuccess;
+import io.openems.common.jsonrpc.notification.TimestampedDataNotification;
+import io.openems.common.jsonrpc.request.SetChannelDictionaryRequest;
+import io.openems.common.types.ChannelAddress;
+import io.openems.common.websocket.BinaryTimestampedData;
+import io.openems.common.websocket.ChannelDictionary;
+
+/**
+ * Encodes {@link TimestampedDataNotification}s as compact binary messages.
+ *
+ * <p>
+ * Channels are added to the {@link ChannelDictionary} of the connection via
+ * {@link SetChannelDictionaryRequest}. Until Backend confirmed all Channels of
+ * a message, the message is sent as JSON. If Backend does not support the
+ * request, JSON is used till the next reconnect.
+ */
+class BinaryEncoder {
+
+	private final Logger log = LoggerFactory.getLogger(BinaryEncoder.class);
+
+	private final BackendApi parent;
+	private final ChannelDictionary dictionary = new ChannelDictionary();
+
+	private boolean isSupported = true;
+	private int generation = 0;
+	private CompletableFuture<JsonrpcResponseSuccess> pendingRequest = null;
+
+	BinaryEncoder(BackendApi parent) {
+		this.parent = parent;
+	}
+
+	/**
+	 * Resets the dictionary, e.g. after reconnect or if the EdgeConfig changed.
+	 */
+	synchronized void reset() {
+		this.dictionary.clear();
+		this.isSupported = true;
+		this.generation++;
+		this.pendingRequest = null;
+	}
+
+	/**
+	 * Encodes the message. If Channels are missing in the dictionary, they are
+	 * requested to be added.
+	 *
+	 * @param message the TimestampedDataNotification
+	 * @return the binary message; or null if the message has to be sent as JSON
+	 */
+	synchronized byte[] encodeOrNull(TimestampedDataNotification message) {
+		if (!this.isSupported) {
+			return null;
+		}
+		List<ChannelAddress> missing = new ArrayList<>();
+		for (ChannelAddress channel : message.getData().columnKeySet()) {
+			if (this.dictionary.getIndex(channel) == null) {
+				missing.add(channel);
+			}
+		}
+		if (!missing.isEmpty()) {
+			this.requestChannels(missing);
+			return null;
+		}
+		try {
+			return BinaryTimestampedData.encode(message, this.dictionary);
+		} catch (OpenemsException e) {
+			this.parent.logWarn(this.log, "Unable to encode binary message: " + e.getMessage());
+			return null;
+		}
+	}
+
+	private void requestChannels(List<ChannelAddress> channels) {
+		if (this.pendingRequest != null && !this.pendingRequest.isDone()) {
+			// wait for the previous request
+			return;
+		}
+		Collections.sort(channels);
+		final int offset = this.dictionary.size();
+		final int generation = this.generation;
+		SetChannelDictionaryRequest request = new SetChannelDictionaryRequest(offset, channels);
+		try {
+			this.pendingRequest = this.parent.websocket.sendRequest(request);
+		} catch (OpenemsNamedException e) {
+			this.parent.logWarn(this.log, "Unable to send Channel dictionary: " + e.getMessage());
+			return;
+		}
+		this.pendingRequest.whenComplete((response, ex) -> {
+			synchronized (this) {
+				if (generation != this.generation) {
+					// connection was reset in the meantime
+					return;
+				}
+				if (ex != null) {
+					this.parent.logWarn(this.log,
+							"Backend does not support binary data. Falling back to JSON: " + ex.getMessage());
+					this.isSupported = false;
+					return;
+				}
+				try {
+					this.dictionary.append(offset, channels);
+				} catch (OpenemsException e) {
+					this.parent.logWarn(this.log, e.getMessage());
+					this.isSupported = false;
+				}
+			}
+		});
+	}
+}
@@ -0,0 +1,126 @@
+package io.openems.edge.controller.api.backend;
+
+import java.util.function.Consumer;
+
+import com.google.gson.JsonElement;
+
+import io.openems.common.types.ChannelAddress;
+import io.openems.common.types.OpenemsType;
+import io.openems.edge.common.channel.Channel;
+import io.openems.edge.common.channel.EnumReadChannel;
+import io.openems.edge.common.channel.value.Value;
+import io.openems.edge.common.type.slidingvalue.DoubleSlidingValue;
+import io.openems.edge.common.type.slidingvalue.FloatSlidingValue;
+import io.openems.edge.common.type.slidingvalue.IntegerSlidingValue;
+import io.openems.edge.common.type.slidingvalue.LatestSlidingValue;
+import io.openems.edge.common.type.slidingvalue.LongSlidingValue;
+import io.openems.edge.common.type.slidingvalue.ShortSlidingValue;
+import io.openems.edge.common.type.slidingvalue.SlidingValue;
+
+/**
+ * Captures the values of one Channel for the {@link BackendWorker}.
+ *
+ * <p>
+ * The slot is registered once as onChange-callback at the Channel. A value is
+ * held until the Channel value changes; it is then added to the
+ * {@link SlidingValue} once for every Cycle it was active. This way unchanged
+ * Channels cost nothing per Cycle.
+ *
+ * <p>
+ * All methods are called from the Cycle thread (onChange-callbacks are called
+ * in nextProcessImage(); {@link #flush(int)} is called on the
+ * AFTER_PROCESS_IMAGE event), so no locking is required.
+ */
+class ChannelSlot implements Consumer<Value<Object>> {
+
+	private final Channel<Object> channel;
+	private final ChannelAddress address;
+	private final SlidingValue<Object> slidingValue;
+	private final BackendWorker worker;
+
+	private Object heldValue;
+	private int heldSinceCycle;
+
+	@SuppressWarnings("unchecked")
+	ChannelSlot(BackendWorker worker, Channel<?> channel, int cycle) {
+		this.worker = worker;
+		this.channel = (Channel<Object>) channel;
+		this.address = channel.address();
+		this.slidingValue = (SlidingValue<Object>) createSlidingValue(channel);
+		this.heldValue = channel.value().get();
+		this.heldSinceCycle = cycle;
+		this.channel.onChange(this);
+	}
+
+	private static SlidingValue<?> createSlidingValue(Channel<?> channel) {
+		if (channel instanceof EnumReadChannel) {
+			return new LatestSlidingValue(OpenemsType.INTEGER);
+		}
+		switch (channel.getType()) {
+		case INTEGER:
+			return new IntegerSlidingValue();
+		case DOUBLE:
+			return new DoubleSlidingValue();
+		case FLOAT:
+			return new FloatSlidingValue();
+		case LONG:
+			return new LongSlidingValue();
+		case SHORT:
+			return new ShortSlidingValue();
+		case BOOLEAN:
+		case STRING:
+		default:
+			return new LatestSlidingValue(channel.getType());
+		}
+	}
+
+	@Override
+	public void accept(Value<Object> value) {
+		int cycle = this.worker.getCycle();
+		this.slidingValue.addValue(this.heldValue, cycle - this.heldSinceCycle);
+		this.heldValue = value.get();
+		this.heldSinceCycle = cycle;
+	}
+
+	/**
+	 * Adds the held value for all Cycles up to and including the given Cycle.
+	 *
+	 * @param cycle the current Cycle
+	 */
+	void flush(int cycle) {
+		this.slidingValue.addValue(this.heldValue, cycle + 1 - this.heldSinceCycle);
+		this.heldSinceCycle = cycle + 1;
+	}
+
+	/**
+	 * Removes the onChange-callback from the Channel.
+	 */
+	void unregister() {
+		this.channel.removeOnChangeCallback(this);
+	}
+
+	ChannelAddress getAddress() {
+		return this.address;
+	}
+
+	/**
+	 * Gets the value as a JsonElement if it changed. Resets the values.
+	 *
+	 * @return the value; or null if it had not changed
+	 * @see SlidingValue#getChangedValueOrNull()
+	 */
+	JsonElement getChangedValueOrNull() {
+		return this.slidingValue.getChangedValueOrNull();
+	}
+
+	/**
+	 * Gets the value as a JsonElement. Resets the values.
+	 *
+	 * @return the value; null if is null
+	 * @see SlidingValue#getValue()
+	 */
+	JsonElement getValue() {
+		return this.slidingValue.getValue();
+	}
+
+}
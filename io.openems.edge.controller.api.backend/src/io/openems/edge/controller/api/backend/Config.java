@@ -41,6 +41,24 @@ import org.osgi.service.metatype.annotations.ObjectClassDefinition;
 	@AttributeDefinition(name = "Api-Timeout", description = "Sets the timeout in seconds for updates on Channels set by this Api.")
 	int apiTimeout() default 60;
 
+	@AttributeDefinition(name = "Binary Encoding", description = "Send data as compact binary messages. Requires a Backend that supports it; falls back to JSON otherwise.")
+	boolean binaryEncoding() default false;
+
+	@AttributeDefinition(name = "Compression Level", description = "Level of 'permessage-deflate' compression (0-9). -1 disables compression.")
+	int compressionLevel() default -1;
+
+	@AttributeDefinition(name = "Compression without Context Takeover", description = "Reset the compression context after every message. Saves memory at the cost of compression ratio.")
+	boolean compressionNoContextTakeover() default false;
+
+	@AttributeDefinition(name = "Outbox Path", description = "Directory of the persistent outbox for data that could not be sent to OpenEMS Backend. Empty: keep unsent data in memory only.")
+	String outboxPath() default "";
+
+	@AttributeDefinition(name = "Outbox Max Size", description = "Maximum size of the outbox in MB. The oldest data is dropped if exceeded.")
+	int outboxMaxSize() default 64;
+
+	@AttributeDefinition(name = "Outbox Max Age", description = "Maximum age of data in the outbox in hours. Older data is dropped.")
+	int outboxMaxAge() default 168;
+
 	@AttributeDefinition(name = "Enable Debug mode")
 	boolean debug() default false;
 
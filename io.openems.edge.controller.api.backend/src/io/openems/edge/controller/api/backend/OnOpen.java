@@ -22,6 +22,12 @@ public class OnOpen implements io.openems.common.websocket.OnOpen {
 	public void run(WebSocket ws, JsonObject handshake) {
 		this.parent.logInfo(this.log, "Connected to OpenEMS Backend");
 
+		// Reset Channel dictionary of the connection
+		BinaryEncoder binaryEncoder = this.parent.binaryEncoder;
+		if (binaryEncoder != null) {
+			binaryEncoder.reset();
+		}
+
 		// Immediately send Config
 		EdgeConfig config = this.parent.componentManager.getEdgeConfig();
 		EdgeConfigNotification message = new EdgeConfigNotification(config);
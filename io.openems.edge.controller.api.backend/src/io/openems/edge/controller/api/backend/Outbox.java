@@ -0,0 +1,451 @@
+package io.openems.edge.controller.api.backend;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
+import io.openems.common.jsonrpc.request.ResendDataRequest;
+import io.openems.common.types.ChannelAddress;
+import io.openems.common.utils.JsonUtils;
+
+/**
+ * A durable outbox for data that could not be sent to Backend.
+ *
+ * <p>
+ * The outbox is a log of memory-mapped segment files in one directory. Every
+ * record holds the Channel values of one timestamp:
+ *
+ * <pre>
+ * [int length][int crc32][long timestamp][length bytes UTF-8 JSON object]
+ * </pre>
+ *
+ * <p>
+ * Appended records are forced to disk on {@link #flush()}. The memory-mapped
+ * pages of a crashed process can be written partially and in any order, so on
+ * the next start the segment is truncated at the first record whose length or
+ * checksum is invalid. The position up to which the
+ * Backend confirmed the data is stored in a separate 'ack' file. Segments that
+ * were completely confirmed are deleted; if the outbox exceeds its size or age
+ * limit, the oldest segments are dropped.
+ *
+ * <p>
+ * All methods are synchronized; the outbox is written by the worker thread and
+ * confirmed by the websocket thread.
+ */
+class Outbox {
+
+	/**
+	 * A batch of records that was read from the outbox.
+	 */
+	static class Batch {
+		private final ResendDataRequest request = new ResendDataRequest();
+		private int records = 0;
+		private long endSegment;
+		private int endOffset;
+
+		ResendDataRequest getRequest() {
+			return this.request;
+		}
+
+		int getRecords() {
+			return this.records;
+		}
+	}
+
+	private static class Segment {
+		private final long id;
+		private final Path path;
+		private final FileChannel channel;
+		private final MappedByteBuffer buffer;
+		private int writePosition = 0;
+		private long lastTimestamp = Long.MIN_VALUE;
+		private boolean isDirty = false;
+
+		private Segment(long id, Path path, FileChannel channel, MappedByteBuffer buffer) {
+			this.id = id;
+			this.path = path;
+			this.channel = channel;
+			this.buffer = buffer;
+		}
+
+		private int size() {
+			return this.buffer.capacity();
+		}
+	}
+
+	private static final int HEADER_LENGTH = 4 + 4 + 8;
+	private static final int ACK_LENGTH = 8 + 4;
+	private static final String SEGMENT_SUFFIX = ".seg";
+	private static final String ACK_FILE = "ack";
+
+	private final Logger log = LoggerFactory.getLogger(Outbox.class);
+
+	private final Path directory;
+	private final int segmentSize;
+	private final long maxSize;
+	private final long maxAge;
+	private final TreeMap<Long, Segment> segments = new TreeMap<>();
+
+	private long totalSize = 0;
+	private long ackSegment = 0;
+	private int ackOffset = 0;
+	private long readSegment = 0;
+	private int readOffset = 0;
+
+	/**
+	 * Opens or creates an outbox.
+	 *
+	 * @param directory   the directory of the segment files
+	 * @param segmentSize the size of one segment file in bytes
+	 * @param maxSize     the maximum total size in bytes
+	 * @param maxAge      the maximum age of data in milliseconds
+	 * @throws IOException on error
+	 */
+	Outbox(Path directory, int segmentSize, long maxSize, long maxAge) throws IOException {
+		this.directory = directory;
+		this.segmentSize = segmentSize;
+		this.maxSize = maxSize;
+		this.maxAge = maxAge;
+
+		Files.createDirectories(directory);
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+			for (Path path : stream) {
+				String name = path.getFileName().toString();
+				long id;
+				try {
+					id = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+				} catch (NumberFormatException e) {
+					continue;
+				}
+				this.segments.put(id, this.openSegment(id, path, 0));
+			}
+		}
+
+		Path ackFile = directory.resolve(ACK_FILE);
+		if (Files.exists(ackFile)) {
+			ByteBuffer ack = ByteBuffer.wrap(Files.readAllBytes(ackFile));
+			if (ack.remaining() >= ACK_LENGTH) {
+				this.ackSegment = ack.getLong();
+				this.ackOffset = ack.getInt();
+			}
+		}
+		this.deleteAcknowledgedSegments();
+		this.rewind();
+	}
+
+	/**
+	 * Appends the Channel values of one timestamp.
+	 *
+	 * @param timestamp the timestamp in milliseconds
+	 * @param values    the Channel values
+	 * @throws IOException on error
+	 */
+	synchronized void append(long timestamp, Map<ChannelAddress, JsonElement> values) throws IOException {
+		JsonObject j = new JsonObject();
+		for (Entry<ChannelAddress, JsonElement> entry : values.entrySet()) {
+			j.add(entry.getKey().toString(), entry.getValue());
+		}
+		byte[] payload = j.toString().getBytes(StandardCharsets.UTF_8);
+		int length = HEADER_LENGTH + payload.length;
+
+		Segment segment = this.segments.isEmpty() ? null : this.segments.lastEntry().getValue();
+		if (segment == null || segment.size() - segment.writePosition < length) {
+			long id = segment == null ? this.ackSegment + (this.ackOffset > 0 ? 1 : 0) : segment.id + 1;
+			segment = this.openSegment(id, this.segmentPath(id), Math.max(this.segmentSize, length));
+			this.segments.put(id, segment);
+		}
+
+		ByteBuffer buffer = segment.buffer.duplicate();
+		buffer.position(segment.writePosition + 4);
+		buffer.putInt(checksum(timestamp, payload));
+		buffer.putLong(timestamp);
+		buffer.put(payload);
+		// write length last to mark the record as complete
+		segment.buffer.putInt(segment.writePosition, payload.length);
+		segment.writePosition += length;
+		segment.lastTimestamp = timestamp;
+		segment.isDirty = true;
+
+		this.applyLimits(timestamp);
+	}
+
+	/**
+	 * Reads the next records after the last read position. Call
+	 * {@link #commit(Batch)} once the Backend confirmed them or {@link #rewind()}
+	 * to read them again.
+	 *
+	 * @param maxRecords the maximum number of records
+	 * @param maxBytes   the maximum payload size
+	 * @return the batch; possibly without records
+	 */
+	synchronized Batch read(int maxRecords, int maxBytes) {
+		Batch batch = new Batch();
+		long segmentId = this.readSegment;
+		int offset = this.readOffset;
+		int bytes = 0;
+		while (batch.records < maxRecords && bytes < maxBytes) {
+			Entry<Long, Segment> entry = this.segments.ceilingEntry(segmentId);
+			if (entry == null) {
+				break;
+			}
+			Segment segment = entry.getValue();
+			if (segment.id != segmentId) {
+				segmentId = segment.id;
+				offset = 0;
+			}
+			if (offset >= segment.writePosition) {
+				if (segment == this.segments.lastEntry().getValue()) {
+					break;
+				}
+				segmentId++;
+				offset = 0;
+				continue;
+			}
+
+			int length = segment.buffer.getInt(offset);
+			long timestamp = segment.buffer.getLong(offset + 8);
+			byte[] payload = new byte[length];
+			ByteBuffer buffer = segment.buffer.duplicate();
+			buffer.position(offset + HEADER_LENGTH);
+			buffer.get(payload);
+			offset += HEADER_LENGTH + length;
+			bytes += length;
+
+			try {
+				JsonObject j = JsonUtils.getAsJsonObject(JsonUtils.parse(new String(payload, StandardCharsets.UTF_8)));
+				for (Entry<String, JsonElement> value : j.entrySet()) {
+					batch.request.add(timestamp, ChannelAddress.fromString(value.getKey()), value.getValue());
+				}
+			} catch (OpenemsNamedException e) {
+				this.log.warn("Skipping invalid outbox record: " + e.getMessage());
+			}
+			batch.records++;
+		}
+		batch.endSegment = segmentId;
+		batch.endOffset = offset;
+		this.readSegment = segmentId;
+		this.readOffset = offset;
+		return batch;
+	}
+
+	/**
+	 * Marks the records of the given Batch as confirmed.
+	 *
+	 * @param batch the Batch
+	 */
+	synchronized void commit(Batch batch) {
+		if (compare(batch.endSegment, batch.endOffset, this.ackSegment, this.ackOffset) <= 0) {
+			// segments were dropped in the meantime
+			return;
+		}
+		this.ackSegment = batch.endSegment;
+		this.ackOffset = batch.endOffset;
+		this.deleteAcknowledgedSegments();
+		this.writeAck();
+	}
+
+	/**
+	 * Resets the read position to the last confirmed position.
+	 */
+	synchronized void rewind() {
+		this.readSegment = this.ackSegment;
+		this.readOffset = this.ackOffset;
+	}
+
+	/**
+	 * Is there data that was not confirmed by the Backend?.
+	 *
+	 * @return true if the outbox is empty
+	 */
+	synchronized boolean isEmpty() {
+		if (this.segments.isEmpty()) {
+			return true;
+		}
+		Segment last = this.segments.lastEntry().getValue();
+		return compare(this.ackSegment, this.ackOffset, last.id, last.writePosition) >= 0;
+	}
+
+	/**
+	 * Gets the total size of all segment files.
+	 *
+	 * @return the size in bytes
+	 */
+	synchronized long getSize() {
+		return this.totalSize;
+	}
+
+	/**
+	 * Forces all appended records to disk.
+	 */
+	synchronized void flush() {
+		for (Segment segment : this.segments.values()) {
+			if (segment.isDirty) {
+				segment.buffer.force();
+				segment.isDirty = false;
+			}
+		}
+	}
+
+	/**
+	 * Flushes and closes all segment files.
+	 */
+	synchronized void close() {
+		this.flush();
+		for (Segment segment : this.segments.values()) {
+			this.closeQuietly(segment);
+		}
+		this.segments.clear();
+		this.totalSize = 0;
+	}
+
+	private Segment openSegment(long id, Path path, int size) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		if (size == 0) {
+			size = (int) channel.size();
+		}
+		Segment segment = new Segment(id, path, channel, channel.map(MapMode.READ_WRITE, 0, size));
+		// find end of valid records
+		int position = 0;
+		while (position + HEADER_LENGTH <= size) {
+			int length = segment.buffer.getInt(position);
+			if (length <= 0 || length > size - position - HEADER_LENGTH) {
+				break;
+			}
+			long timestamp = segment.buffer.getLong(position + 8);
+			byte[] payload = new byte[length];
+			ByteBuffer buffer = segment.buffer.duplicate();
+			buffer.position(position + HEADER_LENGTH);
+			buffer.get(payload);
+			if (segment.buffer.getInt(position + 4) != checksum(timestamp, payload)) {
+				break;
+			}
+			segment.lastTimestamp = timestamp;
+			position += HEADER_LENGTH + length;
+		}
+		segment.writePosition = position;
+		// clear a torn tail, so that stale records are never read after new ones
+		for (int i = position; i < size; i++) {
+			if (segment.buffer.get(i) != 0) {
+				this.log.warn("Truncating outbox segment [" + path.getFileName() + "] at [" + position + "]");
+				for (int j = i; j < size; j++) {
+					segment.buffer.put(j, (byte) 0);
+				}
+				segment.isDirty = true;
+				break;
+			}
+		}
+		this.totalSize += size;
+		return segment;
+	}
+
+	private Path segmentPath(long id) {
+		return this.directory.resolve(String.format("%020d", id) + SEGMENT_SUFFIX);
+	}
+
+	/**
+	 * Drops the oldest segments if the size or age limit is exceeded. The current
+	 * segment is never dropped.
+	 *
+	 * @param now the current timestamp in milliseconds
+	 */
+	private void applyLimits(long now) {
+		while (this.segments.size() > 1) {
+			Segment first = this.segments.firstEntry().getValue();
+			if (this.totalSize <= this.maxSize && first.lastTimestamp >= now - this.maxAge) {
+				break;
+			}
+			this.log.warn("Dropping outbox segment [" + first.path.getFileName() + "] with unsent data");
+			this.deleteSegment(first);
+			long next = this.segments.firstKey();
+			if (this.ackSegment < next) {
+				this.ackSegment = next;
+				this.ackOffset = 0;
+				this.writeAck();
+			}
+			if (this.readSegment < next) {
+				this.readSegment = next;
+				this.readOffset = 0;
+			}
+		}
+	}
+
+	private void deleteAcknowledgedSegments() {
+		while (!this.segments.isEmpty()) {
+			Segment first = this.segments.firstEntry().getValue();
+			boolean acknowledged = first.id < this.ackSegment
+					|| first.id == this.ackSegment && this.ackOffset >= first.writePosition;
+			if (!acknowledged || first == this.segments.lastEntry().getValue() && first.id == this.ackSegment) {
+				// keep the current segment for appending
+				break;
+			}
+			this.deleteSegment(first);
+		}
+	}
+
+	private void deleteSegment(Segment segment) {
+		this.segments.remove(segment.id);
+		this.totalSize -= segment.size();
+		this.closeQuietly(segment);
+		try {
+			Files.deleteIfExists(segment.path);
+		} catch (IOException e) {
+			this.log.warn("Unable to delete outbox segment [" + segment.path + "]: " + e.getMessage());
+		}
+	}
+
+	private void closeQuietly(Segment segment) {
+		try {
+			segment.channel.close();
+		} catch (IOException e) {
+			this.log.warn("Unable to close outbox segment [" + segment.path + "]: " + e.getMessage());
+		}
+	}
+
+	private void writeAck() {
+		ByteBuffer ack = ByteBuffer.allocate(ACK_LENGTH);
+		ack.putLong(this.ackSegment);
+		ack.putInt(this.ackOffset);
+		try {
+			Path tmp = this.directory.resolve(ACK_FILE + ".tmp");
+			Files.write(tmp, ack.array());
+			Files.move(tmp, this.directory.resolve(ACK_FILE), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			this.log.warn("Unable to write outbox ack: " + e.getMessage());
+		}
+	}
+
+	private static int checksum(long timestamp, byte[] payload) {
+		CRC32 crc = new CRC32();
+		crc.update(ByteBuffer.allocate(8).putLong(0, timestamp).array());
+		crc.update(payload);
+		return (int) crc.getValue();
+	}
+
+	private static int compare(long segment1, int offset1, long segment2, int offset2) {
+		if (segment1 != segment2) {
+			return Long.compare(segment1, segment2);
+		}
+		return Integer.compare(offset1, offset2);
+	}
+}
@@ -4,6 +4,7 @@ import java.net.Proxy;
 import java.net.URI;
 import java.util.Map;
 
+import org.java_websocket.drafts.Draft;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -21,9 +22,9 @@ public class WebsocketClient extends AbstractWebsocketClient<WsData> {
 	private final OnError onError;
 	private final OnClose onClose;
 
-	protected WebsocketClient(BackendApi parent, String name, URI serverUri, Map<String, String> httpHeaders,
-			Proxy proxy) {
-		super(name, serverUri, httpHeaders, proxy);
+	protected WebsocketClient(BackendApi parent, String name, URI serverUri, Draft draft,
+			Map<String, String> httpHeaders, Proxy proxy) {
+		super(name, serverUri, draft, httpHeaders, proxy);
 		this.parent = parent;
 		this.onOpen = new OnOpen(parent);
 		this.onRequest = new OnRequest(parent);
@@ -0,0 +1,140 @@
+package io.openems.edge.controller.api.backend;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+
+import io.openems.common.types.ChannelAddress;
+
+public class OutboxTest {
+
+	private static final ChannelAddress SOC = new ChannelAddress("ess0", "Soc");
+	private static final long HOUR = 3_600_000;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static Map<ChannelAddress, JsonElement> values(int soc) {
+		Map<ChannelAddress, JsonElement> result = new HashMap<>();
+		result.put(SOC, new JsonPrimitive(soc));
+		return result;
+	}
+
+	@Test
+	public void testReadCommitAndReopen() throws IOException {
+		Path path = this.folder.getRoot().toPath();
+		Outbox outbox = new Outbox(path, 256, 1024 * 1024, HOUR);
+		for (int i = 0; i < 20; i++) {
+			outbox.append(1000 + i, values(i));
+		}
+		assertFalse(outbox.isEmpty());
+
+		// read first batch and confirm it
+		Outbox.Batch batch = outbox.read(5, Integer.MAX_VALUE);
+		assertEquals(5, batch.getRecords());
+		assertEquals(5, batch.getRequest().getNumberOfTimestamps());
+		assertEquals(new JsonPrimitive(0), batch.getRequest().getData().get(1000L, SOC));
+		outbox.commit(batch);
+
+		// second batch is not confirmed
+		batch = outbox.read(5, Integer.MAX_VALUE);
+		assertEquals(new JsonPrimitive(5), batch.getRequest().getData().get(1005L, SOC));
+		outbox.close();
+
+		// reopen: continues after the confirmed batch
+		outbox = new Outbox(path, 256, 1024 * 1024, HOUR);
+		batch = outbox.read(100, Integer.MAX_VALUE);
+		assertEquals(15, batch.getRecords());
+		assertEquals(new JsonPrimitive(5), batch.getRequest().getData().get(1005L, SOC));
+		outbox.commit(batch);
+		assertTrue(outbox.isEmpty());
+		outbox.close();
+	}
+
+	@Test
+	public void testRewind() throws IOException {
+		Outbox outbox = new Outbox(this.folder.getRoot().toPath(), 256, 1024 * 1024, HOUR);
+		outbox.append(1000, values(1));
+		outbox.append(2000, values(2));
+
+		assertEquals(2, outbox.read(10, Integer.MAX_VALUE).getRecords());
+		assertEquals(0, outbox.read(10, Integer.MAX_VALUE).getRecords());
+		outbox.rewind();
+		assertEquals(2, outbox.read(10, Integer.MAX_VALUE).getRecords());
+		outbox.close();
+	}
+
+	@Test
+	public void testLimits() throws IOException {
+		// size limit: keeps at most two segments
+		Outbox outbox = new Outbox(this.folder.newFolder().toPath(), 256, 512, HOUR);
+		for (int i = 0; i < 100; i++) {
+			outbox.append(1000 + i, values(i));
+		}
+		assertTrue(outbox.getSize() <= 512);
+		Outbox.Batch batch = outbox.read(1000, Integer.MAX_VALUE);
+		assertTrue(batch.getRecords() < 100);
+		assertEquals(new JsonPrimitive(99), batch.getRequest().getData().get(1099L, SOC));
+		outbox.close();
+
+		// age limit: drops complete segments; the current segment is kept
+		outbox = new Outbox(this.folder.newFolder().toPath(), 256, 1024 * 1024, HOUR);
+		for (int i = 0; i < 20; i++) {
+			outbox.append(1000 + i, values(i));
+		}
+		outbox.append(1000 + 2 * HOUR, values(100));
+		batch = outbox.read(1000, Integer.MAX_VALUE);
+		assertTrue(batch.getRecords() < 21);
+		assertFalse(batch.getRequest().getData().containsRow(1000L));
+		assertEquals(new JsonPrimitive(100), batch.getRequest().getData().get(1000 + 2 * HOUR, SOC));
+		outbox.close();
+	}
+
+	@Test
+	public void testTornTail() throws IOException {
+		Path path = this.folder.getRoot().toPath();
+		Outbox outbox = new Outbox(path, 1024, 1024 * 1024, HOUR);
+		for (int i = 0; i < 3; i++) {
+			outbox.append(1000 + i, values(i));
+		}
+		outbox.flush();
+		outbox.close();
+
+		// corrupt the payload of the last record, as if it was written only partially
+		Path segment = path.resolve(String.format("%020d", 0) + ".seg");
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			ByteBuffer buffer = ByteBuffer.allocate(1024);
+			channel.read(buffer, 0);
+			int position = 0;
+			for (int i = 0; i < 2; i++) {
+				position += 16 + buffer.getInt(position);
+			}
+			channel.write(ByteBuffer.wrap(new byte[] { 'x' }), position + 16 + 1);
+		}
+
+		// reopen: the torn record is dropped and new records are appended after the valid ones
+		outbox = new Outbox(path, 1024, 1024 * 1024, HOUR);
+		outbox.append(2000, values(20));
+		Outbox.Batch batch = outbox.read(100, Integer.MAX_VALUE);
+		assertEquals(3, batch.getRecords());
+		assertTrue(batch.getRequest().getData().containsRow(1001L));
+		assertFalse(batch.getRequest().getData().containsRow(1002L));
+		assertEquals(new JsonPrimitive(20), batch.getRequest().getData().get(2000L, SOC));
+		outbox.close();
+	}
+}
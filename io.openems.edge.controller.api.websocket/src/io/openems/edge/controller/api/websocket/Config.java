@@ -23,5 +23,11 @@ import org.osgi.service.metatype.annotations.ObjectClassDefinition;
 	@AttributeDefinition(name = "Api-Timeout", description = "Sets the timeout in seconds for updates on Channels set by this Api.")
 	int apiTimeout() default 60;
 
+	@AttributeDefinition(name = "Compression Level", description = "Level of 'permessage-deflate' compression (0-9). -1 disables compression.")
+	int compressionLevel() default -1;
+
+	@AttributeDefinition(name = "Compression without Context Takeover", description = "Reset the compression context after every message. Saves memory per connection at the cost of compression ratio.")
+	boolean compressionNoContextTakeover() default false;
+
 	String webconsole_configurationFactory_nameHint() default "Controller Api Websocket [{id}]";
 }
\ No newline at end of file
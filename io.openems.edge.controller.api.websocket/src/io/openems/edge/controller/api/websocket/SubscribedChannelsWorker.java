@@ -8,14 +8,15 @@ import io.openems.common.jsonrpc.base.JsonrpcNotification;
 import io.openems.common.jsonrpc.notification.CurrentDataNotification;
 import io.openems.common.jsonrpc.notification.EdgeRpcNotification;
 import io.openems.common.types.ChannelAddress;
+import io.openems.common.websocket.SubscriptionScheduler;
 import io.openems.edge.common.channel.Channel;
 
 public class SubscribedChannelsWorker extends io.openems.common.websocket.SubscribedChannelsWorker {
 
 	private final WebsocketApi parent;
 
-	public SubscribedChannelsWorker(WebsocketApi parent, WsData wsData) {
-		super(wsData);
+	public SubscribedChannelsWorker(WebsocketApi parent, SubscriptionScheduler scheduler, WsData wsData) {
+		super(scheduler, wsData);
 		this.parent = parent;
 	}
 
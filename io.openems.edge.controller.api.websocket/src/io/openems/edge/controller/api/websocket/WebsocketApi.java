@@ -7,6 +7,7 @@ import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.java_websocket.WebSocket;
+import org.java_websocket.drafts.Draft;
 import org.ops4j.pax.logging.spi.PaxAppender;
 import org.ops4j.pax.logging.spi.PaxLoggingEvent;
 import org.osgi.service.cm.ConfigurationEvent;
@@ -30,6 +31,7 @@ import io.openems.common.jsonrpc.notification.EdgeConfigNotification;
 import io.openems.common.jsonrpc.notification.EdgeRpcNotification;
 import io.openems.common.jsonrpc.request.SubscribeSystemLogRequest;
 import io.openems.common.types.EdgeConfig;
+import io.openems.common.websocket.PerMessageDeflateExtension;
 import io.openems.edge.common.channel.Doc;
 import io.openems.edge.common.component.AbstractOpenemsComponent;
 import io.openems.edge.common.component.ComponentManager;
@@ -106,7 +108,8 @@ public class WebsocketApi extends AbstractOpenemsComponent
 			return;
 		}
 		this.apiWorker.setTimeoutSeconds(config.apiTimeout());
-		this.startServer(config.port());
+		this.startServer(config.port(), PerMessageDeflateExtension.createDraft(config.compressionLevel(),
+				config.compressionNoContextTakeover(), PerMessageDeflateExtension.DEFAULT_THRESHOLD));
 	}
 
 	@Deactivate
@@ -118,10 +121,11 @@ public class WebsocketApi extends AbstractOpenemsComponent
 	/**
 	 * Create and start new server.
 	 * 
-	 * @param port the port
+	 * @param port  the port
+	 * @param draft the websocket Draft
 	 */
-	private synchronized void startServer(int port) {
-		this.server = new WebsocketServer(this, "Websocket Api", port);
+	private synchronized void startServer(int port, Draft draft) {
+		this.server = new WebsocketServer(this, "Websocket Api", port, draft);
 		this.server.start();
 	}
 
@@ -1,5 +1,6 @@
 package io.openems.edge.controller.api.websocket;
 
+import org.java_websocket.drafts.Draft;
 import org.slf4j.Logger;
 
 import io.openems.common.websocket.AbstractWebsocketServer;
@@ -13,8 +14,8 @@ public class WebsocketServer extends AbstractWebsocketServer<WsData> {
 	private final OnError onError;
 	private final OnClose onClose;
 
-	public WebsocketServer(WebsocketApi parent, String name, int port) {
-		super(name, port);
+	public WebsocketServer(WebsocketApi parent, String name, int port, Draft draft) {
+		super(name, port, draft);
 		this.parent = parent;
 		this.onOpen = new OnOpen(parent);
 		this.onRequest = new OnRequest(parent);
@@ -25,7 +26,7 @@ public class WebsocketServer extends AbstractWebsocketServer<WsData> {
 
 	@Override
 	protected WsData createWsData() {
-		return new WsData(this.parent);
+		return new WsData(this.parent, this.getSubscriptionScheduler());
 	}
 
 	@Override
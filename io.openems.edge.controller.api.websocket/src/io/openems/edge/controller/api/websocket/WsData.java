@@ -5,6 +5,7 @@ import java.util.UUID;
 
 import io.openems.common.exceptions.OpenemsError;
 import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
+import io.openems.common.websocket.SubscriptionScheduler;
 import io.openems.edge.common.user.EdgeUser;
 
 public class WsData extends io.openems.common.websocket.WsData {
@@ -19,8 +20,13 @@ public class WsData extends io.openems.common.websocket.WsData {
 
 	private Optional<EdgeUser> user = Optional.empty();
 
-	public WsData(WebsocketApi parent) {
-		this.subscribedChannelsWorker = new SubscribedChannelsWorker(parent, this);
+	public WsData(WebsocketApi parent, SubscriptionScheduler scheduler) {
+		this.subscribedChannelsWorker = new SubscribedChannelsWorker(parent, scheduler, this);
+	}
+
+	@Override
+	public void dispose() {
+		this.subscribedChannelsWorker.dispose();
 	}
 
 	public void setSessionToken(UUID sessionToken) {
@@ -13,6 +13,7 @@ import io.openems.edge.ess.power.api.Relationship;
 public class ApparentPowerConstraintFactory {
 
 	private static final int CIRCLE_SECTIONS_PER_QUARTER = 2; // don't set higher than 90
+	private static final String DESCRIPTION = ": Max Apparent Power";
 
 	private class Point {
 		protected final double x;
@@ -29,6 +30,18 @@ public class ApparentPowerConstraintFactory {
 		}
 	}
 
+	/**
+	 * Marks the Constraints of the 'Apparent-Power Circle'; see
+	 * {@link ApparentPowerConstraintFactory#isApparentPowerConstraint(Constraint)}.
+	 */
+	private static class ApparentPowerConstraint extends Constraint {
+
+		ApparentPowerConstraint(String description, LinearCoefficient[] coefficients, Relationship relationship,
+				double value) {
+			super(description, coefficients, relationship, value);
+		}
+	}
+
 	private final Data parent;
 
 	public ApparentPowerConstraintFactory(Data parent) {
@@ -62,15 +75,31 @@ public class ApparentPowerConstraintFactory {
 
 		} else {
 			// Add Active-/Reactive-Power = 0 constraints
-			result.add(this.parent.createSimpleConstraint(essId + ": Max Apparent Power", essId, phase, Pwr.ACTIVE,
+			result.add(this.parent.createSimpleConstraint(essId + DESCRIPTION, essId, phase, Pwr.ACTIVE,
 					Relationship.EQUALS, 0));
-			result.add(this.parent.createSimpleConstraint(essId + ": Max Apparent Power", essId, phase, Pwr.REACTIVE,
+			result.add(this.parent.createSimpleConstraint(essId + DESCRIPTION, essId, phase, Pwr.REACTIVE,
 					Relationship.EQUALS, 0));
 		}
 
 		return result;
 	}
 
+	/**
+	 * Is the given Constraint one of the 'Apparent-Power Circle' Constraints
+	 * created by this factory?.
+	 * 
+	 * <p>
+	 * All corners of the 'Apparent-Power Circle' with Reactive-Power zero lie on
+	 * the circle, i.e. setting Reactive-Power to zero does not reduce the possible
+	 * Active-Power.
+	 * 
+	 * @param constraint the Constraint
+	 * @return true if it was created by this factory
+	 */
+	public static boolean isApparentPowerConstraint(Constraint constraint) {
+		return constraint instanceof ApparentPowerConstraint;
+	}
+
 	private Point getPointOnCircle(double radius, double degree) {
 		return new Point(Math.cos(Math.toRadians(degree)) * radius, Math.sin(Math.toRadians(degree)) * radius);
 	}
@@ -89,7 +118,7 @@ public class ApparentPowerConstraintFactory {
 		double coefficient1 = (p2.y - p1.y) / (p2.x - p1.x);
 		double coefficient2 = -1;
 
-		return new Constraint(essId + ": Max Apparent Power", new LinearCoefficient[] { //
+		return new ApparentPowerConstraint(essId + DESCRIPTION, new LinearCoefficient[] { //
 				new LinearCoefficient(this.parent.getCoefficient(essId, phase, Pwr.ACTIVE), coefficient1), //
 				new LinearCoefficient(this.parent.getCoefficient(essId, phase, Pwr.REACTIVE), coefficient2) //
 		}, relationship, constraintValue);
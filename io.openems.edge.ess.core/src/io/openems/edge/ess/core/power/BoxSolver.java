@@ -0,0 +1,600 @@
+package io.openems.edge.ess.core.power;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.math3.optim.PointValuePair;
+import org.apache.commons.math3.optim.nonlinear.scalar.GoalType;
+
+import io.openems.edge.ess.api.ManagedSymmetricEss;
+import io.openems.edge.ess.api.MetaEss;
+import io.openems.edge.ess.core.power.Solver.TargetDirection;
+import io.openems.edge.ess.power.api.Coefficient;
+import io.openems.edge.ess.power.api.Constraint;
+import io.openems.edge.ess.power.api.EssType;
+import io.openems.edge.ess.power.api.Inverter;
+import io.openems.edge.ess.power.api.LinearCoefficient;
+import io.openems.edge.ess.power.api.Phase;
+import io.openems.edge.ess.power.api.Pwr;
+import io.openems.edge.ess.power.api.Relationship;
+import io.openems.edge.ess.power.api.SolverStrategy;
+import io.openems.edge.ess.power.api.ThreePhaseInverter;
+
+/**
+ * Solves Problems in closed form that decompose into independent bounds for the
+ * Active-Power of each Inverter plus bounds for the sum of all Inverters.
+ *
+ * <p>
+ * This is the case for symmetric ESS - optionally combined in one cluster - with
+ * Constraints on single ESS, on the cluster and on Apparent-Power. Reactive-Power
+ * is always set to zero. For every other Problem {@link #from(Data, List, List)}
+ * returns null and the linear solver has to be used.
+ *
+ * <p>
+ * The strategies follow the ones of {@link Solver} without solving any linear
+ * program.
+ */
+public class BoxSolver {
+
+	private static final double EPSILON = 0.000_001;
+
+	private final Data data;
+	private final List<Inverter> inverters;
+	private final Map<Inverter, Integer> positions;
+	private final Map<String, double[]> activePowerOfEss;
+	private final List<Constraint> constraints;
+
+	private final double[] min;
+	private final double[] max;
+	private final double minSum;
+	private final double maxSum;
+
+	/**
+	 * Tries to decompose the Problem into bounds per Inverter and bounds for the
+	 * sum of all Inverters.
+	 *
+	 * @param data        the Data object
+	 * @param inverters   all Inverters
+	 * @param constraints all Constraints
+	 * @return the BoxSolver; null if the Problem does not decompose or has no
+	 *         solution
+	 */
+	public static BoxSolver from(Data data, List<Inverter> inverters, List<Constraint> constraints) {
+		int n = inverters.size();
+		if (n == 0) {
+			return null;
+		}
+
+		// Active-Power of every Inverter is one variable
+		Map<Inverter, Integer> positions = new HashMap<>();
+		Map<String, Integer> positionOfEss = new HashMap<>();
+		for (int i = 0; i < n; i++) {
+			Inverter inverter = inverters.get(i);
+			if (!(inverter instanceof ThreePhaseInverter)) {
+				return null;
+			}
+			positions.put(inverter, i);
+			positionOfEss.put(inverter.getEssId(), i);
+		}
+
+		// Active-Power of every ESS as sum of variables
+		Map<String, double[]> activePowerOfEss = new HashMap<>();
+		for (String essId : data.getEssIds()) {
+			ManagedSymmetricEss ess = data.getEss(essId);
+			double[] activePower = new double[n];
+			switch (EssType.getEssType(ess)) {
+			case SYMMETRIC:
+				Integer position = positionOfEss.get(essId);
+				if (position == null) {
+					return null;
+				}
+				activePower[position] = 1;
+				break;
+			case META:
+				for (ManagedSymmetricEss subEss : ((MetaEss) ess).getEsss()) {
+					if (!subEss.isEnabled()) {
+						continue;
+					}
+					Integer subPosition = positionOfEss.get(subEss.id());
+					if (subPosition == null) {
+						// e.g. a cluster of clusters
+						return null;
+					}
+					activePower[subPosition] += 1;
+				}
+				break;
+			case ASYMMETRIC:
+			case SINGLE_PHASE:
+				return null;
+			}
+			activePowerOfEss.put(essId, activePower);
+		}
+
+		double[] min = new double[n];
+		double[] max = new double[n];
+		for (int i = 0; i < n; i++) {
+			min[i] = Double.NEGATIVE_INFINITY;
+			max[i] = Double.POSITIVE_INFINITY;
+		}
+		double minSum = Double.NEGATIVE_INFINITY;
+		double maxSum = Double.POSITIVE_INFINITY;
+
+		for (Constraint c : constraints) {
+			if (!c.getValue().isPresent()) {
+				continue;
+			}
+			double value = c.getValue().get();
+			Relationship relationship = c.getRelationship();
+
+			// Substitute Coefficients by the variables; Reactive-Power is zero
+			double[] a = new double[n];
+			boolean hasActivePower = false;
+			boolean hasReactivePower = false;
+			for (LinearCoefficient co : c.getCoefficients()) {
+				if (co.getValue() == 0) {
+					continue;
+				}
+				Coefficient coefficient = co.getCoefficient();
+				if (coefficient.getPwr() == Pwr.REACTIVE) {
+					hasReactivePower = true;
+					continue;
+				}
+				hasActivePower = true;
+				double[] activePower = activePowerOfEss.get(coefficient.getEssId());
+				if (activePower == null) {
+					return null;
+				}
+				double factor = coefficient.getPhase() == Phase.ALL ? co.getValue() : co.getValue() / 3;
+				for (int i = 0; i < n; i++) {
+					a[i] += factor * activePower[i];
+				}
+			}
+			if (hasActivePower && hasReactivePower && !ApparentPowerConstraintFactory.isApparentPowerConstraint(c)) {
+				// e.g. a fixed cos-phi
+				return null;
+			}
+
+			List<Integer> used = new ArrayList<>();
+			for (int i = 0; i < n; i++) {
+				if (Math.abs(a[i]) > EPSILON) {
+					used.add(i);
+				}
+			}
+			if (used.isEmpty()) {
+				// e.g. 'P = L1 + L2 + L3' or a Constraint on Reactive-Power
+				if (!BoxSolver.isSatisfied(0, relationship, value)) {
+					return null;
+				}
+
+			} else if (used.size() == 1) {
+				// Constraint on one Inverter
+				int i = used.get(0);
+				double bound = value / a[i];
+				Relationship r = a[i] < 0 ? BoxSolver.invert(relationship) : relationship;
+				if (r != Relationship.LESS_OR_EQUALS) {
+					min[i] = Math.max(min[i], bound);
+				}
+				if (r != Relationship.GREATER_OR_EQUALS) {
+					max[i] = Math.min(max[i], bound);
+				}
+
+			} else if (used.size() == n && BoxSolver.isSameFactor(a)) {
+				// Constraint on the sum of all Inverters, e.g. on a cluster
+				double bound = value / a[0];
+				Relationship r = a[0] < 0 ? BoxSolver.invert(relationship) : relationship;
+				if (r != Relationship.LESS_OR_EQUALS) {
+					minSum = Math.max(minSum, bound);
+				}
+				if (r != Relationship.GREATER_OR_EQUALS) {
+					maxSum = Math.min(maxSum, bound);
+				}
+
+			} else {
+				// coupled Inverters
+				return null;
+			}
+		}
+
+		double sumOfMin = 0;
+		double sumOfMax = 0;
+		for (int i = 0; i < n; i++) {
+			if (Double.isInfinite(min[i]) || Double.isInfinite(max[i]) || min[i] > max[i] + EPSILON) {
+				// unbounded or no solution
+				return null;
+			}
+			max[i] = Math.max(min[i], max[i]);
+			sumOfMin += min[i];
+			sumOfMax += max[i];
+		}
+		minSum = Math.max(minSum, sumOfMin);
+		maxSum = Math.min(maxSum, sumOfMax);
+		if (minSum > maxSum + EPSILON) {
+			// no solution
+			return null;
+		}
+		maxSum = Math.max(minSum, maxSum);
+
+		return new BoxSolver(data, inverters, positions, activePowerOfEss, constraints, min, max, minSum, maxSum);
+	}
+
+	private BoxSolver(Data data, List<Inverter> inverters, Map<Inverter, Integer> positions,
+			Map<String, double[]> activePowerOfEss, List<Constraint> constraints, double[] min, double[] max,
+			double minSum, double maxSum) {
+		this.data = data;
+		this.inverters = inverters;
+		this.positions = positions;
+		this.activePowerOfEss = activePowerOfEss;
+		this.constraints = constraints;
+		this.min = min;
+		this.max = max;
+		this.minSum = minSum;
+		this.maxSum = maxSum;
+	}
+
+	/**
+	 * Gets the TargetDirection of the Problem; see
+	 * {@link Solver#getTargetDirection()}.
+	 *
+	 * @return the target direction
+	 */
+	public TargetDirection getTargetDirection() {
+		if (this.minSum <= EPSILON && this.maxSum >= -EPSILON) {
+			return TargetDirection.KEEP_ZERO;
+		} else if (this.minSum > 0) {
+			return TargetDirection.DISCHARGE;
+		} else {
+			return TargetDirection.CHARGE;
+		}
+	}
+
+	/**
+	 * Is the Problem solvable while setting the disabled Inverters to zero?.
+	 *
+	 * @param disabledInverters the disabled Inverters
+	 * @return true if it is solvable
+	 */
+	public boolean isSolvableWithDisabledInverters(Collection<Inverter> disabledInverters) {
+		double sumOfMin = 0;
+		double sumOfMax = 0;
+		for (Inverter inverter : this.inverters) {
+			int i = this.positions.get(inverter);
+			if (disabledInverters.contains(inverter)) {
+				if (this.min[i] > EPSILON || this.max[i] < -EPSILON) {
+					return false;
+				}
+			} else {
+				sumOfMin += this.min[i];
+				sumOfMax += this.max[i];
+			}
+		}
+		return Math.max(this.minSum, sumOfMin) <= Math.min(this.maxSum, sumOfMax) + EPSILON;
+	}
+
+	/**
+	 * Solves the Problem.
+	 *
+	 * @param strategy        the configured SolverStrategy
+	 * @param targetDirection the target direction
+	 * @param targetInverters the target Inverters in the order of preferred usage
+	 * @return a solution; null if the strategy is not supported or the result does
+	 *         not fulfill all Constraints
+	 */
+	public SolveSolution solve(SolverStrategy strategy, TargetDirection targetDirection,
+			List<Inverter> targetInverters) {
+		double sum = this.getStrictlyDefinedSum();
+		SolverStrategy[] strategies;
+		switch (strategy) {
+		case OPTIMIZE_BY_MOVING_TOWARDS_TARGET:
+			strategies = new SolverStrategy[] { SolverStrategy.OPTIMIZE_BY_MOVING_TOWARDS_TARGET,
+					SolverStrategy.OPTIMIZE_BY_KEEPING_TARGET_DIRECTION_AND_MAXIMIZING_IN_ORDER };
+			break;
+		case OPTIMIZE_BY_KEEPING_TARGET_DIRECTION_AND_MAXIMIZING_IN_ORDER:
+			strategies = new SolverStrategy[] {
+					SolverStrategy.OPTIMIZE_BY_KEEPING_TARGET_DIRECTION_AND_MAXIMIZING_IN_ORDER,
+					SolverStrategy.OPTIMIZE_BY_MOVING_TOWARDS_TARGET };
+			break;
+		default:
+			return null;
+		}
+
+		for (SolverStrategy s : strategies) {
+			double[] activePowers = null;
+			switch (s) {
+			case OPTIMIZE_BY_MOVING_TOWARDS_TARGET:
+				activePowers = this.optimizeByMovingTowardsTarget(targetDirection, targetInverters, sum);
+				break;
+			case OPTIMIZE_BY_KEEPING_TARGET_DIRECTION_AND_MAXIMIZING_IN_ORDER:
+				activePowers = this.optimizeByKeepingTargetDirectionAndMaximizingInOrder(targetDirection,
+						targetInverters, sum);
+				break;
+			default:
+				break;
+			}
+			if (activePowers != null) {
+				PointValuePair point = this.toPoint(activePowers);
+				if (!this.isSatisfiedBy(point)) {
+					return null;
+				}
+				return new SolveSolution(s, point);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Gets the sum of all Inverters like
+	 * 'Solver.addConstraintsForNotStrictlyDefinedCoefficients()', i.e. the value
+	 * closest to zero.
+	 *
+	 * @return the sum
+	 */
+	protected double getStrictlyDefinedSum() {
+		if (0 < this.maxSum && 0 > this.minSum) {
+			return 0;
+		} else if (Math.abs(this.maxSum) < Math.abs(this.minSum)) {
+			return this.maxSum;
+		} else {
+			return this.minSum;
+		}
+	}
+
+	/**
+	 * Gets the minimum or maximum Active-Power of an Inverter; see
+	 * {@link Solver#getActivePowerExtrema(String, Phase, Pwr, GoalType)}.
+	 *
+	 * @param i    the position of the Inverter
+	 * @param goal MAXIMIZE or MINIMIZE
+	 * @return the extrema
+	 */
+	protected double getExtrema(int i, GoalType goal) {
+		double sumOfOthersMin = 0;
+		double sumOfOthersMax = 0;
+		for (int j = 0; j < this.min.length; j++) {
+			if (j != i) {
+				sumOfOthersMin += this.min[j];
+				sumOfOthersMax += this.max[j];
+			}
+		}
+		if (goal == GoalType.MAXIMIZE) {
+			return Math.min(this.max[i], this.maxSum - sumOfOthersMin);
+		} else {
+			return Math.max(this.min[i], this.minSum - sumOfOthersMax);
+		}
+	}
+
+	/**
+	 * Distributes the sum proportional to the weights of the Inverters; see
+	 * 'Solver.optimizeByMovingTowardsTarget()'.
+	 *
+	 * @param targetDirection the target direction
+	 * @param targetInverters the target Inverters
+	 * @param sum             the sum of all Inverters
+	 * @return the Active-Power per Inverter position; null if not solvable
+	 */
+	private double[] optimizeByMovingTowardsTarget(TargetDirection targetDirection, List<Inverter> targetInverters,
+			double sum) {
+		Map<Inverter, Double> nextWeights = new HashMap<>();
+		Map<Inverter, Double> learningRates = new HashMap<>();
+		Solver.initializeWeights(targetDirection, this.inverters, targetInverters, nextWeights, learningRates);
+
+		for (double i = 0; i < 1 - Solver.LEARNING_RATE; i += Solver.LEARNING_RATE) {
+			double[] result = new double[this.inverters.size()];
+			double sumOfWeights = 0;
+			for (double weight : nextWeights.values()) {
+				sumOfWeights += weight;
+			}
+			if (sumOfWeights == 0) {
+				// no inverters left -> nothing to optimize
+				return null;
+			}
+			boolean isSolved = true;
+			for (Inverter inverter : this.inverters) {
+				int p = this.positions.get(inverter);
+				result[p] = sum * nextWeights.get(inverter) / sumOfWeights;
+				if (result[p] < this.min[p] - EPSILON || result[p] > this.max[p] + EPSILON) {
+					isSolved = false;
+				}
+			}
+			if (isSolved) {
+				return result;
+			}
+
+			// Adjust next weights
+			for (Inverter inverter : this.inverters) {
+				nextWeights.put(inverter, nextWeights.get(inverter) + learningRates.get(inverter));
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Keeps all target Inverters in the target direction and maximizes them in
+	 * order; see 'Solver.optimizeByKeepingTargetDirectionAndMaximizingInOrder()'.
+	 *
+	 * @param targetDirection the target direction
+	 * @param targetInverters the target Inverters
+	 * @param sum             the sum of all Inverters
+	 * @return the Active-Power per Inverter position; null if not solvable
+	 */
+	private double[] optimizeByKeepingTargetDirectionAndMaximizingInOrder(TargetDirection targetDirection,
+			List<Inverter> targetInverters, double sum) {
+		double[] min = this.min.clone();
+		double[] max = this.max.clone();
+
+		// Set all Inverters that are not Target to zero
+		for (Inverter inverter : this.inverters) {
+			if (!targetInverters.contains(inverter)) {
+				int i = this.positions.get(inverter);
+				if (min[i] > EPSILON || max[i] < -EPSILON) {
+					return null;
+				}
+				min[i] = 0;
+				max[i] = 0;
+			}
+		}
+		if (!BoxSolver.isSolvable(min, max, sum)) {
+			return null;
+		}
+
+		// Force target Inverters positive/negative/zero according to targetDirection
+		for (Inverter inverter : targetInverters) {
+			int i = this.positions.get(inverter);
+			double lastMin = min[i];
+			double lastMax = max[i];
+			if (targetDirection != TargetDirection.CHARGE) {
+				min[i] = Math.max(min[i], 0);
+			}
+			if (targetDirection != TargetDirection.DISCHARGE) {
+				max[i] = Math.min(max[i], 0);
+			}
+			if (min[i] > max[i] + EPSILON || !BoxSolver.isSolvable(min, max, sum)) {
+				min[i] = lastMin;
+				max[i] = lastMax;
+			}
+		}
+
+		if (targetDirection != TargetDirection.KEEP_ZERO) {
+			// Try maximizing all Inverters in order in target direction
+			GoalType goal = targetDirection == TargetDirection.CHARGE ? GoalType.MINIMIZE : GoalType.MAXIMIZE;
+			for (Inverter inverter : targetInverters) {
+				int i = this.positions.get(inverter);
+				double target = this.getExtrema(i, goal);
+				if (target < min[i] - EPSILON || target > max[i] + EPSILON) {
+					continue;
+				}
+				double lastMin = min[i];
+				double lastMax = max[i];
+				min[i] = target;
+				max[i] = target;
+				if (!BoxSolver.isSolvable(min, max, sum)) {
+					min[i] = lastMin;
+					max[i] = lastMax;
+				}
+			}
+		}
+
+		// Distribute the rest in order of preferred usage
+		List<Inverter> order = new ArrayList<>(targetInverters);
+		for (Inverter inverter : this.inverters) {
+			if (!order.contains(inverter)) {
+				order.add(inverter);
+			}
+		}
+		double[] result = new double[this.inverters.size()];
+		double rest = sum;
+		for (int i = 0; i < result.length; i++) {
+			result[i] = Math.max(min[i], Math.min(max[i], 0));
+			rest -= result[i];
+		}
+		for (Inverter inverter : order) {
+			int i = this.positions.get(inverter);
+			double delta = rest > 0 ? Math.min(rest, max[i] - result[i]) : Math.max(rest, min[i] - result[i]);
+			result[i] += delta;
+			rest -= delta;
+		}
+		return result;
+	}
+
+	/**
+	 * Converts the Active-Power per Inverter to values for all Coefficients.
+	 *
+	 * @param activePowers the Active-Power per Inverter position
+	 * @return the solution
+	 */
+	private PointValuePair toPoint(double[] activePowers) {
+		double[] point = Solver.getEmptyCoefficients(this.data);
+		double objective = 0;
+		for (Coefficient coefficient : this.data.getCoefficients().getAll()) {
+			if (coefficient.getPwr() == Pwr.REACTIVE) {
+				continue;
+			}
+			double[] activePower = this.activePowerOfEss.get(coefficient.getEssId());
+			if (activePower == null) {
+				continue;
+			}
+			double value = 0;
+			for (int i = 0; i < activePowers.length; i++) {
+				value += activePower[i] * activePowers[i];
+			}
+			if (coefficient.getPhase() != Phase.ALL) {
+				value /= 3;
+			}
+			point[coefficient.getIndex()] = value;
+			objective += value;
+		}
+		return new PointValuePair(point, objective);
+	}
+
+	/**
+	 * Validates the solution against all Constraints.
+	 *
+	 * @param solution the solution
+	 * @return true if all Constraints are fulfilled
+	 */
+	private boolean isSatisfiedBy(PointValuePair solution) {
+		double[] point = solution.getPoint();
+		for (Constraint c : this.constraints) {
+			if (!c.getValue().isPresent()) {
+				continue;
+			}
+			double value = 0;
+			for (LinearCoefficient co : c.getCoefficients()) {
+				value += co.getValue() * point[co.getCoefficient().getIndex()];
+			}
+			double tolerance = Math.max(EPSILON, Math.abs(c.getValue().get()) * EPSILON);
+			if (!BoxSolver.isSatisfied(value, c.getRelationship(), c.getValue().get(), tolerance)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isSolvable(double[] min, double[] max, double sum) {
+		double sumOfMin = 0;
+		double sumOfMax = 0;
+		for (int i = 0; i < min.length; i++) {
+			sumOfMin += min[i];
+			sumOfMax += max[i];
+		}
+		return sumOfMin <= sum + EPSILON && sumOfMax >= sum - EPSILON;
+	}
+
+	private static boolean isSameFactor(double[] a) {
+		for (int i = 1; i < a.length; i++) {
+			if (Math.abs(a[i] - a[0]) > EPSILON) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static Relationship invert(Relationship relationship) {
+		switch (relationship) {
+		case GREATER_OR_EQUALS:
+			return Relationship.LESS_OR_EQUALS;
+		case LESS_OR_EQUALS:
+			return Relationship.GREATER_OR_EQUALS;
+		default:
+			return relationship;
+		}
+	}
+
+	private static boolean isSatisfied(double value, Relationship relationship, double bound) {
+		return BoxSolver.isSatisfied(value, relationship, bound, EPSILON);
+	}
+
+	private static boolean isSatisfied(double value, Relationship relationship, double bound, double tolerance) {
+		switch (relationship) {
+		case EQUALS:
+			return Math.abs(value - bound) <= tolerance;
+		case GREATER_OR_EQUALS:
+			return value >= bound - tolerance;
+		case LESS_OR_EQUALS:
+			return value <= bound + tolerance;
+		}
+		return false;
+	}
+}
@@ -21,5 +21,17 @@ import io.openems.edge.ess.power.api.SolverStrategy;
 	@AttributeDefinition(name = "Debug Mode", description = "Activates the debug mode")
 	boolean debugMode() default PowerComponent.DEFAULT_DEBUG_MODE;
 
+	@AttributeDefinition(name = "Fast Path", description = "Solves simple problems - e.g. symmetric ESS in one cluster - without the linear solver")
+	boolean fastPath() default PowerComponent.DEFAULT_FAST_PATH;
+
+	@AttributeDefinition(name = "Solve Time Budget [ms]", description = "Applies the best solution found so far once solving takes longer; zero for unlimited")
+	int solveTimeBudget() default PowerComponent.DEFAULT_SOLVE_TIME_BUDGET;
+
+	@AttributeDefinition(name = "Record File", description = "Records the Solver input and result on every Cycle to this file for later replay; '.gz' for compression; empty to disable")
+	String recordFile() default "";
+
+	@AttributeDefinition(name = "Record File Max Size [MB]", description = "Rotates the record file once it exceeds this size; one previous file is kept as 'NAME.1' resp. 'NAME.1.gz'")
+	int recordMaxSize() default 100;
+
 	String webconsole_configurationFactory_nameHint() default "ESS Power";
 }
\ No newline at end of file
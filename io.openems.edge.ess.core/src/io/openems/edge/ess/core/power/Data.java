@@ -3,12 +3,14 @@ package io.openems.edge.ess.core.power;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -52,6 +54,11 @@ public class Data {
 	private final List<Constraint> constraints = new CopyOnWriteArrayList<>();
 	private final Coefficients coefficients = new Coefficients();
 
+	/**
+	 * Incremented on every change of the Constraints; see {@link #getVersion()}.
+	 */
+	private final AtomicLong version = new AtomicLong();
+
 	private final ApparentPowerConstraintFactory apparentPowerConstraintFactory;
 
 	private boolean symmetricMode = PowerComponent.DEFAULT_SYMMETRIC_MODE;
@@ -73,6 +80,7 @@ public class Data {
 		this.invertersUpdateWeights(this.inverters);
 		Data.invertersSortByWeights(this.inverters);
 		this.coefficients.initialize(this.essIds);
+		this.version.incrementAndGet();
 	}
 
 	public synchronized void removeEss(String essId) {
@@ -87,6 +95,7 @@ public class Data {
 			}
 		}
 		this.coefficients.initialize(this.essIds);
+		this.version.incrementAndGet();
 	}
 
 	public void setSymmetricMode(boolean symmetricMode) {
@@ -106,19 +115,47 @@ public class Data {
 		// Update sorting of Inverters
 		this.invertersUpdateWeights(this.inverters);
 		Data.invertersAdjustSortingByWeights(this.inverters);
+		this.version.incrementAndGet();
 	}
 
 	public void addConstraint(Constraint constraint) {
 		this.constraints.add(constraint);
+		this.version.incrementAndGet();
 	}
 
 	public void removeConstraint(Constraint constraint) {
-		this.constraints.remove(constraint);
+		if (this.constraints.remove(constraint)) {
+			this.version.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Gets the Constraints that were added in the current Cycle.
+	 * 
+	 * @return an unmodifiable List of Constraints
+	 */
+	protected List<Constraint> getConstraints() {
+		return Collections.unmodifiableList(this.constraints);
 	}
 
 	public void addSimpleConstraint(String description, String essId, Phase phase, Pwr pwr, Relationship relationship,
 			double value) throws OpenemsException {
-		this.constraints.add(this.createSimpleConstraint(description, essId, phase, pwr, relationship, value));
+		this.addConstraint(this.createSimpleConstraint(description, essId, phase, pwr, relationship, value));
+	}
+
+	/**
+	 * Gets the version of the Constraints.
+	 * 
+	 * <p>
+	 * The version changes whenever Constraints are added or removed, an Ess is
+	 * added or removed and on every new Cycle. Results of the Solver for one
+	 * version can be reused as long as the version does not change. Changing the
+	 * value of an already added Constraint in place does not change the version.
+	 * 
+	 * @return the version
+	 */
+	public long getVersion() {
+		return this.version.get();
 	}
 
 	public Coefficients getCoefficients() {
@@ -491,6 +528,16 @@ public class Data {
 
 	private static final float SORT_FACTOR = 1.3f;
 
+	/**
+	 * Sorts the list of Inverters, e.g. to restore the order of a recorded Cycle;
+	 * see {@link Recorder}.
+	 * 
+	 * @param comparator the Comparator
+	 */
+	protected synchronized void sortInverters(Comparator<Inverter> comparator) {
+		this.inverters.sort(comparator);
+	}
+
 	protected ManagedSymmetricEss getEss(String essId) {
 		return this.parent.getEss(essId);
 	}
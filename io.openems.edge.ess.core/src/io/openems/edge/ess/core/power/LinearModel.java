@@ -0,0 +1,279 @@
+package io.openems.edge.ess.core.power;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.commons.math3.optim.PointValuePair;
+import org.apache.commons.math3.optim.linear.LinearConstraint;
+import org.apache.commons.math3.optim.linear.LinearConstraintSet;
+import org.apache.commons.math3.optim.linear.LinearObjectiveFunction;
+import org.apache.commons.math3.optim.linear.NoFeasibleSolutionException;
+import org.apache.commons.math3.optim.linear.PivotSelectionRule;
+import org.apache.commons.math3.optim.linear.SimplexSolver;
+import org.apache.commons.math3.optim.linear.UnboundedSolutionException;
+import org.apache.commons.math3.optim.nonlinear.scalar.GoalType;
+
+import io.openems.edge.ess.power.api.Constraint;
+import io.openems.edge.ess.power.api.LinearCoefficient;
+import io.openems.edge.ess.power.api.Relationship;
+
+/**
+ * Keeps the linear problems of the {@link Solver} between Cycles.
+ *
+ * <p>
+ * Every Constraint is converted to a row of the constraint matrix only once;
+ * as long as an equal Constraint is used in this or the previous Cycle, its row
+ * is reused. In the same way the result of every problem is kept: a problem
+ * with the same objective function and the same rows in the same order is not
+ * solved again but answered with the previous result. The SimplexSolver is
+ * deterministic, so this does not change any solution.
+ *
+ * <p>
+ * Rows and results that were not used within the last two Cycles are
+ * discarded; see {@link #nextCycle()}.
+ */
+public class LinearModel {
+
+	private final Data data;
+
+	private int noOfCoefficients = -1;
+
+	private Map<Row, LinearConstraint> rows = new HashMap<>();
+	private Map<Row, LinearConstraint> previousRows = new HashMap<>();
+	private Map<Problem, Result> results = new HashMap<>();
+	private Map<Problem, Result> previousResults = new HashMap<>();
+
+	public LinearModel(Data data) {
+		this.data = data;
+	}
+
+	/**
+	 * Starts a new Cycle. Rows and results that were not used since the previous
+	 * call are discarded.
+	 */
+	public synchronized void nextCycle() {
+		this.previousRows = this.rows;
+		this.rows = new HashMap<>();
+		this.previousResults = this.results;
+		this.results = new HashMap<>();
+	}
+
+	/**
+	 * Optimizes the objective function under the given Constraints.
+	 *
+	 * @param objectiveFunction the objective function
+	 * @param constraints       a list of Constraints
+	 * @param goal              MINIMIZE or MAXIMIZE
+	 * @return the solution
+	 * @throws NoFeasibleSolutionException if not solvable
+	 * @throws UnboundedSolutionException  if not solvable
+	 */
+	public PointValuePair optimize(LinearObjectiveFunction objectiveFunction, List<Constraint> constraints,
+			GoalType goal) throws NoFeasibleSolutionException, UnboundedSolutionException {
+		List<Row> problemRows = new ArrayList<>(constraints.size());
+		for (Constraint c : constraints) {
+			if (c.getValue().isPresent()) {
+				problemRows.add(new Row(c));
+			}
+		}
+		Problem problem = new Problem(objectiveFunction, goal, problemRows);
+
+		Result result;
+		List<LinearConstraint> linearConstraints;
+		synchronized (this) {
+			this.validate();
+			result = this.getResult(problem);
+			if (result != null) {
+				return result.get();
+			}
+			linearConstraints = new ArrayList<>(problemRows.size());
+			for (int i = 0, j = 0; i < constraints.size(); i++) {
+				Constraint c = constraints.get(i);
+				if (c.getValue().isPresent()) {
+					linearConstraints.add(this.getLinearConstraint(problemRows.get(j++), c));
+				}
+			}
+		}
+
+		SimplexSolver solver = new SimplexSolver();
+		try {
+			result = new Result(solver.optimize(//
+					objectiveFunction, //
+					new LinearConstraintSet(linearConstraints), //
+					goal, //
+					PivotSelectionRule.BLAND));
+		} catch (NoFeasibleSolutionException e) {
+			result = Result.NO_FEASIBLE_SOLUTION;
+		} catch (UnboundedSolutionException e) {
+			result = Result.UNBOUNDED_SOLUTION;
+		}
+		synchronized (this) {
+			this.results.put(problem, result);
+		}
+		return result.get();
+	}
+
+	/**
+	 * Gets the number of rows that are kept for reuse.
+	 *
+	 * @return the number of rows
+	 */
+	protected synchronized int getNumberOfRows() {
+		return this.rows.size() + this.previousRows.size();
+	}
+
+	/**
+	 * Gets the number of results that are kept for reuse.
+	 *
+	 * @return the number of results
+	 */
+	protected synchronized int getNumberOfResults() {
+		return this.results.size() + this.previousResults.size();
+	}
+
+	/**
+	 * Discards everything if the number of Coefficients changed, i.e. an Ess was
+	 * added or removed.
+	 */
+	private void validate() {
+		int noOfCoefficients = this.data.getCoefficients().getNoOfCoefficients();
+		if (this.noOfCoefficients != noOfCoefficients) {
+			this.rows.clear();
+			this.previousRows.clear();
+			this.results.clear();
+			this.previousResults.clear();
+			this.noOfCoefficients = noOfCoefficients;
+		}
+	}
+
+	private Result getResult(Problem problem) {
+		Result result = this.results.get(problem);
+		if (result == null) {
+			result = this.previousResults.remove(problem);
+			if (result != null) {
+				this.results.put(problem, result);
+			}
+		}
+		return result;
+	}
+
+	private LinearConstraint getLinearConstraint(Row row, Constraint constraint) {
+		LinearConstraint result = this.rows.get(row);
+		if (result == null) {
+			result = this.previousRows.remove(row);
+			if (result == null) {
+				result = Solver.convertToLinearConstraints(this.data, Collections.singletonList(constraint)).get(0);
+			}
+			this.rows.put(row, result);
+		}
+		return result;
+	}
+
+	/**
+	 * The sparse content of a Constraint.
+	 */
+	private static class Row {
+		private final int[] indices;
+		private final double[] values;
+		private final Relationship relationship;
+		private final double value;
+		private final int hashCode;
+
+		private Row(Constraint constraint) {
+			LinearCoefficient[] coefficients = constraint.getCoefficients();
+			this.indices = new int[coefficients.length];
+			this.values = new double[coefficients.length];
+			for (int i = 0; i < coefficients.length; i++) {
+				this.indices[i] = coefficients[i].getCoefficient().getIndex();
+				this.values[i] = coefficients[i].getValue();
+			}
+			this.relationship = constraint.getRelationship();
+			this.value = constraint.getValue().get();
+			this.hashCode = Objects.hash(Arrays.hashCode(this.indices), Arrays.hashCode(this.values),
+					this.relationship, this.value);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Row)) {
+				return false;
+			}
+			Row other = (Row) obj;
+			return this.hashCode == other.hashCode && this.relationship == other.relationship
+					&& Double.compare(this.value, other.value) == 0 && Arrays.equals(this.indices, other.indices)
+					&& Arrays.equals(this.values, other.values);
+		}
+	}
+
+	/**
+	 * A linear problem: the objective function and the rows in order.
+	 */
+	private static class Problem {
+		private final LinearObjectiveFunction objectiveFunction;
+		private final GoalType goal;
+		private final List<Row> rows;
+		private final int hashCode;
+
+		private Problem(LinearObjectiveFunction objectiveFunction, GoalType goal, List<Row> rows) {
+			this.objectiveFunction = objectiveFunction;
+			this.goal = goal;
+			this.rows = rows;
+			this.hashCode = Objects.hash(objectiveFunction, goal, rows);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Problem)) {
+				return false;
+			}
+			Problem other = (Problem) obj;
+			return this.hashCode == other.hashCode && this.goal == other.goal
+					&& this.objectiveFunction.equals(other.objectiveFunction) && this.rows.equals(other.rows);
+		}
+	}
+
+	/**
+	 * The result of a problem: either a solution or the reason why there is none.
+	 */
+	private static class Result {
+		private static final Result NO_FEASIBLE_SOLUTION = new Result(null);
+		private static final Result UNBOUNDED_SOLUTION = new Result(null);
+
+		private final PointValuePair solution;
+
+		private Result(PointValuePair solution) {
+			this.solution = solution;
+		}
+
+		private PointValuePair get() throws NoFeasibleSolutionException, UnboundedSolutionException {
+			if (this == NO_FEASIBLE_SOLUTION) {
+				throw new NoFeasibleSolutionException();
+			}
+			if (this == UNBOUNDED_SOLUTION) {
+				throw new UnboundedSolutionException();
+			}
+			return this.solution;
+		}
+	}
+}
@@ -1,5 +1,7 @@
 package io.openems.edge.ess.core.power;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -116,6 +118,8 @@ public class PowerComponent extends AbstractOpenemsComponent implements OpenemsC
 
 	protected static final boolean DEFAULT_SYMMETRIC_MODE = false;
 	protected static final boolean DEFAULT_DEBUG_MODE = false;
+	protected static final boolean DEFAULT_FAST_PATH = true;
+	protected static final int DEFAULT_SOLVE_TIME_BUDGET = 500; // [ms]
 	protected static final SolverStrategy DEFAULT_SOLVER_STRATEGY = SolverStrategy.OPTIMIZE_BY_MOVING_TOWARDS_TARGET;
 
 	/**
@@ -127,6 +131,7 @@ public class PowerComponent extends AbstractOpenemsComponent implements OpenemsC
 	private final Solver solver;
 
 	private boolean debugMode = PowerComponent.DEFAULT_DEBUG_MODE;
+	private volatile Recorder recorder = null;
 
 	public PowerComponent() {
 		super(//
@@ -140,6 +145,10 @@ public class PowerComponent extends AbstractOpenemsComponent implements OpenemsC
 			this.getNotSolvedChannel().setNextValue(!isSolved);
 			this.getSolveDurationChannel().setNextValue(duration);
 			this.getSolveStrategyChannel().setNextValue(strategy);
+			Recorder recorder = this.recorder;
+			if (recorder != null) {
+				recorder.onSolved(isSolved, duration, strategy);
+			}
 		});
 	}
 
@@ -150,11 +159,42 @@ public class PowerComponent extends AbstractOpenemsComponent implements OpenemsC
 		this.debugMode = config.debugMode();
 		this.solver.setDebugMode(config.debugMode());
 		this.solver.setStrategy(config.strategy());
+		this.solver.setFastPath(config.fastPath());
+		this.solver.setTimeBudget(config.solveTimeBudget());
+		this.startRecording(config);
 	}
 
 	@Deactivate
 	protected void deactivate() {
 		super.deactivate();
+		this.stopRecording();
+	}
+
+	/**
+	 * Starts recording every Cycle to the configured file; see {@link Recorder}.
+	 * 
+	 * @param config the Config
+	 */
+	private synchronized void startRecording(Config config) {
+		this.stopRecording();
+		String file = config.recordFile().trim();
+		if (file.isEmpty()) {
+			return;
+		}
+		try {
+			this.recorder = new Recorder(Paths.get(file), config.recordMaxSize() * 1024L * 1024L, config.strategy(),
+					config.symmetricMode());
+			this.logInfo(this.log, "Recording to [" + file + "]");
+		} catch (IOException e) {
+			this.logWarn(this.log, "Unable to record to [" + file + "]: " + e.getMessage());
+		}
+	}
+
+	private synchronized void stopRecording() {
+		if (this.recorder != null) {
+			this.recorder.close();
+			this.recorder = null;
+		}
 	}
 
 	@Reference(//
@@ -253,7 +293,14 @@ public class PowerComponent extends AbstractOpenemsComponent implements OpenemsC
 	public void handleEvent(Event event) {
 		switch (event.getTopic()) {
 		case EdgeEventConstants.TOPIC_CYCLE_BEFORE_WRITE:
+			Recorder recorder = this.recorder;
+			if (recorder != null) {
+				recorder.beforeSolve(this.data);
+			}
 			this.solver.solve();
+			if (recorder != null) {
+				recorder.afterSolve(this.data);
+			}
 			break;
 		case EdgeEventConstants.TOPIC_CYCLE_AFTER_WRITE:
 			this.data.initializeCycle();
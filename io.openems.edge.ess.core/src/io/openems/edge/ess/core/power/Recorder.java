@@ -0,0 +1,390 @@
+package io.openems.edge.ess.core.power;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
+import io.openems.common.utils.JsonUtils;
+import io.openems.edge.ess.api.ManagedSinglePhaseEss;
+import io.openems.edge.ess.api.ManagedSymmetricEss;
+import io.openems.edge.ess.api.MetaEss;
+import io.openems.edge.ess.power.api.Coefficient;
+import io.openems.edge.ess.power.api.Constraint;
+import io.openems.edge.ess.power.api.EssType;
+import io.openems.edge.ess.power.api.Inverter;
+import io.openems.edge.ess.power.api.LinearCoefficient;
+import io.openems.edge.ess.power.api.SolverStrategy;
+
+/**
+ * Records the input and the result of the {@link Solver} on every Cycle to a
+ * file, so that it can be replayed later, e.g. for regression tests and
+ * benchmarks.
+ *
+ * <p>
+ * Every Cycle is written as one JSON object per line by a background thread.
+ * Files ending with '.gz' are compressed. An existing file is appended to; once
+ * it exceeds the maximum size it is renamed to 'NAME.1' resp. 'NAME.1.gz' and
+ * a new file is started. Cycles are dropped while the writer falls behind.
+ *
+ * <pre>
+ * {
+ *   "time": 1571234567890,
+ *   "strategy": "OPTIMIZE_BY_MOVING_TOWARDS_TARGET",
+ *   "symmetricMode": false,
+ *   "esss": [
+ *     { "id": "ess0", "type": "META", "esss": ["ess1", "ess2"] },
+ *     { "id": "ess1", "type": "SYMMETRIC", "soc": 50, "allowedCharge": -9000,
+ *       "allowedDischarge": 9000, "maxApparentPower": 9000, "precision": 100,
+ *       "staticConstraints": [ Constraint ] }
+ *   ],
+ *   "inverters": [ ["ess1", "ALL", weight, lastActivePower] ],
+ *   "coefficients": [ ["ess1", "ALL", "ACTIVE"] ],
+ *   "constraints": [ {
+ *     "description": "ess0: Set Active Power",
+ *     "coefficients": [ [index, value] ],
+ *     "relationship": "EQUALS",
+ *     "value": -5000
+ *   } ],
+ *   "solution": { "solved": true, "strategy": "...", "duration": 3,
+ *                 "power": { "ess1": [activePower, reactivePower] } }
+ * }
+ * </pre>
+ *
+ * <p>
+ * "inverters" are in the order that is used by the Solver; "constraints" are
+ * the Constraints that were added by Controllers in this Cycle. All other
+ * Constraints are created from "esss".
+ */
+public class Recorder {
+
+	private static final int QUEUE_SIZE = 100;
+	private static final long FLUSH_INTERVAL = 10_000; // [ms]
+	private static final long CLOSE_TIMEOUT = 10; // [s]
+
+	private final Logger log = LoggerFactory.getLogger(Recorder.class);
+
+	private final Path file;
+	private final long maxFileSize;
+	private final SolverStrategy strategy;
+	private final boolean symmetricMode;
+	private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+			new ArrayBlockingQueue<>(QUEUE_SIZE), r -> new Thread(r, "Ess.Power.Recorder"));
+
+	// only accessed by the executor thread resp. after it terminated
+	private Writer writer;
+	private long fileSize = 0;
+	private long lastFlush = 0;
+
+	private JsonObject cycle = null;
+	private int droppedCycles = 0;
+
+	/**
+	 * Opens the file for recording.
+	 *
+	 * @param file          the file
+	 * @param maxFileSize   the maximum file size in bytes before it is rotated
+	 * @param strategy      the configured SolverStrategy
+	 * @param symmetricMode the configured Symmetric Mode
+	 * @throws IOException on error
+	 */
+	public Recorder(Path file, long maxFileSize, SolverStrategy strategy, boolean symmetricMode)
+			throws IOException {
+		this.file = file;
+		this.maxFileSize = maxFileSize;
+		this.strategy = strategy;
+		this.symmetricMode = symmetricMode;
+		this.open();
+	}
+
+	/**
+	 * Records the input of the Solver. Call before {@link Solver#solve()}.
+	 *
+	 * @param data the Data object
+	 */
+	public void beforeSolve(Data data) {
+		JsonArray esss = new JsonArray();
+		for (String essId : data.getEssIds()) {
+			esss.add(this.toJson(data.getEss(essId)));
+		}
+		JsonArray inverters = new JsonArray();
+		for (Inverter inv : data.getInverters()) {
+			JsonArray j = new JsonArray();
+			j.add(inv.getEssId());
+			j.add(inv.getPhase().name());
+			j.add(inv.getWeight());
+			j.add(inv.getLastActivePower());
+			inverters.add(j);
+		}
+		JsonArray coefficients = new JsonArray();
+		for (Coefficient c : data.getCoefficients().getAll()) {
+			JsonArray j = new JsonArray();
+			j.add(c.getEssId());
+			j.add(c.getPhase().name());
+			j.add(c.getPwr().name());
+			coefficients.add(j);
+		}
+		this.cycle = JsonUtils.buildJsonObject() //
+				.addProperty("time", System.currentTimeMillis()) //
+				.addProperty("strategy", this.strategy.name()) //
+				.addProperty("symmetricMode", this.symmetricMode) //
+				.add("esss", esss) //
+				.add("inverters", inverters) //
+				.add("coefficients", coefficients) //
+				.add("constraints", Recorder.toJson(data.getConstraints())) //
+				.build();
+	}
+
+	/**
+	 * Records the result of the Solver; see {@link Solver#onSolved}.
+	 *
+	 * @param isSolved whether the Problem was solved
+	 * @param duration the solve duration in milliseconds
+	 * @param strategy the SolverStrategy that solved the Problem
+	 */
+	public void onSolved(boolean isSolved, int duration, SolverStrategy strategy) {
+		if (this.cycle == null) {
+			return;
+		}
+		this.cycle.add("solution", JsonUtils.buildJsonObject() //
+				.addProperty("solved", isSolved) //
+				.addProperty("strategy", strategy.name()) //
+				.addProperty("duration", duration) //
+				.build());
+	}
+
+	/**
+	 * Records the applied power and writes the Cycle to the file. Call after
+	 * {@link Solver#solve()}.
+	 *
+	 * @param data the Data object
+	 */
+	public void afterSolve(Data data) {
+		if (this.cycle == null) {
+			return;
+		}
+		JsonObject power = new JsonObject();
+		for (String essId : data.getEssIds()) {
+			ManagedSymmetricEss ess = data.getEss(essId);
+			if (ess instanceof MetaEss) {
+				continue;
+			}
+			Object activePower = ess.channel(ManagedSymmetricEss.ChannelId.DEBUG_SET_ACTIVE_POWER).getNextValue()
+					.get();
+			Object reactivePower = ess.channel(ManagedSymmetricEss.ChannelId.DEBUG_SET_REACTIVE_POWER).getNextValue()
+					.get();
+			if (activePower instanceof Integer && reactivePower instanceof Integer) {
+				power.add(essId, JsonUtils.buildJsonArray() //
+						.add((Integer) activePower) //
+						.add((Integer) reactivePower) //
+						.build());
+			}
+		}
+		JsonObject solution = JsonUtils.getAsOptionalJsonObject(this.cycle, "solution").orElse(new JsonObject());
+		solution.add("power", power);
+		this.cycle.add("solution", solution);
+
+		JsonObject cycle = this.cycle;
+		this.cycle = null;
+		try {
+			this.executor.execute(() -> this.write(cycle));
+			if (this.droppedCycles > 0) {
+				this.log.warn("Recording to [" + this.file + "] fell behind. Dropped [" + this.droppedCycles
+						+ "] Cycles");
+				this.droppedCycles = 0;
+			}
+		} catch (RejectedExecutionException e) {
+			// queue is full or Recorder was closed
+			this.droppedCycles++;
+		}
+	}
+
+	/**
+	 * Writes the remaining Cycles and closes the file.
+	 */
+	public void close() {
+		this.executor.shutdown();
+		try {
+			if (!this.executor.awaitTermination(CLOSE_TIMEOUT, TimeUnit.SECONDS)) {
+				this.log.warn("Recording to [" + this.file + "] did not finish in time");
+				this.executor.shutdownNow();
+				this.executor.awaitTermination(CLOSE_TIMEOUT, TimeUnit.SECONDS);
+			}
+		} catch (InterruptedException e) {
+			this.executor.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+		this.closeWriter();
+	}
+
+	/**
+	 * Writes one Cycle. Runs on the executor thread.
+	 *
+	 * @param cycle the Cycle
+	 */
+	private void write(JsonObject cycle) {
+		if (this.writer == null) {
+			return;
+		}
+		try {
+			if (this.fileSize > 0 && this.fileSize >= this.maxFileSize) {
+				this.rotate();
+			}
+			this.writer.write(cycle.toString());
+			this.writer.write('\n');
+			long now = System.currentTimeMillis();
+			if (this.executor.getQueue().isEmpty() && now - this.lastFlush >= FLUSH_INTERVAL) {
+				this.writer.flush();
+				this.lastFlush = now;
+			}
+		} catch (IOException e) {
+			this.log.warn("Unable to record to [" + this.file + "]. Stopping: " + e.getMessage());
+			this.closeWriter();
+			this.executor.shutdown();
+		}
+	}
+
+	private void open() throws IOException {
+		this.fileSize = Files.exists(this.file) ? Files.size(this.file) : 0;
+		OutputStream out = new FilterOutputStream(
+				Files.newOutputStream(this.file, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+			@Override
+			public void write(int b) throws IOException {
+				this.out.write(b);
+				Recorder.this.fileSize++;
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				this.out.write(b, off, len);
+				Recorder.this.fileSize += len;
+			}
+		};
+		if (this.isCompressed()) {
+			out = new GZIPOutputStream(out, true);
+		}
+		this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		this.lastFlush = System.currentTimeMillis();
+	}
+
+	/**
+	 * Renames the current file to 'NAME.1' resp. 'NAME.1.gz', replacing an older
+	 * one, and starts a new file.
+	 *
+	 * @throws IOException on error
+	 */
+	private void rotate() throws IOException {
+		this.writer.close();
+		this.writer = null;
+		String name = this.file.getFileName().toString();
+		if (this.isCompressed()) {
+			name = name.substring(0, name.length() - ".gz".length()) + ".1.gz";
+		} else {
+			name = name + ".1";
+		}
+		Files.move(this.file, this.file.resolveSibling(name), StandardCopyOption.REPLACE_EXISTING);
+		this.open();
+	}
+
+	private boolean isCompressed() {
+		return this.file.toString().endsWith(".gz");
+	}
+
+	private void closeWriter() {
+		if (this.writer == null) {
+			return;
+		}
+		try {
+			this.writer.close();
+		} catch (IOException e) {
+			this.log.warn("Unable to close [" + this.file + "]: " + e.getMessage());
+		}
+		this.writer = null;
+	}
+
+	private JsonObject toJson(ManagedSymmetricEss ess) {
+		EssType essType = EssType.getEssType(ess);
+		JsonObject result = JsonUtils.buildJsonObject() //
+				.addProperty("id", ess.id()) //
+				.addProperty("type", essType.name()) //
+				.build();
+		if (ess instanceof MetaEss) {
+			JsonArray esss = new JsonArray();
+			for (ManagedSymmetricEss subEss : ((MetaEss) ess).getEsss()) {
+				if (subEss.isEnabled()) {
+					esss.add(subEss.id());
+				}
+			}
+			result.add("esss", esss);
+			return result;
+		}
+		if (ess instanceof ManagedSinglePhaseEss) {
+			result.addProperty("phase", ((ManagedSinglePhaseEss) ess).getPhase().name());
+		}
+		Recorder.addProperty(result, "soc", ess.getSoc().value().asOptional());
+		Recorder.addProperty(result, "allowedCharge", ess.getAllowedCharge().value().asOptional());
+		Recorder.addProperty(result, "allowedDischarge", ess.getAllowedDischarge().value().asOptional());
+		Recorder.addProperty(result, "maxApparentPower", ess.getMaxApparentPower().value().asOptional());
+		result.addProperty("precision", ess.getPowerPrecision());
+		try {
+			Constraint[] staticConstraints = ess.getStaticConstraints();
+			if (staticConstraints.length > 0) {
+				result.add("staticConstraints", Recorder.toJson(Arrays.asList(staticConstraints)));
+			}
+		} catch (OpenemsNamedException e) {
+			// the Solver handles the same error; see Data.createStaticEssConstraints()
+		}
+		return result;
+	}
+
+	private static void addProperty(JsonObject j, String property, Optional<Integer> value) {
+		if (value.isPresent()) {
+			j.addProperty(property, value.get());
+		}
+	}
+
+	private static JsonArray toJson(List<Constraint> constraints) {
+		JsonArray result = new JsonArray();
+		for (Constraint c : constraints) {
+			JsonArray coefficients = new JsonArray();
+			for (LinearCoefficient co : c.getCoefficients()) {
+				JsonArray j = new JsonArray();
+				j.add(co.getCoefficient().getIndex());
+				j.add(co.getValue());
+				coefficients.add(j);
+			}
+			JsonObject j = JsonUtils.buildJsonObject() //
+					.addProperty("description", c.getDescription()) //
+					.add("coefficients", coefficients) //
+					.addProperty("relationship", c.getRelationship().name()) //
+					.build();
+			if (c.getValue().isPresent()) {
+				j.addProperty("value", c.getValue().get());
+			}
+			result.add(j);
+		}
+		return result;
+	}
+}
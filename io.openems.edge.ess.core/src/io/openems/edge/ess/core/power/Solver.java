@@ -6,14 +6,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Predicate;
 
 import org.apache.commons.math3.optim.PointValuePair;
 import org.apache.commons.math3.optim.linear.LinearConstraint;
-import org.apache.commons.math3.optim.linear.LinearConstraintSet;
 import org.apache.commons.math3.optim.linear.LinearObjectiveFunction;
 import org.apache.commons.math3.optim.linear.NoFeasibleSolutionException;
-import org.apache.commons.math3.optim.linear.PivotSelectionRule;
-import org.apache.commons.math3.optim.linear.SimplexSolver;
 import org.apache.commons.math3.optim.linear.UnboundedSolutionException;
 import org.apache.commons.math3.optim.nonlinear.scalar.GoalType;
 import org.slf4j.Logger;
@@ -43,19 +42,25 @@ import io.openems.edge.ess.power.api.SolverStrategy;
 
 public class Solver {
 
-	private static final double LEARNING_RATE = 0.1;
+	protected static final double LEARNING_RATE = 0.1;
 
 	private final Logger log = LoggerFactory.getLogger(Solver.class);
 
 	private final Data data;
+	private final SolverCache cache = new SolverCache();
+	private final LinearModel model;
 
 	private boolean debugMode = PowerComponent.DEFAULT_DEBUG_MODE;
+	private boolean fastPath = PowerComponent.DEFAULT_FAST_PATH;
 	private SolverStrategy strategy = PowerComponent.DEFAULT_SOLVER_STRATEGY;
+	private int timeBudget = PowerComponent.DEFAULT_SOLVE_TIME_BUDGET;
+	private long solveStartTime = 0;
 	private OnSolved onSolvedCallback = (isSolved, duration, strategy) -> {
 	};
 
 	public Solver(Data data) {
 		this.data = data;
+		this.model = new LinearModel(data);
 	}
 
 	/**
@@ -70,15 +75,27 @@ public class Solver {
 	/**
 	 * Tests whether the Problem is solvable under the current Constraints.
 	 * 
+	 * <p>
+	 * The result is memoized until the Constraints change.
+	 * 
 	 * @throws OpenemsException on error
 	 */
 	public void isSolvableOrError() throws OpenemsException {
-		try {
-			this.solveWithAllConstraints();
-		} catch (NoFeasibleSolutionException e) {
-			throw new PowerException(Type.NO_FEASIBLE_SOLUTION);
-		} catch (UnboundedSolutionException e) {
-			throw new PowerException(Type.UNBOUNDED_SOLUTION);
+		long version = this.data.getVersion();
+		Optional<Type> solvable = this.cache.getSolvable(version);
+		if (solvable == null) {
+			try {
+				this.solveWithAllConstraints();
+				solvable = Optional.empty();
+			} catch (NoFeasibleSolutionException e) {
+				solvable = Optional.of(Type.NO_FEASIBLE_SOLUTION);
+			} catch (UnboundedSolutionException e) {
+				solvable = Optional.of(Type.UNBOUNDED_SOLUTION);
+			}
+			this.cache.putSolvable(version, solvable);
+		}
+		if (solvable.isPresent()) {
+			throw new PowerException(solvable.get());
 		}
 	}
 
@@ -89,14 +106,37 @@ public class Solver {
 	 */
 	public boolean isSolvable() {
 		try {
-			this.solveWithAllConstraints();
+			this.isSolvableOrError();
 			return true;
-		} catch (NoFeasibleSolutionException | UnboundedSolutionException | OpenemsException e) {
+		} catch (OpenemsException e) {
 			return false;
 		}
 	}
 
+	/**
+	 * Gets the minimum or maximum value of a Coefficient under the current
+	 * Constraints.
+	 * 
+	 * <p>
+	 * The result is memoized until the Constraints change.
+	 * 
+	 * @param essId the Ess-ID
+	 * @param phase the Phase
+	 * @param pwr   the Pwr
+	 * @param goal  MAXIMIZE or MINIMIZE
+	 * @return the extrema
+	 */
 	public double getActivePowerExtrema(String essId, Phase phase, Pwr pwr, GoalType goal) {
+		long version = this.data.getVersion();
+		Double result = this.cache.getExtrema(version, essId, phase, pwr, goal);
+		if (result == null) {
+			result = this.calculateActivePowerExtrema(essId, phase, pwr, goal);
+			this.cache.putExtrema(version, essId, phase, pwr, goal, result);
+		}
+		return result;
+	}
+
+	private double calculateActivePowerExtrema(String essId, Phase phase, Pwr pwr, GoalType goal) {
 		// prepare objective function
 		int index;
 		try {
@@ -118,16 +158,8 @@ public class Solver {
 			return 0;
 		}
 
-		LinearConstraintSet constraints = new LinearConstraintSet(
-				Solver.convertToLinearConstraints(this.data, allConstraints));
-
-		SimplexSolver solver = new SimplexSolver();
 		try {
-			PointValuePair solution = solver.optimize(//
-					objectiveFunction, //
-					constraints, //
-					goal, //
-					PivotSelectionRule.BLAND);
+			PointValuePair solution = this.model.optimize(objectiveFunction, allConstraints, goal);
 			return solution.getPoint()[index];
 		} catch (UnboundedSolutionException e) {
 			if (this.debugMode) {
@@ -157,6 +189,8 @@ public class Solver {
 	public void solve() {
 		// measure duration
 		final long startTime = System.nanoTime();
+		this.solveStartTime = startTime;
+		this.model.nextCycle();
 
 		// No Inverters -> nothing to do
 		if (this.data.getInverters().isEmpty()) {
@@ -173,9 +207,6 @@ public class Solver {
 			// Check if the Problem is solvable at all.
 			allConstraints = this.data.getConstraintsForAllInverters();
 
-			// Add Strict constraints if required
-			this.addConstraintsForNotStrictlyDefinedCoefficients(allInverters, allConstraints);
-
 			// Print log with currently active EQUALS != 0 Constraints
 			if (this.debugMode) {
 				this.log.info("Currently active EQUALS contraints");
@@ -186,31 +217,60 @@ public class Solver {
 				}
 			}
 
-			// Evaluates whether it is a CHARGE or DISCHARGE problem.
-			targetDirection = this.getTargetDirection();
+			// Try to solve the Problem in closed form
+			List<Inverter> targetInverters = null;
+			BoxSolver boxSolver = this.fastPath ? BoxSolver.from(this.data, allInverters, allConstraints) : null;
+			if (boxSolver != null) {
+				targetDirection = boxSolver.getTargetDirection();
+				targetInverters = this.getTargetInverters(allInverters, targetDirection,
+						boxSolver::isSolvableWithDisabledInverters);
+				SolveSolution boxSolution = boxSolver.solve(this.strategy, targetDirection, targetInverters);
+				if (boxSolution != null) {
+					solution = boxSolution;
+				} else if (this.debugMode) {
+					this.log.info("Unable to solve in closed form. Using linear solver.");
+				}
+			}
 
-			// Gets the target-Inverters, i.e. the Inverters that are minimally required to
-			// solve the Problem.
-			List<Inverter> targetInverters = this.getTargetInverters(data.getInverters(), targetDirection);
+			if (solution.getPoints() == null) {
+				// Add Strict constraints if required
+				this.addConstraintsForNotStrictlyDefinedCoefficients(allInverters, allConstraints);
+
+				if (targetInverters == null) {
+					// Evaluates whether it is a CHARGE or DISCHARGE problem.
+					targetDirection = this.getTargetDirection();
+
+					// Gets the target-Inverters, i.e. the Inverters that are minimally required
+					// to solve the Problem.
+					targetInverters = this.getTargetInverters(allInverters, targetDirection, disabledInverters -> {
+						try {
+							this.solveWithDisabledInverters(disabledInverters);
+							return true;
+						} catch (NoFeasibleSolutionException | UnboundedSolutionException | OpenemsException e) {
+							return false;
+						}
+					});
+				}
 
-			switch (this.strategy) {
-			case UNDEFINED:
-			case ALL_CONSTRAINTS:
-			case NONE:
-				solution = this.tryStrategies(targetDirection, allInverters, targetInverters, allConstraints);
-				break;
+				switch (this.strategy) {
+				case UNDEFINED:
+				case ALL_CONSTRAINTS:
+				case NONE:
+					solution = this.tryStrategies(targetDirection, allInverters, targetInverters, allConstraints);
+					break;
 
-			case OPTIMIZE_BY_MOVING_TOWARDS_TARGET:
-				solution = this.tryStrategies(targetDirection, allInverters, targetInverters, allConstraints,
-						SolverStrategy.OPTIMIZE_BY_MOVING_TOWARDS_TARGET,
-						SolverStrategy.OPTIMIZE_BY_KEEPING_TARGET_DIRECTION_AND_MAXIMIZING_IN_ORDER);
-				break;
+				case OPTIMIZE_BY_MOVING_TOWARDS_TARGET:
+					solution = this.tryStrategies(targetDirection, allInverters, targetInverters, allConstraints,
+							SolverStrategy.OPTIMIZE_BY_MOVING_TOWARDS_TARGET,
+							SolverStrategy.OPTIMIZE_BY_KEEPING_TARGET_DIRECTION_AND_MAXIMIZING_IN_ORDER);
+					break;
 
-			case OPTIMIZE_BY_KEEPING_TARGET_DIRECTION_AND_MAXIMIZING_IN_ORDER:
-				solution = this.tryStrategies(targetDirection, allInverters, targetInverters, allConstraints,
-						SolverStrategy.OPTIMIZE_BY_KEEPING_TARGET_DIRECTION_AND_MAXIMIZING_IN_ORDER,
-						SolverStrategy.OPTIMIZE_BY_MOVING_TOWARDS_TARGET);
-				break;
+				case OPTIMIZE_BY_KEEPING_TARGET_DIRECTION_AND_MAXIMIZING_IN_ORDER:
+					solution = this.tryStrategies(targetDirection, allInverters, targetInverters, allConstraints,
+							SolverStrategy.OPTIMIZE_BY_KEEPING_TARGET_DIRECTION_AND_MAXIMIZING_IN_ORDER,
+							SolverStrategy.OPTIMIZE_BY_MOVING_TOWARDS_TARGET);
+					break;
+				}
 			}
 
 		} catch (NoFeasibleSolutionException | UnboundedSolutionException e) {
@@ -226,6 +286,10 @@ public class Solver {
 
 		// finish time measure (in milliseconds)
 		int duration = (int) (System.nanoTime() - startTime) / 1_000_000;
+		if (this.isTimeBudgetExceeded()) {
+			this.log.warn("Power-Solver: Time budget of [" + this.timeBudget + " ms] exceeded after [" + duration
+					+ " ms]. Using the best solution found so far.");
+		}
 
 		// announce success/failure
 		boolean isSolved = solution.getPoints() != null;
@@ -246,7 +310,8 @@ public class Solver {
 
 	/**
 	 * Tries different solving strategies in order. 'ALL_CONSTRAINTS' is always
-	 * tried last if everything else failed. Returns as soon as a result is found.
+	 * tried last if everything else failed or the time budget is exceeded. Returns
+	 * as soon as a result is found.
 	 * 
 	 * @param targetDirection the target direction
 	 * @param allInverters    a list of all inverters
@@ -261,6 +326,10 @@ public class Solver {
 			throws OpenemsException {
 		PointValuePair solution = null;
 		for (SolverStrategy strategy : strategies) {
+			if (this.isTimeBudgetExceeded()) {
+				// skip remaining strategies
+				break;
+			}
 			switch (strategy) {
 			case UNDEFINED:
 			case NONE:
@@ -301,9 +370,6 @@ public class Solver {
 	 */
 	private void addConstraintsForNotStrictlyDefinedCoefficients(List<Inverter> allInverters,
 			List<Constraint> allConstraints) throws OpenemsException {
-		LinearConstraintSet constraints = new LinearConstraintSet(
-				Solver.convertToLinearConstraints(this.data, allConstraints));
-
 		for (Pwr pwr : Pwr.values()) {
 			// prepare objective function
 			double[] cos = Solver.getEmptyCoefficients(data);
@@ -316,12 +382,7 @@ public class Solver {
 			// get Max value over all relevant Coefficients
 			double max;
 			try {
-				SimplexSolver solver = new SimplexSolver();
-				PointValuePair solution = solver.optimize(//
-						objectiveFunction, //
-						constraints, //
-						GoalType.MAXIMIZE, //
-						PivotSelectionRule.BLAND);
+				PointValuePair solution = this.model.optimize(objectiveFunction, allConstraints, GoalType.MAXIMIZE);
 				max = 0d;
 				for (Inverter inv : allInverters) {
 					Coefficient c = this.data.getCoefficient(inv.getEssId(), inv.getPhase(), pwr);
@@ -333,12 +394,7 @@ public class Solver {
 			// get Min value over all relevant Coefficients
 			double min;
 			try {
-				SimplexSolver solver = new SimplexSolver();
-				PointValuePair solution = solver.optimize(//
-						objectiveFunction, //
-						constraints, //
-						GoalType.MINIMIZE, //
-						PivotSelectionRule.BLAND);
+				PointValuePair solution = this.model.optimize(objectiveFunction, allConstraints, GoalType.MINIMIZE);
 				min = 0d;
 				for (Inverter inv : allInverters) {
 					Coefficient c = this.data.getCoefficient(inv.getEssId(), inv.getPhase(), pwr);
@@ -422,6 +478,9 @@ public class Solver {
 	 * Tries to keep all Target Inverters in the right TargetDirection; then
 	 * maximizes them in order.
 	 * 
+	 * <p>
+	 * If the time budget is exceeded, the best solution found so far is returned.
+	 * 
 	 * @param allInverters    a list of all inverters
 	 * @param targetInverters a list of target inverters
 	 * @param allConstraints  a list of all Cosntraints
@@ -461,6 +520,9 @@ public class Solver {
 		}
 
 		for (Inverter inv : targetInverters) {
+			if (this.isTimeBudgetExceeded()) {
+				return result;
+			}
 			// Create Constraint to force Ess positive/negative/zero according to
 			// targetDirection
 			Constraint c = this.data.createSimpleConstraint(inv.toString() + ": Force " + targetDirection.name(),
@@ -482,6 +544,9 @@ public class Solver {
 
 		// Try maximizing all inverters in order in target direction
 		for (Inverter inv : targetInverters) {
+			if (this.isTimeBudgetExceeded()) {
+				return result;
+			}
 			GoalType goal;
 			if (targetDirection == TargetDirection.CHARGE) {
 				goal = GoalType.MINIMIZE;
@@ -519,6 +584,80 @@ public class Solver {
 	 */
 	private PointValuePair optimizeByMovingTowardsTarget(TargetDirection targetDirection, List<Inverter> allInverters,
 			List<Inverter> targetInverters, List<Constraint> allConstraints) throws OpenemsException {
+		Map<Inverter, Double> nextWeights = new HashMap<>();
+		Map<Inverter, Double> learningRates = new HashMap<>();
+		Solver.initializeWeights(targetDirection, allInverters, targetInverters, nextWeights, learningRates);
+
+		// adjust towards target weight till Problem solves
+		for (double i = 0; i < 1 - LEARNING_RATE; i += LEARNING_RATE) {
+			List<Constraint> constraints = new ArrayList<>(allConstraints);
+			List<Inverter> inverters = new ArrayList<>(allInverters);
+
+			// set EQUALS ZERO constraint if next weight is zero + remove Inverter from
+			// inverters
+			for (Entry<Inverter, Double> entry : nextWeights.entrySet()) {
+				if (entry.getValue() == 0) { // might fail... compare double to zero
+					Inverter inv = entry.getKey();
+					Constraint c = this.data.createSimpleConstraint(inv.toString() + ": next weight = 0",
+							inv.getEssId(), inv.getPhase(), Pwr.ACTIVE, Relationship.EQUALS, 0);
+					constraints.add(c);
+					inverters.remove(inv);
+				}
+			}
+
+			// no inverters left? -> nothing to optimize
+			if (inverters.isEmpty()) {
+				return null;
+			}
+
+			// Create weighted Constraint between first inverter and every other inverter
+			Inverter invA = inverters.get(0);
+			for (int j = 1; j < inverters.size(); j++) {
+				Inverter invB = inverters.get(j);
+				Constraint c = new Constraint(invA.toString() + "|" + invB.toString() + ": Weight",
+						new LinearCoefficient[] {
+								new LinearCoefficient(
+										this.data.getCoefficient(invA.getEssId(), invA.getPhase(), Pwr.ACTIVE),
+										nextWeights.get(invB)),
+								new LinearCoefficient(
+										this.data.getCoefficient(invB.getEssId(), invB.getPhase(), Pwr.ACTIVE),
+										nextWeights.get(invA) * -1) },
+						Relationship.EQUALS, 0);
+				constraints.add(c);
+			}
+
+			try {
+				PointValuePair solution = this.solveWithConstraints(constraints);
+				return solution;
+			} catch (NoFeasibleSolutionException | UnboundedSolutionException e) {
+				if (this.isTimeBudgetExceeded()) {
+					return null;
+				}
+				// Adjust next weights
+				for (Entry<Inverter, Double> entry : nextWeights.entrySet()) {
+					entry.setValue(entry.getValue() + learningRates.get(entry.getKey()));
+				}
+			}
+		}
+
+		// TODO if we reached here, we should try to approach existingWeights in the
+		// same way as above. This could still improve existingSolution.
+		return null;
+	}
+
+	/**
+	 * Initializes the weights for 'optimizeByMovingTowardsTarget()', i.e. moves
+	 * the weights used in last applyPower() towards the target weights using a
+	 * learning rate.
+	 *
+	 * @param targetDirection the target direction
+	 * @param allInverters    a list of all inverters
+	 * @param targetInverters a list of target inverters
+	 * @param nextWeights     is filled with the weights for the first try
+	 * @param learningRates   is filled with the learning rate per inverter
+	 */
+	protected static void initializeWeights(TargetDirection targetDirection, List<Inverter> allInverters,
+			List<Inverter> targetInverters, Map<Inverter, Double> nextWeights, Map<Inverter, Double> learningRates) {
 		// find maxLastActive + maxWeight
 		int maxLastActivePower = 0;
 		int sumWeights = 0;
@@ -567,69 +706,14 @@ public class Solver {
 		}
 
 		// create map with learning rates
-		Map<Inverter, Double> learningRates = new HashMap<>();
 		for (Inverter inv : allInverters) {
 			learningRates.put(inv, (targetWeights.get(inv) - lastWeights.get(inv)) * LEARNING_RATE);
 		}
 
 		// create map with next weights (= last weights + learningRates)
-		Map<Inverter, Double> nextWeights = new HashMap<>();
 		for (Inverter inv : allInverters) {
 			nextWeights.put(inv, lastWeights.get(inv) + learningRates.get(inv));
 		}
-
-		// adjust towards target weight till Problem solves
-		for (double i = 0; i < 1 - LEARNING_RATE; i += LEARNING_RATE) {
-			List<Constraint> constraints = new ArrayList<>(allConstraints);
-			List<Inverter> inverters = new ArrayList<>(allInverters);
-
-			// set EQUALS ZERO constraint if next weight is zero + remove Inverter from
-			// inverters
-			for (Entry<Inverter, Double> entry : nextWeights.entrySet()) {
-				if (entry.getValue() == 0) { // might fail... compare double to zero
-					Inverter inv = entry.getKey();
-					Constraint c = this.data.createSimpleConstraint(inv.toString() + ": next weight = 0",
-							inv.getEssId(), inv.getPhase(), Pwr.ACTIVE, Relationship.EQUALS, 0);
-					constraints.add(c);
-					inverters.remove(inv);
-				}
-			}
-
-			// no inverters left? -> nothing to optimize
-			if (inverters.isEmpty()) {
-				return null;
-			}
-
-			// Create weighted Constraint between first inverter and every other inverter
-			Inverter invA = inverters.get(0);
-			for (int j = 1; j < inverters.size(); j++) {
-				Inverter invB = inverters.get(j);
-				Constraint c = new Constraint(invA.toString() + "|" + invB.toString() + ": Weight",
-						new LinearCoefficient[] {
-								new LinearCoefficient(
-										this.data.getCoefficient(invA.getEssId(), invA.getPhase(), Pwr.ACTIVE),
-										nextWeights.get(invB)),
-								new LinearCoefficient(
-										this.data.getCoefficient(invB.getEssId(), invB.getPhase(), Pwr.ACTIVE),
-										nextWeights.get(invA) * -1) },
-						Relationship.EQUALS, 0);
-				constraints.add(c);
-			}
-
-			try {
-				PointValuePair solution = this.solveWithConstraints(constraints);
-				return solution;
-			} catch (NoFeasibleSolutionException | UnboundedSolutionException e) {
-				// Adjust next weights
-				for (Entry<Inverter, Double> entry : nextWeights.entrySet()) {
-					entry.setValue(entry.getValue() + learningRates.get(entry.getKey()));
-				}
-			}
-		}
-
-		// TODO if we reached here, we should try to approach existingWeights in the
-		// same way as above. This could still improve existingSolution.
-		return null;
 	}
 
 	/**
@@ -710,11 +794,15 @@ public class Solver {
 	 * This method therefore tries to remove inverters in order until there is no
 	 * solution anymore. It than re-adds that inverter and returns the solution.
 	 * 
-	 * @param allInverters    a list of all inverters
-	 * @param targetDirection the target direction
+	 * @param allInverters                    a list of all inverters
+	 * @param targetDirection                 the target direction
+	 * @param isSolvableWithDisabledInverters tests whether the problem is
+	 *                                        solvable while setting the given
+	 *                                        inverters to zero
 	 * @return a list of target inverters
 	 */
-	private List<Inverter> getTargetInverters(List<Inverter> allInverters, TargetDirection targetDirection) {
+	private List<Inverter> getTargetInverters(List<Inverter> allInverters, TargetDirection targetDirection,
+			Predicate<List<Inverter>> isSolvableWithDisabledInverters) {
 		List<Inverter> disabledInverters = new ArrayList<>();
 
 		// Change target direction only once in a while
@@ -742,10 +830,12 @@ public class Solver {
 		}
 
 		for (Inverter inverter : allInvertersTargetDirection) {
+			if (this.isTimeBudgetExceeded()) {
+				// keep the remaining inverters
+				break;
+			}
 			disabledInverters.add(inverter);
-			try {
-				this.solveWithDisabledInverters(disabledInverters);
-			} catch (NoFeasibleSolutionException | UnboundedSolutionException | OpenemsException e) {
+			if (!isSolvableWithDisabledInverters.test(disabledInverters)) {
 				disabledInverters.remove(inverter);
 				break;
 			}
@@ -787,28 +877,8 @@ public class Solver {
 	 */
 	private PointValuePair solveWithConstraints(List<Constraint> constraints)
 			throws NoFeasibleSolutionException, UnboundedSolutionException {
-		List<LinearConstraint> linearConstraints = Solver.convertToLinearConstraints(this.data, constraints);
-		return this.solveWithLinearConstraints(linearConstraints);
-	}
-
-	/**
-	 * Solves the problem with the given list of LinearConstraints.
-	 * 
-	 * @param constraints a list of LinearConstraints
-	 * @return a solution
-	 * @throws NoFeasibleSolutionException if not solvable
-	 * @throws UnboundedSolutionException  if not solvable
-	 */
-	private PointValuePair solveWithLinearConstraints(List<LinearConstraint> constraints)
-			throws NoFeasibleSolutionException, UnboundedSolutionException {
 		LinearObjectiveFunction objectiveFunction = Solver.getDefaultObjectiveFunction(this.data);
-
-		SimplexSolver solver = new SimplexSolver();
-		return solver.optimize(//
-				objectiveFunction, //
-				new LinearConstraintSet(constraints), //
-				GoalType.MINIMIZE, //
-				PivotSelectionRule.BLAND);
+		return this.model.optimize(objectiveFunction, constraints, GoalType.MINIMIZE);
 	}
 
 	/**
@@ -1050,6 +1120,36 @@ public class Solver {
 		this.debugMode = debugMode;
 	}
 
+	/**
+	 * Sets the time budget for one call of {@link #solve()}. Once it is exceeded,
+	 * the remaining optimization steps are skipped and the best solution found so
+	 * far is applied.
+	 * 
+	 * @param timeBudget the time budget in milliseconds; zero for unlimited
+	 */
+	protected void setTimeBudget(int timeBudget) {
+		this.timeBudget = timeBudget;
+	}
+
+	/**
+	 * Tests whether the current call of {@link #solve()} exceeded the time budget.
+	 * 
+	 * @return true if the time budget is exceeded
+	 */
+	private boolean isTimeBudgetExceeded() {
+		return this.timeBudget > 0 && System.nanoTime() - this.solveStartTime > this.timeBudget * 1_000_000L;
+	}
+
+	/**
+	 * Activates/deactivates solving simple Problems in closed form; see
+	 * {@link BoxSolver}.
+	 * 
+	 * @param fastPath true to activate
+	 */
+	protected void setFastPath(boolean fastPath) {
+		this.fastPath = fastPath;
+	}
+
 	/**
 	 * Sets the solver strategy.
 	 * 
@@ -0,0 +1,135 @@
+package io.openems.edge.ess.core.power;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.apache.commons.math3.optim.nonlinear.scalar.GoalType;
+
+import io.openems.edge.ess.power.api.Phase;
+import io.openems.edge.ess.power.api.PowerException;
+import io.openems.edge.ess.power.api.Pwr;
+
+/**
+ * Memoizes the results of {@link Solver#getActivePowerExtrema} and
+ * {@link Solver#isSolvableOrError()}.
+ *
+ * <p>
+ * All results belong to one version of the Constraints (see
+ * {@link Data#getVersion()}). Asking with a different version discards all
+ * results, so every change of the Constraints - and at the latest the next
+ * Cycle - triggers a new solve.
+ */
+public class SolverCache {
+
+	private final Map<ExtremaKey, Double> extrema = new HashMap<>();
+
+	private long version = -1;
+
+	/**
+	 * The memoized feasibility: null if unknown; Optional.empty() if solvable;
+	 * otherwise the reason why it is not solvable.
+	 */
+	private Optional<PowerException.Type> solvable = null;
+
+	/**
+	 * Gets a memoized extrema.
+	 *
+	 * @param version the version of the Constraints
+	 * @param essId   the Ess-ID
+	 * @param phase   the Phase
+	 * @param pwr     the Pwr
+	 * @param goal    the GoalType
+	 * @return the value or null if unknown
+	 */
+	public synchronized Double getExtrema(long version, String essId, Phase phase, Pwr pwr, GoalType goal) {
+		this.validate(version);
+		return this.extrema.get(new ExtremaKey(essId, phase, pwr, goal));
+	}
+
+	/**
+	 * Memoizes an extrema.
+	 *
+	 * @param version the version of the Constraints
+	 * @param essId   the Ess-ID
+	 * @param phase   the Phase
+	 * @param pwr     the Pwr
+	 * @param goal    the GoalType
+	 * @param value   the value
+	 */
+	public synchronized void putExtrema(long version, String essId, Phase phase, Pwr pwr, GoalType goal,
+			double value) {
+		this.validate(version);
+		this.extrema.put(new ExtremaKey(essId, phase, pwr, goal), value);
+	}
+
+	/**
+	 * Gets the memoized feasibility.
+	 *
+	 * @param version the version of the Constraints
+	 * @return null if unknown; Optional.empty() if solvable; otherwise the reason
+	 *         why it is not solvable
+	 */
+	public synchronized Optional<PowerException.Type> getSolvable(long version) {
+		this.validate(version);
+		return this.solvable;
+	}
+
+	/**
+	 * Memoizes the feasibility.
+	 *
+	 * @param version  the version of the Constraints
+	 * @param solvable Optional.empty() if solvable; otherwise the reason why it is
+	 *                 not solvable
+	 */
+	public synchronized void putSolvable(long version, Optional<PowerException.Type> solvable) {
+		this.validate(version);
+		this.solvable = solvable;
+	}
+
+	/**
+	 * Discards all results if they belong to another version.
+	 *
+	 * @param version the version of the Constraints
+	 */
+	private void validate(long version) {
+		if (this.version != version) {
+			this.extrema.clear();
+			this.solvable = null;
+			this.version = version;
+		}
+	}
+
+	private static class ExtremaKey {
+		private final String essId;
+		private final Phase phase;
+		private final Pwr pwr;
+		private final GoalType goal;
+
+		private ExtremaKey(String essId, Phase phase, Pwr pwr, GoalType goal) {
+			this.essId = essId;
+			this.phase = phase;
+			this.pwr = pwr;
+			this.goal = goal;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(this.essId, this.phase, this.pwr, this.goal);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof ExtremaKey)) {
+				return false;
+			}
+			ExtremaKey other = (ExtremaKey) obj;
+			return Objects.equals(this.essId, other.essId) && this.phase == other.phase && this.pwr == other.pwr
+					&& this.goal == other.goal;
+		}
+	}
+}
@@ -0,0 +1,164 @@
+package io.openems.edge.ess.core.power;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.commons.math3.optim.nonlinear.scalar.GoalType;
+import org.junit.Test;
+
+import io.openems.edge.ess.api.ManagedSymmetricEss;
+import io.openems.edge.ess.core.power.Solver.TargetDirection;
+import io.openems.edge.ess.power.api.Constraint;
+import io.openems.edge.ess.power.api.LinearCoefficient;
+import io.openems.edge.ess.power.api.Phase;
+import io.openems.edge.ess.power.api.Pwr;
+import io.openems.edge.ess.power.api.Relationship;
+import io.openems.edge.ess.power.api.SolverStrategy;
+
+public class BoxSolverTest {
+
+	private static Data prepareData(ManagedSymmetricEss... esss) {
+		PowerComponent c = new PowerComponent();
+		Data data = new Data(c);
+		for (ManagedSymmetricEss ess : esss) {
+			c.addEss(ess);
+			data.addEss(ess);
+		}
+		data.initializeCycle();
+		return data;
+	}
+
+	private static BoxSolver from(Data data) throws Exception {
+		return BoxSolver.from(data, data.getInverters(), data.getConstraintsForAllInverters());
+	}
+
+	private static int getActivePower(ManagedSymmetricEss ess) {
+		return (Integer) ess.channel(ManagedSymmetricEss.ChannelId.DEBUG_SET_ACTIVE_POWER).getNextValue().get();
+	}
+
+	private static int getReactivePower(ManagedSymmetricEss ess) {
+		return (Integer) ess.channel(ManagedSymmetricEss.ChannelId.DEBUG_SET_REACTIVE_POWER).getNextValue().get();
+	}
+
+	@Test
+	public void testCommercial40() throws Exception {
+		ManagedSymmetricEssDummy ess0 = new ManagedSymmetricEssDummy("ess0").maxApparentPower(40000)
+				.allowedCharge(-26000).allowedDischarge(40000).precision(100).soc(51);
+		Data d = prepareData(ess0);
+
+		// #1 no Constraint
+		BoxSolver box = from(d);
+		assertNotNull(box);
+		assertEquals(TargetDirection.KEEP_ZERO, box.getTargetDirection());
+		assertEquals(0, box.getStrictlyDefinedSum(), 0.001);
+		assertEquals(40000, box.getExtrema(0, GoalType.MAXIMIZE), 0.001);
+		assertEquals(-26000, box.getExtrema(0, GoalType.MINIMIZE), 0.001);
+
+		// #2 force charge
+		d.addSimpleConstraint("#2", ess0.id(), Phase.ALL, Pwr.ACTIVE, Relationship.LESS_OR_EQUALS, -2000);
+		box = from(d);
+		assertEquals(TargetDirection.CHARGE, box.getTargetDirection());
+		assertEquals(-2000, box.getStrictlyDefinedSum(), 0.001);
+		assertTrue(box.isSolvableWithDisabledInverters(Collections.emptyList()));
+		assertTrue(!box.isSolvableWithDisabledInverters(d.getInverters()));
+
+		SolveSolution solution = box.solve(SolverStrategy.OPTIMIZE_BY_MOVING_TOWARDS_TARGET, TargetDirection.CHARGE,
+				d.getInverters());
+		assertEquals(SolverStrategy.OPTIMIZE_BY_MOVING_TOWARDS_TARGET, solution.getSolvedBy());
+		double[] point = solution.getPoints().getPoint();
+		assertEquals(-2000, point[d.getCoefficient(ess0.id(), Phase.ALL, Pwr.ACTIVE).getIndex()], 0.001);
+		assertEquals(-2000 / 3d, point[d.getCoefficient(ess0.id(), Phase.L1, Pwr.ACTIVE).getIndex()], 0.001);
+		assertEquals(0, point[d.getCoefficient(ess0.id(), Phase.ALL, Pwr.REACTIVE).getIndex()], 0.001);
+
+		// #3 no solution
+		d.addSimpleConstraint("#3", ess0.id(), Phase.ALL, Pwr.ACTIVE, Relationship.GREATER_OR_EQUALS, 0);
+		assertNull(from(d));
+	}
+
+	@Test
+	public void testCluster() throws Exception {
+		ManagedSymmetricEssDummy ess1 = new ManagedSymmetricEssDummy("ess1") //
+				.allowedCharge(-3000).allowedDischarge(500).maxApparentPower(40000).soc(1);
+		ManagedSymmetricEssDummy ess2 = new ManagedSymmetricEssDummy("ess2") //
+				.allowedCharge(-3000).allowedDischarge(500).maxApparentPower(40000).soc(97);
+		EssClusterDummy ess0 = new EssClusterDummy("ess0", ess1, ess2);
+		Data d = prepareData(ess0, ess1, ess2);
+		d.addSimpleConstraint("#1", ess0.id(), Phase.ALL, Pwr.ACTIVE, Relationship.EQUALS, -5000);
+
+		BoxSolver box = from(d);
+		assertNotNull(box);
+		assertEquals(TargetDirection.CHARGE, box.getTargetDirection());
+		assertEquals(-5000, box.getStrictlyDefinedSum(), 0.001);
+		assertEquals(-3000, box.getExtrema(0, GoalType.MINIMIZE), 0.001);
+		assertEquals(-2000, box.getExtrema(0, GoalType.MAXIMIZE), 0.001);
+		assertTrue(!box.isSolvableWithDisabledInverters(Arrays.asList(d.getInverters().get(0))));
+	}
+
+	@Test
+	public void testNotDecomposable() throws Exception {
+		// Asymmetric ESS
+		ManagedAsymmetricEssDummy ess1 = new ManagedAsymmetricEssDummy("ess1") //
+				.allowedCharge(-9000).allowedDischarge(9000).maxApparentPower(9000);
+		assertNull(from(prepareData(ess1)));
+
+		// Fixed cos-phi
+		ManagedSymmetricEssDummy ess2 = new ManagedSymmetricEssDummy("ess2") //
+				.allowedCharge(-9000).allowedDischarge(9000).maxApparentPower(9000);
+		Data d = prepareData(ess2);
+		assertNotNull(from(d));
+		d.addConstraint(new Constraint("cos-phi", new LinearCoefficient[] { //
+				new LinearCoefficient(d.getCoefficient(ess2.id(), Phase.ALL, Pwr.ACTIVE), 0.5), //
+				new LinearCoefficient(d.getCoefficient(ess2.id(), Phase.ALL, Pwr.REACTIVE), -1) //
+		}, Relationship.EQUALS, 0));
+		assertNull(from(d));
+
+		// Fixed cos-phi that is only named like a 'Max Apparent Power' Constraint
+		d = prepareData(ess2);
+		d.addConstraint(new Constraint(ess2.id() + ": Max Apparent Power", new LinearCoefficient[] { //
+				new LinearCoefficient(d.getCoefficient(ess2.id(), Phase.ALL, Pwr.ACTIVE), 0.5), //
+				new LinearCoefficient(d.getCoefficient(ess2.id(), Phase.ALL, Pwr.REACTIVE), -1) //
+		}, Relationship.EQUALS, 0));
+		assertNull(from(d));
+
+		// Constraint on only two of three ESS
+		ManagedSymmetricEssDummy ess3 = new ManagedSymmetricEssDummy("ess3") //
+				.allowedCharge(-9000).allowedDischarge(9000).maxApparentPower(9000);
+		ManagedSymmetricEssDummy ess4 = new ManagedSymmetricEssDummy("ess4") //
+				.allowedCharge(-9000).allowedDischarge(9000).maxApparentPower(9000);
+		ManagedSymmetricEssDummy ess5 = new ManagedSymmetricEssDummy("ess5") //
+				.allowedCharge(-9000).allowedDischarge(9000).maxApparentPower(9000);
+		d = prepareData(ess3, ess4, ess5);
+		assertNotNull(from(d));
+		d.addConstraint(new Constraint("ess3+ess4", new LinearCoefficient[] { //
+				new LinearCoefficient(d.getCoefficient(ess3.id(), Phase.ALL, Pwr.ACTIVE), 1), //
+				new LinearCoefficient(d.getCoefficient(ess4.id(), Phase.ALL, Pwr.ACTIVE), 1) //
+		}, Relationship.EQUALS, 1000));
+		assertNull(from(d));
+	}
+
+	@Test
+	public void testSameResultAsLinearSolver() throws Exception {
+		for (boolean fastPath : new boolean[] { false, true }) {
+			ManagedSymmetricEssDummy ess1 = new ManagedSymmetricEssDummy("ess1").maxApparentPower(40000)
+					.allowedCharge(-3000).allowedDischarge(500).precision(100).soc(1);
+			ManagedSymmetricEssDummy ess2 = new ManagedSymmetricEssDummy("ess2").maxApparentPower(40000)
+					.allowedCharge(-3000).allowedDischarge(500).precision(100).soc(97);
+			EssClusterDummy ess0 = new EssClusterDummy("ess0", ess1, ess2);
+			Data d = prepareData(ess0, ess1, ess2);
+			Solver s = new Solver(d);
+			s.setFastPath(fastPath);
+			s.setStrategy(SolverStrategy.OPTIMIZE_BY_KEEPING_TARGET_DIRECTION_AND_MAXIMIZING_IN_ORDER);
+
+			d.addSimpleConstraint("#1", ess0.id(), Phase.ALL, Pwr.ACTIVE, Relationship.EQUALS, -5000);
+			s.solve();
+			assertEquals(-3000, getActivePower(ess1));
+			assertEquals(-2000, getActivePower(ess2));
+			assertEquals(0, getReactivePower(ess1) + getReactivePower(ess2));
+		}
+	}
+}
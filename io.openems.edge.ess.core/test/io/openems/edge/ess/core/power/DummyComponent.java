@@ -6,6 +6,7 @@ import io.openems.edge.ess.api.AsymmetricEss;
 import io.openems.edge.ess.api.ManagedAsymmetricEss;
 import io.openems.edge.ess.api.ManagedSymmetricEss;
 import io.openems.edge.ess.api.SymmetricEss;
+import io.openems.edge.ess.power.api.Constraint;
 import io.openems.edge.ess.power.api.Power;
 
 public abstract class DummyComponent<T> extends AbstractOpenemsComponent implements ManagedSymmetricEss {
@@ -61,6 +62,18 @@ public abstract class DummyComponent<T> extends AbstractOpenemsComponent impleme
 		return this.precision;
 	}
 
+	private Constraint[] staticConstraints = Power.NO_CONSTRAINTS;
+
+	public T staticConstraints(Constraint... constraints) {
+		this.staticConstraints = constraints;
+		return this.self();
+	}
+
+	@Override
+	public Constraint[] getStaticConstraints() {
+		return this.staticConstraints;
+	}
+
 	@Override
 	public String id() {
 		return this.id;
@@ -0,0 +1,115 @@
+package io.openems.edge.ess.core.power;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+
+import org.apache.commons.math3.optim.PointValuePair;
+import org.apache.commons.math3.optim.linear.LinearConstraintSet;
+import org.apache.commons.math3.optim.linear.LinearObjectiveFunction;
+import org.apache.commons.math3.optim.linear.NoFeasibleSolutionException;
+import org.apache.commons.math3.optim.linear.PivotSelectionRule;
+import org.apache.commons.math3.optim.linear.SimplexSolver;
+import org.apache.commons.math3.optim.nonlinear.scalar.GoalType;
+import org.junit.Test;
+
+import io.openems.edge.ess.api.ManagedSymmetricEss;
+import io.openems.edge.ess.power.api.Constraint;
+import io.openems.edge.ess.power.api.Phase;
+import io.openems.edge.ess.power.api.Pwr;
+import io.openems.edge.ess.power.api.Relationship;
+
+public class LinearModelTest {
+
+	private static Data prepareData(ManagedSymmetricEss... esss) {
+		PowerComponent c = new PowerComponent();
+		Data data = new Data(c);
+		for (ManagedSymmetricEss ess : esss) {
+			c.addEss(ess);
+			data.addEss(ess);
+		}
+		data.initializeCycle();
+		return data;
+	}
+
+	@Test
+	public void testSameResultAsSimplexSolver() throws Exception {
+		ManagedSymmetricEssDummy ess0 = new ManagedSymmetricEssDummy("ess0") //
+				.allowedCharge(-9000).allowedDischarge(9000).maxApparentPower(9000);
+		Data d = prepareData(ess0);
+		d.addSimpleConstraint("#1", ess0.id(), Phase.ALL, Pwr.ACTIVE, Relationship.LESS_OR_EQUALS, -2000);
+		List<Constraint> constraints = d.getConstraintsForAllInverters();
+		LinearObjectiveFunction objectiveFunction = Solver.getDefaultObjectiveFunction(d);
+
+		PointValuePair expected = new SimplexSolver().optimize(//
+				objectiveFunction, //
+				new LinearConstraintSet(Solver.convertToLinearConstraints(d, constraints)), //
+				GoalType.MINIMIZE, //
+				PivotSelectionRule.BLAND);
+
+		LinearModel model = new LinearModel(d);
+		assertArrayEquals(expected.getPoint(), model.optimize(objectiveFunction, constraints, GoalType.MINIMIZE)
+				.getPoint(), 0);
+		assertArrayEquals(expected.getPoint(), model.optimize(objectiveFunction, constraints, GoalType.MINIMIZE)
+				.getPoint(), 0);
+		assertEquals(1, model.getNumberOfResults());
+	}
+
+	@Test
+	public void testReuseBetweenCycles() throws Exception {
+		ManagedSymmetricEssDummy ess0 = new ManagedSymmetricEssDummy("ess0") //
+				.allowedCharge(-9000).allowedDischarge(9000).maxApparentPower(9000);
+		Data d = prepareData(ess0);
+		LinearModel model = new LinearModel(d);
+		LinearObjectiveFunction objectiveFunction = Solver.getDefaultObjectiveFunction(d);
+
+		// #1 first Cycle
+		model.nextCycle();
+		model.optimize(objectiveFunction, d.getConstraintsForAllInverters(), GoalType.MINIMIZE);
+		int rows = model.getNumberOfRows();
+		assertEquals(1, model.getNumberOfResults());
+
+		// #2 next Cycle with equal Constraints: rows and result are reused
+		model.nextCycle();
+		d.initializeCycle();
+		model.optimize(objectiveFunction, d.getConstraintsForAllInverters(), GoalType.MINIMIZE);
+		assertEquals(rows, model.getNumberOfRows());
+		assertEquals(1, model.getNumberOfResults());
+
+		// #3 one more Constraint: only one new row
+		d.addSimpleConstraint("#3", ess0.id(), Phase.ALL, Pwr.ACTIVE, Relationship.EQUALS, 1000);
+		PointValuePair solution = model.optimize(objectiveFunction, d.getConstraintsForAllInverters(),
+				GoalType.MINIMIZE);
+		assertEquals(1000, solution.getPoint()[d.getCoefficient(ess0.id(), Phase.ALL, Pwr.ACTIVE).getIndex()], 0.001);
+		assertEquals(rows + 1, model.getNumberOfRows());
+		assertEquals(2, model.getNumberOfResults());
+
+		// #4 unused rows and results are discarded after two Cycles
+		model.nextCycle();
+		model.nextCycle();
+		assertEquals(0, model.getNumberOfRows());
+		assertEquals(0, model.getNumberOfResults());
+	}
+
+	@Test
+	public void testNoFeasibleSolution() throws Exception {
+		ManagedSymmetricEssDummy ess0 = new ManagedSymmetricEssDummy("ess0") //
+				.allowedCharge(-9000).allowedDischarge(9000).maxApparentPower(9000);
+		Data d = prepareData(ess0);
+		d.addSimpleConstraint("#1", ess0.id(), Phase.ALL, Pwr.ACTIVE, Relationship.GREATER_OR_EQUALS, 10000);
+		LinearModel model = new LinearModel(d);
+
+		for (int i = 0; i < 2; i++) {
+			try {
+				model.optimize(Solver.getDefaultObjectiveFunction(d), d.getConstraintsForAllInverters(),
+						GoalType.MINIMIZE);
+				fail("Expected NoFeasibleSolutionException");
+			} catch (NoFeasibleSolutionException e) {
+				// expected
+			}
+		}
+		assertEquals(1, model.getNumberOfResults());
+	}
+}
@@ -0,0 +1,47 @@
+package io.openems.edge.ess.core.power;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Optional;
+
+import org.apache.commons.math3.optim.nonlinear.scalar.GoalType;
+import org.junit.Test;
+
+import io.openems.edge.ess.power.api.Phase;
+import io.openems.edge.ess.power.api.PowerException.Type;
+import io.openems.edge.ess.power.api.Pwr;
+
+public class SolverCacheTest {
+
+	@Test
+	public void testExtrema() {
+		SolverCache cache = new SolverCache();
+		assertNull(cache.getExtrema(1, "ess0", Phase.ALL, Pwr.ACTIVE, GoalType.MAXIMIZE));
+
+		cache.putExtrema(1, "ess0", Phase.ALL, Pwr.ACTIVE, GoalType.MAXIMIZE, 5000);
+		cache.putExtrema(1, "ess0", Phase.ALL, Pwr.ACTIVE, GoalType.MINIMIZE, -3000);
+		assertEquals(5000, cache.getExtrema(1, "ess0", Phase.ALL, Pwr.ACTIVE, GoalType.MAXIMIZE), 0);
+		assertEquals(-3000, cache.getExtrema(1, "ess0", Phase.ALL, Pwr.ACTIVE, GoalType.MINIMIZE), 0);
+		assertNull(cache.getExtrema(1, "ess0", Phase.L1, Pwr.ACTIVE, GoalType.MAXIMIZE));
+		assertNull(cache.getExtrema(1, "ess0", Phase.ALL, Pwr.REACTIVE, GoalType.MAXIMIZE));
+		assertNull(cache.getExtrema(1, "ess1", Phase.ALL, Pwr.ACTIVE, GoalType.MAXIMIZE));
+
+		// new version discards all results
+		assertNull(cache.getExtrema(2, "ess0", Phase.ALL, Pwr.ACTIVE, GoalType.MAXIMIZE));
+		assertNull(cache.getExtrema(1, "ess0", Phase.ALL, Pwr.ACTIVE, GoalType.MINIMIZE));
+	}
+
+	@Test
+	public void testSolvable() {
+		SolverCache cache = new SolverCache();
+		assertNull(cache.getSolvable(1));
+
+		cache.putSolvable(1, Optional.empty());
+		assertEquals(Optional.empty(), cache.getSolvable(1));
+
+		cache.putSolvable(2, Optional.of(Type.NO_FEASIBLE_SOLUTION));
+		assertEquals(Optional.of(Type.NO_FEASIBLE_SOLUTION), cache.getSolvable(2));
+		assertNull(cache.getSolvable(3));
+	}
+}
@@ -0,0 +1,442 @@
+package io.openems.edge.ess.core.power;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
+import io.openems.common.utils.JsonUtils;
+import io.openems.edge.common.channel.Channel;
+import io.openems.edge.ess.api.ManagedSymmetricEss;
+import io.openems.edge.ess.api.SinglePhase;
+import io.openems.edge.ess.power.api.Coefficient;
+import io.openems.edge.ess.power.api.Constraint;
+import io.openems.edge.ess.power.api.EssType;
+import io.openems.edge.ess.power.api.Inverter;
+import io.openems.edge.ess.power.api.LinearCoefficient;
+import io.openems.edge.ess.power.api.Phase;
+import io.openems.edge.ess.power.api.Pwr;
+import io.openems.edge.ess.power.api.Relationship;
+import io.openems.edge.ess.power.api.SolverStrategy;
+
+/**
+ * Replays Cycles that were recorded by {@link Recorder} through the
+ * {@link Solver} and reports solve durations, strategies and differences to the
+ * recorded solutions.
+ *
+ * <p>
+ * Run headless with the recorded files as arguments. The System Properties
+ * 'strategy', 'symmetricMode', 'fastPath' and 'timeBudget' override the
+ * recorded configuration, e.g. to compare two configurations on the same
+ * corpus:
+ *
+ * <pre>
+ * java -DfastPath=false io.openems.edge.ess.core.power.SolverReplay power.jsonl.gz
+ * </pre>
+ */
+public class SolverReplay {
+
+	private static final int MAX_REPORTED_DIFFS = 10;
+
+	public static void main(String[] args) throws IOException, OpenemsNamedException {
+		SolverReplay replay = new SolverReplay();
+		Optional.ofNullable(System.getProperty("strategy")).ifPresent(s -> replay.strategy(SolverStrategy.valueOf(s)));
+		Optional.ofNullable(System.getProperty("symmetricMode"))
+				.ifPresent(s -> replay.symmetricMode(Boolean.parseBoolean(s)));
+		Optional.ofNullable(System.getProperty("fastPath")).ifPresent(s -> replay.fastPath(Boolean.parseBoolean(s)));
+		Optional.ofNullable(System.getProperty("timeBudget")).ifPresent(s -> replay.timeBudget(Integer.parseInt(s)));
+		for (String file : args) {
+			replay.replay(Paths.get(file));
+		}
+		System.out.println(replay.getReport());
+	}
+
+	private final Report report = new Report();
+
+	/*
+	 * Configuration; null for 'as recorded'
+	 */
+	private SolverStrategy strategy = null;
+	private Boolean symmetricMode = null;
+	private boolean fastPath = PowerComponent.DEFAULT_FAST_PATH;
+	private int timeBudget = PowerComponent.DEFAULT_SOLVE_TIME_BUDGET;
+
+	/*
+	 * The replayed setup; renewed whenever the recorded Ess change.
+	 */
+	private String topology = null;
+	private Data data = null;
+	private Solver solver = null;
+	private final Map<String, DummyComponent<?>> esss = new HashMap<>();
+	private boolean isSolved = false;
+	private SolverStrategy solvedBy = SolverStrategy.NONE;
+
+	public SolverReplay strategy(SolverStrategy strategy) {
+		this.strategy = strategy;
+		return this;
+	}
+
+	public SolverReplay symmetricMode(boolean symmetricMode) {
+		this.symmetricMode = symmetricMode;
+		return this;
+	}
+
+	public SolverReplay fastPath(boolean fastPath) {
+		this.fastPath = fastPath;
+		return this;
+	}
+
+	public SolverReplay timeBudget(int timeBudget) {
+		this.timeBudget = timeBudget;
+		return this;
+	}
+
+	public Report getReport() {
+		return this.report;
+	}
+
+	/**
+	 * Replays all Cycles of a recorded file.
+	 *
+	 * @param file the file
+	 * @throws IOException           on read error
+	 * @throws OpenemsNamedException on invalid content
+	 */
+	public void replay(Path file) throws IOException, OpenemsNamedException {
+		InputStream in = Files.newInputStream(file);
+		if (file.toString().endsWith(".gz")) {
+			in = new GZIPInputStream(in);
+		}
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (!line.trim().isEmpty()) {
+					this.replay(JsonUtils.parseToJsonObject(line));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Replays one recorded Cycle.
+	 *
+	 * @param cycle the recorded Cycle
+	 * @throws OpenemsNamedException on invalid content
+	 */
+	public void replay(JsonObject cycle) throws OpenemsNamedException {
+		JsonArray esss = JsonUtils.getAsJsonArray(cycle, "esss");
+		String topology = esss.size() + ":";
+		for (JsonElement ess : esss) {
+			topology += JsonUtils.getAsString(ess, "id") + "/" + JsonUtils.getAsString(ess, "type") + "/"
+					+ JsonUtils.getAsOptionalString(ess, "phase").orElse("") + "/"
+					+ JsonUtils.getAsOptionalJsonArray(ess, "esss").map(JsonArray::toString).orElse("") + ";";
+		}
+		if (!topology.equals(this.topology)) {
+			this.setup(esss);
+			this.topology = topology;
+		}
+
+		// Configuration
+		this.solver.setStrategy(this.strategy != null ? this.strategy
+				: JsonUtils.getAsEnum(SolverStrategy.class, cycle, "strategy"));
+		this.data.setSymmetricMode(this.symmetricMode != null ? this.symmetricMode
+				: JsonUtils.getAsBoolean(cycle, "symmetricMode"));
+
+		// Ess values
+		for (JsonElement j : esss) {
+			DummyComponent<?> ess = this.esss.get(JsonUtils.getAsString(j, "id"));
+			SolverReplay.setValue(ess.getSoc(), JsonUtils.getAsOptionalInt(j, "soc"));
+			SolverReplay.setValue(ess.getAllowedCharge(), JsonUtils.getAsOptionalInt(j, "allowedCharge"));
+			SolverReplay.setValue(ess.getAllowedDischarge(), JsonUtils.getAsOptionalInt(j, "allowedDischarge"));
+			SolverReplay.setValue(ess.getMaxApparentPower(), JsonUtils.getAsOptionalInt(j, "maxApparentPower"));
+			JsonUtils.getAsOptionalInt(j, "precision").ifPresent(ess::precision);
+			ess.channel(ManagedSymmetricEss.ChannelId.DEBUG_SET_ACTIVE_POWER).setNextValue(null);
+			ess.channel(ManagedSymmetricEss.ChannelId.DEBUG_SET_REACTIVE_POWER).setNextValue(null);
+		}
+		this.data.initializeCycle();
+
+		// Constraints
+		List<Coefficient> coefficients = new ArrayList<>();
+		for (JsonElement j : JsonUtils.getAsJsonArray(cycle, "coefficients")) {
+			JsonArray c = JsonUtils.getAsJsonArray(j);
+			coefficients.add(this.data.getCoefficient(JsonUtils.getAsString(c.get(0)),
+					Phase.valueOf(JsonUtils.getAsString(c.get(1))), Pwr.valueOf(JsonUtils.getAsString(c.get(2)))));
+		}
+		for (JsonElement j : esss) {
+			DummyComponent<?> ess = this.esss.get(JsonUtils.getAsString(j, "id"));
+			JsonArray staticConstraints = JsonUtils.getAsOptionalJsonArray(j, "staticConstraints")
+					.orElse(new JsonArray());
+			ess.staticConstraints(SolverReplay.toConstraints(staticConstraints, coefficients)
+					.toArray(new Constraint[staticConstraints.size()]));
+		}
+		for (Constraint c : SolverReplay.toConstraints(JsonUtils.getAsJsonArray(cycle, "constraints"),
+				coefficients)) {
+			this.data.addConstraint(c);
+		}
+
+		// Inverters
+		Map<String, Integer> order = new HashMap<>();
+		JsonArray inverters = JsonUtils.getAsJsonArray(cycle, "inverters");
+		for (int i = 0; i < inverters.size(); i++) {
+			JsonArray j = JsonUtils.getAsJsonArray(inverters.get(i));
+			String key = JsonUtils.getAsString(j.get(0)) + "/" + JsonUtils.getAsString(j.get(1));
+			order.put(key, i);
+			for (Inverter inv : this.data.getInverters()) {
+				if ((inv.getEssId() + "/" + inv.getPhase().name()).equals(key)) {
+					inv.setWeight(JsonUtils.getAsInt(j.get(2)));
+					inv.setLastActivePower(JsonUtils.getAsInt(j.get(3)));
+				}
+			}
+		}
+		this.data.sortInverters((inv1, inv2) -> Integer.compare( //
+				order.getOrDefault(inv1.getEssId() + "/" + inv1.getPhase().name(), Integer.MAX_VALUE), //
+				order.getOrDefault(inv2.getEssId() + "/" + inv2.getPhase().name(), Integer.MAX_VALUE)));
+
+		// Solve
+		long start = System.nanoTime();
+		this.solver.solve();
+		long duration = System.nanoTime() - start;
+
+		// Compare
+		Optional<JsonObject> recorded = JsonUtils.getAsOptionalJsonObject(cycle, "solution");
+		Map<String, int[]> recordedPower = new LinkedHashMap<>();
+		Map<String, int[]> replayedPower = new LinkedHashMap<>();
+		if (recorded.isPresent()) {
+			JsonObject power = JsonUtils.getAsOptionalJsonObject(recorded.get(), "power").orElse(new JsonObject());
+			for (Entry<String, JsonElement> entry : power.entrySet()) {
+				JsonArray pq = JsonUtils.getAsJsonArray(entry.getValue());
+				recordedPower.put(entry.getKey(),
+						new int[] { JsonUtils.getAsInt(pq.get(0)), JsonUtils.getAsInt(pq.get(1)) });
+				DummyComponent<?> ess = this.esss.get(entry.getKey());
+				Object p = ess.channel(ManagedSymmetricEss.ChannelId.DEBUG_SET_ACTIVE_POWER).getNextValue().get();
+				Object q = ess.channel(ManagedSymmetricEss.ChannelId.DEBUG_SET_REACTIVE_POWER).getNextValue().get();
+				replayedPower.put(entry.getKey(), new int[] { //
+						p instanceof Integer ? (Integer) p : 0, //
+						q instanceof Integer ? (Integer) q : 0 });
+			}
+		}
+		this.report.add(duration, this.isSolved, this.solvedBy, //
+				recorded.flatMap(r -> JsonUtils.getAsOptionalInt(r, "duration")), //
+				recorded.flatMap(r -> JsonUtils.getAsOptionalBoolean(r, "solved")), //
+				recorded.flatMap(r -> JsonUtils.getAsOptionalEnum(SolverStrategy.class, r, "strategy")), //
+				recordedPower, replayedPower);
+	}
+
+	/**
+	 * Creates new Ess, Data and Solver objects for the recorded Ess.
+	 *
+	 * @param esss the recorded Ess
+	 * @throws OpenemsNamedException on invalid content
+	 */
+	private void setup(JsonArray esss) throws OpenemsNamedException {
+		this.esss.clear();
+		List<JsonElement> metaEsss = new ArrayList<>();
+		for (JsonElement j : esss) {
+			String id = JsonUtils.getAsString(j, "id");
+			EssType type = JsonUtils.getAsEnum(EssType.class, j, "type");
+			switch (type) {
+			case SYMMETRIC:
+				this.esss.put(id, new ManagedSymmetricEssDummy(id));
+				break;
+			case ASYMMETRIC:
+				this.esss.put(id, new ManagedAsymmetricEssDummy(id));
+				break;
+			case SINGLE_PHASE:
+				this.esss.put(id,
+						new ManagedSinglePhaseEssDummy(id, JsonUtils.getAsEnum(SinglePhase.class, j, "phase")));
+				break;
+			case META:
+				metaEsss.add(j);
+				break;
+			}
+		}
+		for (JsonElement j : metaEsss) {
+			String id = JsonUtils.getAsString(j, "id");
+			List<DummyComponent<?>> subEsss = new ArrayList<>();
+			for (String subId : JsonUtils.getAsStringArray(JsonUtils.getAsJsonArray(j, "esss"))) {
+				subEsss.add(this.esss.get(subId));
+			}
+			this.esss.put(id, new EssClusterDummy(id, subEsss.toArray(new DummyComponent<?>[subEsss.size()])));
+		}
+
+		PowerComponent component = new PowerComponent();
+		this.data = new Data(component);
+		for (JsonElement j : esss) {
+			DummyComponent<?> ess = this.esss.get(JsonUtils.getAsString(j, "id"));
+			component.addEss(ess);
+			this.data.addEss(ess);
+		}
+		this.solver = new Solver(this.data);
+		this.solver.setFastPath(this.fastPath);
+		this.solver.setTimeBudget(this.timeBudget);
+		this.solver.onSolved((isSolved, duration, strategy) -> {
+			this.isSolved = isSolved;
+			this.solvedBy = strategy;
+		});
+	}
+
+	private static void setValue(Channel<Integer> channel, Optional<Integer> value) {
+		channel.setNextValue(value.orElse(null));
+		channel.nextProcessImage();
+	}
+
+	private static List<Constraint> toConstraints(JsonArray constraints, List<Coefficient> coefficients)
+			throws OpenemsNamedException {
+		List<Constraint> result = new ArrayList<>();
+		for (JsonElement j : constraints) {
+			JsonArray cos = JsonUtils.getAsJsonArray(j, "coefficients");
+			LinearCoefficient[] lcs = new LinearCoefficient[cos.size()];
+			for (int i = 0; i < cos.size(); i++) {
+				JsonArray co = JsonUtils.getAsJsonArray(cos.get(i));
+				lcs[i] = new LinearCoefficient(coefficients.get(JsonUtils.getAsInt(co.get(0))),
+						JsonUtils.getAsPrimitive(co.get(1)).getAsDouble());
+			}
+			String description = JsonUtils.getAsString(j, "description");
+			Relationship relationship = JsonUtils.getAsEnum(Relationship.class, j, "relationship");
+			if (j.getAsJsonObject().has("value")) {
+				result.add(new Constraint(description, lcs, relationship,
+						JsonUtils.getAsPrimitive(j, "value").getAsDouble()));
+			} else {
+				result.add(new Constraint(description, lcs, relationship));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Aggregates the results of all replayed Cycles.
+	 */
+	public static class Report {
+
+		private final List<Long> durations = new ArrayList<>();
+		private final List<Long> recordedDurations = new ArrayList<>();
+		private final Map<SolverStrategy, Integer> strategies = new EnumMap<>(SolverStrategy.class);
+		private final Map<SolverStrategy, Integer> recordedStrategies = new EnumMap<>(SolverStrategy.class);
+		private final List<String> diffs = new ArrayList<>();
+
+		private int cycles = 0;
+		private int notSolved = 0;
+		private int recordedNotSolved = 0;
+		private int cyclesWithDiff = 0;
+		private int maxDiff = 0;
+
+		private void add(long duration, boolean isSolved, SolverStrategy strategy, Optional<Integer> recordedDuration,
+				Optional<Boolean> recordedIsSolved, Optional<SolverStrategy> recordedStrategy,
+				Map<String, int[]> recordedPower, Map<String, int[]> replayedPower) {
+			this.cycles++;
+			this.durations.add(duration);
+			this.strategies.merge(strategy, 1, Integer::sum);
+			if (!isSolved) {
+				this.notSolved++;
+			}
+			recordedDuration.ifPresent(d -> this.recordedDurations.add(d * 1_000_000L));
+			recordedStrategy.ifPresent(s -> this.recordedStrategies.merge(s, 1, Integer::sum));
+			if (recordedIsSolved.isPresent() && !recordedIsSolved.get()) {
+				this.recordedNotSolved++;
+			}
+
+			int diff = 0;
+			for (Entry<String, int[]> entry : recordedPower.entrySet()) {
+				int[] replayed = replayedPower.get(entry.getKey());
+				for (int i = 0; i < 2; i++) {
+					diff = Math.max(diff, Math.abs(entry.getValue()[i] - replayed[i]));
+				}
+			}
+			if (diff > 0) {
+				this.cyclesWithDiff++;
+				this.maxDiff = Math.max(this.maxDiff, diff);
+				if (this.diffs.size() < MAX_REPORTED_DIFFS) {
+					StringBuilder b = new StringBuilder("Cycle " + this.cycles + ":");
+					for (Entry<String, int[]> entry : recordedPower.entrySet()) {
+						b.append(" " + entry.getKey() + " " + Arrays.toString(entry.getValue()) + " -> "
+								+ Arrays.toString(replayedPower.get(entry.getKey())));
+					}
+					this.diffs.add(b.toString());
+				}
+			}
+		}
+
+		public int getCycles() {
+			return this.cycles;
+		}
+
+		public int getNotSolved() {
+			return this.notSolved;
+		}
+
+		public int getCyclesWithDiff() {
+			return this.cyclesWithDiff;
+		}
+
+		public int getMaxDiff() {
+			return this.maxDiff;
+		}
+
+		public Map<SolverStrategy, Integer> getStrategies() {
+			return Collections.unmodifiableMap(this.strategies);
+		}
+
+		/**
+		 * Gets a percentile of the replayed solve durations.
+		 *
+		 * @param percentile the percentile, e.g. 99
+		 * @return the duration in nanoseconds
+		 */
+		public long getDuration(double percentile) {
+			return Report.percentile(this.durations, percentile);
+		}
+
+		private static long percentile(List<Long> values, double percentile) {
+			if (values.isEmpty()) {
+				return 0;
+			}
+			List<Long> sorted = new ArrayList<>(values);
+			Collections.sort(sorted);
+			int index = (int) Math.ceil(percentile / 100 * sorted.size()) - 1;
+			return sorted.get(Math.max(0, Math.min(sorted.size() - 1, index)));
+		}
+
+		private static String formatDurations(List<Long> values) {
+			StringBuilder b = new StringBuilder();
+			for (double p : new double[] { 50, 90, 99, 100 }) {
+				b.append(String.format(" p%.0f=%.3fms", p, Report.percentile(values, p) / 1e6));
+			}
+			return b.toString();
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder b = new StringBuilder();
+			b.append("Cycles:     " + this.cycles + " (not solved " + this.notSolved + "; recorded "
+					+ this.recordedNotSolved + ")\n");
+			b.append("Duration:  " + Report.formatDurations(this.durations) + "\n");
+			b.append("Recorded:  " + Report.formatDurations(this.recordedDurations) + "\n");
+			b.append("Strategies: " + this.strategies + " (recorded " + this.recordedStrategies + ")\n");
+			b.append("Diffs:      " + this.cyclesWithDiff + " Cycles; max " + this.maxDiff + " W/var\n");
+			for (String diff : this.diffs) {
+				b.append("- " + diff + "\n");
+			}
+			return b.toString();
+		}
+	}
+}
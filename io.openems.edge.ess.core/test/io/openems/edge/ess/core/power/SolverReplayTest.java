@@ -0,0 +1,126 @@
+package io.openems.edge.ess.core.power;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.openems.edge.ess.api.ManagedSymmetricEss;
+import io.openems.edge.ess.power.api.Constraint;
+import io.openems.edge.ess.power.api.Phase;
+import io.openems.edge.ess.power.api.Pwr;
+import io.openems.edge.ess.power.api.Relationship;
+import io.openems.edge.ess.power.api.SolverStrategy;
+
+public class SolverReplayTest {
+
+	private static final int CYCLES = 20;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static Data prepareData(ManagedSymmetricEss... esss) {
+		PowerComponent c = new PowerComponent();
+		Data data = new Data(c);
+		for (ManagedSymmetricEss ess : esss) {
+			c.addEss(ess);
+			data.addEss(ess);
+		}
+		data.initializeCycle();
+		return data;
+	}
+
+	/**
+	 * Records Cycles of a Cluster with a symmetric and an asymmetric Ess.
+	 *
+	 * @param file        the file
+	 * @param maxFileSize the maximum file size before rotation
+	 * @param strategy    the SolverStrategy
+	 * @throws Exception on error
+	 */
+	private static void record(Path file, long maxFileSize, SolverStrategy strategy) throws Exception {
+		ManagedSymmetricEssDummy ess1 = new ManagedSymmetricEssDummy("ess1") //
+				.allowedCharge(-9000).allowedDischarge(9000).maxApparentPower(9000).precision(100).soc(30);
+		ManagedAsymmetricEssDummy ess2 = new ManagedAsymmetricEssDummy("ess2") //
+				.allowedCharge(-6000).allowedDischarge(6000).maxApparentPower(6000).soc(70);
+		EssClusterDummy ess0 = new EssClusterDummy("ess0", ess1, ess2);
+		Data d = prepareData(ess0, ess1, ess2);
+		ess1.staticConstraints(
+				d.createSimpleConstraint("ess1: static", ess1.id(), Phase.ALL, Pwr.REACTIVE, Relationship.EQUALS, 0));
+		Solver s = new Solver(d);
+		s.setStrategy(strategy);
+
+		Recorder recorder = new Recorder(file, maxFileSize, strategy, false);
+		s.onSolved(recorder::onSolved);
+		for (int i = 0; i < CYCLES; i++) {
+			d.addSimpleConstraint("#" + i, ess0.id(), Phase.ALL, Pwr.ACTIVE,
+					i % 3 == 0 ? Relationship.LESS_OR_EQUALS : Relationship.EQUALS, (i % 7 - 3) * 3000);
+			recorder.beforeSolve(d);
+			s.solve();
+			recorder.afterSolve(d);
+			d.initializeCycle();
+			ess1.soc(30 + i);
+		}
+		recorder.close();
+	}
+
+	@Test
+	public void testReplay() throws Exception {
+		Path file = this.folder.getRoot().toPath().resolve("power.jsonl.gz");
+		record(file, Long.MAX_VALUE, SolverStrategy.OPTIMIZE_BY_MOVING_TOWARDS_TARGET);
+
+		SolverReplay replay = new SolverReplay();
+		replay.replay(file);
+		SolverReplay.Report report = replay.getReport();
+		assertEquals(CYCLES, report.getCycles());
+		assertEquals(0, report.getNotSolved());
+		assertEquals(0, report.getCyclesWithDiff());
+		assertEquals(CYCLES, report.getStrategies().values().stream().mapToInt(Integer::intValue).sum());
+		assertTrue(report.getDuration(50) <= report.getDuration(99));
+	}
+
+	@Test
+	public void testReplayWithOtherConfiguration() throws Exception {
+		Path file = this.folder.getRoot().toPath().resolve("power.jsonl");
+		record(file, Long.MAX_VALUE, SolverStrategy.OPTIMIZE_BY_KEEPING_TARGET_DIRECTION_AND_MAXIMIZING_IN_ORDER);
+
+		SolverReplay replay = new SolverReplay() //
+				.strategy(SolverStrategy.OPTIMIZE_BY_MOVING_TOWARDS_TARGET) //
+				.fastPath(false);
+		replay.replay(file);
+		replay.replay(file);
+		SolverReplay.Report report = replay.getReport();
+		assertEquals(2 * CYCLES, report.getCycles());
+		assertEquals(0, report.getNotSolved());
+		assertTrue(report.getStrategies().get(SolverStrategy.OPTIMIZE_BY_MOVING_TOWARDS_TARGET) > 0);
+	}
+
+	@Test
+	public void testRotate() throws Exception {
+		// every Cycle exceeds the size limit and starts a new file
+		Path file = this.folder.getRoot().toPath().resolve("power.jsonl.gz");
+		record(file, 1, SolverStrategy.OPTIMIZE_BY_MOVING_TOWARDS_TARGET);
+
+		SolverReplay replay = new SolverReplay();
+		replay.replay(file.resolveSibling("power.jsonl.1.gz"));
+		replay.replay(file);
+		SolverReplay.Report report = replay.getReport();
+		assertEquals(2, report.getCycles());
+		assertEquals(0, report.getNotSolved());
+	}
+
+	@Test
+	public void testStaticConstraints() throws Exception {
+		ManagedSymmetricEssDummy ess0 = new ManagedSymmetricEssDummy("ess0") //
+				.allowedCharge(-9000).allowedDischarge(9000).maxApparentPower(9000);
+		Data d = prepareData(ess0);
+		Constraint c = d.createSimpleConstraint("ess0: static", ess0.id(), Phase.ALL, Pwr.ACTIVE,
+				Relationship.LESS_OR_EQUALS, -1000);
+		ess0.staticConstraints(c);
+		assertTrue(d.getConstraintsForAllInverters().contains(c));
+	}
+}
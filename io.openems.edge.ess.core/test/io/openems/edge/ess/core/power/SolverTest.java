@@ -1,6 +1,8 @@
 package io.openems.edge.ess.core.power;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -10,6 +12,7 @@ import org.junit.Test;
 
 import io.openems.edge.ess.api.ManagedSymmetricEss;
 import io.openems.edge.ess.core.power.Solver.TargetDirection;
+import io.openems.edge.ess.power.api.Constraint;
 import io.openems.edge.ess.power.api.Inverter;
 import io.openems.edge.ess.power.api.Phase;
 import io.openems.edge.ess.power.api.Pwr;
@@ -275,6 +278,71 @@ public class SolverTest {
 		assertEquals(TargetDirection.DISCHARGE, s.getTargetDirection());
 	}
 
+	@Test
+	public void testMemoizeUntilConstraintsChange() throws Exception {
+		ManagedSymmetricEssDummy ess0 = new ManagedSymmetricEssDummy("ess0") //
+				.allowedCharge(-9000).allowedDischarge(9000).maxApparentPower(9000);
+		Data d = prepareData(ess0);
+		Solver s = new Solver(d);
+
+		// #1
+		assertEquals(9000, s.getActivePowerExtrema(ess0.id(), Phase.ALL, Pwr.ACTIVE, GoalType.MAXIMIZE), 1);
+		long version = d.getVersion();
+		assertEquals(9000, s.getActivePowerExtrema(ess0.id(), Phase.ALL, Pwr.ACTIVE, GoalType.MAXIMIZE), 1);
+		assertEquals(version, d.getVersion());
+
+		// #2 new Constraint
+		Constraint c = d.createSimpleConstraint("#2", ess0.id(), Phase.ALL, Pwr.ACTIVE,
+				Relationship.LESS_OR_EQUALS, 5000);
+		d.addConstraint(c);
+		assertEquals(5000, s.getActivePowerExtrema(ess0.id(), Phase.ALL, Pwr.ACTIVE, GoalType.MAXIMIZE), 1);
+		assertTrue(s.isSolvable());
+
+		// #3 infeasible Constraint is remembered until it is removed
+		Constraint infeasible = d.createSimpleConstraint("#3", ess0.id(), Phase.ALL, Pwr.ACTIVE,
+				Relationship.GREATER_OR_EQUALS, 6000);
+		d.addConstraint(infeasible);
+		assertFalse(s.isSolvable());
+		assertFalse(s.isSolvable());
+		d.removeConstraint(infeasible);
+		assertTrue(s.isSolvable());
+
+		// #4 removing an unknown Constraint keeps the version
+		version = d.getVersion();
+		d.removeConstraint(infeasible);
+		assertEquals(version, d.getVersion());
+
+		// #5 next Cycle
+		d.initializeCycle();
+		assertEquals(9000, s.getActivePowerExtrema(ess0.id(), Phase.ALL, Pwr.ACTIVE, GoalType.MAXIMIZE), 1);
+	}
+
+	@Test
+	public void testTimeBudget() throws Exception {
+		ManagedSymmetricEss[] esss = prepareEssCluster();
+		ManagedSymmetricEss ess0 = esss[0];
+		ManagedSymmetricEss ess1 = esss[1];
+		ManagedSymmetricEss ess2 = esss[2];
+		Data d = prepareData(esss);
+		Solver s = new Solver(d);
+		s.setFastPath(false);
+		s.setTimeBudget(1);
+		s.setStrategy(SolverStrategy.OPTIMIZE_BY_KEEPING_TARGET_DIRECTION_AND_MAXIMIZING_IN_ORDER);
+		List<Boolean> isSolved = new ArrayList<>();
+		s.onSolved((solved, duration, strategy) -> isSolved.add(solved));
+
+		// whether or not the budget is exceeded, a feasible solution is applied
+		for (int i = 0; i < 3; i++) {
+			d.addSimpleConstraint("#1", ess0.id(), Phase.ALL, Pwr.ACTIVE, Relationship.EQUALS, -5000);
+			s.solve();
+			assertTrue(isSolved.get(i));
+			int p1 = (Integer) ess1.channel(ManagedSymmetricEss.ChannelId.DEBUG_SET_ACTIVE_POWER).getNextValue().get();
+			int p2 = (Integer) ess2.channel(ManagedSymmetricEss.ChannelId.DEBUG_SET_ACTIVE_POWER).getNextValue().get();
+			assertEquals(-5000, p1 + p2, 2 /* rounding */);
+			d.initializeCycle();
+		}
+	}
+
 	@Test
 	public void testCommercial40Cluster() throws Exception {
 		ManagedSymmetricEssDummy ess1 = new ManagedSymmetricEssDummy("ess1").maxApparentPower(40000).allowedCharge(-500)
@@ -0,0 +1,188 @@
+package io.openems.edge.timedata.influxdb;
+
+import java.util.Objects;
+
+import io.openems.common.types.OpenemsType;
+import io.openems.edge.timedata.influxdb.RecordingPolicy.Mode;
+
+/**
+ * Applies a {@link RecordingPolicy} to the values of one Channel.
+ *
+ * <p>
+ * Values are aggregated incrementally, i.e. only sum, count, min, max and the
+ * last value are held in memory. Intervals are aligned to the epoch, so all
+ * Channels with the same interval are recorded at the same timestamps. The
+ * aggregated value of an interval is recorded with the first timestamp of the
+ * following interval.
+ */
+public class ChannelRecorder {
+
+	private final RecordingPolicy policy;
+	private final OpenemsType type;
+
+	private long window = Long.MIN_VALUE;
+	private int count = 0;
+	private double sum = 0;
+	private double min = Double.POSITIVE_INFINITY;
+	private double max = Double.NEGATIVE_INFINITY;
+	private Object last = null;
+
+	private Object lastRecorded = null;
+	private long lastTimestamp = Long.MIN_VALUE;
+
+	public ChannelRecorder(RecordingPolicy policy, OpenemsType type) {
+		this.policy = policy;
+		this.type = type;
+	}
+
+	/**
+	 * Adds a value and gets the value that should be recorded at this timestamp.
+	 *
+	 * @param timestamp the timestamp in seconds
+	 * @param value     the current value; null values are not aggregated, but an
+	 *                  interval that ended is recorded anyway
+	 * @return the value to be recorded; or null if nothing should be recorded
+	 */
+	public Object record(long timestamp, Object value) {
+		this.lastTimestamp = timestamp;
+		Object result = null;
+		int interval = this.policy.getInterval();
+		if (interval <= 0) {
+			this.add(value);
+			result = this.flush();
+
+		} else {
+			long window = Math.floorDiv(timestamp, interval);
+			if (window != this.window) {
+				result = this.flush();
+				this.window = window;
+			}
+			this.add(value);
+		}
+
+		if (result == null) {
+			return null;
+		}
+		if (this.policy.getMode() == Mode.ON_CHANGE && !this.hasChanged(result)) {
+			return null;
+		}
+		this.lastRecorded = result;
+		return result;
+	}
+
+	/**
+	 * Gets the timestamp of the last call of {@link #record(long, Object)}.
+	 *
+	 * @return the timestamp in seconds
+	 */
+	public long getLastTimestamp() {
+		return this.lastTimestamp;
+	}
+
+	private void add(Object value) {
+		if (value == null) {
+			return;
+		}
+		this.last = value;
+		if (this.isNumeric()) {
+			double d = ((Number) value).doubleValue();
+			this.sum += d;
+			if (d < this.min) {
+				this.min = d;
+			}
+			if (d > this.max) {
+				this.max = d;
+			}
+		}
+		this.count++;
+	}
+
+	/**
+	 * Gets the aggregated value and resets the aggregation.
+	 *
+	 * @return the aggregated value; null if no value was added
+	 */
+	private Object flush() {
+		if (this.count == 0) {
+			return null;
+		}
+		Object result;
+		if (!this.isNumeric()) {
+			result = this.last;
+		} else {
+			switch (this.policy.getAggregation()) {
+			case MEAN:
+				result = this.toType(this.sum / this.count);
+				break;
+			case MIN:
+				result = this.toType(this.min);
+				break;
+			case MAX:
+				result = this.toType(this.max);
+				break;
+			case LAST:
+			default:
+				result = this.last;
+				break;
+			}
+		}
+		this.count = 0;
+		this.sum = 0;
+		this.min = Double.POSITIVE_INFINITY;
+		this.max = Double.NEGATIVE_INFINITY;
+		this.last = null;
+		return result;
+	}
+
+	private boolean hasChanged(Object value) {
+		if (this.lastRecorded == null) {
+			return true;
+		}
+		if (this.isNumeric()) {
+			double delta = Math.abs(((Number) value).doubleValue() - ((Number) this.lastRecorded).doubleValue());
+			if (this.policy.getDeadband() > 0) {
+				return delta > this.policy.getDeadband();
+			}
+			return delta != 0;
+		}
+		return !Objects.equals(value, this.lastRecorded);
+	}
+
+	private boolean isNumeric() {
+		switch (this.type) {
+		case SHORT:
+		case INTEGER:
+		case LONG:
+		case FLOAT:
+		case DOUBLE:
+			return true;
+		case BOOLEAN:
+		case STRING:
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Converts an aggregated value back to the type of the Channel. Integer types
+	 * are rounded.
+	 *
+	 * @param value the aggregated value
+	 * @return the typed value
+	 */
+	private Object toType(double value) {
+		switch (this.type) {
+		case SHORT:
+			return (short) Math.round(value);
+		case INTEGER:
+			return (int) Math.round(value);
+		case LONG:
+			return Math.round(value);
+		case FLOAT:
+			return (float) value;
+		case DOUBLE:
+		default:
+			return value;
+		}
+	}
+}
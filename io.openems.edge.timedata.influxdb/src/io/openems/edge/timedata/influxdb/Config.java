@@ -38,5 +38,11 @@ import org.osgi.service.metatype.annotations.ObjectClassDefinition;
 	@AttributeDefinition(name = "Read-Only mode", description = "Activates the read-only mode. Then no data is written to InfluxDB.")
 	boolean isReadOnly() default false;
 
+	@AttributeDefinition(name = "Recording-Policies", description = "JSON array of policies, e.g. [{\"component\": \"battery*\", \"channel\": \"Cell*\", \"category\": \"STATE\", \"interval\": 60, \"mode\": \"ON_CHANGE\", \"deadband\": 0, \"aggregation\": \"LAST\"}]. The first matching policy is applied; Channels without a matching policy are recorded every Cycle.")
+	String recordingPolicies() default "[]";
+
+	@AttributeDefinition(name = "Query Fill-Window [s]", description = "Channels that are recorded ON_CHANGE or in intervals have gaps in historic data. If Recording-Policies are configured, queries fill these gaps with the last recorded value up to this age; 0 to disable. Values that are older - e.g. unchanged for a longer time - show as gaps.")
+	int queryFillWindow() default 3600;
+
 	String webconsole_configurationFactory_nameHint() default "Timedata InfluxDB [{id}]";
 }
\ No newline at end of file
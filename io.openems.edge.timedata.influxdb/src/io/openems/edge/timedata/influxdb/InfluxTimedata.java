@@ -1,6 +1,10 @@
 package io.openems.edge.timedata.influxdb;
 
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.SortedMap;
@@ -30,6 +34,7 @@ import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
 import io.openems.common.exceptions.OpenemsException;
 import io.openems.common.types.ChannelAddress;
 import io.openems.common.utils.StringUtils;
+import io.openems.edge.common.channel.Channel;
 import io.openems.edge.common.channel.Doc;
 import io.openems.edge.common.component.AbstractOpenemsComponent;
 import io.openems.edge.common.component.ComponentManager;
@@ -52,6 +57,19 @@ public class InfluxTimedata extends AbstractOpenemsComponent implements Timedata
 
 	private InfluxConnector influxConnector = null;
 
+	/**
+	 * The configured RecordingPolicies in order of precedence.
+	 */
+	private List<RecordingPolicy> recordingPolicies = new ArrayList<>();
+
+	/**
+	 * Holds a {@link ChannelRecorder} per Channel-Address. Only used if
+	 * RecordingPolicies are configured.
+	 */
+	private final Map<String, ChannelRecorder> recorders = new HashMap<>();
+
+	private int queryFillWindow = 0;
+
 	public enum ChannelId implements io.openems.edge.common.channel.ChannelId {
 		;
 		private final Doc doc;
@@ -78,8 +96,11 @@ public class InfluxTimedata extends AbstractOpenemsComponent implements Timedata
 	protected ComponentManager componentManager;
 
 	@Activate
-	void activate(ComponentContext context, Config config) {
+	void activate(ComponentContext context, Config config) throws OpenemsNamedException {
 		super.activate(context, config.id(), config.alias(), config.enabled());
+		this.recordingPolicies = RecordingPolicy.fromJson(config.recordingPolicies());
+		this.recorders.clear();
+		this.queryFillWindow = this.recordingPolicies.isEmpty() ? 0 : config.queryFillWindow();
 		this.influxConnector = new InfluxConnector(config.ip(), config.port(), config.username(), config.password(),
 				config.database(), config.retentionPolicy(), config.isReadOnly(), //
 				(failedPoints, throwable) -> {
@@ -114,16 +135,38 @@ public class InfluxTimedata extends AbstractOpenemsComponent implements Timedata
 		long timestamp = System.currentTimeMillis() / 1000;
 		final Builder point = Point.measurement(InfluxConnector.MEASUREMENT).time(timestamp, TimeUnit.SECONDS);
 		final AtomicBoolean addedAtLeastOneChannelValue = new AtomicBoolean(false);
+		final boolean hasRecordingPolicies = !this.recordingPolicies.isEmpty();
 
 		this.componentManager.getComponents().stream().filter(c -> c.isEnabled()).forEach(component -> {
 			component.channels().forEach(channel -> {
 				Optional<?> valueOpt = channel.value().asOptional();
-				if (!valueOpt.isPresent()) {
-					// ignore not available channels
-					return;
-				}
-				Object value = valueOpt.get();
 				String address = channel.address().toString();
+				Object value;
+				if (!hasRecordingPolicies) {
+					// default: record every available value at every Cycle
+					if (!valueOpt.isPresent()) {
+						// ignore not available channels
+						return;
+					}
+					value = valueOpt.get();
+
+				} else {
+					ChannelRecorder recorder = this.recorders.get(address);
+					if (recorder == null) {
+						if (!valueOpt.isPresent()) {
+							// ignore not available channels
+							return;
+						}
+						recorder = new ChannelRecorder(this.getRecordingPolicy(channel), channel.getType());
+						this.recorders.put(address, recorder);
+					}
+					// an undefined value still records the aggregate of an interval that ended
+					value = recorder.record(timestamp, valueOpt.orElse(null));
+					if (value == null) {
+						// nothing to record in this Cycle
+						return;
+					}
+				}
 				try {
 					switch (channel.getType()) {
 					case BOOLEAN:
@@ -152,10 +195,20 @@ public class InfluxTimedata extends AbstractOpenemsComponent implements Timedata
 					this.log.warn("Unable to add Channel [" + address + "] value [" + value + "]: " + e.getMessage());
 					return;
 				}
+				try {
+					this.influxConnector.updateEnergyIndex(Optional.empty(), timestamp * 1000, address, value);
+				} catch (OpenemsException e) {
+					this.logError(this.log, "Unable to update energy index: " + e.getMessage());
+				}
 				addedAtLeastOneChannelValue.set(true);
 			});
 		});
 
+		if (hasRecordingPolicies) {
+			// forget Channels of Components that were removed or disabled
+			this.recorders.values().removeIf(recorder -> recorder.getLastTimestamp() < timestamp);
+		}
+
 		if (addedAtLeastOneChannelValue.get()) {
 			try {
 				this.influxConnector.write(point.build());
@@ -165,13 +218,31 @@ public class InfluxTimedata extends AbstractOpenemsComponent implements Timedata
 		}
 	}
 
+	/**
+	 * Gets the first {@link RecordingPolicy} that matches the Channel.
+	 * 
+	 * @param channel the Channel
+	 * @return the RecordingPolicy; {@link RecordingPolicy#DEFAULT} if none matches
+	 */
+	private RecordingPolicy getRecordingPolicy(Channel<?> channel) {
+		for (RecordingPolicy policy : this.recordingPolicies) {
+			if (policy.matches(channel)) {
+				return policy;
+			}
+		}
+		return RecordingPolicy.DEFAULT;
+	}
+
 	@Override
 	public SortedMap<ZonedDateTime, SortedMap<ChannelAddress, JsonElement>> queryHistoricData(String edgeId,
 			ZonedDateTime fromDate, ZonedDateTime toDate, Set<ChannelAddress> channels, int resolution)
 			throws OpenemsNamedException {
 		// ignore edgeId as Points are also written without Edge-ID
 		Optional<Integer> influxEdgeId = Optional.empty();
-		return this.influxConnector.queryHistoricData(influxEdgeId, fromDate, toDate, channels, resolution);
+		// Channels that are not recorded every Cycle have gaps; fill them with the last
+		// recorded value
+		return this.influxConnector.queryHistoricData(influxEdgeId, fromDate, toDate, channels, resolution,
+				this.queryFillWindow);
 	}
 
 	@Override
@@ -0,0 +1,175 @@
+package io.openems.edge.timedata.influxdb;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+
+import io.openems.common.channel.ChannelCategory;
+import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
+import io.openems.common.exceptions.OpenemsException;
+import io.openems.common.utils.JsonUtils;
+import io.openems.edge.common.channel.Channel;
+
+/**
+ * Defines how the values of matching Channels are recorded to the timedata.
+ *
+ * <p>
+ * A policy matches Channels by Component-ID, Channel-ID (both support '*'
+ * wildcards) and {@link ChannelCategory}. Every property is optional; a missing
+ * property matches everything.
+ *
+ * <pre>
+ * {
+ *   "component": "battery*",
+ *   "channel": "Cell*",
+ *   "category": "STATE",
+ *   "interval": 60,
+ *   "mode": "ON_CHANGE",
+ *   "deadband": 0,
+ *   "aggregation": "LAST"
+ * }
+ * </pre>
+ */
+public class RecordingPolicy {
+
+	public enum Mode {
+		/**
+		 * Record the value at the end of every interval.
+		 */
+		ALWAYS,
+		/**
+		 * Record the value only if it changed by more than the deadband since the last
+		 * recorded value.
+		 */
+		ON_CHANGE;
+	}
+
+	public enum Aggregation {
+		MEAN, MIN, MAX, LAST;
+	}
+
+	/**
+	 * The default policy: record every value at every Cycle.
+	 */
+	public static final RecordingPolicy DEFAULT = new RecordingPolicy(null, null, null, 0, Mode.ALWAYS, 0,
+			Aggregation.LAST);
+
+	private final Pattern component;
+	private final Pattern channel;
+	private final ChannelCategory category;
+	private final int interval;
+	private final Mode mode;
+	private final double deadband;
+	private final Aggregation aggregation;
+
+	public RecordingPolicy(String component, String channel, ChannelCategory category, int interval, Mode mode,
+			double deadband, Aggregation aggregation) {
+		this.component = toPattern(component);
+		this.channel = toPattern(channel);
+		this.category = category;
+		this.interval = interval;
+		this.mode = mode;
+		this.deadband = deadband;
+		this.aggregation = aggregation;
+	}
+
+	/**
+	 * Parses a JSON array of RecordingPolicies.
+	 *
+	 * @param json the JSON array as String
+	 * @return a list of RecordingPolicies in the configured order
+	 * @throws OpenemsNamedException on parse error
+	 */
+	public static List<RecordingPolicy> fromJson(String json) throws OpenemsNamedException {
+		List<RecordingPolicy> result = new ArrayList<>();
+		if (json == null || json.trim().isEmpty()) {
+			return result;
+		}
+		JsonArray jPolicies = JsonUtils.getAsJsonArray(JsonUtils.parse(json));
+		for (JsonElement j : jPolicies) {
+			int interval = JsonUtils.getAsOptionalInt(j, "interval").orElse(0);
+			if (interval < 0) {
+				throw new OpenemsException("Recording-Policy interval must not be negative: " + j);
+			}
+			ChannelCategory category = null;
+			if (JsonUtils.hasElement(j, "category")) {
+				category = JsonUtils.getAsEnum(ChannelCategory.class, j, "category");
+			}
+			Mode mode = Mode.ALWAYS;
+			if (JsonUtils.hasElement(j, "mode")) {
+				mode = JsonUtils.getAsEnum(Mode.class, j, "mode");
+			}
+			float deadband = 0;
+			if (JsonUtils.hasElement(j, "deadband")) {
+				deadband = JsonUtils.getAsFloat(j, "deadband");
+			}
+			Aggregation aggregation = Aggregation.LAST;
+			if (JsonUtils.hasElement(j, "aggregation")) {
+				aggregation = JsonUtils.getAsEnum(Aggregation.class, j, "aggregation");
+			}
+			result.add(new RecordingPolicy(//
+					JsonUtils.getAsOptionalString(j, "component").orElse(null), //
+					JsonUtils.getAsOptionalString(j, "channel").orElse(null), //
+					category, interval, mode, deadband, aggregation));
+		}
+		return result;
+	}
+
+	/**
+	 * Does this policy apply to the given Channel?.
+	 *
+	 * @param channel the Channel
+	 * @return true if it matches
+	 */
+	public boolean matches(Channel<?> channel) {
+		if (this.category != null && this.category != channel.channelDoc().getChannelCategory()) {
+			return false;
+		}
+		if (this.component != null && !this.component.matcher(channel.getComponent().id()).matches()) {
+			return false;
+		}
+		if (this.channel != null && !this.channel.matcher(channel.channelId().id()).matches()) {
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the sample interval in seconds; '0' means every Cycle.
+	 *
+	 * @return the interval
+	 */
+	public int getInterval() {
+		return this.interval;
+	}
+
+	public Mode getMode() {
+		return this.mode;
+	}
+
+	public double getDeadband() {
+		return this.deadband;
+	}
+
+	public Aggregation getAggregation() {
+		return this.aggregation;
+	}
+
+	private static Pattern toPattern(String wildcard) {
+		if (wildcard == null || wildcard.isEmpty() || wildcard.equals("*")) {
+			return null;
+		}
+		String[] parts = wildcard.split("\\*", -1);
+		StringBuilder b = new StringBuilder();
+		for (int i = 0; i < parts.length; i++) {
+			if (i > 0) {
+				b.append(".*");
+			}
+			b.append(Pattern.quote(parts[i]));
+		}
+		return Pattern.compile(b.toString());
+	}
+}
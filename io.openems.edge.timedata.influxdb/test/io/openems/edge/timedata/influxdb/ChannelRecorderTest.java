@@ -0,0 +1,90 @@
+package io.openems.edge.timedata.influxdb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import io.openems.common.types.OpenemsType;
+import io.openems.edge.timedata.influxdb.RecordingPolicy.Aggregation;
+import io.openems.edge.timedata.influxdb.RecordingPolicy.Mode;
+
+public class ChannelRecorderTest {
+
+	@Test
+	public void testDefault() {
+		ChannelRecorder r = new ChannelRecorder(RecordingPolicy.DEFAULT, OpenemsType.INTEGER);
+		assertEquals(5, r.record(1, 5));
+		assertEquals(5, r.record(2, 5));
+		assertEquals(7, r.record(3, 7));
+	}
+
+	@Test
+	public void testIntervalMean() {
+		RecordingPolicy p = new RecordingPolicy(null, null, null, 10, Mode.ALWAYS, 0, Aggregation.MEAN);
+		ChannelRecorder r = new ChannelRecorder(p, OpenemsType.INTEGER);
+		assertNull(r.record(10, 1));
+		assertNull(r.record(11, 2));
+		assertNull(r.record(19, 4));
+		// new interval: record the mean of the previous one
+		assertEquals(2, r.record(20, 100));
+		assertEquals(100, r.record(30, 0));
+	}
+
+	@Test
+	public void testIntervalWithUndefinedValue() {
+		RecordingPolicy p = new RecordingPolicy(null, null, null, 10, Mode.ALWAYS, 0, Aggregation.MEAN);
+		ChannelRecorder r = new ChannelRecorder(p, OpenemsType.INTEGER);
+		assertNull(r.record(10, 2));
+		assertNull(r.record(11, 4));
+		// Channel became undefined: the interval is recorded on time anyway
+		assertEquals(3, r.record(20, null));
+		assertNull(r.record(30, null));
+		assertEquals(30, r.getLastTimestamp());
+	}
+
+	@Test
+	public void testIntervalMinMax() {
+		ChannelRecorder min = new ChannelRecorder(
+				new RecordingPolicy(null, null, null, 10, Mode.ALWAYS, 0, Aggregation.MIN), OpenemsType.FLOAT);
+		ChannelRecorder max = new ChannelRecorder(
+				new RecordingPolicy(null, null, null, 10, Mode.ALWAYS, 0, Aggregation.MAX), OpenemsType.FLOAT);
+		for (float value : new float[] { 3f, -1.5f, 7f }) {
+			min.record(0, value);
+			max.record(0, value);
+		}
+		assertEquals(-1.5f, min.record(10, 0f));
+		assertEquals(7f, max.record(10, 0f));
+	}
+
+	@Test
+	public void testOnChangeWithDeadband() {
+		RecordingPolicy p = new RecordingPolicy(null, null, null, 0, Mode.ON_CHANGE, 5, Aggregation.LAST);
+		ChannelRecorder r = new ChannelRecorder(p, OpenemsType.LONG);
+		assertEquals(100L, r.record(1, 100L));
+		assertNull(r.record(2, 104L));
+		assertNull(r.record(3, 95L));
+		assertEquals(106L, r.record(4, 106L));
+	}
+
+	@Test
+	public void testOnChangeBoolean() {
+		RecordingPolicy p = new RecordingPolicy(null, null, null, 0, Mode.ON_CHANGE, 0, Aggregation.MEAN);
+		ChannelRecorder r = new ChannelRecorder(p, OpenemsType.BOOLEAN);
+		assertEquals(false, r.record(1, false));
+		assertNull(r.record(2, false));
+		assertEquals(true, r.record(3, true));
+	}
+
+	@Test
+	public void testFromJson() throws Exception {
+		assertEquals(0, RecordingPolicy.fromJson("[]").size());
+		RecordingPolicy p = RecordingPolicy.fromJson(
+				"[{\"component\": \"battery*\", \"category\": \"STATE\", \"interval\": 60, \"mode\": \"ON_CHANGE\"}]")
+				.get(0);
+		assertEquals(60, p.getInterval());
+		assertEquals(Mode.ON_CHANGE, p.getMode());
+		assertEquals(Aggregation.LAST, p.getAggregation());
+	}
+
+}
@@ -0,0 +1,654 @@
+package io.openems.shared.influxdb;
+
+import java.time.Clock;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.influxdb.dto.Point;
+import org.influxdb.dto.QueryResult;
+import org.influxdb.dto.QueryResult.Result;
+import org.influxdb.dto.QueryResult.Series;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonPrimitive;
+
+import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
+import io.openems.common.exceptions.OpenemsException;
+import io.openems.common.types.ChannelAddress;
+
+/**
+ * Keeps hourly and daily snapshots of cumulative energy counters.
+ *
+ * <p>
+ * For every closed period the first and the last counter value within the
+ * period are written to the {@link #MEASUREMENT} measurement, tagged with
+ * {@link #TAG_PERIOD} and {@link #TAG_SNAPSHOT}. A range query is then answered
+ * from the snapshots of the periods that lie completely within the range plus
+ * two small scans on the raw data at the edges of the range.
+ *
+ * <p>
+ * Periods that were not fully observed in memory - because of a restart or
+ * because older data arrived late - are marked as dirty and recalculated from
+ * the raw data (hours) or from the hourly snapshots (days) at a later
+ * rollover. The recalculation queries InfluxDB; it runs on a background thread,
+ * so that {@link #update(Optional, long, String, Number)} never waits for a
+ * query. A period whose recalculation failed is marked as dirty again and
+ * retried with an increasing delay.
+ *
+ * <p>
+ * The state of each Edge is guarded by its own lock, i.e. updates for
+ * different Edges do not block each other.
+ */
+public class EnergyIndex {
+
+	public static final String MEASUREMENT = "energy";
+	public static final String TAG_PERIOD = "period";
+	public static final String TAG_SNAPSHOT = "snapshot";
+
+	private static final String SNAPSHOT_FIRST = "first";
+	private static final String SNAPSHOT_LAST = "last";
+
+	/**
+	 * Dirty periods are recalculated only after they have not been touched for
+	 * this time, to make sure late data has been flushed to InfluxDB.
+	 */
+	private static final long DIRTY_RESOLVE_DELAY = 60_000; // [ms]
+
+	/**
+	 * Maximum delay before a failed recalculation is retried; the delay starts at
+	 * {@link #DIRTY_RESOLVE_DELAY} and is doubled for every failure.
+	 */
+	private static final long MAX_RESOLVE_RETRY_DELAY = 3_600_000; // [ms]
+
+	/**
+	 * Coverage of a field that has no snapshots (yet).
+	 */
+	private static final Long NOT_INDEXED = Long.MAX_VALUE;
+
+	public enum Period {
+		HOUR("hour", 3_600), //
+		DAY("day", 86_400);
+
+		private final String tag;
+		private final long seconds;
+
+		private Period(String tag, long seconds) {
+			this.tag = tag;
+			this.seconds = seconds;
+		}
+
+		/**
+		 * Gets the start of the period that contains the timestamp.
+		 *
+		 * @param timestamp the epoch timestamp in seconds
+		 * @return the start of the period in epoch seconds
+		 */
+		public long floor(long timestamp) {
+			return Math.floorDiv(timestamp, this.seconds) * this.seconds;
+		}
+
+		/**
+		 * Gets the start of the first period that starts at or after the timestamp.
+		 *
+		 * @param timestamp the epoch timestamp in seconds
+		 * @return the start of the period in epoch seconds
+		 */
+		public long ceil(long timestamp) {
+			long floor = this.floor(timestamp);
+			return floor == timestamp ? floor : floor + this.seconds;
+		}
+	}
+
+	/**
+	 * A source for a segment of a range query.
+	 */
+	public enum Source {
+		RAW, HOUR, DAY;
+	}
+
+	/**
+	 * A time segment [start, end) of a range query that is answered from one
+	 * {@link Source}.
+	 */
+	public static class Segment {
+		public final Source source;
+		public final long start;
+		public final long end;
+
+		public Segment(Source source, long start, long end) {
+			this.source = source;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		public String toString() {
+			return this.source + "[" + this.start + "-" + this.end + ")";
+		}
+	}
+
+	private static class Bucket {
+		private final long start;
+		private final boolean complete;
+		private Number first = null;
+		private Number last = null;
+
+		private Bucket(long start, boolean complete) {
+			this.start = start;
+			this.complete = complete;
+		}
+	}
+
+	/**
+	 * Holds the index state of one Edge. Guarded by its own monitor.
+	 */
+	private static class EdgeState {
+		private final Map<String, Bucket> hours = new HashMap<>();
+		private final Map<String, Bucket> days = new HashMap<>();
+		// Bucket-Start -> Field-Names; earliest time to resolve; failed attempts
+		private final Map<Long, Set<String>> dirtyHours = new HashMap<>();
+		private final Map<Long, Long> dirtyHoursDue = new HashMap<>();
+		private final Map<Long, Integer> failedHours = new HashMap<>();
+		private final Map<Long, Set<String>> dirtyDays = new HashMap<>();
+		private final Map<Long, Long> dirtyDaysDue = new HashMap<>();
+		private final Map<Long, Integer> failedDays = new HashMap<>();
+	}
+
+	private final Logger log = LoggerFactory.getLogger(EnergyIndex.class);
+
+	private final InfluxConnector influxConnector;
+	private final ExecutorService resolveExecutor;
+	private final Clock clock;
+	private final Map<Optional<Integer>, EdgeState> edges = new ConcurrentHashMap<>();
+	// cache of the first indexed period per Edge, Period and Channel
+	private final Map<String, Long> coverage = new ConcurrentHashMap<>();
+
+	public EnergyIndex(InfluxConnector influxConnector) {
+		this(influxConnector, Executors.newSingleThreadExecutor(new ThreadFactoryBuilder() //
+				.setNameFormat("EnergyIndex-%d") //
+				.setDaemon(true) //
+				.build()), Clock.systemUTC());
+	}
+
+	/**
+	 * @param influxConnector the InfluxConnector
+	 * @param resolveExecutor executes the recalculation of dirty periods
+	 * @param clock           the Clock
+	 */
+	protected EnergyIndex(InfluxConnector influxConnector, ExecutorService resolveExecutor, Clock clock) {
+		this.influxConnector = influxConnector;
+		this.resolveExecutor = resolveExecutor;
+		this.clock = clock;
+	}
+
+	/**
+	 * Stops the recalculation of dirty periods.
+	 */
+	public void deactivate() {
+		this.resolveExecutor.shutdownNow();
+	}
+
+	/**
+	 * Is the given Channel a cumulative energy counter that is indexed?.
+	 *
+	 * @param channel the Channel-ID
+	 * @return true if it is indexed
+	 */
+	public static boolean isIndexed(String channel) {
+		return channel.endsWith("Energy");
+	}
+
+	/**
+	 * Adds a counter value to the index. Writes the snapshots of a period once it
+	 * is closed.
+	 *
+	 * @param influxEdgeId the unique, numeric Edge-ID; or Empty
+	 * @param timestamp    the timestamp in milliseconds
+	 * @param field        the field name, i.e. the Channel-Address
+	 * @param value        the counter value
+	 * @throws OpenemsException on write error
+	 */
+	public void update(Optional<Integer> influxEdgeId, long timestamp, String field, Number value)
+			throws OpenemsException {
+		EdgeState edge = this.edges.computeIfAbsent(influxEdgeId, id -> new EdgeState());
+		long seconds = Math.floorDiv(timestamp, 1000);
+		synchronized (edge) {
+			boolean hourClosed = this.update(influxEdgeId, Period.HOUR, edge.hours, edge.dirtyHours,
+					edge.dirtyHoursDue, seconds, field, value);
+			this.update(influxEdgeId, Period.DAY, edge.days, edge.dirtyDays, edge.dirtyDaysDue, seconds, field,
+					value);
+			if (hourClosed) {
+				this.resolveDirty(influxEdgeId, edge, seconds);
+			}
+		}
+	}
+
+	private boolean update(Optional<Integer> influxEdgeId, Period period, Map<String, Bucket> buckets,
+			Map<Long, Set<String>> dirty, Map<Long, Long> dirtyDue, long seconds, String field, Number value)
+			throws OpenemsException {
+		long start = period.floor(seconds);
+		Bucket bucket = buckets.get(field);
+		boolean closed = false;
+		if (bucket == null) {
+			// first value after start: the period was probably not fully observed
+			bucket = new Bucket(start, false);
+			buckets.put(field, bucket);
+
+		} else if (start > bucket.start) {
+			// period was closed
+			Set<String> dirtyFields = dirty.get(bucket.start);
+			if (bucket.complete && (dirtyFields == null || !dirtyFields.contains(field))) {
+				this.writeSnapshot(influxEdgeId, period, bucket.start, field, bucket.first, bucket.last);
+			} else {
+				this.markDirty(dirty, dirtyDue, bucket.start, field);
+			}
+			bucket = new Bucket(start, true);
+			buckets.put(field, bucket);
+			closed = true;
+
+		} else if (start < bucket.start) {
+			// late data for an already closed period
+			this.markDirty(dirty, dirtyDue, start, field);
+			return false;
+		}
+
+		if (bucket.first == null) {
+			bucket.first = value;
+		}
+		bucket.last = value;
+		return closed;
+	}
+
+	private void markDirty(Map<Long, Set<String>> dirty, Map<Long, Long> dirtyDue, long start, String field) {
+		this.markDirty(dirty, dirtyDue, start, Collections.singleton(field), DIRTY_RESOLVE_DELAY);
+	}
+
+	private void markDirty(Map<Long, Set<String>> dirty, Map<Long, Long> dirtyDue, long start,
+			Set<String> fields, long delay) {
+		Set<String> dirtyFields = dirty.get(start);
+		if (dirtyFields == null) {
+			dirtyFields = new HashSet<>();
+			dirty.put(start, dirtyFields);
+		}
+		dirtyFields.addAll(fields);
+		// keep a later due time of a failed recalculation
+		dirtyDue.merge(start, this.clock.millis() + delay, Math::max);
+	}
+
+	/**
+	 * Schedules the recalculation of closed dirty periods that are due, i.e. have
+	 * not been touched for {@link #DIRTY_RESOLVE_DELAY}. Days are only recalculated once
+	 * all their hours are resolved. Call with the lock of the EdgeState.
+	 *
+	 * @param influxEdgeId the Edge-ID
+	 * @param edge         the EdgeState
+	 * @param seconds      the current timestamp of the data in epoch seconds
+	 */
+	private void resolveDirty(Optional<Integer> influxEdgeId, EdgeState edge, long seconds) {
+		long now = this.clock.millis();
+		for (Long start : getResolvable(edge.dirtyHoursDue, now, Period.HOUR.floor(seconds))) {
+			Set<String> fields = edge.dirtyHours.remove(start);
+			edge.dirtyHoursDue.remove(start);
+			// the day is resolved at a later rollover, after this hour
+			for (String field : fields) {
+				this.markDirty(edge.dirtyDays, edge.dirtyDaysDue, Period.DAY.floor(start), field);
+			}
+			this.scheduleResolve(influxEdgeId, edge, Period.HOUR, start, fields, Source.RAW);
+		}
+		for (Long start : getResolvable(edge.dirtyDaysDue, now, Period.DAY.floor(seconds))) {
+			boolean hasDirtyHours = false;
+			for (Long hour : edge.dirtyHours.keySet()) {
+				if (Period.DAY.floor(hour) == start) {
+					hasDirtyHours = true;
+					break;
+				}
+			}
+			if (hasDirtyHours) {
+				continue;
+			}
+			Set<String> fields = edge.dirtyDays.remove(start);
+			edge.dirtyDaysDue.remove(start);
+			this.scheduleResolve(influxEdgeId, edge, Period.DAY, start, fields, Source.HOUR);
+		}
+	}
+
+	private void scheduleResolve(Optional<Integer> influxEdgeId, EdgeState edge, Period period, long start,
+			Set<String> fields, Source source) {
+		this.resolveExecutor.execute(() -> {
+			Map<Long, Integer> failed = period == Period.HOUR ? edge.failedHours : edge.failedDays;
+			try {
+				this.resolve(influxEdgeId, period, start, fields, source);
+				synchronized (edge) {
+					failed.remove(start);
+				}
+			} catch (OpenemsNamedException | RuntimeException e) {
+				synchronized (edge) {
+					// retry at a later rollover
+					int failures = failed.merge(start, 1, Integer::sum);
+					long delay = Math.min(DIRTY_RESOLVE_DELAY << Math.min(failures, 10), MAX_RESOLVE_RETRY_DELAY);
+					if (period == Period.HOUR) {
+						this.markDirty(edge.dirtyHours, edge.dirtyHoursDue, start, fields, delay);
+					} else {
+						this.markDirty(edge.dirtyDays, edge.dirtyDaysDue, start, fields, delay);
+					}
+					this.log.warn("Unable to update energy index for Edge [" + influxEdgeId.orElse(0) + "]. Retry in "
+							+ delay / 1000 + " s: " + e.getMessage());
+				}
+			}
+		});
+	}
+
+	private static List<Long> getResolvable(Map<Long, Long> dirtyDue, long now, long currentStart) {
+		List<Long> result = new ArrayList<>();
+		for (Entry<Long, Long> entry : dirtyDue.entrySet()) {
+			if (entry.getKey() < currentStart && entry.getValue() < now) {
+				result.add(entry.getKey());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Recalculates the snapshots of one period from a lower resolution source.
+	 *
+	 * @param influxEdgeId the Edge-ID
+	 * @param period       the Period
+	 * @param start        the start of the Period
+	 * @param fields       the fields
+	 * @param source       the source
+	 * @throws OpenemsNamedException on error
+	 */
+	private void resolve(Optional<Integer> influxEdgeId, Period period, long start, Set<String> fields,
+			Source source) throws OpenemsNamedException {
+		Map<String, Number> firsts = this.querySegment(influxEdgeId, new Segment(source, start, start + period.seconds),
+				fields, SNAPSHOT_FIRST);
+		Map<String, Number> lasts = this.querySegment(influxEdgeId, new Segment(source, start, start + period.seconds),
+				fields, SNAPSHOT_LAST);
+		for (String field : fields) {
+			Number first = firsts.get(field);
+			Number last = lasts.get(field);
+			if (first != null && last != null) {
+				this.writeSnapshot(influxEdgeId, period, start, field, first, last);
+			}
+		}
+	}
+
+	private void writeSnapshot(Optional<Integer> influxEdgeId, Period period, long start, String field, Number first,
+			Number last) throws OpenemsException {
+		// the field is indexed from now on
+		this.coverage.remove(coverageKey(influxEdgeId, period, field), NOT_INDEXED);
+		this.influxConnector.write(this.buildSnapshot(influxEdgeId, period, start, SNAPSHOT_FIRST) //
+				.addField(field, first).build());
+		this.influxConnector.write(this.buildSnapshot(influxEdgeId, period, start, SNAPSHOT_LAST) //
+				.addField(field, last).build());
+	}
+
+	private Point.Builder buildSnapshot(Optional<Integer> influxEdgeId, Period period, long start,
+			String snapshot) {
+		Point.Builder builder = Point.measurement(MEASUREMENT) //
+				.tag(TAG_PERIOD, period.tag) //
+				.tag(TAG_SNAPSHOT, snapshot) //
+				.time(start, TimeUnit.SECONDS);
+		if (influxEdgeId.isPresent()) {
+			builder.tag(InfluxConstants.TAG, String.valueOf(influxEdgeId.get()));
+		}
+		return builder;
+	}
+
+	/**
+	 * Plans the segments to answer a range query.
+	 *
+	 * <p>
+	 * The range (from, to) is split into a raw segment up to the first full hour,
+	 * hourly segments up to the first full day, daily segments, hourly segments up
+	 * to the last full hour and a raw segment up to 'to'. Daily segments are only
+	 * used after 'dayCoverage'.
+	 *
+	 * @param from        the start timestamp in epoch seconds
+	 * @param to          the end timestamp in epoch seconds
+	 * @param dayCoverage the first day that is covered by the daily index
+	 * @return the segments in chronological order
+	 */
+	public static List<Segment> plan(long from, long to, long dayCoverage) {
+		List<Segment> result = new ArrayList<>();
+		long hourStart = Period.HOUR.ceil(from);
+		long hourEnd = Period.HOUR.floor(to);
+		if (hourStart >= hourEnd) {
+			result.add(new Segment(Source.RAW, from, to));
+			return result;
+		}
+		long dayStart = Math.max(Period.DAY.ceil(hourStart), Period.DAY.ceil(dayCoverage));
+		long dayEnd = Period.DAY.floor(hourEnd);
+
+		if (from < hourStart) {
+			result.add(new Segment(Source.RAW, from, hourStart));
+		}
+		if (dayStart < dayEnd) {
+			if (hourStart < dayStart) {
+				result.add(new Segment(Source.HOUR, hourStart, dayStart));
+			}
+			result.add(new Segment(Source.DAY, dayStart, dayEnd));
+			if (dayEnd < hourEnd) {
+				result.add(new Segment(Source.HOUR, dayEnd, hourEnd));
+			}
+		} else {
+			result.add(new Segment(Source.HOUR, hourStart, hourEnd));
+		}
+		if (hourEnd < to) {
+			result.add(new Segment(Source.RAW, hourEnd, to));
+		}
+		return result;
+	}
+
+	/**
+	 * Queries historic energy from the index.
+	 *
+	 * @param influxEdgeId the unique, numeric Edge-ID; or Empty
+	 * @param fromDate     the From-Date
+	 * @param toDate       the To-Date
+	 * @param channels     the Channels to query; only channels that are covered by
+	 *                     the index are answered and removed from this Set
+	 * @return a map between ChannelAddress and value
+	 * @throws OpenemsNamedException on error
+	 */
+	public SortedMap<ChannelAddress, JsonElement> queryHistoricEnergy(Optional<Integer> influxEdgeId,
+			ZonedDateTime fromDate, ZonedDateTime toDate, Set<ChannelAddress> channels) throws OpenemsNamedException {
+		SortedMap<ChannelAddress, JsonElement> result = new TreeMap<>();
+		long from = fromDate.toEpochSecond();
+		long to = toDate.toEpochSecond();
+
+		// only use the index for channels that are covered for the whole range
+		Set<String> fields = new HashSet<>();
+		long dayCoverage = Long.MIN_VALUE;
+		for (ChannelAddress channel : channels) {
+			if (!isIndexed(channel.getChannelId())) {
+				continue;
+			}
+			String field = channel.toString();
+			long hourCoverage = this.getCoverage(influxEdgeId, Period.HOUR, field);
+			if (hourCoverage > Period.HOUR.ceil(from)) {
+				continue;
+			}
+			// days before the first indexed hour can not be derived correctly
+			dayCoverage = Math.max(dayCoverage, Period.DAY.ceil(hourCoverage));
+			dayCoverage = Math.max(dayCoverage, this.getCoverage(influxEdgeId, Period.DAY, field));
+			fields.add(field);
+		}
+		if (fields.isEmpty()) {
+			return result;
+		}
+
+		List<Segment> segments = plan(from, to, dayCoverage);
+		Map<String, Number> firsts = new HashMap<>();
+		for (int i = 0; i < segments.size() && firsts.size() < fields.size(); i++) {
+			Set<String> missing = new HashSet<>(fields);
+			missing.removeAll(firsts.keySet());
+			firsts.putAll(this.querySegment(influxEdgeId, segments.get(i), missing, SNAPSHOT_FIRST));
+		}
+		Map<String, Number> lasts = new HashMap<>();
+		for (int i = segments.size() - 1; i >= 0 && lasts.size() < fields.size(); i--) {
+			Set<String> missing = new HashSet<>(fields);
+			missing.removeAll(lasts.keySet());
+			lasts.putAll(this.querySegment(influxEdgeId, segments.get(i), missing, SNAPSHOT_LAST));
+		}
+
+		for (String field : fields) {
+			ChannelAddress address = ChannelAddress.fromString(field);
+			Number first = firsts.get(field);
+			Number last = lasts.get(field);
+			JsonElement value;
+			if (first == null || last == null) {
+				value = JsonNull.INSTANCE;
+			} else {
+				long energy = last.longValue() - first.longValue();
+				if (energy < 0) {
+					// do not consider negative values
+					this.log.warn("Got negative Energy value [" + energy + "] for [" + field + "] from energy index");
+					value = JsonNull.INSTANCE;
+				} else {
+					value = new JsonPrimitive(energy);
+				}
+			}
+			result.put(address, value);
+			channels.remove(address);
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the start of the first complete Period in the index, i.e. the index
+	 * can be used for periods starting at or after this timestamp. Results are
+	 * cached; also for fields that are not indexed, until the first snapshot of
+	 * the field is written.
+	 *
+	 * @param influxEdgeId the Edge-ID
+	 * @param period       the Period
+	 * @param field        the field
+	 * @return the timestamp in epoch seconds; {@link Long#MAX_VALUE} if the field
+	 *         is not indexed
+	 * @throws OpenemsNamedException on error
+	 */
+	private long getCoverage(Optional<Integer> influxEdgeId, Period period, String field)
+			throws OpenemsNamedException {
+		String key = coverageKey(influxEdgeId, period, field);
+		Long result = this.coverage.get(key);
+		if (result != null) {
+			return result;
+		}
+		result = NOT_INDEXED;
+		StringBuilder query = new StringBuilder("SELECT first(\"") //
+				.append(field) //
+				.append("\") FROM ") //
+				.append(MEASUREMENT) //
+				.append(" WHERE ");
+		this.appendTags(query, influxEdgeId, period.tag, SNAPSHOT_FIRST);
+		QueryResult queryResult = this.influxConnector.executeQuery(query.toString());
+		for (Result r : queryResult.getResults()) {
+			if (r.getSeries() == null) {
+				continue;
+			}
+			for (Series series : r.getSeries()) {
+				for (List<Object> values : series.getValues()) {
+					result = (long) ((Double) values.get(0)).doubleValue() / 1000;
+				}
+			}
+		}
+		this.coverage.put(key, result);
+		return result;
+	}
+
+	private static String coverageKey(Optional<Integer> influxEdgeId, Period period, String field) {
+		return influxEdgeId.orElse(0) + "|" + period.tag + "|" + field;
+	}
+
+	/**
+	 * Queries the first or last value of the fields within one Segment.
+	 *
+	 * @param influxEdgeId the Edge-ID
+	 * @param segment      the Segment
+	 * @param fields       the fields
+	 * @param snapshot     'first' or 'last'
+	 * @return a map of field to value; fields without a value are missing
+	 * @throws OpenemsNamedException on error
+	 */
+	private Map<String, Number> querySegment(Optional<Integer> influxEdgeId, Segment segment, Set<String> fields,
+			String snapshot) throws OpenemsNamedException {
+		Map<String, Number> result = new HashMap<>();
+		if (fields.isEmpty()) {
+			return result;
+		}
+		List<String> fieldList = new ArrayList<>(fields);
+		StringBuilder query = new StringBuilder("SELECT ");
+		for (int i = 0; i < fieldList.size(); i++) {
+			if (i > 0) {
+				query.append(", ");
+			}
+			String field = fieldList.get(i);
+			query.append(snapshot).append("(\"").append(field).append("\") AS \"").append(field).append("\"");
+		}
+		query.append(" FROM ");
+		switch (segment.source) {
+		case RAW:
+			query.append(InfluxConnector.MEASUREMENT).append(" WHERE ");
+			if (influxEdgeId.isPresent()) {
+				query.append(InfluxConstants.TAG + " = '" + influxEdgeId.get() + "' AND ");
+			}
+			break;
+		case HOUR:
+			query.append(MEASUREMENT).append(" WHERE ");
+			this.appendTags(query, influxEdgeId, Period.HOUR.tag, snapshot);
+			query.append(" AND ");
+			break;
+		case DAY:
+			query.append(MEASUREMENT).append(" WHERE ");
+			this.appendTags(query, influxEdgeId, Period.DAY.tag, snapshot);
+			query.append(" AND ");
+			break;
+		}
+		query.append("time >= ").append(segment.start).append("s AND time < ").append(segment.end).append("s");
+
+		QueryResult queryResult = this.influxConnector.executeQuery(query.toString());
+		for (Result r : queryResult.getResults()) {
+			if (r.getSeries() == null) {
+				continue;
+			}
+			for (Series series : r.getSeries()) {
+				List<String> columns = series.getColumns();
+				for (List<Object> values : series.getValues()) {
+					for (int i = 1; i < columns.size(); i++) {
+						Object value = values.get(i);
+						if (value instanceof Number) {
+							result.put(columns.get(i), (Number) value);
+						}
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	private void appendTags(StringBuilder query, Optional<Integer> influxEdgeId, String period, String snapshot) {
+		if (influxEdgeId.isPresent()) {
+			query.append(InfluxConstants.TAG + " = '" + influxEdgeId.get() + "' AND ");
+		}
+		query.append(TAG_PERIOD + " = '" + period + "' AND " + TAG_SNAPSHOT + " = '" + snapshot + "'");
+	}
+}
@@ -0,0 +1,173 @@
+package io.openems.shared.influxdb;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.influxdb.dto.QueryResult;
+import org.influxdb.dto.QueryResult.Result;
+import org.influxdb.dto.QueryResult.Series;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonPrimitive;
+
+import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
+import io.openems.common.types.ChannelAddress;
+
+/**
+ * Holds the result of a historic data query in columns.
+ *
+ * <p>
+ * Rows are the 'GROUP BY time()' intervals between From-Date and To-Date, so
+ * the row of a timestamp is calculated instead of looked up. Each Channel is
+ * one array of doubles; missing values are NaN. Chunks of a query can be added
+ * in any order and in parallel, as long as every cell is written by only one
+ * chunk.
+ */
+public class HistoricDataTable {
+
+	private final long start;
+	private final int resolution;
+	private final int rows;
+	private final List<ChannelAddress> channels;
+	private final Map<String, Integer> channelIndex = new HashMap<>();
+	private final double[][] values;
+
+	/**
+	 * @param from       the From-Date in epoch seconds
+	 * @param to         the To-Date in epoch seconds
+	 * @param resolution the resolution in seconds
+	 * @param channels   the Channels
+	 */
+	public HistoricDataTable(long from, long to, int resolution, List<ChannelAddress> channels) {
+		this.start = Math.floorDiv(from, resolution) * resolution;
+		this.resolution = resolution;
+		this.rows = (int) Math.max(0, (to - this.start + resolution - 1) / resolution);
+		this.channels = new ArrayList<>(channels);
+		this.values = new double[channels.size()][];
+		for (int i = 0; i < this.channels.size(); i++) {
+			this.channelIndex.put(this.channels.get(i).toString(), i);
+			this.values[i] = new double[this.rows];
+			Arrays.fill(this.values[i], Double.NaN);
+		}
+	}
+
+	/**
+	 * Gets the number of rows.
+	 *
+	 * @return the number of rows
+	 */
+	public int getRows() {
+		return this.rows;
+	}
+
+	/**
+	 * Gets the start of the first row.
+	 *
+	 * @return the timestamp in epoch seconds
+	 */
+	public long getStart() {
+		return this.start;
+	}
+
+	/**
+	 * Sets a value.
+	 *
+	 * @param timestamp the timestamp in epoch seconds
+	 * @param channel   the Channel-Address string
+	 * @param value     the value
+	 */
+	public void put(long timestamp, String channel, double value) {
+		Integer column = this.channelIndex.get(channel);
+		long row = (timestamp - this.start) / this.resolution;
+		if (column == null || timestamp < this.start || row >= this.rows) {
+			return;
+		}
+		this.values[column][(int) row] = value;
+	}
+
+	/**
+	 * Gets a value.
+	 *
+	 * @param row     the row
+	 * @param channel the Channel-Address
+	 * @return the value; NaN if it is missing
+	 */
+	public double get(int row, ChannelAddress channel) {
+		Integer column = this.channelIndex.get(channel.toString());
+		if (column == null) {
+			return Double.NaN;
+		}
+		return this.values[column][row];
+	}
+
+	/**
+	 * Adds one chunk of a historic data query.
+	 *
+	 * @param queryResult the QueryResult; times either in epoch milliseconds or
+	 *                    as RFC3339 strings
+	 * @throws OpenemsNamedException on error
+	 */
+	public void add(QueryResult queryResult) throws OpenemsNamedException {
+		if (queryResult.getResults() == null) {
+			return;
+		}
+		for (Result result : queryResult.getResults()) {
+			List<Series> seriess = result.getSeries();
+			if (seriess == null) {
+				continue;
+			}
+			for (Series series : seriess) {
+				List<String> columns = series.getColumns();
+				for (List<Object> values : series.getValues()) {
+					long timestamp = HistoricDataTable.parseTimestamp(values.get(0));
+					for (int columnIndex = 1; columnIndex < columns.size(); columnIndex++) {
+						Object value = values.get(columnIndex);
+						if (value instanceof Number) {
+							this.put(timestamp, columns.get(columnIndex), ((Number) value).doubleValue());
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Converts to the format of
+	 * {@link io.openems.common.timedata.CommonTimedataService#queryHistoricData(String, ZonedDateTime, ZonedDateTime, java.util.Set, int)}.
+	 *
+	 * @param zone the time zone of the result
+	 * @return the historic data
+	 */
+	public SortedMap<ZonedDateTime, SortedMap<ChannelAddress, JsonElement>> toSortedMap(ZoneId zone) {
+		SortedMap<ZonedDateTime, SortedMap<ChannelAddress, JsonElement>> result = new TreeMap<>();
+		for (int row = 0; row < this.rows; row++) {
+			SortedMap<ChannelAddress, JsonElement> tableRow = new TreeMap<>();
+			for (int column = 0; column < this.channels.size(); column++) {
+				double value = this.values[column][row];
+				tableRow.put(this.channels.get(column),
+						Double.isNaN(value) ? JsonNull.INSTANCE : new JsonPrimitive(value));
+			}
+			result.put(ZonedDateTime.ofInstant(Instant.ofEpochSecond(this.start + (long) row * this.resolution), zone),
+					tableRow);
+		}
+		return result;
+	}
+
+	private static long parseTimestamp(Object time) {
+		if (time instanceof Number) {
+			// epoch milliseconds
+			return Math.floorDiv(((Number) time).longValue(), 1000);
+		}
+		// chunked queries return RFC3339 strings
+		return Instant.parse(time.toString()).getEpochSecond();
+	}
+}
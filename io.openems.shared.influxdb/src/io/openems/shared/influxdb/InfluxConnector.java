@@ -1,22 +1,34 @@
 package io.openems.shared.influxdb;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiConsumer;
 
 import org.influxdb.BatchOptions;
 import org.influxdb.InfluxDB;
+import org.influxdb.InfluxDB.Cancellable;
 import org.influxdb.InfluxDBException;
 import org.influxdb.InfluxDBFactory;
 import org.influxdb.InfluxDBIOException;
+import org.influxdb.dto.BatchPoints;
 import org.influxdb.dto.Point;
 import org.influxdb.dto.Query;
 import org.influxdb.dto.QueryResult;
@@ -38,6 +50,23 @@ public class InfluxConnector {
 
 	public final static String MEASUREMENT = "data";
 
+	/**
+	 * Maximum number of 'GROUP BY time()' intervals per query.
+	 */
+	protected final static int MAX_ROWS_PER_QUERY = 2_000;
+	/**
+	 * Maximum number of Channels per query.
+	 */
+	protected final static int MAX_CHANNELS_PER_QUERY = 25;
+	/**
+	 * Maximum number of queries that are executed in parallel per connector.
+	 */
+	protected final static int MAX_PARALLEL_QUERIES = 4;
+	/**
+	 * Number of rows per chunk of a chunked response.
+	 */
+	private final static int CHUNK_SIZE = 1_000;
+
 	private final static Logger log = LoggerFactory.getLogger(InfluxConnector.class);
 
 	private final String ip;
@@ -48,6 +77,8 @@ public class InfluxConnector {
 	private final String retentionPolicy;
 	private final boolean isReadOnly;
 	private final BiConsumer<Iterable<Point>, Throwable> onWriteError;
+	private final EnergyIndex energyIndex = new EnergyIndex(this);
+	protected final Semaphore parallelQueries = new Semaphore(MAX_PARALLEL_QUERIES);
 
 	/**
 	 * The Constructor.
@@ -87,7 +118,7 @@ public class InfluxConnector {
 	 * 
 	 * @return
 	 */
-	private InfluxDB getConnection() {
+	protected InfluxDB getConnection() {
 		if (this._influxDB == null) {
 			InfluxDB influxDB = InfluxDBFactory.connect("http://" + this.ip + ":" + this.port, this.username,
 					this.password);
@@ -107,6 +138,7 @@ public class InfluxConnector {
 	}
 
 	public void deactivate() {
+		this.energyIndex.deactivate();
 		if (this._influxDB != null) {
 			this._influxDB.close();
 		}
@@ -152,6 +184,16 @@ public class InfluxConnector {
 			return new TreeMap<ChannelAddress, JsonElement>();
 		}
 
+		// answer energy counters from the energy index where possible
+		Set<ChannelAddress> remainingChannels = new HashSet<>(channels);
+		SortedMap<ChannelAddress, JsonElement> indexResult = this.energyIndex.queryHistoricEnergy(influxEdgeId,
+				fromDate, toDate, remainingChannels);
+		if (remainingChannels.isEmpty()) {
+			InfluxConnector.assertNotAllValuesNull(indexResult);
+			return indexResult;
+		}
+		channels = remainingChannels;
+
 		// Prepare query string
 		StringBuilder b = new StringBuilder("SELECT ");
 		b.append(InfluxConnector.toChannelAddressStringEnergy(channels));
@@ -173,6 +215,8 @@ public class InfluxConnector {
 		// Prepare result
 		SortedMap<ChannelAddress, JsonElement> result = InfluxConnector.convertHistoricEnergyResult(query, queryResult,
 				fromDate.getZone());
+		result.putAll(indexResult);
+		InfluxConnector.assertNotAllValuesNull(result);
 
 		return result;
 	}
@@ -191,31 +235,302 @@ public class InfluxConnector {
 	public SortedMap<ZonedDateTime, SortedMap<ChannelAddress, JsonElement>> queryHistoricData(
 			Optional<Integer> influxEdgeId, ZonedDateTime fromDate, ZonedDateTime toDate, Set<ChannelAddress> channels,
 			int resolution) throws OpenemsNamedException {
-		// Prepare query string
+		return this.queryHistoricData(influxEdgeId, fromDate, toDate, channels, resolution, 0);
+	}
+
+	/**
+	 * Queries historic data and fills missing values with the last observed value
+	 * (last observation carried forward). Use this for data that was written only
+	 * on change.
+	 * 
+	 * @param influxEdgeId the unique, numeric Edge-ID; or Empty to query all Edges
+	 * @param fromDate     the From-Date
+	 * @param toDate       the To-Date
+	 * @param channels     the Channels to query
+	 * @param resolution   the resolution in seconds
+	 * @param fillWindow   the maximum age of a carried forward value in seconds;
+	 *                     0 to disable filling
+	 * @return
+	 * @throws OpenemsException on error
+	 */
+	public SortedMap<ZonedDateTime, SortedMap<ChannelAddress, JsonElement>> queryHistoricData(
+			Optional<Integer> influxEdgeId, ZonedDateTime fromDate, ZonedDateTime toDate, Set<ChannelAddress> channels,
+			int resolution, int fillWindow) throws OpenemsNamedException {
+		// Execute the chunks of the query in parallel and merge them into one table
+		List<ChannelAddress> channelList = new ArrayList<>(channels);
+		HistoricDataTable table = new HistoricDataTable(fromDate.toEpochSecond(), toDate.toEpochSecond(), resolution,
+				channelList);
+		List<String> queries = InfluxConnector.planHistoricDataQueries(influxEdgeId, fromDate.toEpochSecond(),
+				toDate.toEpochSecond(), resolution, channelList, MAX_ROWS_PER_QUERY, MAX_CHANNELS_PER_QUERY);
+		this.executeChunkedQueries(queries, table::add);
+
+		// Prepare result
+		SortedMap<ZonedDateTime, SortedMap<ChannelAddress, JsonElement>> result = table
+				.toSortedMap(fromDate.getZone());
+
+		if (fillWindow > 0) {
+			Map<ChannelAddress, JsonElement> initialValues = this.queryLastValues(influxEdgeId, fromDate, channels,
+					fillWindow);
+			InfluxConnector.fillPrevious(result, initialValues, fromDate, fillWindow);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Splits a Historic-Data query into queries for at most 'maxRows' intervals
+	 * and 'maxChannels' Channels each. Time chunks are aligned to the resolution,
+	 * so every 'GROUP BY time()' interval is answered by exactly one query.
+	 * 
+	 * @param influxEdgeId the unique, numeric Edge-ID; or Empty to query all Edges
+	 * @param from         the From-Date in epoch seconds
+	 * @param to           the To-Date in epoch seconds
+	 * @param resolution   the resolution in seconds
+	 * @param channels     the Channels to query
+	 * @param maxRows      the maximum number of intervals per query
+	 * @param maxChannels  the maximum number of Channels per query
+	 * @return the queries
+	 * @throws OpenemsException on error
+	 */
+	protected static List<String> planHistoricDataQueries(Optional<Integer> influxEdgeId, long from, long to,
+			int resolution, List<ChannelAddress> channels, int maxRows, int maxChannels) throws OpenemsException {
+		List<String> result = new ArrayList<>();
+		long chunkLength = (long) resolution * Math.max(1, maxRows);
+		long start = Math.floorDiv(from, resolution) * resolution;
+		for (int i = 0; i < channels.size(); i += Math.max(1, maxChannels)) {
+			Set<ChannelAddress> channelGroup = new LinkedHashSet<>(
+					channels.subList(i, Math.min(channels.size(), i + Math.max(1, maxChannels))));
+			for (long chunkStart = start; chunkStart < to; chunkStart += chunkLength) {
+				long chunkEnd = Math.min(to, chunkStart + chunkLength);
+				StringBuilder query = new StringBuilder("SELECT ");
+				query.append(InfluxConnector.toChannelAddressStringData(channelGroup));
+				query.append(" FROM data WHERE ");
+				if (influxEdgeId.isPresent()) {
+					query.append(InfluxConstants.TAG + " = '" + influxEdgeId.get() + "' AND ");
+				}
+				if (chunkStart == start) {
+					query.append("time > ");
+					query.append(String.valueOf(from));
+				} else {
+					query.append("time >= ");
+					query.append(String.valueOf(chunkStart));
+				}
+				query.append("s");
+				query.append(" AND time < ");
+				query.append(String.valueOf(chunkEnd));
+				query.append("s");
+				query.append(" GROUP BY time(");
+				query.append(resolution);
+				query.append("s) fill(null)");
+				result.add(query.toString());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Executes the queries with chunked responses; at most
+	 * {@link #MAX_PARALLEL_QUERIES} at the same time. Blocks until all queries are
+	 * finished or one of them failed; the remaining queries are then cancelled.
+	 * 
+	 * @param queries  the queries
+	 * @param consumer receives every chunk of every response. Called in parallel
+	 * @throws OpenemsException on error
+	 */
+	private void executeChunkedQueries(List<String> queries, ChunkConsumer consumer) throws OpenemsException {
+		InfluxDB influxDB = this.getConnection();
+		List<ChunkedQuery> chunkedQueries = new ArrayList<>(queries.size());
+		CompletableFuture<Void> failed = new CompletableFuture<>();
+		try {
+			for (String query : queries) {
+				this.parallelQueries.acquire();
+				if (failed.isDone()) {
+					this.parallelQueries.release();
+					break;
+				}
+				ChunkedQuery chunkedQuery = new ChunkedQuery(query, consumer);
+				chunkedQuery.future.whenComplete((r, e) -> {
+					if (e != null) {
+						failed.completeExceptionally(e);
+					}
+				});
+				chunkedQueries.add(chunkedQuery);
+				chunkedQuery.execute(influxDB);
+			}
+			// wait for all queries; fail on the first error
+			List<CompletableFuture<Void>> futures = new ArrayList<>(chunkedQueries.size());
+			for (ChunkedQuery chunkedQuery : chunkedQueries) {
+				futures.add(chunkedQuery.future);
+			}
+			CompletableFuture.anyOf(CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])), failed)
+					.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			chunkedQueries.forEach(ChunkedQuery::cancel);
+			throw new OpenemsException("Interrupted while waiting for InfluxDB queries");
+		} catch (ExecutionException e) {
+			chunkedQueries.forEach(ChunkedQuery::cancel);
+			Throwable cause = e.getCause();
+			if (cause instanceof OpenemsException) {
+				throw (OpenemsException) cause;
+			}
+			throw new OpenemsException("InfluxDB query runtime error. Error: " + cause.getMessage());
+		}
+	}
+
+	/**
+	 * One query with a chunked response. Holds a permit of
+	 * {@link InfluxConnector#parallelQueries} until the response ended, failed or
+	 * was cancelled.
+	 */
+	private class ChunkedQuery {
+		private final String query;
+		private final ChunkConsumer consumer;
+		private final CompletableFuture<Void> future = new CompletableFuture<>();
+		private final AtomicBoolean isReleased = new AtomicBoolean(false);
+		private volatile boolean isCancelled = false;
+
+		private ChunkedQuery(String query, ChunkConsumer consumer) {
+			this.query = query;
+			this.consumer = consumer;
+		}
+
+		private void execute(InfluxDB influxDB) {
+			try {
+				influxDB.query(new Query(this.query, InfluxConnector.this.database), CHUNK_SIZE, this::onNext, () -> {
+					this.future.complete(null);
+					this.release();
+				}, e -> {
+					this.future.completeExceptionally(e);
+					this.release();
+				});
+			} catch (RuntimeException e) {
+				this.future.completeExceptionally(e);
+				this.release();
+			}
+		}
+
+		private void onNext(Cancellable cancellable, QueryResult queryResult) {
+			if (this.isCancelled) {
+				this.stop(cancellable);
+				return;
+			}
+			if (queryResult.hasError()) {
+				// the end of a chunked response is signalled as error 'DONE'; 'onComplete'
+				// follows
+				if (!"DONE".equals(queryResult.getError())) {
+					this.future.completeExceptionally(new OpenemsException(
+							"InfluxDB query error. Query: " + this.query + ", Error: " + queryResult.getError()));
+					this.stop(cancellable);
+				}
+				return;
+			}
+			try {
+				this.consumer.accept(queryResult);
+			} catch (Throwable e) {
+				this.future.completeExceptionally(e);
+				this.stop(cancellable);
+			}
+		}
+
+		/**
+		 * Cancels the query at its next chunk; the result is not needed anymore.
+		 */
+		private void cancel() {
+			this.isCancelled = true;
+			this.future.cancel(false);
+		}
+
+		private void stop(Cancellable cancellable) {
+			// neither 'onComplete' nor 'onFailure' is called for a cancelled query
+			cancellable.cancel();
+			this.release();
+		}
+
+		private void release() {
+			if (this.isReleased.compareAndSet(false, true)) {
+				InfluxConnector.this.parallelQueries.release();
+			}
+		}
+	}
+
+	@FunctionalInterface
+	private interface ChunkConsumer {
+		public void accept(QueryResult queryResult) throws OpenemsNamedException;
+	}
+
+	/**
+	 * Queries the last values within the fill window before the given date.
+	 * 
+	 * @param influxEdgeId the unique, numeric Edge-ID; or Empty to query all Edges
+	 * @param date         the date
+	 * @param channels     the Channels to query
+	 * @param fillWindow   the fill window in seconds
+	 * @return a map of the last values
+	 * @throws OpenemsNamedException on error
+	 */
+	private Map<ChannelAddress, JsonElement> queryLastValues(Optional<Integer> influxEdgeId, ZonedDateTime date,
+			Set<ChannelAddress> channels, int fillWindow) throws OpenemsNamedException {
 		StringBuilder query = new StringBuilder("SELECT ");
-		query.append(InfluxConnector.toChannelAddressStringData(channels));
+		query.append(InfluxConnector.toChannelAddressStringLast(channels));
 		query.append(" FROM data WHERE ");
 		if (influxEdgeId.isPresent()) {
 			query.append(InfluxConstants.TAG + " = '" + influxEdgeId.get() + "' AND ");
 		}
 		query.append("time > ");
-		query.append(String.valueOf(fromDate.toEpochSecond()));
+		query.append(String.valueOf(date.toEpochSecond() - fillWindow));
 		query.append("s");
-		query.append(" AND time < ");
-		query.append(String.valueOf(toDate.toEpochSecond()));
+		query.append(" AND time <= ");
+		query.append(String.valueOf(date.toEpochSecond()));
 		query.append("s");
-		query.append(" GROUP BY time(");
-		query.append(resolution);
-		query.append("s) fill(null)");
 
-		// Execute query
 		QueryResult queryResult = this.executeQuery(query.toString());
+		Map<ChannelAddress, JsonElement> result = new HashMap<>();
+		// the timestamp of a query with multiple selectors is meaningless
+		for (SortedMap<ChannelAddress, JsonElement> row : InfluxConnector
+				.convertHistoricDataQueryResult(queryResult, date.getZone()).values()) {
+			result.putAll(row);
+		}
+		return result;
+	}
 
-		// Prepare result
-		SortedMap<ZonedDateTime, SortedMap<ChannelAddress, JsonElement>> result = InfluxConnector
-				.convertHistoricDataQueryResult(queryResult, fromDate.getZone());
+	/**
+	 * Fills null values with the last non-null value of the same Channel, if that
+	 * is not older than the fill window.
+	 * 
+	 * @param table            the result of a Historic-Data query; modified in
+	 *                         place
+	 * @param initialValues    the values observed before the first row
+	 * @param initialTimestamp the timestamp of the initial values
+	 * @param fillWindow       the fill window in seconds
+	 */
+	protected static void fillPrevious(SortedMap<ZonedDateTime, SortedMap<ChannelAddress, JsonElement>> table,
+			Map<ChannelAddress, JsonElement> initialValues, ZonedDateTime initialTimestamp, int fillWindow) {
+		Map<ChannelAddress, JsonElement> lastValues = new HashMap<>();
+		Map<ChannelAddress, ZonedDateTime> lastTimestamps = new HashMap<>();
+		for (Entry<ChannelAddress, JsonElement> entry : initialValues.entrySet()) {
+			if (entry.getValue() != null && !entry.getValue().isJsonNull()) {
+				lastValues.put(entry.getKey(), entry.getValue());
+				lastTimestamps.put(entry.getKey(), initialTimestamp);
+			}
+		}
 
-		return result;
+		for (Entry<ZonedDateTime, SortedMap<ChannelAddress, JsonElement>> row : table.entrySet()) {
+			ZonedDateTime timestamp = row.getKey();
+			for (Entry<ChannelAddress, JsonElement> cell : row.getValue().entrySet()) {
+				ChannelAddress channel = cell.getKey();
+				if (!cell.getValue().isJsonNull()) {
+					lastValues.put(channel, cell.getValue());
+					lastTimestamps.put(channel, timestamp);
+					continue;
+				}
+				JsonElement lastValue = lastValues.get(channel);
+				if (lastValue != null
+						&& Duration.between(lastTimestamps.get(channel), timestamp).getSeconds() <= fillWindow) {
+					cell.setValue(lastValue);
+				}
+			}
+		}
 	}
 
 	/**
@@ -320,21 +635,22 @@ public class InfluxConnector {
 			}
 		}
 
-		{
-			// Check if all values are null
-			boolean areAllValuesNull = true;
-			for (JsonElement value : map.values()) {
-				if (!value.isJsonNull()) {
-					areAllValuesNull = false;
-					break;
-				}
-			}
-			if (areAllValuesNull) {
-				throw new OpenemsException("Energy values are not available");
+		return map;
+	}
+
+	/**
+	 * Checks if all values are null.
+	 * 
+	 * @param map the result of a Historic-Energy query
+	 * @throws OpenemsException if all values are null
+	 */
+	private static void assertNotAllValuesNull(SortedMap<ChannelAddress, JsonElement> map) throws OpenemsException {
+		for (JsonElement value : map.values()) {
+			if (!value.isJsonNull()) {
+				return;
 			}
 		}
-
-		return map;
+		throw new OpenemsException("Energy values are not available");
 	}
 
 	/**
@@ -351,6 +667,14 @@ public class InfluxConnector {
 		return String.join(", ", channelAddresses);
 	}
 
+	protected static String toChannelAddressStringLast(Set<ChannelAddress> channels) throws OpenemsException {
+		ArrayList<String> channelAddresses = new ArrayList<>();
+		for (ChannelAddress channel : channels) {
+			channelAddresses.add("LAST(\"" + channel.toString() + "\") AS \"" + channel.toString() + "\"");
+		}
+		return String.join(", ", channelAddresses);
+	}
+
 	protected static String toChannelAddressStringEnergy(Set<ChannelAddress> channels) throws OpenemsException {
 		ArrayList<String> channelAddresses = new ArrayList<>();
 		for (ChannelAddress channel : channels) {
@@ -360,6 +684,45 @@ public class InfluxConnector {
 		return String.join(", ", channelAddresses);
 	}
 
+	/**
+	 * Updates the energy index with a cumulative energy counter value. Call this
+	 * in addition to {@link #write(Point)} for every written value.
+	 * 
+	 * @param influxEdgeId the unique, numeric Edge-ID; or Empty
+	 * @param timestamp    the timestamp in milliseconds
+	 * @param field        the field name, i.e. the Channel-Address
+	 * @param value        the value; ignored if it is not a number or the Channel
+	 *                     is not an energy counter
+	 * @throws OpenemsException on error
+	 */
+	public void updateEnergyIndex(Optional<Integer> influxEdgeId, long timestamp, String field, Object value)
+			throws OpenemsException {
+		if (this.isReadOnly || !(value instanceof Number) || !EnergyIndex.isIndexed(field)) {
+			return;
+		}
+		this.energyIndex.update(influxEdgeId, timestamp, field, (Number) value);
+	}
+
+	/**
+	 * Writes the Points to InfluxDB in one request. In contrast to
+	 * {@link #write(Point)} this method blocks until the Points are written.
+	 * 
+	 * @param points the InfluxDB Points
+	 * @throws InfluxDBException on error; see
+	 *                           {@link InfluxDBException#isRetryWorth()}
+	 */
+	public void write(List<Point> points) throws InfluxDBException {
+		if (this.isReadOnly) {
+			log.info("Read-Only-Mode is activated. Not writing [" + points.size() + "] points");
+			return;
+		}
+		BatchPoints batchPoints = BatchPoints.database(this.database) //
+				.retentionPolicy(this.retentionPolicy) //
+				.points(points) //
+				.build();
+		this.getConnection().write(batchPoints);
+	}
+
 	/**
 	 * Actually write the Point to InfluxDB.
 	 * 
@@ -0,0 +1,294 @@
+package io.openems.shared.influxdb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.influxdb.InfluxDBIOException;
+import org.influxdb.dto.Point;
+import org.influxdb.dto.QueryResult;
+import org.influxdb.dto.QueryResult.Result;
+import org.influxdb.dto.QueryResult.Series;
+import org.junit.Test;
+
+import io.openems.common.types.ChannelAddress;
+import io.openems.shared.influxdb.EnergyIndex.Segment;
+
+public class EnergyIndexTest {
+
+	private static final long HOUR = 3_600;
+	private static final long DAY = 86_400;
+
+	private static final Optional<Integer> EDGE = Optional.of(1);
+	private static final String FIELD = "ess0/ActiveChargeEnergy";
+
+	/**
+	 * Records writes and queries; answers 'first' queries with 90 and 'last'
+	 * queries with 100.
+	 */
+	private static class DummyInfluxConnector extends InfluxConnector {
+		private final List<String> points = new ArrayList<>();
+		private final List<String> queries = new ArrayList<>();
+		private boolean hasData = true;
+		private int failingQueries = 0;
+
+		private DummyInfluxConnector() {
+			super("localhost", 8086, "", "", "db", "autogen", false, (points, throwable) -> {
+			});
+		}
+
+		@Override
+		public void write(Point point) {
+			this.points.add(point.lineProtocol());
+		}
+
+		@Override
+		public QueryResult executeQuery(String query) {
+			this.queries.add(query);
+			if (this.failingQueries > 0) {
+				this.failingQueries--;
+				throw new InfluxDBIOException(new IOException("unavailable"));
+			}
+			Series series = new Series();
+			series.setColumns(Arrays.asList("time", FIELD));
+			series.setValues(Collections.singletonList(Arrays.asList(0d, query.contains("first(") ? 90 : 100)));
+			Result result = new Result();
+			result.setSeries(this.hasData ? Collections.singletonList(series) : null);
+			QueryResult queryResult = new QueryResult();
+			queryResult.setResults(Collections.singletonList(result));
+			return queryResult;
+		}
+	}
+
+	/**
+	 * Executes tasks only on {@link #runAll()}.
+	 */
+	private static class DeferredExecutorService extends AbstractExecutorService {
+		private final List<Runnable> tasks = new ArrayList<>();
+
+		@Override
+		public void execute(Runnable command) {
+			this.tasks.add(command);
+		}
+
+		private void runAll() {
+			List<Runnable> tasks = new ArrayList<>(this.tasks);
+			this.tasks.clear();
+			tasks.forEach(Runnable::run);
+		}
+
+		@Override
+		public void shutdown() {
+		}
+
+		@Override
+		public List<Runnable> shutdownNow() {
+			return new ArrayList<>(this.tasks);
+		}
+
+		@Override
+		public boolean isShutdown() {
+			return false;
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return false;
+		}
+
+		@Override
+		public boolean awaitTermination(long timeout, TimeUnit unit) {
+			return true;
+		}
+	}
+
+	private static class TestClock extends Clock {
+		private long millis = 0;
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return Instant.ofEpochMilli(this.millis);
+		}
+	}
+
+	private static String snapshot(String period, String snapshot, long value, long start) {
+		return "energy,edge=1,period=" + period + ",snapshot=" + snapshot + " " + FIELD + "=" + value + "i "
+				+ TimeUnit.SECONDS.toNanos(start);
+	}
+
+	@Test
+	public void testUpdateHourRollover() throws Exception {
+		DummyInfluxConnector influx = new DummyInfluxConnector();
+		EnergyIndex index = new EnergyIndex(influx, new DeferredExecutorService(), new TestClock());
+		// first hour was not fully observed
+		index.update(EDGE, HOUR * 1000, FIELD, 100);
+		index.update(EDGE, 2 * HOUR * 1000, FIELD, 110);
+		assertEquals(0, influx.points.size());
+
+		index.update(EDGE, (2 * HOUR + 1800) * 1000, FIELD, 150);
+		index.update(EDGE, 3 * HOUR * 1000, FIELD, 200);
+		assertEquals(Arrays.asList(snapshot("hour", "first", 110, 2 * HOUR), snapshot("hour", "last", 150, 2 * HOUR)),
+				influx.points);
+
+		// late data for a closed hour does not write
+		index.update(EDGE, (2 * HOUR + 10) * 1000, FIELD, 120);
+		assertEquals(2, influx.points.size());
+		assertEquals(0, influx.queries.size());
+	}
+
+	@Test
+	public void testUpdateDayRollover() throws Exception {
+		DummyInfluxConnector influx = new DummyInfluxConnector();
+		EnergyIndex index = new EnergyIndex(influx, new DeferredExecutorService(), new TestClock());
+		index.update(EDGE, (DAY + HOUR) * 1000, FIELD, 100);
+		index.update(EDGE, 2 * DAY * 1000, FIELD, 110);
+		index.update(EDGE, (3 * DAY - 1) * 1000, FIELD, 500);
+		influx.points.clear();
+
+		index.update(EDGE, 3 * DAY * 1000, FIELD, 510);
+		assertTrue(influx.points.contains(snapshot("day", "first", 110, 2 * DAY)));
+		assertTrue(influx.points.contains(snapshot("day", "last", 500, 2 * DAY)));
+		assertTrue(influx.points.contains(snapshot("hour", "last", 500, 3 * DAY - HOUR)));
+	}
+
+	@Test
+	public void testDirtyHourIsResolvedAsynchronously() throws Exception {
+		DummyInfluxConnector influx = new DummyInfluxConnector();
+		DeferredExecutorService executor = new DeferredExecutorService();
+		TestClock clock = new TestClock();
+		EnergyIndex index = new EnergyIndex(influx, executor, clock);
+		index.update(EDGE, HOUR * 1000, FIELD, 100);
+		index.update(EDGE, 2 * HOUR * 1000, FIELD, 110);
+
+		// resolved only after the delay
+		index.update(EDGE, 3 * HOUR * 1000, FIELD, 120);
+		assertEquals(0, executor.tasks.size());
+		clock.millis += 61_000;
+		index.update(EDGE, 4 * HOUR * 1000, FIELD, 130);
+		assertEquals(1, executor.tasks.size());
+
+		// update does not query
+		assertEquals(0, influx.queries.size());
+		influx.points.clear();
+		executor.runAll();
+		assertEquals(2, influx.queries.size());
+		assertTrue(influx.queries.get(0).contains("FROM data WHERE edge = '1' AND time >= " + HOUR + "s AND time < "
+				+ 2 * HOUR + "s"));
+		assertEquals(Arrays.asList(snapshot("hour", "first", 90, HOUR), snapshot("hour", "last", 100, HOUR)),
+				influx.points);
+	}
+
+	@Test
+	public void testFailedResolveIsRetried() throws Exception {
+		DummyInfluxConnector influx = new DummyInfluxConnector();
+		DeferredExecutorService executor = new DeferredExecutorService();
+		TestClock clock = new TestClock();
+		EnergyIndex index = new EnergyIndex(influx, executor, clock);
+		index.update(EDGE, HOUR * 1000, FIELD, 100);
+		index.update(EDGE, 2 * HOUR * 1000, FIELD, 110);
+		clock.millis += 61_000;
+		index.update(EDGE, 3 * HOUR * 1000, FIELD, 120);
+		assertEquals(1, executor.tasks.size());
+
+		// InfluxDB is not available
+		influx.failingQueries = 1;
+		influx.points.clear();
+		executor.runAll();
+		assertTrue(influx.points.isEmpty());
+
+		// the hour is dirty again, but retried only after a delay
+		index.update(EDGE, 4 * HOUR * 1000, FIELD, 130);
+		assertEquals(0, executor.tasks.size());
+		clock.millis += 121_000;
+		index.update(EDGE, 5 * HOUR * 1000, FIELD, 140);
+		assertEquals(1, executor.tasks.size());
+		influx.points.clear();
+		executor.runAll();
+		assertEquals(Arrays.asList(snapshot("hour", "first", 90, HOUR), snapshot("hour", "last", 100, HOUR)),
+				influx.points);
+	}
+
+	@Test
+	public void testCoverageOfFieldWithoutSnapshots() throws Exception {
+		DummyInfluxConnector influx = new DummyInfluxConnector();
+		influx.hasData = false;
+		EnergyIndex index = new EnergyIndex(influx, new DeferredExecutorService(), new TestClock());
+		ZonedDateTime from = ZonedDateTime.of(2019, 6, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+		ZonedDateTime to = from.plusDays(1);
+		ChannelAddress channel = ChannelAddress.fromString(FIELD);
+
+		Set<ChannelAddress> channels = new HashSet<>(Collections.singleton(channel));
+		assertTrue(index.queryHistoricEnergy(EDGE, from, to, channels).isEmpty());
+		assertTrue(channels.contains(channel));
+		assertEquals(1, influx.queries.size());
+
+		// the negative result is cached
+		index.queryHistoricEnergy(EDGE, from, to, channels);
+		assertEquals(1, influx.queries.size());
+
+		// ...until the first snapshot of the field is written
+		index.update(EDGE, 0, FIELD, 100);
+		index.update(EDGE, HOUR * 1000, FIELD, 110);
+		index.update(EDGE, 2 * HOUR * 1000, FIELD, 120);
+		index.queryHistoricEnergy(EDGE, from, to, channels);
+		assertEquals(2, influx.queries.size());
+	}
+
+	@Test
+	public void testPlanShortRange() {
+		List<Segment> segments = EnergyIndex.plan(100, 200, 0);
+		assertEquals("[RAW[100-200)]", segments.toString());
+	}
+
+	@Test
+	public void testPlanHours() {
+		List<Segment> segments = EnergyIndex.plan(HOUR - 10, 3 * HOUR + 10, 0);
+		assertEquals("[RAW[3590-3600), HOUR[3600-10800), RAW[10800-10810)]", segments.toString());
+	}
+
+	@Test
+	public void testPlanDays() {
+		long from = 10 * DAY - 2 * HOUR - 5;
+		long to = 20 * DAY + 3 * HOUR + 5;
+		List<Segment> segments = EnergyIndex.plan(from, to, 0);
+		assertEquals(5, segments.size());
+		assertEquals("RAW[" + from + "-" + (from + 5) + ")", segments.get(0).toString());
+		assertEquals("HOUR[" + (from + 5) + "-" + 10 * DAY + ")", segments.get(1).toString());
+		assertEquals("DAY[" + 10 * DAY + "-" + 20 * DAY + ")", segments.get(2).toString());
+		assertEquals("HOUR[" + 20 * DAY + "-" + (to - 5) + ")", segments.get(3).toString());
+		assertEquals("RAW[" + (to - 5) + "-" + to + ")", segments.get(4).toString());
+	}
+
+	@Test
+	public void testPlanDayCoverage() {
+		// days before coverage are answered from hourly snapshots
+		List<Segment> segments = EnergyIndex.plan(10 * DAY, 20 * DAY, 15 * DAY);
+		assertEquals("[HOUR[864000-1296000), DAY[1296000-1728000)]", segments.toString());
+	}
+
+}
@@ -0,0 +1,75 @@
+package io.openems.shared.influxdb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SortedMap;
+
+import org.influxdb.dto.QueryResult;
+import org.junit.Test;
+
+import com.google.gson.JsonElement;
+
+import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
+import io.openems.common.types.ChannelAddress;
+
+public class HistoricDataTableTest {
+
+	private static final ChannelAddress SOC = new ChannelAddress("ess0", "Soc");
+	private static final ChannelAddress POWER = new ChannelAddress("meter0", "ActivePower");
+
+	private static QueryResult chunk(String channel, Object[]... rows) {
+		QueryResult.Series series = new QueryResult.Series();
+		series.setName("data");
+		series.setColumns(Arrays.asList("time", channel));
+		QueryResult.Result result = new QueryResult.Result();
+		result.setSeries(Arrays.asList(series));
+		series.setValues(new ArrayList<>());
+		for (Object[] row : rows) {
+			series.getValues().add(Arrays.asList(row));
+		}
+		QueryResult queryResult = new QueryResult();
+		queryResult.setResults(Arrays.asList(result));
+		return queryResult;
+	}
+
+	@Test
+	public void testMergeChunks() throws OpenemsNamedException {
+		// From-Date is not aligned to the resolution
+		HistoricDataTable table = new HistoricDataTable(1030, 1400, 100, Arrays.asList(SOC, POWER));
+		assertEquals(1000, table.getStart());
+		assertEquals(4, table.getRows());
+
+		// chunks in any order; times as RFC3339 string or epoch milliseconds
+		table.add(chunk("meter0/ActivePower", new Object[] { 1_300_000D, 500D }));
+		table.add(chunk("ess0/Soc", new Object[] { "1970-01-01T00:16:40Z", 50D },
+				new Object[] { "1970-01-01T00:18:20Z", null }));
+		table.add(chunk("ess0/Soc", new Object[] { "1970-01-01T00:20:00Z", 52.5D },
+				new Object[] { "1970-01-01T00:21:40Z", 53D }));
+
+		SortedMap<ZonedDateTime, SortedMap<ChannelAddress, JsonElement>> result = table.toSortedMap(ZoneOffset.UTC);
+		assertEquals(4, result.size());
+		ZonedDateTime start = ZonedDateTime.of(1970, 1, 1, 0, 16, 40, 0, ZoneOffset.UTC);
+		assertEquals(start, result.firstKey());
+		assertEquals(50D, result.get(start).get(SOC).getAsDouble(), 0);
+		assertTrue(result.get(start).get(POWER).isJsonNull());
+		assertTrue(result.get(start.plusSeconds(100)).get(SOC).isJsonNull());
+		assertEquals(52.5D, result.get(start.plusSeconds(200)).get(SOC).getAsDouble(), 0);
+		assertEquals(500D, result.get(start.plusSeconds(300)).get(POWER).getAsDouble(), 0);
+	}
+
+	@Test
+	public void testIgnoresValuesOutsideOfTable() {
+		HistoricDataTable table = new HistoricDataTable(1000, 1200, 100, Arrays.asList(SOC));
+		table.put(900, "ess0/Soc", 1);
+		table.put(1200, "ess0/Soc", 1);
+		table.put(1000, "ess0/Unknown", 1);
+		table.put(1100, "ess0/Soc", 2);
+		assertTrue(Double.isNaN(table.get(0, SOC)));
+		assertEquals(2, table.get(1, SOC), 0);
+	}
+}
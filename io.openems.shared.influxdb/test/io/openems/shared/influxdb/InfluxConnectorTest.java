@@ -0,0 +1,154 @@
+package io.openems.shared.influxdb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Proxy;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+
+import org.influxdb.InfluxDB;
+import org.influxdb.InfluxDB.Cancellable;
+import org.influxdb.dto.QueryResult;
+import org.junit.Test;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonPrimitive;
+
+import io.openems.common.exceptions.OpenemsError.OpenemsNamedException;
+import io.openems.common.exceptions.OpenemsException;
+import io.openems.common.types.ChannelAddress;
+
+public class InfluxConnectorTest {
+
+	private static final ChannelAddress SOC = new ChannelAddress("ess0", "Soc");
+	private static final ChannelAddress POWER = new ChannelAddress("meter0", "ActivePower");
+	private static final ZonedDateTime START = ZonedDateTime.of(2019, 6, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+	private static SortedMap<ZonedDateTime, SortedMap<ChannelAddress, JsonElement>> table(Integer... socs) {
+		SortedMap<ZonedDateTime, SortedMap<ChannelAddress, JsonElement>> table = new TreeMap<>();
+		for (int i = 0; i < socs.length; i++) {
+			SortedMap<ChannelAddress, JsonElement> row = new TreeMap<>();
+			row.put(SOC, socs[i] == null ? JsonNull.INSTANCE : new JsonPrimitive(socs[i]));
+			row.put(POWER, i == 0 ? new JsonPrimitive(1000) : JsonNull.INSTANCE);
+			table.put(START.plusMinutes(i), row);
+		}
+		return table;
+	}
+
+	@Test
+	public void testFillPrevious() {
+		SortedMap<ZonedDateTime, SortedMap<ChannelAddress, JsonElement>> table = table(null, 50, null, null, 51,
+				null);
+		Map<ChannelAddress, JsonElement> initialValues = new HashMap<>();
+		initialValues.put(SOC, new JsonPrimitive(49));
+
+		InfluxConnector.fillPrevious(table, initialValues, START, 120);
+
+		assertEquals(49, table.get(START).get(SOC).getAsInt());
+		assertEquals(50, table.get(START.plusMinutes(2)).get(SOC).getAsInt());
+		assertEquals(50, table.get(START.plusMinutes(3)).get(SOC).getAsInt());
+		assertEquals(51, table.get(START.plusMinutes(5)).get(SOC).getAsInt());
+
+		// carried forward only within the fill window
+		assertEquals(1000, table.get(START.plusMinutes(2)).get(POWER).getAsInt());
+		assertTrue(table.get(START.plusMinutes(3)).get(POWER).isJsonNull());
+	}
+
+	@Test
+	public void testFillPreviousWithoutInitialValues() {
+		SortedMap<ZonedDateTime, SortedMap<ChannelAddress, JsonElement>> table = table(null, 50);
+		InfluxConnector.fillPrevious(table, new HashMap<>(), START, 300);
+		assertTrue(table.get(START).get(SOC).isJsonNull());
+		assertEquals(50, table.get(START.plusMinutes(1)).get(SOC).getAsInt());
+	}
+
+	@Test
+	public void testPlanHistoricDataQueries() throws OpenemsException {
+		List<ChannelAddress> channels = Arrays.asList(SOC, new ChannelAddress("ess0", "ActivePower"),
+				new ChannelAddress("meter0", "ActivePower"));
+		// 30 intervals, 10 per query; 3 Channels, 2 per query
+		List<String> queries = InfluxConnector.planHistoricDataQueries(Optional.of(5), 1010, 1010 + 30 * 100, 100,
+				channels, 10, 2);
+		assertEquals(8, queries.size());
+		assertEquals("SELECT MEAN(\"ess0/Soc\") AS \"ess0/Soc\", MEAN(\"ess0/ActivePower\") AS \"ess0/ActivePower\" " //
+				+ "FROM data WHERE " + InfluxConstants.TAG + " = '5' AND time > 1010s AND time < 2000s " //
+				+ "GROUP BY time(100s) fill(null)", queries.get(0));
+		assertTrue(queries.get(1).contains("time >= 2000s AND time < 3000s"));
+		assertTrue(queries.get(3).contains("time >= 4000s AND time < 4010s"));
+		assertTrue(queries.get(4).startsWith("SELECT MEAN(\"meter0/ActivePower\")"));
+	}
+
+	private static class DummyCancellable implements Cancellable {
+		private final AtomicBoolean isCanceled = new AtomicBoolean(false);
+
+		@Override
+		public void cancel() {
+			this.isCanceled.set(true);
+		}
+
+		@Override
+		public boolean isCanceled() {
+			return this.isCanceled.get();
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testFailedQueryCancelsOthers() throws Exception {
+		// the first query fails immediately, the second one is still streaming
+		List<BiConsumer<Cancellable, QueryResult>> streaming = Collections.synchronizedList(new ArrayList<>());
+		InfluxDB influxDB = (InfluxDB) Proxy.newProxyInstance(InfluxDB.class.getClassLoader(),
+				new Class<?>[] { InfluxDB.class }, (proxy, method, args) -> {
+					if (!method.getName().equals("query") || args.length != 5) {
+						throw new UnsupportedOperationException(method.getName());
+					}
+					BiConsumer<Cancellable, QueryResult> onNext = (BiConsumer<Cancellable, QueryResult>) args[2];
+					if (streaming.isEmpty()) {
+						streaming.add(onNext);
+					} else {
+						QueryResult error = new QueryResult();
+						error.setError("failed");
+						onNext.accept(new DummyCancellable(), error);
+					}
+					return null;
+				});
+		InfluxConnector influx = new InfluxConnector("localhost", 8086, "", "", "db", "autogen", false,
+				(points, throwable) -> {
+				}) {
+			@Override
+			protected InfluxDB getConnection() {
+				return influxDB;
+			}
+		};
+
+		try {
+			// two chunks of one second resolution
+			influx.queryHistoricData(Optional.empty(), START,
+					START.plusSeconds(2 * InfluxConnector.MAX_ROWS_PER_QUERY), Collections.singleton(SOC), 1);
+			fail();
+		} catch (OpenemsNamedException e) {
+			// expected
+		}
+
+		// the permit of the streaming query is kept until it is actually cancelled
+		assertEquals(InfluxConnector.MAX_PARALLEL_QUERIES - 1, influx.parallelQueries.availablePermits());
+		DummyCancellable cancellable = new DummyCancellable();
+		streaming.get(0).accept(cancellable, new QueryResult());
+		assertTrue(cancellable.isCanceled());
+		assertEquals(InfluxConnector.MAX_PARALLEL_QUERIES, influx.parallelQueries.availablePermits());
+	}
+}